@@ -44,8 +44,10 @@ import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.broker.broker.AccessControlFactory;
 import org.apache.pinot.broker.broker.BrokerServerBuilder;
 import org.apache.pinot.broker.queryquota.HelixExternalViewBasedQueryQuotaManager;
+import org.apache.pinot.broker.requesthandler.BaseBrokerRequestHandler;
 import org.apache.pinot.broker.requesthandler.BrokerRequestHandler;
 import org.apache.pinot.broker.requesthandler.ConnectionPoolBrokerRequestHandler;
+import org.apache.pinot.broker.requesthandler.SingleConnectionBrokerRequestHandler;
 import org.apache.pinot.broker.routing.HelixExternalViewBasedRouting;
 import org.apache.pinot.common.Utils;
 import org.apache.pinot.common.config.TagNameUtils;
@@ -181,6 +183,14 @@ public class HelixBrokerStarter {
     }
     BrokerMetrics brokerMetrics = _brokerServerBuilder.getBrokerMetrics();
     _helixExternalViewBasedRouting.setBrokerMetrics(brokerMetrics);
+    if (brokerRequestHandler instanceof BaseBrokerRequestHandler) {
+      _helixExternalViewBasedRouting
+          .setBrokerResultCache(((BaseBrokerRequestHandler) brokerRequestHandler).getBrokerResultCache());
+    }
+    if (brokerRequestHandler instanceof SingleConnectionBrokerRequestHandler) {
+      _helixExternalViewBasedRouting.setAdaptiveServerSelector(
+          ((SingleConnectionBrokerRequestHandler) brokerRequestHandler).getAdaptiveServerSelector());
+    }
     _helixExternalViewBasedQueryQuotaManager.setBrokerMetrics(brokerMetrics);
     _brokerServerBuilder.start();
 
@@ -26,6 +26,7 @@ import org.apache.helix.messaging.handling.MessageHandler;
 import org.apache.helix.messaging.handling.MessageHandlerFactory;
 import org.apache.helix.model.Message;
 import org.apache.pinot.broker.routing.HelixExternalViewBasedRouting;
+import org.apache.pinot.common.config.TableNameBuilder;
 import org.apache.pinot.common.messages.TimeboundaryRefreshMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,9 @@ import org.slf4j.LoggerFactory;
 // first put into a request map first. The map dedups requests by their tables thus multiple requests for the same
 // table only needs to be executed once. A background thread periodically checks the map and performs refreshing for
 // all the tables in the map.
+// The message is sent on segment refresh, so the cached results for the table are also invalidated: once immediately
+// when the message is received, and once again with the time boundary refresh, by which time the servers have most
+// likely reloaded the refreshed segment.
 public class TimeboundaryRefreshMessageHandlerFactory implements MessageHandlerFactory {
   private static final Logger LOGGER = LoggerFactory.getLogger(TimeboundaryRefreshMessageHandlerFactory.class);
   private final HelixExternalViewBasedRouting _helixExternalViewBasedRouting;
@@ -99,6 +103,7 @@ public class TimeboundaryRefreshMessageHandlerFactory implements MessageHandlerF
       HelixTaskResult result = new HelixTaskResult();
       // Put the segment refresh request to a request queue instead of executing immediately. This will reduce the
       // burst of requests when a large number of segments are updated in a short time span.
+      _helixExternalViewBasedRouting.invalidateCachedResults(_tableNameWithType);
       _tablesToRefreshmap.put(_tableNameWithType, Boolean.TRUE);
       result.setSuccess(true);
       return result;
@@ -127,8 +132,14 @@ public class TimeboundaryRefreshMessageHandlerFactory implements MessageHandlerF
           Iterator<String> tableItr = tables.iterator();
           while (tableItr.hasNext()) {
             String table = tableItr.next();
-            _logger.info("Update time boundary info for table {} ", table);
-            _helixExternalViewBasedRouting.updateTimeBoundary(table);
+            // Only hybrid tables have the time boundary
+            String realtimeTableName =
+                TableNameBuilder.REALTIME.tableNameWithType(TableNameBuilder.extractRawTableName(table));
+            if (_helixExternalViewBasedRouting.routingTableExists(realtimeTableName)) {
+              _logger.info("Update time boundary info for table {} ", table);
+              _helixExternalViewBasedRouting.updateTimeBoundary(table);
+            }
+            _helixExternalViewBasedRouting.invalidateCachedResults(table);
             // Remove the table name from the underlying hashmap.
             tableItr.remove();
           }
@@ -0,0 +1,306 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.apache.pinot.common.config.TableNameBuilder;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.ServerInstance;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableFactory;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code BrokerResultCache} caches the query results for the OFFLINE tables on the broker side.
+ * <ul>
+ *   <li>
+ *     For OFFLINE only query, the whole {@link BrokerResponseNative} is cached.
+ *   </li>
+ *   <li>
+ *     For hybrid query, only the OFFLINE half (the {@link DataTable}s returned from the OFFLINE servers) is cached,
+ *     and the REALTIME half is always queried and reduced together with the cached OFFLINE half. The OFFLINE request
+ *     already contains the time boundary filter, so the cached result is automatically skipped when the time boundary
+ *     moves.
+ *   </li>
+ * </ul>
+ * <p>The cache is keyed on the compiled and optimized {@link BrokerRequest}. The OFFLINE segments only change when
+ * the external view of the table changes or a segment is refreshed, so all the entries for a table are invalidated
+ * through {@link #invalidateTable(String)} on these events. The entries are weighted by their estimated size, and are
+ * evicted in LRU order once the total size exceeds the configured limit.
+ * <p>Each table has a generation which is bumped on every invalidation. The key captures the generation when it is
+ * created (before routing the query), and the result is only cached if the generation is unchanged, so that a query
+ * routed before the invalidation cannot put its stale result back into the cache.
+ */
+@ThreadSafe
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  // Rough estimation of the memory overhead of each entry
+  private static final int ENTRY_OVERHEAD_IN_BYTES = 256;
+
+  private final Cache<Key, CachedResult> _cache;
+  // Map from table name to the generation of the table, which is bumped on each invalidation
+  // NOTE: the generation is never removed for a table so that it keeps increasing when the table is re-added
+  private final Map<String, Long> _tableGenerations = new ConcurrentHashMap<>();
+  private final AtomicLong _nextGeneration = new AtomicLong();
+  private final BrokerMetrics _brokerMetrics;
+
+  public BrokerResultCache(long maxSizeInBytes, long ttlMs, BrokerMetrics brokerMetrics) {
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeInBytes)
+        .weigher((Key key, CachedResult value) -> key.getSizeInBytes() + value._sizeInBytes)
+        .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS).build();
+    _brokerMetrics = brokerMetrics;
+  }
+
+  /**
+   * Creates the broker result cache based on the broker config, or returns {@code null} if the cache is disabled.
+   */
+  @Nullable
+  public static BrokerResultCache create(Configuration config, BrokerMetrics brokerMetrics) {
+    long maxSizeInBytes = config.getLong(Broker.CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_BYTES,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_BYTES);
+    if (maxSizeInBytes <= 0) {
+      return null;
+    }
+    long ttlMs = config.getLong(Broker.CONFIG_OF_BROKER_RESULT_CACHE_TTL_MS, Broker.DEFAULT_BROKER_RESULT_CACHE_TTL_MS);
+    LOGGER.info("Initializing broker result cache with max size: {} bytes, TTL: {}ms", maxSizeInBytes, ttlMs);
+    return new BrokerResultCache(maxSizeInBytes, ttlMs, brokerMetrics);
+  }
+
+  /**
+   * Returns the cache key for the given OFFLINE broker request, or {@code null} if the request is not cacheable. The
+   * key captures the current generation of the table, so it should be created before routing the query.
+   *
+   * @param offlineBrokerRequest Compiled and optimized broker request for the OFFLINE table
+   * @param isHybrid Whether the request is the OFFLINE half of a hybrid query
+   */
+  @Nullable
+  public Key getKey(BrokerRequest offlineBrokerRequest, boolean isHybrid) {
+    if (offlineBrokerRequest.isEnableTrace()) {
+      return null;
+    }
+    byte[] requestBytes;
+    try {
+      // NOTE: TSerializer is not thread-safe
+      requestBytes = new TSerializer(new TCompactProtocol.Factory()).serialize(offlineBrokerRequest);
+    } catch (TException e) {
+      LOGGER.warn("Caught exception while serializing broker request: {}, skipping the cache", offlineBrokerRequest,
+          e);
+      return null;
+    }
+    String tableName = offlineBrokerRequest.getQuerySource().getTableName();
+    return new Key(tableName, getTableGeneration(tableName), isHybrid, requestBytes);
+  }
+
+  /**
+   * Returns a copy of the cached broker response for the OFFLINE only query, or {@code null} if it is not cached.
+   */
+  @Nullable
+  public BrokerResponseNative getBrokerResponse(Key key) {
+    CachedResult cachedResult = getCachedResult(key);
+    if (cachedResult == null) {
+      return null;
+    }
+    try {
+      return BrokerResponseNative.fromJsonString(cachedResult._brokerResponseJson);
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while deserializing cached broker response, invalidating the entry", e);
+      _cache.invalidate(key);
+      return null;
+    }
+  }
+
+  /**
+   * Caches the broker response for the OFFLINE only query. Responses with exceptions or partial server responses
+   * should not be cached.
+   */
+  public void putBrokerResponse(Key key, BrokerResponseNative brokerResponse) {
+    String brokerResponseJson;
+    try {
+      brokerResponseJson = brokerResponse.toJsonString();
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while serializing broker response, skipping the cache", e);
+      return;
+    }
+    put(key, new CachedResult(brokerResponseJson, null, 2L * brokerResponseJson.length()));
+  }
+
+  /**
+   * Returns the cached data tables from the OFFLINE servers for the hybrid query, or {@code null} if they are not
+   * cached. The data tables are stored serialized and a fresh copy is returned for each query because the data tables
+   * are not thread-safe for concurrent reads.
+   */
+  @Nullable
+  public Map<ServerInstance, DataTable> getOfflineDataTables(Key key) {
+    CachedResult cachedResult = getCachedResult(key);
+    if (cachedResult == null) {
+      return null;
+    }
+    Map<ServerInstance, DataTable> offlineDataTables = new HashMap<>();
+    try {
+      for (Map.Entry<ServerInstance, byte[]> entry : cachedResult._offlineDataTables.entrySet()) {
+        offlineDataTables.put(entry.getKey(), DataTableFactory.getDataTable(entry.getValue()));
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while deserializing cached data tables, invalidating the entry", e);
+      _cache.invalidate(key);
+      return null;
+    }
+    return offlineDataTables;
+  }
+
+  /**
+   * Caches the data tables from the OFFLINE servers for the hybrid query. Should only be invoked when all the OFFLINE
+   * servers responded without exception.
+   */
+  public void putOfflineDataTables(Key key, Map<ServerInstance, DataTable> offlineDataTables) {
+    Map<ServerInstance, byte[]> serializedDataTables = new HashMap<>();
+    long sizeInBytes = 0;
+    try {
+      for (Map.Entry<ServerInstance, DataTable> entry : offlineDataTables.entrySet()) {
+        byte[] bytes = entry.getValue().toBytes();
+        serializedDataTables.put(entry.getKey(), bytes);
+        sizeInBytes += bytes.length;
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while serializing data tables, skipping the cache", e);
+      return;
+    }
+    put(key, new CachedResult(null, serializedDataTables, sizeInBytes));
+  }
+
+  /**
+   * Caches the result only if the table has not been invalidated since the key was created.
+   */
+  private void put(Key key, CachedResult cachedResult) {
+    if (key._generation != getTableGeneration(key._tableName)) {
+      return;
+    }
+    _cache.put(key, cachedResult);
+    // Re-check the generation in case the table got invalidated concurrently
+    if (key._generation != getTableGeneration(key._tableName)) {
+      _cache.invalidate(key);
+    }
+  }
+
+  /**
+   * Invalidates all the cached results for the given table. Should be invoked when the external view of the table
+   * changes or a segment of the table is refreshed.
+   */
+  public void invalidateTable(String tableNameWithType) {
+    // Bump the generation before removing the entries so that the in-flight queries won't cache their results
+    _tableGenerations.put(tableNameWithType, _nextGeneration.incrementAndGet());
+    _cache.asMap().keySet().removeIf(key -> key._tableName.equals(tableNameWithType));
+  }
+
+  private long getTableGeneration(String tableNameWithType) {
+    return _tableGenerations.getOrDefault(tableNameWithType, 0L);
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  @Nullable
+  private CachedResult getCachedResult(Key key) {
+    CachedResult cachedResult = _cache.getIfPresent(key);
+    String rawTableName = TableNameBuilder.extractRawTableName(key._tableName);
+    _brokerMetrics.addMeteredTableValue(rawTableName,
+        cachedResult != null ? BrokerMeter.RESULT_CACHE_HITS : BrokerMeter.RESULT_CACHE_MISSES, 1L);
+    return cachedResult;
+  }
+
+  /**
+   * Key of the cache: (OFFLINE table name, table generation, whether the request is the OFFLINE half of a hybrid
+   * query, serialized broker request).
+   */
+  public static final class Key {
+    private final String _tableName;
+    private final long _generation;
+    private final boolean _isHybrid;
+    private final byte[] _requestBytes;
+    private final int _hashCode;
+
+    private Key(String tableName, long generation, boolean isHybrid, byte[] requestBytes) {
+      _tableName = tableName;
+      _generation = generation;
+      _isHybrid = isHybrid;
+      _requestBytes = requestBytes;
+      _hashCode = 31 * (31 * (31 * tableName.hashCode() + Long.hashCode(generation)) + Boolean.hashCode(isHybrid))
+          + Arrays.hashCode(requestBytes);
+    }
+
+    private int getSizeInBytes() {
+      return 2 * _tableName.length() + _requestBytes.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _hashCode == that._hashCode && _generation == that._generation && _isHybrid == that._isHybrid
+          && _tableName.equals(that._tableName) && Arrays.equals(_requestBytes, that._requestBytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+
+  private static class CachedResult {
+    // For OFFLINE only query
+    final String _brokerResponseJson;
+    // For hybrid query
+    final Map<ServerInstance, byte[]> _offlineDataTables;
+    final int _sizeInBytes;
+
+    CachedResult(@Nullable String brokerResponseJson, @Nullable Map<ServerInstance, byte[]> offlineDataTables,
+        long sizeInBytes) {
+      _brokerResponseJson = brokerResponseJson;
+      _offlineDataTables = offlineDataTables;
+      _sizeInBytes = (int) Math.min(ENTRY_OVERHEAD_IN_BYTES + sizeInBytes, Integer.MAX_VALUE);
+    }
+  }
+}
@@ -36,6 +36,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.broker.api.RequestStatistics;
 import org.apache.pinot.broker.api.RequesterIdentity;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.cache.BrokerResultCache;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.RoutingTable;
 import org.apache.pinot.broker.routing.RoutingTableLookupRequest;
@@ -73,10 +74,12 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
   protected final AccessControlFactory _accessControlFactory;
   protected final QueryQuotaManager _queryQuotaManager;
   protected final BrokerMetrics _brokerMetrics;
+  // Null if the result cache is disabled
+  protected final BrokerResultCache _brokerResultCache;
 
   protected final AtomicLong _requestIdGenerator = new AtomicLong();
   protected final BrokerRequestOptimizer _brokerRequestOptimizer = new BrokerRequestOptimizer();
-  protected final BrokerReduceService _brokerReduceService = new BrokerReduceService();
+  protected final BrokerReduceService _brokerReduceService;
 
   protected final String _brokerId;
   protected final long _brokerTimeoutMs;
@@ -96,6 +99,10 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     _accessControlFactory = accessControlFactory;
     _queryQuotaManager = queryQuotaManager;
     _brokerMetrics = brokerMetrics;
+    _brokerResultCache = BrokerResultCache.create(config, brokerMetrics);
+    _brokerReduceService =
+        new BrokerReduceService(config.getInt(CONFIG_OF_BROKER_REDUCE_NUM_THREADS, DEFAULT_BROKER_REDUCE_NUM_THREADS),
+            config.getInt(CONFIG_OF_BROKER_REDUCE_MAX_THREADS_PER_QUERY, DEFAULT_BROKER_REDUCE_MAX_THREADS_PER_QUERY));
 
     _brokerId = config.getString(CONFIG_OF_BROKER_ID, getDefaultBrokerId());
     _brokerTimeoutMs = config.getLong(CONFIG_OF_BROKER_TIMEOUT_MS, DEFAULT_BROKER_TIMEOUT_MS);
@@ -112,6 +119,11 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
             _brokerId, _brokerTimeoutMs, _queryResponseLimit, _queryLogLength, _queryLogRateLimiter.getRate());
   }
 
+  @Nullable
+  public BrokerResultCache getBrokerResultCache() {
+    return _brokerResultCache;
+  }
+
   private String getDefaultBrokerId() {
     try {
       return InetAddress.getLocalHost().getHostName();
@@ -254,43 +266,75 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       requestStatistics.setFanoutType(RequestStatistics.FanoutType.REALTIME);
     }
 
-    // Calculate routing table for the query
-    long routingStartTimeNs = System.nanoTime();
-    Map<String, List<String>> offlineRoutingTable = null;
-    Map<String, List<String>> realtimeRoutingTable = null;
-    if (offlineBrokerRequest != null) {
-      offlineRoutingTable = _routingTable.getRoutingTable(new RoutingTableLookupRequest(offlineBrokerRequest));
-      if (offlineRoutingTable.isEmpty()) {
-        LOGGER.debug("No OFFLINE server found for request {}: {}", requestId, query);
-        offlineBrokerRequest = null;
-        offlineRoutingTable = null;
-      }
-    }
-    if (realtimeBrokerRequest != null) {
-      realtimeRoutingTable = _routingTable.getRoutingTable(new RoutingTableLookupRequest(realtimeBrokerRequest));
-      if (realtimeRoutingTable.isEmpty()) {
-        LOGGER.debug("No REALTIME server found for request {}: {}", requestId, query);
-        realtimeBrokerRequest = null;
-        realtimeRoutingTable = null;
+    // Serve the OFFLINE only query from the result cache if possible
+    // NOTE: the cache key must be created before routing the query so that the result is not cached if the table gets
+    //       invalidated while the query is being processed
+    BrokerResultCache.Key resultCacheKey = null;
+    BrokerResultCache.Key offlineResultCacheKey = null;
+    BrokerResponse brokerResponse = null;
+    if (_brokerResultCache != null && offlineBrokerRequest != null) {
+      if (realtimeBrokerRequest == null) {
+        resultCacheKey = _brokerResultCache.getKey(offlineBrokerRequest, false);
+        if (resultCacheKey != null) {
+          brokerResponse = _brokerResultCache.getBrokerResponse(resultCacheKey);
+        }
+      } else {
+        offlineResultCacheKey = _brokerResultCache.getKey(offlineBrokerRequest, true);
       }
     }
-    if (offlineBrokerRequest == null && realtimeBrokerRequest == null) {
-      LOGGER.info("No server found for request {}: {}", requestId, query);
-      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.NO_SERVER_FOUND_EXCEPTIONS, 1);
-      return BrokerResponseNative.EMPTY_RESULT;
-    }
-    long routingEndTimeNs = System.nanoTime();
-    _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_ROUTING, routingEndTimeNs - routingStartTimeNs);
 
-    // Execute the query
-    long remainingTimeMs = _brokerTimeoutMs - TimeUnit.NANOSECONDS.toMillis(routingEndTimeNs - compilationStartTimeNs);
     ServerStats serverStats = new ServerStats();
-    BrokerResponse brokerResponse =
-        processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
-            realtimeRoutingTable, remainingTimeMs, serverStats, requestStatistics);
-    long executionEndTimeNs = System.nanoTime();
-    _brokerMetrics
-        .addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_EXECUTION, executionEndTimeNs - routingEndTimeNs);
+    long executionEndTimeNs;
+    if (brokerResponse != null) {
+      LOGGER.debug("Served request {} from the result cache: {}", requestId, query);
+      executionEndTimeNs = System.nanoTime();
+    } else {
+      // Calculate routing table for the query
+      long routingStartTimeNs = System.nanoTime();
+      Map<String, List<String>> offlineRoutingTable = null;
+      Map<String, List<String>> realtimeRoutingTable = null;
+      if (offlineBrokerRequest != null) {
+        offlineRoutingTable = _routingTable.getRoutingTable(new RoutingTableLookupRequest(offlineBrokerRequest));
+        if (offlineRoutingTable.isEmpty()) {
+          LOGGER.debug("No OFFLINE server found for request {}: {}", requestId, query);
+          offlineBrokerRequest = null;
+          offlineRoutingTable = null;
+        }
+      }
+      if (realtimeBrokerRequest != null) {
+        realtimeRoutingTable = _routingTable.getRoutingTable(new RoutingTableLookupRequest(realtimeBrokerRequest));
+        if (realtimeRoutingTable.isEmpty()) {
+          LOGGER.debug("No REALTIME server found for request {}: {}", requestId, query);
+          realtimeBrokerRequest = null;
+          realtimeRoutingTable = null;
+        }
+      }
+      if (offlineBrokerRequest == null && realtimeBrokerRequest == null) {
+        LOGGER.info("No server found for request {}: {}", requestId, query);
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.NO_SERVER_FOUND_EXCEPTIONS, 1);
+        return BrokerResponseNative.EMPTY_RESULT;
+      }
+      long routingEndTimeNs = System.nanoTime();
+      _brokerMetrics
+          .addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_ROUTING, routingEndTimeNs - routingStartTimeNs);
+
+      // Execute the query
+      long remainingTimeMs =
+          _brokerTimeoutMs - TimeUnit.NANOSECONDS.toMillis(routingEndTimeNs - compilationStartTimeNs);
+      brokerResponse = processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable,
+          realtimeBrokerRequest, realtimeRoutingTable, offlineResultCacheKey, remainingTimeMs, serverStats,
+          requestStatistics);
+      executionEndTimeNs = System.nanoTime();
+      _brokerMetrics
+          .addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_EXECUTION, executionEndTimeNs - routingEndTimeNs);
+
+      // Only cache the complete response without exception
+      if (resultCacheKey != null && brokerResponse instanceof BrokerResponseNative
+          && brokerResponse.getExceptionsSize() == 0
+          && brokerResponse.getNumServersResponded() == brokerResponse.getNumServersQueried()) {
+        _brokerResultCache.putBrokerResponse(resultCacheKey, (BrokerResponseNative) brokerResponse);
+      }
+    }
 
     // Track number of queries with number of groups limit reached
     if (brokerResponse.isNumGroupsLimitReached()) {
@@ -374,6 +418,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
    * <ul>
    *   <li>Value for 'TOP' for aggregation group-by query <= configured value</li>
    *   <li>Value for 'LIMIT' for selection query <= configured value</li>
+   *   <li>Value for 'partialResponseTimeoutMs' query option is a non-negative long</li>
+   *   <li>Value for 'partialResponseMinServerFraction' query option is a double within [0, 1]</li>
    * </ul>
    */
   private void validateRequest(BrokerRequest brokerRequest) {
@@ -392,6 +438,37 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
             "Value for 'LIMIT' (" + limit + ") exceeds maximum allowed value of " + _queryResponseLimit);
       }
     }
+    Map<String, String> queryOptions = brokerRequest.getQueryOptions();
+    if (queryOptions != null) {
+      String partialResponseTimeoutMsString = queryOptions.get(Request.QueryOptionKey.PARTIAL_RESPONSE_TIMEOUT_MS);
+      if (partialResponseTimeoutMsString != null) {
+        long partialResponseTimeoutMs;
+        try {
+          partialResponseTimeoutMs = Long.parseLong(partialResponseTimeoutMsString);
+        } catch (NumberFormatException e) {
+          partialResponseTimeoutMs = -1L;
+        }
+        if (partialResponseTimeoutMs < 0) {
+          throw new RuntimeException("Value for 'partialResponseTimeoutMs' (" + partialResponseTimeoutMsString
+              + ") is not a non-negative long");
+        }
+      }
+      String partialResponseMinServerFractionString =
+          queryOptions.get(Request.QueryOptionKey.PARTIAL_RESPONSE_MIN_SERVER_FRACTION);
+      if (partialResponseMinServerFractionString != null) {
+        double partialResponseMinServerFraction;
+        try {
+          partialResponseMinServerFraction = Double.parseDouble(partialResponseMinServerFractionString);
+        } catch (NumberFormatException e) {
+          partialResponseMinServerFraction = Double.NaN;
+        }
+        // NOTE: NaN fails both the comparisons
+        if (!(partialResponseMinServerFraction >= 0 && partialResponseMinServerFraction <= 1)) {
+          throw new RuntimeException("Value for 'partialResponseMinServerFraction' ("
+              + partialResponseMinServerFractionString + ") is not a double within [0, 1]");
+        }
+      }
+    }
   }
 
   /**
@@ -479,11 +556,14 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
 
   /**
    * Processes the optimized broker requests for both OFFLINE and REALTIME table.
+   * <p>For hybrid query, {@code offlineResultCacheKey} is the result cache key for the OFFLINE half, or {@code null} if
+   * the result cache is disabled or the request is not cacheable.
    */
   protected abstract BrokerResponse processBrokerRequest(long requestId, BrokerRequest originalBrokerRequest,
       @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<String, List<String>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<String, List<String>> realtimeRoutingTable,
-      long timeoutMs, ServerStats serverStats, RequestStatistics requestStatistics)
+      @Nullable BrokerResultCache.Key offlineResultCacheKey, long timeoutMs, ServerStats serverStats,
+      RequestStatistics requestStatistics)
       throws Exception;
 
   /**
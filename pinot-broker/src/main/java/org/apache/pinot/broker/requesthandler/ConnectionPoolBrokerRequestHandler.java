@@ -36,6 +36,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.configuration.Configuration;
 import org.apache.pinot.broker.api.RequestStatistics;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.cache.BrokerResultCache;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.RoutingTable;
 import org.apache.pinot.broker.routing.TimeBoundaryService;
@@ -127,13 +128,15 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
     _requestSenderPool.shutdown();
     _poolTimeoutExecutor.shutdown();
     _eventLoopGroup.shutdownGracefully();
+    _brokerReduceService.shutDown();
   }
 
   @Override
   protected BrokerResponse processBrokerRequest(long requestId, BrokerRequest originalBrokerRequest,
       @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<String, List<String>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<String, List<String>> realtimeRoutingTable,
-      long timeoutMs, ServerStats serverStats, RequestStatistics requestStatistics)
+      @Nullable BrokerResultCache.Key offlineResultCacheKey, long timeoutMs, ServerStats serverStats,
+      RequestStatistics requestStatistics)
       throws Exception {
     ScatterGatherStats scatterGatherStats = new ScatterGatherStats();
     PhaseTimes phaseTimes = new PhaseTimes();
@@ -18,14 +18,18 @@
  */
 package org.apache.pinot.broker.requesthandler;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.configuration.Configuration;
 import org.apache.pinot.broker.api.RequestStatistics;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.cache.BrokerResultCache;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.RoutingTable;
 import org.apache.pinot.broker.routing.TimeBoundaryService;
@@ -37,10 +41,14 @@ import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.BrokerResponse;
 import org.apache.pinot.common.response.ServerInstance;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.query.reduce.BrokerReduceService;
+import org.apache.pinot.core.transport.AdaptiveServerSelector;
 import org.apache.pinot.core.transport.AsyncQueryResponse;
 import org.apache.pinot.core.transport.QueryRouter;
+import org.apache.pinot.core.transport.RequestHedger;
 import org.apache.pinot.core.transport.Server;
 import org.apache.pinot.core.transport.ServerResponse;
 
@@ -51,13 +59,25 @@ import org.apache.pinot.core.transport.ServerResponse;
  */
 @ThreadSafe
 public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandler {
+  private final AdaptiveServerSelector _adaptiveServerSelector;
   private final QueryRouter _queryRouter;
 
   public SingleConnectionBrokerRequestHandler(Configuration config, RoutingTable routingTable,
       TimeBoundaryService timeBoundaryService, AccessControlFactory accessControlFactory,
       QueryQuotaManager queryQuotaManager, BrokerMetrics brokerMetrics) {
     super(config, routingTable, timeBoundaryService, accessControlFactory, queryQuotaManager, brokerMetrics);
-    _queryRouter = new QueryRouter(_brokerId, brokerMetrics);
+    _adaptiveServerSelector = AdaptiveServerSelector.create(config, brokerMetrics);
+    RequestHedger requestHedger = RequestHedger.create(config, routingTable::getSegmentToServersMap);
+    _queryRouter = new QueryRouter(_brokerId, brokerMetrics, _adaptiveServerSelector, requestHedger);
+  }
+
+  /**
+   * Returns the adaptive server selector fed by the query router, or {@code null} if adaptive server selection is not
+   * enabled.
+   */
+  @Nullable
+  public AdaptiveServerSelector getAdaptiveServerSelector() {
+    return _adaptiveServerSelector;
   }
 
   @Override
@@ -67,55 +87,133 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
   @Override
   public synchronized void shutDown() {
     _queryRouter.shutDown();
+    _brokerReduceService.shutDown();
   }
 
   @Override
   protected BrokerResponse processBrokerRequest(long requestId, BrokerRequest originalBrokerRequest,
       @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<String, List<String>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<String, List<String>> realtimeRoutingTable,
-      long timeoutMs, ServerStats serverStats, RequestStatistics requestStatistics)
+      @Nullable BrokerResultCache.Key offlineResultCacheKey, long timeoutMs, ServerStats serverStats,
+      RequestStatistics requestStatistics)
       throws Exception {
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
 
     String rawTableName = TableNameBuilder.extractRawTableName(originalBrokerRequest.getQuerySource().getTableName());
+
+    // For hybrid query, serve the OFFLINE half from the result cache if possible, and only query the REALTIME half
+    Map<ServerInstance, DataTable> cachedOfflineDataTables = null;
+    if (offlineResultCacheKey != null && offlineBrokerRequest != null && realtimeBrokerRequest != null) {
+      cachedOfflineDataTables = _brokerResultCache.getOfflineDataTables(offlineResultCacheKey);
+      if (cachedOfflineDataTables != null) {
+        offlineBrokerRequest = null;
+        offlineRoutingTable = null;
+      }
+    } else {
+      offlineResultCacheKey = null;
+    }
+
+    // Reduce the data tables incrementally as the servers respond
+    BrokerReduceService.StreamingReducer streamingReducer =
+        _brokerReduceService.startReduce(originalBrokerRequest, _brokerMetrics);
+    int numServersQueried = 0;
+    int numServersResponded = 0;
+    if (cachedOfflineDataTables != null) {
+      for (Map.Entry<ServerInstance, DataTable> entry : cachedOfflineDataTables.entrySet()) {
+        streamingReducer.addDataTable(entry.getKey(), entry.getValue());
+      }
+      numServersQueried += cachedOfflineDataTables.size();
+      numServersResponded += cachedOfflineDataTables.size();
+    }
+
+    // For partial response, stop waiting for the remaining servers after the partial response end time once enough
+    // servers have responded
+    // NOTE: the partial response query options are already validated before processing the request
+    Map<String, String> queryOptions = originalBrokerRequest.getQueryOptions();
+    String partialResponseTimeoutMsString =
+        queryOptions != null ? queryOptions.get(QueryOptionKey.PARTIAL_RESPONSE_TIMEOUT_MS) : null;
+    String partialResponseMinServerFractionString =
+        queryOptions != null ? queryOptions.get(QueryOptionKey.PARTIAL_RESPONSE_MIN_SERVER_FRACTION) : null;
+    boolean partialResponseEnabled =
+        partialResponseTimeoutMsString != null || partialResponseMinServerFractionString != null;
+    long partialResponseEndTimeMs = Long.MAX_VALUE;
+    int partialResponseMinNumServers = 0;
+    if (partialResponseEnabled) {
+      // Without the timeout, return as soon as enough servers have responded
+      partialResponseEndTimeMs = System.currentTimeMillis();
+      if (partialResponseTimeoutMsString != null) {
+        partialResponseEndTimeMs += Long.parseLong(partialResponseTimeoutMsString);
+      }
+      if (partialResponseMinServerFractionString != null) {
+        double minServerFraction = Double.parseDouble(partialResponseMinServerFractionString);
+        int numServersToQuery = (offlineRoutingTable != null ? offlineRoutingTable.size() : 0) + (
+            realtimeRoutingTable != null ? realtimeRoutingTable.size() : 0);
+        partialResponseMinNumServers = (int) Math.ceil(minServerFraction * numServersToQuery);
+      }
+    }
+
     long scatterGatherStartTimeNs = System.nanoTime();
     AsyncQueryResponse asyncQueryResponse = _queryRouter
         .submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
             realtimeRoutingTable, timeoutMs);
-    Map<Server, ServerResponse> response = asyncQueryResponse.getResponse();
-    _brokerMetrics
-        .addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER, System.nanoTime() - scatterGatherStartTimeNs);
-    // TODO Use scatterGatherStats as serverStats
-    serverStats.setServerStats(asyncQueryResponse.getStats());
 
     // TODO: do not convert Server to ServerInstance
-    int numServersQueried = response.size();
     long totalResponseSize = 0;
-    Map<ServerInstance, DataTable> dataTableMap = new HashMap<>(numServersQueried);
-    for (Map.Entry<Server, ServerResponse> entry : response.entrySet()) {
-      ServerResponse serverResponse = entry.getValue();
+    // Data tables from the OFFLINE servers to be cached for hybrid query
+    Map<ServerInstance, DataTable> offlineDataTablesToCache =
+        offlineResultCacheKey != null && cachedOfflineDataTables == null ? new HashMap<>() : null;
+    Set<Server> respondedServers = new HashSet<>();
+    while (true) {
+      long endTimeMs =
+          respondedServers.size() >= partialResponseMinNumServers ? partialResponseEndTimeMs : Long.MAX_VALUE;
+      Server server = asyncQueryResponse.waitForNextResponse(endTimeMs);
+      if (server == null) {
+        break;
+      }
+      respondedServers.add(server);
+      ServerResponse serverResponse = asyncQueryResponse.getServerResponse(server);
       DataTable dataTable = serverResponse.getDataTable();
-      if (dataTable != null) {
-        Server server = entry.getKey();
-        if (server.getTableType() == TableType.OFFLINE) {
-          dataTableMap.put(new ServerInstance(server.getHostName(), server.getPort(), 0), dataTable);
-        } else {
-          dataTableMap.put(new ServerInstance(server.getHostName(), server.getPort(), 1), dataTable);
+      ServerInstance serverInstance;
+      if (server.getTableType() == TableType.OFFLINE) {
+        serverInstance = new ServerInstance(server.getHostName(), server.getPort(), 0);
+        if (offlineDataTablesToCache != null) {
+          offlineDataTablesToCache.put(serverInstance, dataTable);
         }
-        totalResponseSize += serverResponse.getResponseSize();
+      } else {
+        serverInstance = new ServerInstance(server.getHostName(), server.getPort(), 1);
       }
+      streamingReducer.addDataTable(serverInstance, dataTable);
+      numServersResponded++;
+      totalResponseSize += serverResponse.getResponseSize();
     }
-    int numServersResponded = dataTableMap.size();
+    Map<Server, ServerResponse> response =
+        partialResponseEnabled ? asyncQueryResponse.getPartialResponse() : asyncQueryResponse.getResponse();
+    long reduceTimeNsDuringScatterGather = streamingReducer.getReduceTimeNs();
+    _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER,
+        System.nanoTime() - scatterGatherStartTimeNs - reduceTimeNsDuringScatterGather);
+    // TODO Use scatterGatherStats as serverStats
+    serverStats.setServerStats(asyncQueryResponse.getStats());
+    numServersQueried += response.size();
 
-    long reduceStartTimeNs = System.nanoTime();
-    BrokerResponseNative brokerResponse =
-        _brokerReduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, _brokerMetrics);
-    final long reduceTimeNanos = System.nanoTime() - reduceStartTimeNs;
+    BrokerResponseNative brokerResponse = streamingReducer.finish();
+    long reduceTimeNanos = streamingReducer.getReduceTimeNs();
     requestStatistics.setReduceTimeNanos(reduceTimeNanos);
     _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REDUCE, reduceTimeNanos);
 
+    // NOTE: only cache the data tables after the reduce is finished because the data tables are not thread-safe
+    if (offlineDataTablesToCache != null && offlineDataTablesToCache.size() == offlineRoutingTable.size()
+        && !hasException(offlineDataTablesToCache)) {
+      // Only cache the OFFLINE half when all the OFFLINE servers responded without exception
+      _brokerResultCache.putOfflineDataTables(offlineResultCacheKey, offlineDataTablesToCache);
+    }
+
     brokerResponse.setNumServersQueried(numServersQueried);
     brokerResponse.setNumServersResponded(numServersResponded);
+    if (respondedServers.size() < response.size()) {
+      brokerResponse.setPartialResponse(true);
+      brokerResponse.setMissingSegments(
+          getMissingSegments(response.keySet(), respondedServers, offlineRoutingTable, realtimeRoutingTable));
+    }
 
     if (brokerResponse.getExceptionsSize() > 0) {
       _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PROCESSING_EXCEPTIONS, 1);
@@ -127,4 +225,37 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
 
     return brokerResponse;
   }
+
+  /**
+   * Returns the segments on the servers queried but not responded.
+   */
+  private static List<String> getMissingSegments(Set<Server> serversQueried, Set<Server> respondedServers,
+      @Nullable Map<String, List<String>> offlineRoutingTable,
+      @Nullable Map<String, List<String>> realtimeRoutingTable) {
+    List<String> missingSegments = new ArrayList<>();
+    for (Server server : serversQueried) {
+      if (!respondedServers.contains(server)) {
+        Map<String, List<String>> routingTable =
+            server.getTableType() == TableType.OFFLINE ? offlineRoutingTable : realtimeRoutingTable;
+        if (routingTable != null) {
+          List<String> segments = routingTable.get(server.getInstanceName());
+          if (segments != null) {
+            missingSegments.addAll(segments);
+          }
+        }
+      }
+    }
+    return missingSegments;
+  }
+
+  private static boolean hasException(Map<ServerInstance, DataTable> dataTableMap) {
+    for (DataTable dataTable : dataTableMap.values()) {
+      for (String key : dataTable.getMetadata().keySet()) {
+        if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
 }
@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.AccessOption;
 import org.apache.helix.HelixConstants;
@@ -42,6 +43,7 @@ import org.apache.helix.model.ExternalView;
 import org.apache.helix.model.InstanceConfig;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.broker.broker.helix.ClusterChangeHandler;
+import org.apache.pinot.broker.cache.BrokerResultCache;
 import org.apache.pinot.broker.routing.builder.RoutingTableBuilder;
 import org.apache.pinot.broker.routing.selector.SegmentSelector;
 import org.apache.pinot.broker.routing.selector.SegmentSelectorProvider;
@@ -55,6 +57,7 @@ import org.apache.pinot.common.utils.EqualityUtils;
 import org.apache.pinot.common.utils.JsonUtils;
 import org.apache.pinot.common.utils.NetUtil;
 import org.apache.pinot.common.utils.helix.HelixHelper;
+import org.apache.pinot.core.transport.AdaptiveServerSelector;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -85,6 +88,8 @@ public class HelixExternalViewBasedRouting implements ClusterChangeHandler, Rout
   private RoutingTableBuilderFactory _routingTableBuilderFactory;
   private SegmentSelectorProvider _segmentSelectorProvider;
   private BrokerMetrics _brokerMetrics;
+  private BrokerResultCache _brokerResultCache;
+  private AdaptiveServerSelector _adaptiveServerSelector;
 
   public HelixExternalViewBasedRouting(Configuration configuration) {
     _configuration = configuration;
@@ -118,6 +123,13 @@ public class HelixExternalViewBasedRouting implements ClusterChangeHandler, Rout
     return routingTableBuilder.getRoutingTable(request, _segmentSelectorMap.get(tableName));
   }
 
+  @Nullable
+  @Override
+  public Map<String, List<String>> getSegmentToServersMap(String tableNameWithType) {
+    RoutingTableBuilder routingTableBuilder = _routingTableBuilderMap.get(tableNameWithType);
+    return routingTableBuilder != null ? routingTableBuilder.getSegmentToServersMap() : null;
+  }
+
   @Override
   public boolean routingTableExists(String tableName) {
     return _routingTableBuilderMap.containsKey(tableName);
@@ -127,12 +139,29 @@ public class HelixExternalViewBasedRouting implements ClusterChangeHandler, Rout
     _brokerMetrics = brokerMetrics;
   }
 
+  /**
+   * Sets the broker result cache, whose entries for a table are invalidated when the external view of the table
+   * changes.
+   */
+  public void setBrokerResultCache(@Nullable BrokerResultCache brokerResultCache) {
+    _brokerResultCache = brokerResultCache;
+  }
+
+  /**
+   * Sets the adaptive server selector, which is used by the routing table builders to select the server for each
+   * segment at query time.
+   */
+  public void setAdaptiveServerSelector(@Nullable AdaptiveServerSelector adaptiveServerSelector) {
+    _adaptiveServerSelector = adaptiveServerSelector;
+  }
+
   public void markDataResourceOnline(TableConfig tableConfig, ExternalView externalView,
       List<InstanceConfig> instanceConfigList) {
     String tableName = tableConfig.getTableName();
 
     RoutingTableBuilder routingTableBuilder =
         _routingTableBuilderFactory.createRoutingTableBuilder(tableConfig, _brokerMetrics);
+    routingTableBuilder.setAdaptiveServerSelector(_adaptiveServerSelector);
     LOGGER
         .info("Initialized routingTableBuilder: {} for table {}", routingTableBuilder.getClass().getName(), tableName);
     _routingTableBuilderMap.put(tableName, routingTableBuilder);
@@ -251,6 +280,11 @@ public class HelixExternalViewBasedRouting implements ClusterChangeHandler, Rout
     int externalViewRecordVersion = externalView.getRecord().getVersion();
     _lastKnownExternalViewVersionMap.put(tableNameWithType, externalViewRecordVersion);
 
+    // Segments served might have changed, invalidate the cached results
+    if (_brokerResultCache != null) {
+      _brokerResultCache.invalidateTable(tableNameWithType);
+    }
+
     RoutingTableBuilder routingTableBuilder = _routingTableBuilderMap.get(tableNameWithType);
     if (routingTableBuilder == null) {
       //TODO: warn
@@ -359,6 +393,16 @@ public class HelixExternalViewBasedRouting implements ClusterChangeHandler, Rout
     LOGGER.info("Routing table update for table {} completed in {} ms", tableNameWithType, updateTime);
   }
 
+  /**
+   * Invalidates the cached results for the given table. Should be invoked when a segment of the table is refreshed,
+   * which does not change the external view.
+   */
+  public void invalidateCachedResults(String tableNameWithType) {
+    if (_brokerResultCache != null) {
+      _brokerResultCache.invalidateTable(tableNameWithType);
+    }
+  }
+
   public void updateTimeBoundary(String tableName) {
     updateTimeBoundary(tableName, fetchExternalView(tableName));
   }
@@ -400,6 +444,9 @@ public class HelixExternalViewBasedRouting implements ClusterChangeHandler, Rout
     _lastKnownExternalViewVersionMap.remove(tableName);
     _lastKnownInstanceConfigsForTable.remove(tableName);
     _timeBoundaryService.remove(tableName);
+    if (_brokerResultCache != null) {
+      _brokerResultCache.invalidateTable(tableName);
+    }
 
     // Remove table from all instances
     synchronized (_tablesForInstance) {
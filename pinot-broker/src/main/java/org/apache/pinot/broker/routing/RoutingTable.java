@@ -20,6 +20,7 @@ package org.apache.pinot.broker.routing;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 
 /**
@@ -35,6 +36,18 @@ public interface RoutingTable {
    */
   Map<String, List<String>> getRoutingTable(RoutingTableLookupRequest request);
 
+  /**
+   * Get the map from segment to the servers serving it for the given table, which can be used to find other replicas
+   * of the segments.
+   *
+   * @param tableNameWithType Table name with type suffix
+   * @return Map from segment to servers, or null if not available
+   */
+  @Nullable
+  default Map<String, List<String>> getSegmentToServersMap(String tableNameWithType) {
+    return null;
+  }
+
   /**
    * Return whether the routing table for the given table exists.
    *
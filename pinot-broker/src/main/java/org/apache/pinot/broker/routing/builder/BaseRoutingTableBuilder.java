@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.model.ExternalView;
@@ -37,6 +38,7 @@ import org.apache.pinot.common.config.TableConfig;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.utils.CommonConstants;
+import org.apache.pinot.core.transport.AdaptiveServerSelector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,12 +53,14 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
   private BrokerMetrics _brokerMetrics;
   private String _tableName;
   private boolean _enableDynamicComputing;
+  private AdaptiveServerSelector _adaptiveServerSelector;
 
   // Set variable as volatile so all threads can get the up-to-date routing tables
   // Routing tables are used for storing pre-computed routing table
   protected volatile List<Map<String, List<String>>> _routingTables;
 
-  // A mapping of segments to servers is used for dynamic routing table building process
+  // A mapping of segments to servers is used for dynamic routing table building process and for finding other replicas
+  // of the segments (e.g. for hedged requests)
   protected volatile Map<String, List<String>> _segmentToServersMap;
 
   @Override
@@ -76,6 +80,21 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
     }
   }
 
+  @Override
+  public void setAdaptiveServerSelector(@Nullable AdaptiveServerSelector adaptiveServerSelector) {
+    _adaptiveServerSelector = adaptiveServerSelector;
+    if (adaptiveServerSelector != null) {
+      LOGGER.info("Adaptive server selection is enabled for table {}", _tableName);
+    }
+  }
+
+  /**
+   * Returns whether to compute the routing table for each query, which is required by the adaptive server selection.
+   */
+  private boolean isDynamicComputing() {
+    return _enableDynamicComputing || _adaptiveServerSelector != null;
+  }
+
   protected static String getServerWithLeastSegmentsAssigned(List<String> servers,
       Map<String, List<String>> routingTable) {
     Collections.shuffle(servers);
@@ -117,18 +136,16 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
     Map<String, List<String>> segmentToServersMap =
         computeSegmentToServersMapFromExternalView(externalView, instanceConfigs);
 
-    if (_enableDynamicComputing) {
-      // When dynamic computing is enabled, cache the mapping
-      _segmentToServersMap = segmentToServersMap;
-    } else {
-      // Otherwise, we cache the pre-computed routing tables
+    if (!isDynamicComputing()) {
+      // When dynamic computing is not enabled, cache the pre-computed routing tables
       List<Map<String, List<String>>> routingTables = computeRoutingTablesFromSegmentToServersMap(segmentToServersMap);
       _routingTables = routingTables;
     }
+    _segmentToServersMap = segmentToServersMap;
   }
 
   public Map<String, List<String>> getRoutingTable(RoutingTableLookupRequest request, SegmentSelector segmentSelector) {
-    if (_enableDynamicComputing) {
+    if (isDynamicComputing()) {
       // Copy the pointer for snapshot since the pointer for segment to servers map can change at anytime
       Map<String, List<String>> segmentToServersMap = _segmentToServersMap;
 
@@ -143,7 +160,37 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
     }
 
     // Return a pre-computed routing table if we don't use dynamic computing
-    return _routingTables.get(_random.nextInt(_routingTables.size()));
+    Map<String, List<String>> routingTable = _routingTables.get(_random.nextInt(_routingTables.size()));
+    if (segmentSelector != null) {
+      Map<String, List<String>> segmentToServersMap = _segmentToServersMap;
+      Set<String> selectedSegments = segmentSelector.selectSegments(request, segmentToServersMap.keySet());
+      // Only filter the routing table when some segments are not selected
+      if (selectedSegments.size() < segmentToServersMap.size()) {
+        return filterRoutingTable(routingTable, selectedSegments);
+      }
+    }
+    return routingTable;
+  }
+
+  /**
+   * Returns a routing table that only contains the selected segments, and the servers with at least one selected
+   * segment. The pre-computed routing table is kept so that the servers are still picked in a balanced way.
+   */
+  private static Map<String, List<String>> filterRoutingTable(Map<String, List<String>> routingTable,
+      Set<String> selectedSegments) {
+    Map<String, List<String>> filteredRoutingTable = new HashMap<>();
+    for (Map.Entry<String, List<String>> entry : routingTable.entrySet()) {
+      List<String> filteredSegments = new ArrayList<>();
+      for (String segment : entry.getValue()) {
+        if (selectedSegments.contains(segment)) {
+          filteredSegments.add(segment);
+        }
+      }
+      if (!filteredSegments.isEmpty()) {
+        filteredRoutingTable.put(entry.getKey(), filteredSegments);
+      }
+    }
+    return filteredRoutingTable;
   }
 
   @Override
@@ -151,15 +198,24 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
     return _routingTables;
   }
 
+  @Override
+  public Map<String, List<String>> getSegmentToServersMap() {
+    return _segmentToServersMap;
+  }
+
   /**
    * Computes a routing table on-the-fly using a mapping of segment to servers. Because of the performance concern,
-   * the default behavior is to randomly pick a server among available servers for each segment.
+   * the default behavior is to randomly pick a server among available servers for each segment. When adaptive server
+   * selection is enabled, pick the server with the lowest latency and load score instead.
    *
    * @param segmentsToQuery a list of segments that need to be processed for a particular query
    * @return a routing table
    */
   public Map<String, List<String>> computeDynamicRoutingTable(Map<String, List<String>> segmentToServersMap,
       Set<String> segmentsToQuery) {
+    if (_adaptiveServerSelector != null) {
+      return _adaptiveServerSelector.computeRoutingTable(segmentToServersMap, segmentsToQuery);
+    }
     Map<String, List<String>> routingTable = new HashMap<>();
     for (String segmentName : segmentsToQuery) {
       List<String> servers = segmentToServersMap.get(segmentName);
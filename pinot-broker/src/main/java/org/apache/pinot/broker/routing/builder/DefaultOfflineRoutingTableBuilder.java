@@ -22,6 +22,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.model.ExternalView;
@@ -31,6 +32,7 @@ import org.apache.pinot.broker.routing.RoutingTableLookupRequest;
 import org.apache.pinot.broker.routing.selector.SegmentSelector;
 import org.apache.pinot.common.config.TableConfig;
 import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.core.transport.AdaptiveServerSelector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -87,6 +89,12 @@ public class DefaultOfflineRoutingTableBuilder implements RoutingTableBuilder {
     _smallClusterRoutingTableBuilder.init(configuration, tableConfig, propertyStore, brokerMetrics);
   }
 
+  @Override
+  public void setAdaptiveServerSelector(@Nullable AdaptiveServerSelector adaptiveServerSelector) {
+    _largeClusterRoutingTableBuilder.setAdaptiveServerSelector(adaptiveServerSelector);
+    _smallClusterRoutingTableBuilder.setAdaptiveServerSelector(adaptiveServerSelector);
+  }
+
   @Override
   public void computeOnExternalViewChange(String tableName, ExternalView externalView,
       List<InstanceConfig> instanceConfigs) {
@@ -134,4 +142,11 @@ public class DefaultOfflineRoutingTableBuilder implements RoutingTableBuilder {
   public List<Map<String, List<String>>> getRoutingTables() {
     return _routingTableBuilder.getRoutingTables();
   }
+
+  @Nullable
+  @Override
+  public Map<String, List<String>> getSegmentToServersMap() {
+    RoutingTableBuilder routingTableBuilder = _routingTableBuilder;
+    return routingTableBuilder != null ? routingTableBuilder.getSegmentToServersMap() : null;
+  }
 }
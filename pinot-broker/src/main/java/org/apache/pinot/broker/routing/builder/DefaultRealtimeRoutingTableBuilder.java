@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.model.ExternalView;
@@ -32,6 +33,7 @@ import org.apache.pinot.broker.routing.selector.SegmentSelector;
 import org.apache.pinot.common.config.TableConfig;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.utils.SegmentName;
+import org.apache.pinot.core.transport.AdaptiveServerSelector;
 
 
 /**
@@ -52,6 +54,12 @@ public class DefaultRealtimeRoutingTableBuilder implements RoutingTableBuilder {
     _realtimeLLCRoutingTableBuilder.init(configuration, tableConfig, propertyStore, brokerMetrics);
   }
 
+  @Override
+  public void setAdaptiveServerSelector(@Nullable AdaptiveServerSelector adaptiveServerSelector) {
+    _realtimeHLCRoutingTableBuilder.setAdaptiveServerSelector(adaptiveServerSelector);
+    _realtimeLLCRoutingTableBuilder.setAdaptiveServerSelector(adaptiveServerSelector);
+  }
+
   @Override
   public void computeOnExternalViewChange(String tableName, ExternalView externalView,
       List<InstanceConfig> instanceConfigs) {
@@ -114,4 +122,16 @@ public class DefaultRealtimeRoutingTableBuilder implements RoutingTableBuilder {
       return Collections.emptyList();
     }
   }
+
+  @Nullable
+  @Override
+  public Map<String, List<String>> getSegmentToServersMap() {
+    if (_hasLLC) {
+      return _realtimeLLCRoutingTableBuilder.getSegmentToServersMap();
+    } else if (_hasHLC) {
+      return _realtimeHLCRoutingTableBuilder.getSegmentToServersMap();
+    } else {
+      return null;
+    }
+  }
 }
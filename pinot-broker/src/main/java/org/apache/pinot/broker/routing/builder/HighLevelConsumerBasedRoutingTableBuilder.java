@@ -23,15 +23,22 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.helix.model.ExternalView;
 import org.apache.helix.model.InstanceConfig;
 import org.apache.pinot.common.utils.CommonConstants;
 import org.apache.pinot.common.utils.HLCSegmentName;
 import org.apache.pinot.common.utils.SegmentName;
+import org.apache.pinot.core.transport.AdaptiveServerSelector;
 
 
 public class HighLevelConsumerBasedRoutingTableBuilder extends BaseRoutingTableBuilder {
 
+  @Override
+  public void setAdaptiveServerSelector(@Nullable AdaptiveServerSelector adaptiveServerSelector) {
+    // All the segments of a consumer group must be queried together, so adaptive server selection is not supported
+  }
+
   @Override
   protected Map<String, List<String>> computeSegmentToServersMapFromExternalView(ExternalView externalView,
       List<InstanceConfig> instanceConfigs) {
@@ -20,6 +20,7 @@ package org.apache.pinot.broker.routing.builder;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.model.ExternalView;
@@ -29,6 +30,7 @@ import org.apache.pinot.broker.routing.RoutingTableLookupRequest;
 import org.apache.pinot.broker.routing.selector.SegmentSelector;
 import org.apache.pinot.common.config.TableConfig;
 import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.core.transport.AdaptiveServerSelector;
 
 
 /**
@@ -42,6 +44,14 @@ public interface RoutingTableBuilder {
   void init(Configuration configuration, TableConfig tableConfig, ZkHelixPropertyStore<ZNRecord> propertyStore,
       BrokerMetrics brokerMetrics);
 
+  /**
+   * Set the adaptive server selector to select the server for each segment at query time. Should be called before the
+   * first ExternalView change is processed.
+   * <p>Routing table builders that cannot route the segments independently ignore the adaptive server selector.
+   */
+  default void setAdaptiveServerSelector(@Nullable AdaptiveServerSelector adaptiveServerSelector) {
+  }
+
   /**
    * Compute routing tables (map from server to list of segments) that are used for query routing from ExternalView.
    * <p>Should be called whenever there is an ExternalView change.
@@ -60,4 +70,12 @@ public interface RoutingTableBuilder {
    * Get all pre-computed routing tables.
    */
   List<Map<String, List<String>>> getRoutingTables();
+
+  /**
+   * Get the map from segment to the servers serving it computed from the last ExternalView, or null if not available.
+   */
+  @Nullable
+  default Map<String, List<String>> getSegmentToServersMap() {
+    return null;
+  }
 }
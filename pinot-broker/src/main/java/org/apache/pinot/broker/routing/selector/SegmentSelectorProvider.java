@@ -20,6 +20,7 @@ package org.apache.pinot.broker.routing.selector;
 
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.pinot.common.config.RoutingConfig;
 import org.apache.pinot.common.config.TableConfig;
 
 
@@ -42,6 +43,13 @@ public class SegmentSelectorProvider {
    */
   public SegmentSelector getSegmentSelector(TableConfig tableConfig) {
     // TODO: add the support for merged segment selector once merge config is updated.
+    RoutingConfig routingConfig = tableConfig.getRoutingConfig();
+    if (routingConfig != null && Boolean.parseBoolean(
+        routingConfig.getRoutingTableBuilderOptions().get(RoutingConfig.ENABLE_TIME_RANGE_SEGMENT_PRUNING_KEY))) {
+      SegmentSelector segmentSelector = new TimeRangeSegmentSelector();
+      segmentSelector.init(tableConfig, _propertyStore);
+      return segmentSelector;
+    }
     return null;
   }
 }
@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.selector;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.pinot.broker.routing.RoutingTableLookupRequest;
+import org.apache.pinot.common.config.TableConfig;
+import org.apache.pinot.common.config.TableNameBuilder;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.common.request.FilterOperator;
+import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
+import org.apache.pinot.common.utils.CommonConstants.Segment.Realtime.Status;
+import org.apache.pinot.common.utils.request.FilterQueryTree;
+import org.apache.pinot.common.utils.request.RequestUtils;
+import org.apache.pinot.core.common.predicate.RangePredicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Segment selector that prunes the segments whose time range does not match the time filter of the query, so that the
+ * query is only sent to the servers hosting the relevant segments.
+ * <p>The time range of the segments is read from the segment ZK metadata on external view change, and kept in a
+ * compact in-memory index (parallel arrays of start and end time, converted into the time unit of the table).
+ * Segments without valid time range (e.g. consuming segments) are always selected.
+ */
+public class TimeRangeSegmentSelector implements SegmentSelector {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TimeRangeSegmentSelector.class);
+
+  private String _tableNameWithType;
+  private ZkHelixPropertyStore<ZNRecord> _propertyStore;
+  private volatile TimeRangeIndex _timeRangeIndex;
+
+  @Override
+  public void init(TableConfig tableConfig, ZkHelixPropertyStore<ZNRecord> propertyStore) {
+    _tableNameWithType = tableConfig.getTableName();
+    _propertyStore = propertyStore;
+  }
+
+  @Override
+  public void computeOnExternalViewChange() {
+    Schema schema = ZKMetadataProvider.getTableSchema(_propertyStore, _tableNameWithType);
+    String timeColumn = schema != null ? schema.getTimeColumnName() : null;
+    TimeUnit tableTimeUnit = schema != null ? schema.getOutgoingTimeUnit() : null;
+    if (timeColumn == null || tableTimeUnit == null) {
+      LOGGER.warn("Skipping updating time range index for table: '{}' because time column/unit is not set",
+          _tableNameWithType);
+      _timeRangeIndex = null;
+      return;
+    }
+
+    // Bulk reading all segment ZK metadata is more efficient than reading one at a time
+    List<? extends SegmentZKMetadata> segmentZKMetadataList;
+    if (TableNameBuilder.getTableTypeFromTableName(_tableNameWithType) == TableType.OFFLINE) {
+      segmentZKMetadataList =
+          ZKMetadataProvider.getOfflineSegmentZKMetadataListForTable(_propertyStore, _tableNameWithType);
+    } else {
+      segmentZKMetadataList =
+          ZKMetadataProvider.getRealtimeSegmentZKMetadataListForTable(_propertyStore, _tableNameWithType);
+    }
+    updateTimeRangeIndex(timeColumn, tableTimeUnit, segmentZKMetadataList);
+  }
+
+  void updateTimeRangeIndex(String timeColumn, TimeUnit tableTimeUnit,
+      List<? extends SegmentZKMetadata> segmentZKMetadataList) {
+    TimeRangeIndex timeRangeIndex = new TimeRangeIndex(timeColumn, segmentZKMetadataList.size());
+    for (SegmentZKMetadata segmentZKMetadata : segmentZKMetadataList) {
+      // Only completed segments have the final time range
+      if (segmentZKMetadata instanceof RealtimeSegmentZKMetadata
+          && ((RealtimeSegmentZKMetadata) segmentZKMetadata).getStatus() != Status.DONE) {
+        continue;
+      }
+      long startTime = segmentZKMetadata.getStartTime();
+      long endTime = segmentZKMetadata.getEndTime();
+      TimeUnit segmentTimeUnit = segmentZKMetadata.getTimeUnit();
+      if (startTime < 0 || endTime < startTime || segmentTimeUnit == null) {
+        continue;
+      }
+      timeRangeIndex.add(segmentZKMetadata.getSegmentName(), tableTimeUnit.convert(startTime, segmentTimeUnit),
+          tableTimeUnit.convert(endTime, segmentTimeUnit));
+    }
+    LOGGER.info("Updated time range index for table: '{}' with {}/{} segments", _tableNameWithType,
+        timeRangeIndex._numSegments, segmentZKMetadataList.size());
+    _timeRangeIndex = timeRangeIndex;
+  }
+
+  @Override
+  public Set<String> selectSegments(RoutingTableLookupRequest request, Set<String> segmentsToQuery) {
+    TimeRangeIndex timeRangeIndex = _timeRangeIndex;
+    if (timeRangeIndex == null) {
+      return segmentsToQuery;
+    }
+    FilterQueryTree filterQueryTree = RequestUtils.generateFilterQueryTree(request.getBrokerRequest());
+    if (filterQueryTree == null) {
+      return segmentsToQuery;
+    }
+    long[] timeInterval = getTimeInterval(filterQueryTree, timeRangeIndex._timeColumn);
+    if (timeInterval == null) {
+      return segmentsToQuery;
+    }
+
+    long queryStartTime = timeInterval[0];
+    long queryEndTime = timeInterval[1];
+    Set<String> selectedSegments = new HashSet<>();
+    for (String segment : segmentsToQuery) {
+      int index = timeRangeIndex._segmentToIndexMap.getInt(segment);
+      // Select the segments not in the index
+      if (index < 0 || (timeRangeIndex._startTimes[index] <= queryEndTime
+          && timeRangeIndex._endTimes[index] >= queryStartTime)) {
+        selectedSegments.add(segment);
+      }
+    }
+    LOGGER.debug("Selected {}/{} segments for time interval: [{}, {}] of table: '{}'", selectedSegments.size(),
+        segmentsToQuery.size(), queryStartTime, queryEndTime, _tableNameWithType);
+    return selectedSegments;
+  }
+
+  /**
+   * Returns the time interval (both ends inclusive) that covers all the time values matching the filter, or
+   * {@code null} if the filter does not constrain the time column.
+   */
+  @Nullable
+  static long[] getTimeInterval(FilterQueryTree filterQueryTree, String timeColumn) {
+    List<FilterQueryTree> children = filterQueryTree.getChildren();
+    if (children != null && !children.isEmpty()) {
+      FilterOperator filterOperator = filterQueryTree.getOperator();
+      switch (filterOperator) {
+        case AND:
+          // Intersection of the constrained children
+          long[] intersection = null;
+          for (FilterQueryTree child : children) {
+            long[] childTimeInterval = getTimeInterval(child, timeColumn);
+            if (childTimeInterval != null) {
+              if (intersection == null) {
+                intersection = childTimeInterval;
+              } else {
+                intersection = new long[]{Math.max(intersection[0], childTimeInterval[0]), Math.min(intersection[1],
+                    childTimeInterval[1])};
+              }
+            }
+          }
+          return intersection;
+        case OR:
+          // Union of the children (as a single interval), not constrained if any child is not constrained
+          long[] union = null;
+          for (FilterQueryTree child : children) {
+            long[] childTimeInterval = getTimeInterval(child, timeColumn);
+            if (childTimeInterval == null) {
+              return null;
+            }
+            if (union == null) {
+              union = childTimeInterval;
+            } else {
+              union = new long[]{Math.min(union[0], childTimeInterval[0]), Math.max(union[1], childTimeInterval[1])};
+            }
+          }
+          return union;
+        default:
+          return null;
+      }
+    }
+
+    if (!timeColumn.equals(filterQueryTree.getColumn())) {
+      return null;
+    }
+    List<String> values = filterQueryTree.getValue();
+    try {
+      switch (filterQueryTree.getOperator()) {
+        case EQUALITY:
+          long value = Long.parseLong(values.get(0));
+          return new long[]{value, value};
+        case IN:
+          long minValue = Long.MAX_VALUE;
+          long maxValue = Long.MIN_VALUE;
+          for (String inValue : values) {
+            long longValue = Long.parseLong(inValue);
+            minValue = Math.min(minValue, longValue);
+            maxValue = Math.max(maxValue, longValue);
+          }
+          return new long[]{minValue, maxValue};
+        case RANGE:
+          RangePredicate rangePredicate = new RangePredicate(timeColumn, values);
+          long startTime = Long.MIN_VALUE;
+          String lowerBoundary = rangePredicate.getLowerBoundary();
+          if (!lowerBoundary.equals(RangePredicate.UNBOUNDED)) {
+            startTime = Long.parseLong(lowerBoundary);
+            if (!rangePredicate.includeLowerBoundary()) {
+              startTime++;
+            }
+          }
+          long endTime = Long.MAX_VALUE;
+          String upperBoundary = rangePredicate.getUpperBoundary();
+          if (!upperBoundary.equals(RangePredicate.UNBOUNDED)) {
+            endTime = Long.parseLong(upperBoundary);
+            if (!rangePredicate.includeUpperBoundary()) {
+              endTime--;
+            }
+          }
+          return new long[]{startTime, endTime};
+        default:
+          return null;
+      }
+    } catch (NumberFormatException e) {
+      // Time values not in long format cannot be used for pruning
+      return null;
+    }
+  }
+
+  /**
+   * Compact index of the segment time ranges, where the start and end time of a segment are stored at the index of the
+   * segment in the arrays.
+   */
+  private static class TimeRangeIndex {
+    final String _timeColumn;
+    final Object2IntOpenHashMap<String> _segmentToIndexMap;
+    final long[] _startTimes;
+    final long[] _endTimes;
+    int _numSegments;
+
+    TimeRangeIndex(String timeColumn, int capacity) {
+      _timeColumn = timeColumn;
+      _segmentToIndexMap = new Object2IntOpenHashMap<>(capacity);
+      _segmentToIndexMap.defaultReturnValue(-1);
+      _startTimes = new long[capacity];
+      _endTimes = new long[capacity];
+    }
+
+    void add(String segment, long startTime, long endTime) {
+      _segmentToIndexMap.put(segment, _numSegments);
+      _startTimes[_numSegments] = startTime;
+      _endTimes[_numSegments] = endTime;
+      _numSegments++;
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.cache;
+
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.ServerInstance;
+import org.apache.pinot.common.response.broker.AggregationResult;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableImplV2;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class BrokerResultCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final BrokerMetrics BROKER_METRICS = new BrokerMetrics(new MetricsRegistry());
+  private static final long MAX_SIZE_IN_BYTES = 1024 * 1024;
+  private static final long TTL_MS = 3_600_000L;
+
+  @Test
+  public void testGetKey() {
+    BrokerResultCache cache = new BrokerResultCache(MAX_SIZE_IN_BYTES, TTL_MS, BROKER_METRICS);
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE WHERE a = 1");
+    BrokerResultCache.Key key = cache.getKey(brokerRequest, false);
+    Assert.assertNotNull(key);
+    Assert.assertEquals(cache
+            .getKey(COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE WHERE a = 1"), false),
+        key);
+    Assert.assertNotEquals(cache.getKey(brokerRequest, true), key);
+    Assert.assertNotEquals(cache
+            .getKey(COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE WHERE a = 2"), false),
+        key);
+
+    // Key should change after the table is invalidated
+    cache.invalidateTable("myTable_OFFLINE");
+    Assert.assertNotEquals(cache.getKey(brokerRequest, false), key);
+
+    // Query with trace is not cacheable
+    brokerRequest.setEnableTrace(true);
+    Assert.assertNull(cache.getKey(brokerRequest, false));
+  }
+
+  @Test
+  public void testBrokerResponse() {
+    BrokerResultCache cache = new BrokerResultCache(MAX_SIZE_IN_BYTES, TTL_MS, BROKER_METRICS);
+    BrokerResultCache.Key key =
+        cache.getKey(COMPILER.compileToBrokerRequest("SELECT SUM(m) FROM myTable_OFFLINE"), false);
+    Assert.assertNull(cache.getBrokerResponse(key));
+
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setAggregationResults(Collections.singletonList(new AggregationResult("sum_m", "10.00000")));
+    brokerResponse.setNumServersQueried(2);
+    brokerResponse.setNumServersResponded(2);
+    brokerResponse.setNumDocsScanned(100L);
+    cache.putBrokerResponse(key, brokerResponse);
+
+    BrokerResponseNative cachedResponse = cache.getBrokerResponse(key);
+    Assert.assertNotNull(cachedResponse);
+    Assert.assertNotSame(cachedResponse, brokerResponse);
+    Assert.assertEquals(cachedResponse.getAggregationResults().get(0).getFunction(), "sum_m");
+    Assert.assertEquals(cachedResponse.getAggregationResults().get(0).getValue(), "10.00000");
+    Assert.assertEquals(cachedResponse.getNumServersQueried(), 2);
+    Assert.assertEquals(cachedResponse.getNumDocsScanned(), 100L);
+
+    // Modifying the returned response should not affect the cached response
+    cachedResponse.setTimeUsedMs(123L);
+    Assert.assertEquals(cache.getBrokerResponse(key).getTimeUsedMs(), 0L);
+  }
+
+  @Test
+  public void testOfflineDataTablesAndInvalidation() {
+    BrokerResultCache cache = new BrokerResultCache(MAX_SIZE_IN_BYTES, TTL_MS, BROKER_METRICS);
+    BrokerResultCache.Key hybridKey =
+        cache.getKey(COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE"), true);
+    BrokerResultCache.Key offlineKey =
+        cache.getKey(COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE"), false);
+    BrokerResultCache.Key otherTableKey =
+        cache.getKey(COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM otherTable_OFFLINE"), false);
+
+    Map<ServerInstance, DataTable> offlineDataTables = new HashMap<>();
+    for (int i = 0; i < 2; i++) {
+      DataTable dataTable = new DataTableImplV2();
+      dataTable.getMetadata().put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, Integer.toString(i));
+      offlineDataTables.put(new ServerInstance("localhost", 1234 + i, 0), dataTable);
+    }
+    cache.putOfflineDataTables(hybridKey, offlineDataTables);
+    cache.putBrokerResponse(offlineKey, new BrokerResponseNative());
+    cache.putBrokerResponse(otherTableKey, new BrokerResponseNative());
+    Assert.assertEquals(cache.size(), 3);
+
+    Map<ServerInstance, DataTable> cachedDataTables = cache.getOfflineDataTables(hybridKey);
+    Assert.assertNotNull(cachedDataTables);
+    Assert.assertEquals(cachedDataTables.size(), 2);
+    for (Map.Entry<ServerInstance, DataTable> entry : cachedDataTables.entrySet()) {
+      DataTable originalDataTable = offlineDataTables.get(entry.getKey());
+      Assert.assertNotSame(entry.getValue(), originalDataTable);
+      Assert.assertEquals(entry.getValue().getMetadata().get(DataTable.NUM_DOCS_SCANNED_METADATA_KEY),
+          originalDataTable.getMetadata().get(DataTable.NUM_DOCS_SCANNED_METADATA_KEY));
+    }
+
+    // Invalidating the table should only remove the entries for the table
+    cache.invalidateTable("myTable_OFFLINE");
+    Assert.assertNull(cache.getOfflineDataTables(hybridKey));
+    Assert.assertNull(cache.getBrokerResponse(offlineKey));
+    Assert.assertNotNull(cache.getBrokerResponse(otherTableKey));
+  }
+
+  @Test
+  public void testStaleResultNotCached() {
+    BrokerResultCache cache = new BrokerResultCache(MAX_SIZE_IN_BYTES, TTL_MS, BROKER_METRICS);
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE");
+
+    // Key is created before routing the query, then the table is invalidated before the result is put into the cache
+    BrokerResultCache.Key staleKey = cache.getKey(brokerRequest, false);
+    BrokerResultCache.Key staleHybridKey = cache.getKey(brokerRequest, true);
+    cache.invalidateTable("myTable_OFFLINE");
+    cache.putBrokerResponse(staleKey, new BrokerResponseNative());
+    cache.putOfflineDataTables(staleHybridKey,
+        Collections.singletonMap(new ServerInstance("localhost", 1234, 0), new DataTableImplV2()));
+    Assert.assertEquals(cache.size(), 0);
+    Assert.assertNull(cache.getBrokerResponse(cache.getKey(brokerRequest, false)));
+    Assert.assertNull(cache.getOfflineDataTables(cache.getKey(brokerRequest, true)));
+
+    // Key created after the invalidation should be cached
+    BrokerResultCache.Key key = cache.getKey(brokerRequest, false);
+    cache.putBrokerResponse(key, new BrokerResponseNative());
+    Assert.assertNotNull(cache.getBrokerResponse(cache.getKey(brokerRequest, false)));
+
+    // Invalidating another table should not affect the generation of the table
+    cache.invalidateTable("otherTable_OFFLINE");
+    Assert.assertNotNull(cache.getBrokerResponse(cache.getKey(brokerRequest, false)));
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.pinot.broker.api.RequestStatistics;
+import org.apache.pinot.broker.broker.AllowAllAccessControlFactory;
+import org.apache.pinot.broker.queryquota.QueryQuotaManager;
+import org.apache.pinot.broker.routing.RoutingTable;
+import org.apache.pinot.broker.routing.RoutingTableLookupRequest;
+import org.apache.pinot.broker.routing.TimeBoundaryService;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
+import org.apache.pinot.common.utils.JsonUtils;
+import org.apache.pinot.core.transport.DummyServer;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class SingleConnectionBrokerRequestHandlerTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String OFFLINE_TABLE_NAME = RAW_TABLE_NAME + "_OFFLINE";
+  private static final int FAST_SERVER_PORT = 12355;
+  private static final int SLOW_SERVER_PORT = 12356;
+  private static final String FAST_SEGMENT_NAME = "fastSegment";
+  private static final String SLOW_SEGMENT_NAME = "slowSegment";
+  private static final long SLOW_SERVER_RESPONSE_DELAY_MS = 1_000L;
+
+  private SingleConnectionBrokerRequestHandler _requestHandler;
+
+  @BeforeClass
+  public void setUp() {
+    Configuration config = new BaseConfiguration();
+    config.setProperty(Broker.CONFIG_OF_BROKER_ID, "testBroker");
+    RoutingTable routingTable = Mockito.mock(RoutingTable.class);
+    Mockito.when(routingTable.routingTableExists(OFFLINE_TABLE_NAME)).thenReturn(true);
+    Map<String, List<String>> offlineRoutingTable = new HashMap<>();
+    offlineRoutingTable.put("Server_localhost_" + FAST_SERVER_PORT, Collections.singletonList(FAST_SEGMENT_NAME));
+    offlineRoutingTable.put("Server_localhost_" + SLOW_SERVER_PORT, Collections.singletonList(SLOW_SEGMENT_NAME));
+    Mockito.when(routingTable.getRoutingTable(Matchers.any(RoutingTableLookupRequest.class)))
+        .thenReturn(offlineRoutingTable);
+    QueryQuotaManager queryQuotaManager = Mockito.mock(QueryQuotaManager.class);
+    Mockito.when(queryQuotaManager.acquire(Matchers.anyString())).thenReturn(true);
+    _requestHandler = new SingleConnectionBrokerRequestHandler(config, routingTable,
+        Mockito.mock(TimeBoundaryService.class), new AllowAllAccessControlFactory(), queryQuotaManager,
+        Mockito.mock(BrokerMetrics.class));
+    _requestHandler.start();
+  }
+
+  @Test
+  public void testPartialResponse()
+      throws Exception {
+    // Start the servers, both respond with an empty data table carrying the request id of the request
+    DummyServer fastServer = new DummyServer(FAST_SERVER_PORT, 0L);
+    Thread fastServerThread = new Thread(fastServer);
+    fastServerThread.start();
+    DummyServer slowServer = new DummyServer(SLOW_SERVER_PORT, SLOW_SERVER_RESPONSE_DELAY_MS);
+    Thread slowServerThread = new Thread(slowServer);
+    slowServerThread.start();
+    while (!fastServer.isReady() || !slowServer.isReady()) {
+      Thread.sleep(100L);
+    }
+
+    // Should return without waiting for the slow server after the partial response timeout
+    long startTimeMs = System.currentTimeMillis();
+    BrokerResponseNative brokerResponse =
+        handleRequest("SELECT * FROM " + RAW_TABLE_NAME + " OPTION(partialResponseTimeoutMs=200)");
+    Assert.assertTrue(System.currentTimeMillis() - startTimeMs < SLOW_SERVER_RESPONSE_DELAY_MS);
+    Assert.assertEquals(brokerResponse.getExceptionsSize(), 0);
+    Assert.assertEquals(brokerResponse.getNumServersQueried(), 2);
+    Assert.assertEquals(brokerResponse.getNumServersResponded(), 1);
+    Assert.assertTrue(brokerResponse.isPartialResponse());
+    Assert.assertEquals(brokerResponse.getMissingSegments(), Collections.singletonList(SLOW_SEGMENT_NAME));
+
+    // Should return as soon as half of the servers have responded
+    startTimeMs = System.currentTimeMillis();
+    brokerResponse = handleRequest("SELECT * FROM " + RAW_TABLE_NAME + " OPTION(partialResponseMinServerFraction=0.5)");
+    Assert.assertTrue(System.currentTimeMillis() - startTimeMs < SLOW_SERVER_RESPONSE_DELAY_MS);
+    Assert.assertEquals(brokerResponse.getNumServersResponded(), 1);
+    Assert.assertTrue(brokerResponse.isPartialResponse());
+    Assert.assertEquals(brokerResponse.getMissingSegments(), Collections.singletonList(SLOW_SEGMENT_NAME));
+
+    // Should wait for all the servers without the partial response query options
+    brokerResponse = handleRequest("SELECT * FROM " + RAW_TABLE_NAME);
+    Assert.assertEquals(brokerResponse.getNumServersResponded(), 2);
+    Assert.assertFalse(brokerResponse.isPartialResponse());
+    Assert.assertNull(brokerResponse.getMissingSegments());
+
+    // Shut down the servers
+    fastServer.shutDown();
+    fastServerThread.join();
+    slowServer.shutDown();
+    slowServerThread.join();
+  }
+
+  @Test
+  public void testIllegalPartialResponseQueryOptions()
+      throws Exception {
+    String[] illegalOptions = new String[]{
+        "partialResponseTimeoutMs=abc", "partialResponseTimeoutMs=-1", "partialResponseMinServerFraction=abc",
+        "partialResponseMinServerFraction=1.5", "partialResponseMinServerFraction=-0.5"
+    };
+    for (String illegalOption : illegalOptions) {
+      RequestStatistics requestStatistics = new RequestStatistics();
+      BrokerResponseNative brokerResponse = (BrokerResponseNative) _requestHandler.handleRequest(JsonUtils
+              .stringToJsonNode(getRequestJson("SELECT * FROM " + RAW_TABLE_NAME + " OPTION(" + illegalOption + ")")),
+          null, requestStatistics);
+      Assert.assertEquals(brokerResponse.getExceptionsSize(), 1, illegalOption);
+      Assert.assertEquals(brokerResponse.getProcessingExceptions().get(0).getErrorCode(),
+          QueryException.QUERY_VALIDATION_ERROR_CODE, illegalOption);
+      Assert.assertEquals(requestStatistics.getErrorCode(), QueryException.QUERY_VALIDATION_ERROR_CODE, illegalOption);
+    }
+  }
+
+  private BrokerResponseNative handleRequest(String query)
+      throws Exception {
+    return (BrokerResponseNative) _requestHandler
+        .handleRequest(JsonUtils.stringToJsonNode(getRequestJson(query)), null, new RequestStatistics());
+  }
+
+  private static String getRequestJson(String query) {
+    return JsonUtils.newObjectNode().put(Broker.Request.PQL, query).toString();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _requestHandler.shutDown();
+  }
+}
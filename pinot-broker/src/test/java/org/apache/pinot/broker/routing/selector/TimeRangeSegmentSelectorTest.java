@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.selector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.broker.routing.RoutingTableLookupRequest;
+import org.apache.pinot.common.config.TableConfig;
+import org.apache.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
+import org.apache.pinot.common.utils.CommonConstants.Segment.Realtime.Status;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TimeRangeSegmentSelectorTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String TIME_COLUMN = "daysSinceEpoch";
+  private static final int NUM_SEGMENTS = 10;
+
+  @Test
+  public void testTimeRangeSegmentSelector() {
+    TimeRangeSegmentSelector segmentSelector = new TimeRangeSegmentSelector();
+    TableConfig tableConfig =
+        new TableConfig.Builder(TableType.OFFLINE).setTableName("testTable_OFFLINE").build();
+    segmentSelector.init(tableConfig, null);
+
+    // Segment i covers days [10 * i, 10 * i + 9], time in segment ZK metadata is in HOURS
+    List<SegmentZKMetadata> segmentZKMetadataList = new ArrayList<>();
+    Set<String> segmentsToQuery = new HashSet<>();
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      OfflineSegmentZKMetadata segmentZKMetadata = new OfflineSegmentZKMetadata();
+      segmentZKMetadata.setSegmentName("segment" + i);
+      segmentZKMetadata.setStartTime(TimeUnit.DAYS.toHours(10 * i));
+      segmentZKMetadata.setEndTime(TimeUnit.DAYS.toHours(10 * i + 9));
+      segmentZKMetadata.setTimeUnit(TimeUnit.HOURS);
+      segmentZKMetadataList.add(segmentZKMetadata);
+      segmentsToQuery.add("segment" + i);
+    }
+    // Segment without time range
+    OfflineSegmentZKMetadata segmentZKMetadata = new OfflineSegmentZKMetadata();
+    segmentZKMetadata.setSegmentName("noTimeRange");
+    segmentZKMetadataList.add(segmentZKMetadata);
+    segmentsToQuery.add("noTimeRange");
+    // Consuming segment
+    RealtimeSegmentZKMetadata consumingSegmentZKMetadata = new RealtimeSegmentZKMetadata();
+    consumingSegmentZKMetadata.setSegmentName("consuming");
+    consumingSegmentZKMetadata.setStartTime(0);
+    consumingSegmentZKMetadata.setEndTime(0);
+    consumingSegmentZKMetadata.setTimeUnit(TimeUnit.DAYS);
+    consumingSegmentZKMetadata.setStatus(Status.IN_PROGRESS);
+    segmentZKMetadataList.add(consumingSegmentZKMetadata);
+    segmentsToQuery.add("consuming");
+    // Segment not in the ZK metadata
+    segmentsToQuery.add("unknown");
+
+    // No time range index
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch = 5", segmentsToQuery,
+        segmentsToQuery);
+
+    segmentSelector.updateTimeRangeIndex(TIME_COLUMN, TimeUnit.DAYS, segmentZKMetadataList);
+
+    // No time filter
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable", segmentsToQuery, segmentsToQuery);
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE foo = 'bar'", segmentsToQuery,
+        segmentsToQuery);
+    checkSelectedSegments(segmentSelector,
+        "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch = 5 OR foo = 'bar'", segmentsToQuery, segmentsToQuery);
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch <> 5",
+        segmentsToQuery, segmentsToQuery);
+
+    // Time filter
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch = 15", segmentsToQuery,
+        getExpectedSegments(1));
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch IN (5, 25)",
+        segmentsToQuery, getExpectedSegments(0, 1, 2));
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch > 79",
+        segmentsToQuery, getExpectedSegments(8, 9));
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch >= 79",
+        segmentsToQuery, getExpectedSegments(7, 8, 9));
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch < 20",
+        segmentsToQuery, getExpectedSegments(0, 1));
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch BETWEEN 20 AND 30",
+        segmentsToQuery, getExpectedSegments(2, 3));
+    checkSelectedSegments(segmentSelector,
+        "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch > 15 AND daysSinceEpoch < 25 AND foo = 'bar'",
+        segmentsToQuery, getExpectedSegments(1, 2));
+    checkSelectedSegments(segmentSelector,
+        "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch = 5 OR daysSinceEpoch = 25", segmentsToQuery,
+        getExpectedSegments(0, 1, 2));
+    checkSelectedSegments(segmentSelector,
+        "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch < 10 AND daysSinceEpoch > 20", segmentsToQuery,
+        getExpectedSegments());
+    checkSelectedSegments(segmentSelector, "SELECT COUNT(*) FROM testTable WHERE daysSinceEpoch > 1000",
+        segmentsToQuery, getExpectedSegments());
+  }
+
+  private static Set<String> getExpectedSegments(int... segmentIds) {
+    // Segments without time range should always be selected
+    Set<String> expectedSegments = new HashSet<>(Arrays.asList("noTimeRange", "consuming", "unknown"));
+    for (int segmentId : segmentIds) {
+      expectedSegments.add("segment" + segmentId);
+    }
+    return expectedSegments;
+  }
+
+  private static void checkSelectedSegments(SegmentSelector segmentSelector, String query, Set<String> segmentsToQuery,
+      Set<String> expectedSegments) {
+    RoutingTableLookupRequest request = new RoutingTableLookupRequest(COMPILER.compileToBrokerRequest(query));
+    Assert.assertEquals(segmentSelector.selectSegments(request, segmentsToQuery), expectedSegments);
+  }
+}
@@ -49,9 +49,33 @@ public class IndexingConfig {
   @ConfigKey("bloomFilterColumns")
   private List<String> _bloomFilterColumns = new ArrayList<>();
 
+  @ConfigKey("rangeIndexColumns")
+  private List<String> _rangeIndexColumns = new ArrayList<>();
+
+  /**
+   * The no-dictionary INT/LONG columns whose raw forward index is written with frame-of-reference/delta encoding and
+   * bit-packing instead of fixed-width values.
+   */
+  @ConfigKey("frameOfReferenceEncodingColumns")
+  private List<String> _frameOfReferenceEncodingColumns = new ArrayList<>();
+
   @ConfigKey("loadMode")
   private String _loadMode;
 
+  /**
+   * The index types (e.g. dictionary, inverted_index) to be loaded into direct memory when the segments are loaded in
+   * mmap mode. The other index types are still memory mapped.
+   */
+  @ConfigKey("preloadIndexTypes")
+  private List<String> _preloadIndexTypes;
+
+  /**
+   * The columns whose memory mapped indexes are prefetched when the segments are loaded. If not configured, all the
+   * columns are prefetched up to the server wide limit.
+   */
+  @ConfigKey("prefetchColumns")
+  private List<String> _prefetchColumns;
+
   @ConfigKey("streamConfigs")
   @UseChildKeyHandler(SimpleMapChildKeyHandler.class)
   private Map<String, String> _streamConfigs = new HashMap<>();
@@ -135,6 +159,22 @@ public class IndexingConfig {
     this._bloomFilterColumns = _bloomFilterColumns;
   }
 
+  public List<String> getRangeIndexColumns() {
+    return _rangeIndexColumns;
+  }
+
+  public void setRangeIndexColumns(List<String> rangeIndexColumns) {
+    _rangeIndexColumns = rangeIndexColumns;
+  }
+
+  public List<String> getFrameOfReferenceEncodingColumns() {
+    return _frameOfReferenceEncodingColumns;
+  }
+
+  public void setFrameOfReferenceEncodingColumns(List<String> frameOfReferenceEncodingColumns) {
+    _frameOfReferenceEncodingColumns = frameOfReferenceEncodingColumns;
+  }
+
   public String getLoadMode() {
     return _loadMode;
   }
@@ -143,6 +183,22 @@ public class IndexingConfig {
     _loadMode = loadMode;
   }
 
+  public List<String> getPreloadIndexTypes() {
+    return _preloadIndexTypes;
+  }
+
+  public void setPreloadIndexTypes(List<String> preloadIndexTypes) {
+    _preloadIndexTypes = preloadIndexTypes;
+  }
+
+  public List<String> getPrefetchColumns() {
+    return _prefetchColumns;
+  }
+
+  public void setPrefetchColumns(List<String> prefetchColumns) {
+    _prefetchColumns = prefetchColumns;
+  }
+
   public Map<String, String> getStreamConfigs() {
     return _streamConfigs;
   }
@@ -287,6 +343,8 @@ public class IndexingConfig {
         .isEqual(_createInvertedIndexDuringSegmentGeneration, that._createInvertedIndexDuringSegmentGeneration)
         && EqualityUtils.isEqual(_invertedIndexColumns, that._invertedIndexColumns) && EqualityUtils
         .isEqual(_sortedColumn, that._sortedColumn) && EqualityUtils.isEqual(_loadMode, that._loadMode) && EqualityUtils
+        .isEqual(_preloadIndexTypes, that._preloadIndexTypes) && EqualityUtils
+        .isEqual(_prefetchColumns, that._prefetchColumns) && EqualityUtils
         .isEqual(_streamConfigs, that._streamConfigs) && EqualityUtils
         .isEqual(_segmentFormatVersion, that._segmentFormatVersion) && EqualityUtils
         .isEqual(_columnMinMaxValueGeneratorMode, that._columnMinMaxValueGeneratorMode) && EqualityUtils
@@ -296,6 +354,8 @@ public class IndexingConfig {
         .isEqual(_starTreeIndexSpec, that._starTreeIndexSpec) && EqualityUtils
         .isEqual(_segmentPartitionConfig, that._segmentPartitionConfig) && EqualityUtils
         .isEqual(_bloomFilterColumns, that._bloomFilterColumns) && EqualityUtils
+        .isEqual(_rangeIndexColumns, that._rangeIndexColumns) && EqualityUtils
+        .isEqual(_frameOfReferenceEncodingColumns, that._frameOfReferenceEncodingColumns) && EqualityUtils
         .isEqual(_varLengthDictionaryColumns, that._varLengthDictionaryColumns);
   }
 
@@ -306,6 +366,8 @@ public class IndexingConfig {
     result = EqualityUtils.hashCodeOf(result, _createInvertedIndexDuringSegmentGeneration);
     result = EqualityUtils.hashCodeOf(result, _sortedColumn);
     result = EqualityUtils.hashCodeOf(result, _loadMode);
+    result = EqualityUtils.hashCodeOf(result, _preloadIndexTypes);
+    result = EqualityUtils.hashCodeOf(result, _prefetchColumns);
     result = EqualityUtils.hashCodeOf(result, _streamConfigs);
     result = EqualityUtils.hashCodeOf(result, _segmentFormatVersion);
     result = EqualityUtils.hashCodeOf(result, _columnMinMaxValueGeneratorMode);
@@ -315,6 +377,8 @@ public class IndexingConfig {
     result = EqualityUtils.hashCodeOf(result, _starTreeIndexSpec);
     result = EqualityUtils.hashCodeOf(result, _segmentPartitionConfig);
     result = EqualityUtils.hashCodeOf(result, _bloomFilterColumns);
+    result = EqualityUtils.hashCodeOf(result, _rangeIndexColumns);
+    result = EqualityUtils.hashCodeOf(result, _frameOfReferenceEncodingColumns);
     result = EqualityUtils.hashCodeOf(result, _varLengthDictionaryColumns);
     return result;
   }
@@ -449,6 +449,7 @@ public class TableConfig {
     private List<String> _noDictionaryColumns;
     private List<String> _onHeapDictionaryColumns;
     private List<String> _bloomFilterColumns;
+    private List<String> _rangeIndexColumns;
     private Map<String, String> _streamConfigs;
     private String _streamPartitionAssignmentStrategy = DEFAULT_STREAM_PARTITION_ASSIGNMENT_STRATEGY;
 
@@ -569,6 +570,11 @@ public class TableConfig {
       return this;
     }
 
+    public Builder setRangeIndexColumns(List<String> rangeIndexColumns) {
+      _rangeIndexColumns = rangeIndexColumns;
+      return this;
+    }
+
     public Builder setNoDictionaryColumns(List<String> noDictionaryColumns) {
       _noDictionaryColumns = noDictionaryColumns;
       return this;
@@ -649,6 +655,7 @@ public class TableConfig {
       indexingConfig.setOnHeapDictionaryColumns(_onHeapDictionaryColumns);
       indexingConfig.setStreamConfigs(_streamConfigs);
       indexingConfig.setBloomFilterColumns(_bloomFilterColumns);
+      indexingConfig.setRangeIndexColumns(_rangeIndexColumns);
       StreamConsumptionConfig streamConsumptionConfig = new StreamConsumptionConfig();
       streamConsumptionConfig.setStreamPartitionAssignmentStrategy(_streamPartitionAssignmentStrategy);
       indexingConfig.setStreamConsumptionConfig(streamConsumptionConfig);
@@ -26,7 +26,9 @@ import org.apache.pinot.common.Utils;
  *
  */
 public enum BrokerGauge implements AbstractMetrics.Gauge {
-  QUERY_QUOTA_CAPACITY_UTILIZATION_RATE("tables", false), NETTY_CONNECTION_CONNECT_TIME_MS("nettyConnection", true);
+  QUERY_QUOTA_CAPACITY_UTILIZATION_RATE("tables", false), NETTY_CONNECTION_CONNECT_TIME_MS("nettyConnection", true),
+  // Per server stats of the adaptive server selection, the server instance name is attached as the suffix
+  SERVER_EWMA_LATENCY_MS("milliseconds", true), SERVER_SELECTION_SCORE("score", true);
 
   private final String brokerGaugeName;
   private final String unit;
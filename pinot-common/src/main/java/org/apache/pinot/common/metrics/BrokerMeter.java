@@ -99,7 +99,18 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   NETTY_CONNECTION_BYTES_SENT("nettyConnection", true),
   NETTY_CONNECTION_BYTES_RECEIVED("nettyConnection", true),
 
-  PROACTIVE_CLUSTER_CHANGE_CHECK("proactiveClusterChangeCheck", true);
+  PROACTIVE_CLUSTER_CHANGE_CHECK("proactiveClusterChangeCheck", true),
+
+  // Broker result cache metrics
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+
+  // Hedged request metrics
+  HEDGED_REQUESTS("requests", false),
+  // Hedged requests answered before the original requests
+  HEDGED_REQUESTS_WON("requests", false),
+  // Hedged requests not sent because the cap on hedged traffic is reached
+  HEDGED_REQUESTS_THROTTLED("requests", false);
 
   private final String brokerMeterName;
   private final String unit;
@@ -45,7 +45,11 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   REALTIME_OFFHEAP_MEMORY_USED("bytes", false),
   RUNNING_QUERIES("runningQueries", false),
   REALTIME_SEGMENT_NUM_PARTITIONS("realtimeSegmentNumPartitions", false),
-  LLC_SIMULTANEOUS_SEGMENT_BUILDS("llcSimultaneousSegmentBuilds", true);
+  LLC_SIMULTANEOUS_SEGMENT_BUILDS("llcSimultaneousSegmentBuilds", true),
+  // Progress of the parallel segment loading on server startup
+  STARTUP_SEGMENTS_TO_LOAD("segments", true),
+  STARTUP_SEGMENTS_LOADED("segments", true),
+  STARTUP_SEGMENTS_FAILED("segments", true);
 
   private final String gaugeName;
   private final String unit;
@@ -59,7 +59,10 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   NUM_SEGMENTS_MATCHED("numSegmentsMatched", false),
   NUM_MISSING_SEGMENTS("segments", false),
   RELOAD_FAILURES("segments", false),
-  REFRESH_FAILURES("segments", false);
+  REFRESH_FAILURES("segments", false),
+  SEGMENT_RESULT_CACHE_HITS("segments", true),
+  SEGMENT_RESULT_CACHE_MISSES("segments", true),
+  SEGMENT_RESULT_CACHE_EVICTIONS("entries", true);
 
   private final String meterName;
   private final String unit;
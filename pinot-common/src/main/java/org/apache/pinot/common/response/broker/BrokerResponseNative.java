@@ -39,7 +39,7 @@ import org.apache.pinot.common.utils.JsonUtils;
  *
  * Supports serialization via JSON.
  */
-@JsonPropertyOrder({"selectionResults", "aggregationResults", "exceptions", "numServersQueried", "numServersResponded", "numSegmentsQueried", "numSegmentsProcessed", "numSegmentsMatched", "numConsumingSegmentsQueried", "numDocsScanned", "numEntriesScannedInFilter", "numEntriesScannedPostFilter", "numGroupsLimitReached", "totalDocs", "timeUsedMs", "segmentStatistics", "traceInfo"})
+@JsonPropertyOrder({"selectionResults", "aggregationResults", "exceptions", "numServersQueried", "numServersResponded", "partialResponse", "missingSegments", "numSegmentsQueried", "numSegmentsProcessed", "numSegmentsMatched", "numConsumingSegmentsQueried", "numDocsScanned", "numEntriesScannedInFilter", "numEntriesScannedPostFilter", "numGroupsLimitReached", "totalDocs", "timeUsedMs", "segmentStatistics", "traceInfo"})
 public class BrokerResponseNative implements BrokerResponse {
   public static final BrokerResponseNative EMPTY_RESULT = BrokerResponseNative.empty();
   public static final BrokerResponseNative NO_TABLE_RESULT =
@@ -47,6 +47,8 @@ public class BrokerResponseNative implements BrokerResponse {
 
   private int _numServersQueried = 0;
   private int _numServersResponded = 0;
+  private boolean _partialResponse = false;
+  private List<String> _missingSegments;
   private long _numDocsScanned = 0L;
   private long _numEntriesScannedInFilter = 0L;
   private long _numEntriesScannedPostFilter = 0L;
@@ -145,6 +147,33 @@ public class BrokerResponseNative implements BrokerResponse {
     _numServersResponded = numServersResponded;
   }
 
+  /**
+   * Returns whether the response does not include the results from all the servers queried.
+   */
+  @JsonProperty("partialResponse")
+  public boolean isPartialResponse() {
+    return _partialResponse;
+  }
+
+  @JsonProperty("partialResponse")
+  public void setPartialResponse(boolean partialResponse) {
+    _partialResponse = partialResponse;
+  }
+
+  /**
+   * Returns the segments on the servers that have not responded, or {@code null} if all the servers have responded.
+   */
+  @JsonProperty("missingSegments")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public List<String> getMissingSegments() {
+    return _missingSegments;
+  }
+
+  @JsonProperty("missingSegments")
+  public void setMissingSegments(List<String> missingSegments) {
+    _missingSegments = missingSegments;
+  }
+
   @JsonProperty("numDocsScanned")
   public long getNumDocsScanned() {
     return _numDocsScanned;
@@ -103,6 +103,8 @@ public interface SegmentMetadata {
 
   String getBloomFilterFileName(String column);
 
+  String getBitmapRangeIndexFileName(String column);
+
   String getCreatorName();
 
   char getPaddingCharacter();
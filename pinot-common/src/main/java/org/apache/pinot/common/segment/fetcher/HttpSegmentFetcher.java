@@ -18,12 +18,19 @@
  */
 package org.apache.pinot.common.segment.fetcher;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.commons.configuration.Configuration;
 import org.apache.pinot.common.exception.HttpErrorStatusException;
+import org.apache.pinot.common.utils.CommonConstants.SegmentOperations;
 import org.apache.pinot.common.utils.FileUploadDownloadClient;
 import org.apache.pinot.common.utils.retry.RetryPolicies;
 import org.slf4j.Logger;
@@ -41,26 +48,102 @@ public class HttpSegmentFetcher implements SegmentFetcher {
   protected FileUploadDownloadClient _httpClient;
   protected int _retryCount;
   protected int _retryWaitMs;
+  protected int _numParallelRanges;
+  protected int _rangeSizeBytes;
+  protected long _parallelRangeDownloadMinSizeBytes;
+  protected ExecutorService _rangeDownloadExecutor;
 
   @Override
   public void init(Configuration configs) {
+    _numParallelRanges = configs.getInt(SegmentOperations.PARALLEL_RANGE_DOWNLOAD_NUM_RANGES,
+        SegmentOperations.DEFAULT_PARALLEL_RANGE_DOWNLOAD_NUM_RANGES);
+    _rangeSizeBytes = configs.getInt(SegmentOperations.PARALLEL_RANGE_DOWNLOAD_RANGE_SIZE_BYTES,
+        SegmentOperations.DEFAULT_PARALLEL_RANGE_DOWNLOAD_RANGE_SIZE_BYTES);
+    _parallelRangeDownloadMinSizeBytes = configs.getLong(SegmentOperations.PARALLEL_RANGE_DOWNLOAD_MIN_SIZE_BYTES,
+        SegmentOperations.DEFAULT_PARALLEL_RANGE_DOWNLOAD_MIN_SIZE_BYTES);
+    if (_numParallelRanges > 1) {
+      // Shared by all the segment downloads to bound the number of concurrent range requests
+      _rangeDownloadExecutor = Executors.newFixedThreadPool(_numParallelRanges,
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("segment-range-download-%d").build());
+    }
     initHttpClient(configs);
     _retryCount = configs.getInt(RETRY, RETRY_DEFAULT);
     _retryWaitMs = configs.getInt(RETRY_WAITIME_MS, RETRY_WAITIME_MS_DEFAULT);
   }
 
   protected void initHttpClient(Configuration configs) {
-    _httpClient = new FileUploadDownloadClient();
+    _httpClient = new FileUploadDownloadClient(null, getMaxConnectionsPerRoute());
+  }
+
+  /**
+   * Returns the maximum number of concurrent connections to the same host, which should allow all the parallel range
+   * requests.
+   */
+  protected int getMaxConnectionsPerRoute() {
+    return Math.max(_numParallelRanges, FileUploadDownloadClient.DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
   }
 
   @Override
   public void fetchSegmentToLocal(final String uri, final File tempFile)
       throws Exception {
+    downloadWithRetry(uri, () -> {
+      int statusCode = _httpClient.downloadFile(new URI(uri), tempFile);
+      _logger.info("Downloaded file from: {} to: {}; Length of downloaded file: {}; Response status code: {}", uri,
+          tempFile, tempFile.length(), statusCode);
+    });
+  }
+
+  /**
+   * Streams the segment from the source without writing the compressed segment to the local disk. When parallel range
+   * download is enabled and the source supports range requests, large segments are downloaded as multiple byte ranges
+   * in parallel.
+   * <p>Only the failures of reading from the source are retried. If the consumer fails without the source failing
+   * (e.g. the tarred segment is corrupted), the same content would be fetched again, so the failure is not retried.
+   */
+  @Override
+  public void fetchSegmentAsStream(String uri, File tempFile, StreamConsumer consumer)
+      throws Exception {
+    downloadWithRetry(uri, () -> {
+      try (SourceTrackingInputStream inputStream = new SourceTrackingInputStream(openStream(new URI(uri)))) {
+        try {
+          consumer.accept(inputStream);
+        } catch (Exception e) {
+          if (inputStream.hasSourceFailure()) {
+            throw e;
+          } else {
+            throw new ContentConsumptionException(e);
+          }
+        }
+      }
+      _logger.info("Streamed file from: {}", uri);
+    });
+  }
+
+  private InputStream openStream(URI uri)
+      throws Exception {
+    if (_rangeDownloadExecutor != null) {
+      long contentLength = -1L;
+      try {
+        contentLength =
+            _httpClient.getRangeSupportedContentLength(uri, FileUploadDownloadClient.GET_REQUEST_SOCKET_TIMEOUT_MS);
+      } catch (Exception e) {
+        _logger.warn("Caught exception while checking range support for: {}, downloading as a single stream", uri, e);
+      }
+      if (contentLength >= _parallelRangeDownloadMinSizeBytes) {
+        _logger.info("Downloading file from: {} with length: {} as ranges of size: {} in parallel", uri, contentLength,
+            _rangeSizeBytes);
+        return new ParallelRangeInputStream(_httpClient, uri, contentLength, _rangeSizeBytes, _numParallelRanges,
+            _rangeDownloadExecutor);
+      }
+    }
+    return _httpClient.openDownloadStream(uri, FileUploadDownloadClient.DEFAULT_SOCKET_TIMEOUT_MS);
+  }
+
+  private void downloadWithRetry(String uri, DownloadAttempt downloadAttempt)
+      throws Exception {
     RetryPolicies.exponentialBackoffRetryPolicy(_retryCount, _retryWaitMs, 5).attempt(() -> {
       try {
-        int statusCode = _httpClient.downloadFile(new URI(uri), tempFile);
-        _logger.info("Downloaded file from: {} to: {}; Length of downloaded file: {}; Response status code: {}", uri,
-            tempFile, tempFile.length(), statusCode);
+        downloadAttempt.run();
         return true;
       } catch (HttpErrorStatusException e) {
         int statusCode = e.getStatusCode();
@@ -73,6 +156,10 @@ public class HttpSegmentFetcher implements SegmentFetcher {
           _logger.error("Caught permanent exception while downloading file from: {}, won't retry", uri, e);
           throw e;
         }
+      } catch (ContentConsumptionException e) {
+        // Permanent exception
+        _logger.error("Caught permanent exception while consuming file from: {}, won't retry", uri, e.getCause());
+        throw (Exception) e.getCause();
       } catch (Exception e) {
         _logger.warn("Caught temporary exception while downloading file from: {}, will retry", uri, e);
         return false;
@@ -84,4 +171,66 @@ public class HttpSegmentFetcher implements SegmentFetcher {
   public Set<String> getProtectedConfigKeys() {
     return Collections.emptySet();
   }
+
+  private interface DownloadAttempt {
+    void run()
+        throws Exception;
+  }
+
+  /**
+   * Wrapper of the exception thrown by the stream consumer without any failure of reading from the source.
+   */
+  private static class ContentConsumptionException extends Exception {
+    ContentConsumptionException(Exception cause) {
+      super(cause);
+    }
+  }
+
+  /**
+   * Input stream that records whether reading from the underlying source has failed.
+   */
+  private static class SourceTrackingInputStream extends FilterInputStream {
+    private boolean _sourceFailure;
+
+    SourceTrackingInputStream(InputStream inputStream) {
+      super(inputStream);
+    }
+
+    boolean hasSourceFailure() {
+      return _sourceFailure;
+    }
+
+    @Override
+    public int read()
+        throws IOException {
+      try {
+        return super.read();
+      } catch (IOException e) {
+        _sourceFailure = true;
+        throw e;
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+        throws IOException {
+      try {
+        return super.read(b, off, len);
+      } catch (IOException e) {
+        _sourceFailure = true;
+        throw e;
+      }
+    }
+
+    @Override
+    public long skip(long n)
+        throws IOException {
+      try {
+        return super.skip(n);
+      } catch (IOException e) {
+        _sourceFailure = true;
+        throw e;
+      }
+    }
+  }
 }
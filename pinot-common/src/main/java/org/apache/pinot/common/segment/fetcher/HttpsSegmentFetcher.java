@@ -59,7 +59,7 @@ public class HttpsSegmentFetcher extends HttpSegmentFetcher {
   protected void initHttpClient(Configuration configs) {
     SSLContext sslContext =
         new ClientSSLContextGenerator(configs.subset(CommonConstants.PREFIX_OF_SSL_SUBSET)).generate();
-    _httpClient = new FileUploadDownloadClient(sslContext);
+    _httpClient = new FileUploadDownloadClient(sslContext, getMaxConnectionsPerRoute());
   }
 
   @Override
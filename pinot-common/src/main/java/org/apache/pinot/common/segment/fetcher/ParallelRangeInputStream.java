@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.segment.fetcher;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.apache.commons.io.IOUtils;
+import org.apache.pinot.common.utils.FileUploadDownloadClient;
+
+
+/**
+ * The {@code ParallelRangeInputStream} downloads a file as consecutive byte ranges in parallel, and returns the content
+ * in order, so that the reader can consume the beginning of the file while the following ranges are still being
+ * downloaded.
+ * <p>At most {@code numParallelRanges} ranges are downloaded ahead of the reader, which bounds the memory usage to
+ * {@code numParallelRanges * rangeSizeBytes} bytes.
+ * <p>This class is not thread-safe.
+ */
+class ParallelRangeInputStream extends InputStream {
+  private final FileUploadDownloadClient _httpClient;
+  private final URI _uri;
+  private final long _contentLength;
+  private final int _rangeSizeBytes;
+  private final ExecutorService _executorService;
+  private final Deque<Future<byte[]>> _pendingRanges = new ArrayDeque<>();
+
+  private long _nextRangeStart = 0;
+  private byte[] _currentRange;
+  private int _currentRangeOffset;
+
+  ParallelRangeInputStream(FileUploadDownloadClient httpClient, URI uri, long contentLength, int rangeSizeBytes,
+      int numParallelRanges, ExecutorService executorService) {
+    Preconditions.checkArgument(rangeSizeBytes > 0 && numParallelRanges > 0);
+    _httpClient = httpClient;
+    _uri = uri;
+    _contentLength = contentLength;
+    _rangeSizeBytes = rangeSizeBytes;
+    _executorService = executorService;
+    for (int i = 0; i < numParallelRanges; i++) {
+      submitNextRange();
+    }
+  }
+
+  private void submitNextRange() {
+    if (_nextRangeStart < _contentLength) {
+      long startOffset = _nextRangeStart;
+      long endOffset = Math.min(startOffset + _rangeSizeBytes, _contentLength) - 1;
+      _nextRangeStart = endOffset + 1;
+      _pendingRanges.add(_executorService.submit(() -> downloadRange(startOffset, endOffset)));
+    }
+  }
+
+  private byte[] downloadRange(long startOffset, long endOffset)
+      throws Exception {
+    byte[] bytes = new byte[(int) (endOffset - startOffset + 1)];
+    try (InputStream inputStream = _httpClient
+        .openDownloadStream(_uri, FileUploadDownloadClient.DEFAULT_SOCKET_TIMEOUT_MS, startOffset, endOffset)) {
+      IOUtils.readFully(inputStream, bytes);
+    }
+    return bytes;
+  }
+
+  /**
+   * Makes sure the current range has bytes remaining, returns {@code false} if the end of the file is reached.
+   */
+  private boolean ensureCurrentRange()
+      throws IOException {
+    while (_currentRange == null || _currentRangeOffset == _currentRange.length) {
+      Future<byte[]> future = _pendingRanges.poll();
+      if (future == null) {
+        return false;
+      }
+      try {
+        _currentRange = future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while downloading file: " + _uri);
+      } catch (ExecutionException e) {
+        throw new IOException("Caught exception while downloading range of file: " + _uri, e.getCause());
+      }
+      _currentRangeOffset = 0;
+      submitNextRange();
+    }
+    return true;
+  }
+
+  @Override
+  public int read()
+      throws IOException {
+    if (!ensureCurrentRange()) {
+      return -1;
+    }
+    return _currentRange[_currentRangeOffset++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len)
+      throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureCurrentRange()) {
+      return -1;
+    }
+    int numBytesToRead = Math.min(len, _currentRange.length - _currentRangeOffset);
+    System.arraycopy(_currentRange, _currentRangeOffset, b, off, numBytesToRead);
+    _currentRangeOffset += numBytesToRead;
+    return numBytesToRead;
+  }
+
+  @Override
+  public int available() {
+    return _currentRange != null ? _currentRange.length - _currentRangeOffset : 0;
+  }
+
+  @Override
+  public void close() {
+    for (Future<byte[]> future : _pendingRanges) {
+      future.cancel(true);
+    }
+    _pendingRanges.clear();
+    _currentRange = null;
+  }
+}
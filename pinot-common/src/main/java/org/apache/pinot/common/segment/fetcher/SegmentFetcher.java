@@ -19,8 +19,11 @@
 package org.apache.pinot.common.segment.fetcher;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.util.Set;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
 
 
 public interface SegmentFetcher {
@@ -40,10 +43,46 @@ public interface SegmentFetcher {
   void fetchSegmentToLocal(String uri, File tempFile)
       throws Exception;
 
+  /**
+   * Fetches segment from a uri location and passes the content to the consumer as a stream. Fetchers that can stream
+   * the content directly from the source should override this method to avoid staging the segment on the local disk.
+   * <p>The default implementation fetches the segment into the temporary file, then streams the file.
+   * <p>NOTE: the consumer might be invoked again with a new stream if the fetch is retried, so it must be able to
+   * discard the partial result of the previous invocation.
+   *
+   * @param uri current segment location
+   * @param tempFile location segment can be temporarily stored locally, deleted after the content is consumed
+   * @param consumer consumer of the segment content
+   * @throws Exception
+   */
+  default void fetchSegmentAsStream(String uri, File tempFile, StreamConsumer consumer)
+      throws Exception {
+    try {
+      fetchSegmentToLocal(uri, tempFile);
+      try (InputStream inputStream = new FileInputStream(tempFile)) {
+        consumer.accept(inputStream);
+      }
+    } finally {
+      FileUtils.deleteQuietly(tempFile);
+    }
+  }
+
   /**
    * Returns a list of config keys whose value should not be logged.
    *
    * @return List of protected config keys
    */
   Set<String> getProtectedConfigKeys();
+
+  /**
+   * Consumer of the segment content fetched as a stream.
+   */
+  interface StreamConsumer {
+
+    /**
+     * Consumes the segment content. The stream is closed by the fetcher after this method returns.
+     */
+    void accept(InputStream inputStream)
+        throws Exception;
+  }
 }
@@ -155,6 +155,44 @@ public class CommonConstants {
     public static final String CONFIG_OF_BROKER_MIN_RESOURCE_PERCENT_FOR_START =
         "pinot.broker.startup.minResourcePercent";
     public static final double DEFAULT_BROKER_MIN_RESOURCE_PERCENT_FOR_START = 100.0;
+    // Max size in bytes of the broker result cache, 0 to disable the cache
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_BYTES = "pinot.broker.result.cache.maxSizeBytes";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_BYTES = 0L;
+    // Entries are invalidated on external view change, the TTL only bounds the staleness if an invalidation is missed
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_TTL_MS = "pinot.broker.result.cache.ttlMs";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_TTL_MS = 3_600_000L;
+    // Number of threads in the reduce thread pool shared by all queries, 0 to reduce on the request thread only
+    public static final String CONFIG_OF_BROKER_REDUCE_NUM_THREADS = "pinot.broker.reduce.numThreads";
+    public static final int DEFAULT_BROKER_REDUCE_NUM_THREADS = 0;
+    public static final String CONFIG_OF_BROKER_REDUCE_MAX_THREADS_PER_QUERY = "pinot.broker.reduce.maxThreadsPerQuery";
+    public static final int DEFAULT_BROKER_REDUCE_MAX_THREADS_PER_QUERY = 4;
+    // Route each segment to the replica with the lowest latency and load at query time instead of the pre-computed
+    // random routing tables (only supported by the single connection broker request handler)
+    public static final String CONFIG_OF_ADAPTIVE_SERVER_SELECTION_ENABLED =
+        "pinot.broker.adaptiveServerSelection.enabled";
+    public static final boolean DEFAULT_ADAPTIVE_SERVER_SELECTION_ENABLED = false;
+    // Weight of the latest latency in the exponentially weighted moving average of the server latency
+    public static final String CONFIG_OF_ADAPTIVE_SERVER_SELECTION_EWMA_ALPHA =
+        "pinot.broker.adaptiveServerSelection.ewmaAlpha";
+    public static final double DEFAULT_ADAPTIVE_SERVER_SELECTION_EWMA_ALPHA = 0.3;
+    // Half-life of the decay of the server latency toward zero while no request to the server finishes, so that a
+    // server penalized for slowness gets queries again after recovering
+    public static final String CONFIG_OF_ADAPTIVE_SERVER_SELECTION_DECAY_HALF_LIFE_MS =
+        "pinot.broker.adaptiveServerSelection.decayHalfLifeMs";
+    public static final long DEFAULT_ADAPTIVE_SERVER_SELECTION_DECAY_HALF_LIFE_MS = 10_000L;
+    // Re-send the request to another replica if the server has not responded after the given percentile of its recent
+    // latencies, and take the response that arrives first (only supported by the single connection broker request
+    // handler)
+    public static final String CONFIG_OF_REQUEST_HEDGING_ENABLED = "pinot.broker.requestHedging.enabled";
+    public static final boolean DEFAULT_REQUEST_HEDGING_ENABLED = false;
+    public static final String CONFIG_OF_REQUEST_HEDGING_LATENCY_PERCENTILE =
+        "pinot.broker.requestHedging.latencyPercentile";
+    public static final double DEFAULT_REQUEST_HEDGING_LATENCY_PERCENTILE = 95.0;
+    public static final String CONFIG_OF_REQUEST_HEDGING_MIN_DELAY_MS = "pinot.broker.requestHedging.minDelayMs";
+    public static final long DEFAULT_REQUEST_HEDGING_MIN_DELAY_MS = 10L;
+    // Max ratio of the hedged requests to all the requests sent
+    public static final String CONFIG_OF_REQUEST_HEDGING_MAX_RATIO = "pinot.broker.requestHedging.maxRatio";
+    public static final double DEFAULT_REQUEST_HEDGING_MAX_RATIO = 0.05;
 
     public static class Request {
       public static final String PQL = "pql";
@@ -164,6 +202,11 @@ public class CommonConstants {
 
       public static class QueryOptionKey {
         public static final String PRESERVE_TYPE = "preserveType";
+        // Return the partial response without waiting for the remaining servers after this timeout (from the time the
+        // query is sent to the servers) once enough servers have responded
+        public static final String PARTIAL_RESPONSE_TIMEOUT_MS = "partialResponseTimeoutMs";
+        // Min fraction of the servers to respond before returning the partial response
+        public static final String PARTIAL_RESPONSE_MIN_SERVER_FRACTION = "partialResponseMinServerFraction";
       }
     }
   }
@@ -216,6 +259,9 @@ public class CommonConstants {
     public static final String DEFAULT_REQUEST_HANDLER_FACTORY_CLASS =
         "org.apache.pinot.server.request.SimpleRequestHandlerFactory";
     public static final String PREFIX_OF_CONFIG_OF_SEGMENT_FETCHER_FACTORY = "pinot.server.segment.fetcher";
+    // Verify the downloaded segments against the CRC recorded at segment creation before loading them
+    public static final String CONFIG_OF_SEGMENT_DOWNLOAD_VERIFY_CRC = "pinot.server.segment.download.verifyCrc";
+    public static final boolean DEFAULT_SEGMENT_DOWNLOAD_VERIFY_CRC = false;
 
     // Configs for server starter startup/shutdown checks
     // Startup: timeout for the startup checks
@@ -228,6 +274,16 @@ public class CommonConstants {
     public static final String CONFIG_OF_STARTUP_SERVICE_STATUS_CHECK_INTERVAL_MS =
         "pinot.server.startup.serviceStatusCheckIntervalMs";
     public static final long DEFAULT_STARTUP_SERVICE_STATUS_CHECK_INTERVAL_MS = 10_000L;
+    // Startup: number of threads to load the OFFLINE segments in parallel before registering the state model
+    //          Preprocessing (e.g. inverted index, bloom filter generation) happens on these threads
+    //          Set it to 0 to load the segments one state transition at a time
+    public static final String CONFIG_OF_STARTUP_NUM_SEGMENT_LOAD_THREADS =
+        "pinot.server.startup.numSegmentLoadThreads";
+    public static final int DEFAULT_STARTUP_NUM_SEGMENT_LOAD_THREADS = 0;
+    // Startup: number of threads to fetch (check the local copy or download) the OFFLINE segments before loading them
+    public static final String CONFIG_OF_STARTUP_NUM_SEGMENT_FETCH_THREADS =
+        "pinot.server.startup.numSegmentFetchThreads";
+    public static final int DEFAULT_STARTUP_NUM_SEGMENT_FETCH_THREADS = 4;
     // Shutdown: timeout for the shutdown checks
     public static final String CONFIG_OF_SHUTDOWN_TIMEOUT_MS = "pinot.server.shutdown.timeoutMs";
     public static final long DEFAULT_SHUTDOWN_TIMEOUT_MS = 600_000L;
@@ -390,5 +446,14 @@ public class CommonConstants {
     public static final int RETRY_DEFAULT = 3;
     public static final String RETRY_WAITIME_MS = "retry.wait.ms";
     public static final int RETRY_WAITIME_MS_DEFAULT = 100;
+
+    // Download large segments as multiple byte ranges in parallel (only for HTTP/HTTPS fetchers, and requires the
+    // source to support range requests). Disabled by default.
+    public static final String PARALLEL_RANGE_DOWNLOAD_NUM_RANGES = "parallel.range.download.num.ranges";
+    public static final int DEFAULT_PARALLEL_RANGE_DOWNLOAD_NUM_RANGES = 1;
+    public static final String PARALLEL_RANGE_DOWNLOAD_RANGE_SIZE_BYTES = "parallel.range.download.range.size.bytes";
+    public static final int DEFAULT_PARALLEL_RANGE_DOWNLOAD_RANGE_SIZE_BYTES = 16 * 1024 * 1024;
+    public static final String PARALLEL_RANGE_DOWNLOAD_MIN_SIZE_BYTES = "parallel.range.download.min.size.bytes";
+    public static final long DEFAULT_PARALLEL_RANGE_DOWNLOAD_MIN_SIZE_BYTES = 64 * 1024 * 1024L;
   }
 }
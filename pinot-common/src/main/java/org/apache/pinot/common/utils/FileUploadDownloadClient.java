@@ -23,6 +23,7 @@ import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -37,6 +38,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.HttpVersion;
 import org.apache.http.NameValuePair;
 import org.apache.http.StatusLine;
@@ -91,6 +93,9 @@ public class FileUploadDownloadClient implements Closeable {
   public static final int DEFAULT_SOCKET_TIMEOUT_MS = 600 * 1000; // 10 minutes
   public static final int GET_REQUEST_SOCKET_TIMEOUT_MS = 5 * 1000; // 5 seconds
   public static final int DELETE_REQUEST_SOCKET_TIMEOUT_MS = 10 * 1000; // 10 seconds
+  // Same as the defaults of the http client
+  public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 2;
+  public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 20;
 
   private static final String HTTP = "http";
   private static final String HTTPS = "https";
@@ -119,6 +124,18 @@ public class FileUploadDownloadClient implements Closeable {
     _httpClient = HttpClients.custom().setSSLContext(sslContext).build();
   }
 
+  /**
+   * Construct the client with optional {@link SSLContext} and the maximum number of concurrent connections to the same
+   * host.
+   *
+   * @param sslContext SSL context
+   * @param maxConnectionsPerRoute Maximum number of concurrent connections to the same host
+   */
+  public FileUploadDownloadClient(@Nullable SSLContext sslContext, int maxConnectionsPerRoute) {
+    _httpClient = HttpClients.custom().setSSLContext(sslContext).setMaxConnPerRoute(maxConnectionsPerRoute)
+        .setMaxConnTotal(Math.max(maxConnectionsPerRoute, DEFAULT_MAX_CONNECTIONS_TOTAL)).build();
+  }
+
   private static URI getURI(String scheme, String host, int port, String path)
       throws URISyntaxException {
     return new URI(scheme, null, host, port, path, null, null);
@@ -314,6 +331,20 @@ public class FileUploadDownloadClient implements Closeable {
     return requestBuilder.build();
   }
 
+  private static HttpUriRequest getDownloadFileRangeRequest(URI uri, int socketTimeoutMs, long startOffset,
+      long endOffset) {
+    RequestBuilder requestBuilder = RequestBuilder.get(uri).setVersion(HttpVersion.HTTP_1_1)
+        .setHeader(HttpHeaders.RANGE, "bytes=" + startOffset + "-" + endOffset);
+    setTimeout(requestBuilder, socketTimeoutMs);
+    return requestBuilder.build();
+  }
+
+  private static HttpUriRequest getFileInfoRequest(URI uri, int socketTimeoutMs) {
+    RequestBuilder requestBuilder = RequestBuilder.head(uri).setVersion(HttpVersion.HTTP_1_1);
+    setTimeout(requestBuilder, socketTimeoutMs);
+    return requestBuilder.build();
+  }
+
   private static ContentBody getContentBody(String fileName, File file) {
     return new FileBody(file, ContentType.DEFAULT_BINARY, fileName);
   }
@@ -652,6 +683,92 @@ public class FileUploadDownloadClient implements Closeable {
     return downloadFile(uri, DEFAULT_SOCKET_TIMEOUT_MS, dest);
   }
 
+  /**
+   * Opens a stream to download a file without writing it to disk. The caller is responsible for closing the stream.
+   *
+   * @param uri URI
+   * @param socketTimeoutMs Socket timeout in milliseconds
+   * @return Input stream of the file content
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   */
+  public InputStream openDownloadStream(URI uri, int socketTimeoutMs)
+      throws IOException, HttpErrorStatusException {
+    return openDownloadStream(getDownloadFileRequest(uri, socketTimeoutMs), HttpStatus.SC_OK);
+  }
+
+  /**
+   * Opens a stream to download a byte range of a file. The server must support range requests. The caller is
+   * responsible for closing the stream.
+   *
+   * @param uri URI
+   * @param socketTimeoutMs Socket timeout in milliseconds
+   * @param startOffset Start offset of the range (inclusive)
+   * @param endOffset End offset of the range (inclusive)
+   * @return Input stream of the range content
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   */
+  public InputStream openDownloadStream(URI uri, int socketTimeoutMs, long startOffset, long endOffset)
+      throws IOException, HttpErrorStatusException {
+    return openDownloadStream(getDownloadFileRangeRequest(uri, socketTimeoutMs, startOffset, endOffset),
+        HttpStatus.SC_PARTIAL_CONTENT);
+  }
+
+  private InputStream openDownloadStream(HttpUriRequest request, int expectedStatusCode)
+      throws IOException, HttpErrorStatusException {
+    CloseableHttpResponse response = _httpClient.execute(request);
+    try {
+      StatusLine statusLine = response.getStatusLine();
+      int statusCode = statusLine.getStatusCode();
+      if (statusCode >= 300) {
+        throw new HttpErrorStatusException(getErrorMessage(request, response), statusCode);
+      }
+      Preconditions.checkState(statusCode == expectedStatusCode,
+          "Got status code: %s while expecting: %s for request: %s", statusCode, expectedStatusCode, request.getURI());
+      return new FilterInputStream(response.getEntity().getContent()) {
+        @Override
+        public void close()
+            throws IOException {
+          try {
+            super.close();
+          } finally {
+            response.close();
+          }
+        }
+      };
+    } catch (Exception e) {
+      response.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the length of the file if the server supports range requests on it, or -1 otherwise.
+   *
+   * @param uri URI
+   * @param socketTimeoutMs Socket timeout in milliseconds
+   * @return Length of the file if range requests are supported, or -1 otherwise
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   */
+  public long getRangeSupportedContentLength(URI uri, int socketTimeoutMs)
+      throws IOException, HttpErrorStatusException {
+    HttpUriRequest request = getFileInfoRequest(uri, socketTimeoutMs);
+    try (CloseableHttpResponse response = _httpClient.execute(request)) {
+      int statusCode = response.getStatusLine().getStatusCode();
+      if (statusCode >= 300) {
+        throw new HttpErrorStatusException(getErrorMessage(request, response), statusCode);
+      }
+      Header acceptRanges = response.getFirstHeader(HttpHeaders.ACCEPT_RANGES);
+      Header contentLength = response.getFirstHeader(HttpHeaders.CONTENT_LENGTH);
+      if (acceptRanges == null || !"bytes".equals(acceptRanges.getValue()) || contentLength == null) {
+        return -1L;
+      }
+      return Long.parseLong(contentLength.getValue());
+    }
+  }
+
   @Override
   public void close()
       throws IOException {
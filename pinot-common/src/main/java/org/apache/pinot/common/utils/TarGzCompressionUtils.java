@@ -31,6 +31,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.Adler32;
+import java.util.zip.CheckedOutputStream;
+import javax.annotation.Nullable;
 import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
@@ -154,14 +158,33 @@ public class TarGzCompressionUtils {
    */
   public static List<File> unTar(final File inputFile, final File outputDir)
       throws IOException, ArchiveException {
+    LOGGER.debug("Untaring {} to dir {}.", inputFile.getAbsolutePath(), outputDir.getAbsolutePath());
+    return unTar(new FileInputStream(inputFile), outputDir, null);
+  }
+
+  /**
+   * Untars a tar.gz stream into the output directory without staging the compressed content on disk. The input stream
+   * is closed after the content is untarred.
+   * <p>If the file checksums map is provided, the Adler32 checksum of each untarred file is computed while the file is
+   * being written and put into the map, so that the content can be verified without reading the files again.
+   *
+   * @param inputStream   the input tar.gz stream
+   * @param outputDir     the output directory file.
+   * @param fileChecksums the map to put the Adler32 checksum of each untarred file into, or {@code null}
+   * @throws IOException
+   *
+   * @return The {@link List} of {@link File}s with the untared content.
+   * @throws ArchiveException
+   */
+  public static List<File> unTar(InputStream inputStream, File outputDir, @Nullable Map<File, Long> fileChecksums)
+      throws IOException, ArchiveException {
 
     String outputDirectoryPath = outputDir.getCanonicalPath();
-    LOGGER.debug("Untaring {} to dir {}.", inputFile.getAbsolutePath(), outputDirectoryPath);
     TarArchiveInputStream debInputStream = null;
     InputStream is = null;
     final List<File> untaredFiles = new LinkedList<File>();
     try {
-      is = new GzipCompressorInputStream(new BufferedInputStream(new FileInputStream(inputFile)));
+      is = new GzipCompressorInputStream(new BufferedInputStream(inputStream));
       debInputStream = (TarArchiveInputStream) new ArchiveStreamFactory().createArchiveInputStream("tar", is);
       TarArchiveEntry entry = null;
       while ((entry = (TarArchiveEntry) debInputStream.getNextEntry()) != null) {
@@ -188,12 +211,25 @@ public class TarGzCompressionUtils {
           if (!directory.exists()) {
             directory.mkdirs();
           }
-          OutputStream outputFileStream = null;
-          try {
-            outputFileStream = new FileOutputStream(outputFile);
-            IOUtils.copy(debInputStream, outputFileStream);
-          } finally {
-            IOUtils.closeQuietly(outputFileStream);
+          if (fileChecksums != null) {
+            CheckedOutputStream checkedOutputStream = null;
+            try {
+              checkedOutputStream =
+                  new CheckedOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile)), new Adler32());
+              IOUtils.copy(debInputStream, checkedOutputStream);
+              checkedOutputStream.flush();
+              fileChecksums.put(outputFile, checkedOutputStream.getChecksum().getValue());
+            } finally {
+              IOUtils.closeQuietly(checkedOutputStream);
+            }
+          } else {
+            OutputStream outputFileStream = null;
+            try {
+              outputFileStream = new FileOutputStream(outputFile);
+              IOUtils.copy(debInputStream, outputFileStream);
+            } finally {
+              IOUtils.closeQuietly(outputFileStream);
+            }
           }
         }
         untaredFiles.add(outputFile);
@@ -201,6 +237,7 @@ public class TarGzCompressionUtils {
     } finally {
       IOUtils.closeQuietly(debInputStream);
       IOUtils.closeQuietly(is);
+      IOUtils.closeQuietly(inputStream);
     }
     return untaredFiles;
   }
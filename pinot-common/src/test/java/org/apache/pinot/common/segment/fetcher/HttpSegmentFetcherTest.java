@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.segment.fetcher;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.IOUtils;
+import org.apache.pinot.common.utils.FileUploadDownloadClient;
+import org.apache.pinot.common.utils.retry.RetriableOperationException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class HttpSegmentFetcherTest {
+  private static final String DOWNLOAD_URI = "http://localhost:1234/segments/myTable/mySegment";
+  private static final File TEMP_FILE = new File(System.getProperty("java.io.tmpdir"), "HttpSegmentFetcherTest");
+  private static final int CONTENT_LENGTH = 10_500;
+  private static final int RANGE_SIZE_BYTES = 1_000;
+  private static final int NUM_PARALLEL_RANGES = 4;
+  private static final Random RANDOM = new Random();
+
+  private final byte[] _content = new byte[CONTENT_LENGTH];
+  private FileUploadDownloadClient _httpClient;
+  private HttpSegmentFetcher _segmentFetcher;
+
+  @BeforeMethod
+  public void setUp()
+      throws Exception {
+    RANDOM.nextBytes(_content);
+    _httpClient = mock(FileUploadDownloadClient.class);
+    when(_httpClient.openDownloadStream(any(URI.class), anyInt()))
+        .thenAnswer(invocation -> new ByteArrayInputStream(_content));
+    when(_httpClient.getRangeSupportedContentLength(any(URI.class), anyInt())).thenReturn((long) CONTENT_LENGTH);
+
+    _segmentFetcher = new HttpSegmentFetcher();
+    _segmentFetcher._httpClient = _httpClient;
+    _segmentFetcher._retryCount = 3;
+    _segmentFetcher._retryWaitMs = 1;
+  }
+
+  private void enableParallelRangeDownload() {
+    _segmentFetcher._numParallelRanges = NUM_PARALLEL_RANGES;
+    _segmentFetcher._rangeSizeBytes = RANGE_SIZE_BYTES;
+    _segmentFetcher._parallelRangeDownloadMinSizeBytes = 0;
+    _segmentFetcher._rangeDownloadExecutor = Executors.newFixedThreadPool(NUM_PARALLEL_RANGES);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    if (_segmentFetcher._rangeDownloadExecutor != null) {
+      _segmentFetcher._rangeDownloadExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFetchSegmentAsStream()
+      throws Exception {
+    byte[][] result = new byte[1][];
+    _segmentFetcher.fetchSegmentAsStream(DOWNLOAD_URI, TEMP_FILE,
+        inputStream -> result[0] = IOUtils.toByteArray(inputStream));
+    Assert.assertEquals(result[0], _content);
+    Assert.assertFalse(TEMP_FILE.exists());
+  }
+
+  @Test
+  public void testParallelRangesInOrder()
+      throws Exception {
+    enableParallelRangeDownload();
+    when(_httpClient.openDownloadStream(any(URI.class), anyInt(), anyLong(), anyLong())).thenAnswer(invocation -> {
+      Thread.sleep(RANDOM.nextInt(20));
+      return getRangeStream((Long) invocation.getArguments()[2], (Long) invocation.getArguments()[3]);
+    });
+
+    byte[][] result = new byte[1][];
+    _segmentFetcher.fetchSegmentAsStream(DOWNLOAD_URI, TEMP_FILE,
+        inputStream -> result[0] = IOUtils.toByteArray(inputStream));
+    Assert.assertEquals(result[0], _content);
+    verify(_httpClient, times(0)).openDownloadStream(any(URI.class), anyInt());
+  }
+
+  @Test
+  public void testRetryOnRangeFailure()
+      throws Exception {
+    // The 6th range fails on the first attempt
+    enableParallelRangeDownload();
+    long failedRangeStart = 5 * RANGE_SIZE_BYTES;
+    AtomicBoolean failed = new AtomicBoolean();
+    when(_httpClient.openDownloadStream(any(URI.class), anyInt(), anyLong(), anyLong())).thenAnswer(invocation -> {
+      long startOffset = (Long) invocation.getArguments()[2];
+      if (startOffset == failedRangeStart && failed.compareAndSet(false, true)) {
+        throw new IOException("Connection reset");
+      }
+      return getRangeStream(startOffset, (Long) invocation.getArguments()[3]);
+    });
+
+    AtomicInteger numAttempts = new AtomicInteger();
+    byte[][] result = new byte[1][];
+    _segmentFetcher.fetchSegmentAsStream(DOWNLOAD_URI, TEMP_FILE, inputStream -> {
+      numAttempts.getAndIncrement();
+      result[0] = IOUtils.toByteArray(inputStream);
+    });
+    Assert.assertEquals(numAttempts.get(), 2);
+    Assert.assertEquals(result[0], _content);
+  }
+
+  @Test
+  public void testNoRetryOnConsumerFailure()
+      throws Exception {
+    AtomicInteger numAttempts = new AtomicInteger();
+    try {
+      _segmentFetcher.fetchSegmentAsStream(DOWNLOAD_URI, TEMP_FILE, inputStream -> {
+        numAttempts.getAndIncrement();
+        IOUtils.toByteArray(inputStream);
+        throw new IOException("Corrupted tar file");
+      });
+      Assert.fail("Expected RetriableOperationException");
+    } catch (RetriableOperationException e) {
+      Assert.assertEquals(e.getCause().getMessage(), "Corrupted tar file");
+    }
+    Assert.assertEquals(numAttempts.get(), 1);
+    verify(_httpClient, times(1)).openDownloadStream(any(URI.class), anyInt());
+  }
+
+  @Test
+  public void testCloseCancelsPendingRanges()
+      throws Exception {
+    // Only the first range can be downloaded, the other ranges block until they are cancelled
+    enableParallelRangeDownload();
+    CountDownLatch startedLatch = new CountDownLatch(NUM_PARALLEL_RANGES);
+    CountDownLatch interruptedLatch = new CountDownLatch(NUM_PARALLEL_RANGES);
+    when(_httpClient.openDownloadStream(any(URI.class), anyInt(), anyLong(), anyLong())).thenAnswer(invocation -> {
+      long startOffset = (Long) invocation.getArguments()[2];
+      if (startOffset > 0) {
+        startedLatch.countDown();
+        try {
+          new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+          interruptedLatch.countDown();
+          throw e;
+        }
+      }
+      return getRangeStream(startOffset, (Long) invocation.getArguments()[3]);
+    });
+
+    // The consumer stops after the first range, the stream should be closed by the fetcher
+    byte[] buffer = new byte[RANGE_SIZE_BYTES];
+    _segmentFetcher.fetchSegmentAsStream(DOWNLOAD_URI, TEMP_FILE, inputStream -> {
+      IOUtils.readFully(inputStream, buffer);
+      Assert.assertTrue(startedLatch.await(10, TimeUnit.SECONDS));
+    });
+    Assert.assertEquals(buffer, Arrays.copyOf(_content, RANGE_SIZE_BYTES));
+    Assert.assertTrue(interruptedLatch.await(10, TimeUnit.SECONDS));
+  }
+
+  private InputStream getRangeStream(long startOffset, long endOffset) {
+    return new ByteArrayInputStream(_content, (int) startOffset, (int) (endOffset - startOffset + 1));
+  }
+}
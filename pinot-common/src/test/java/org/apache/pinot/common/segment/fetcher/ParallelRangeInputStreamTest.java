@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.segment.fetcher;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+import org.apache.pinot.common.utils.FileUploadDownloadClient;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class ParallelRangeInputStreamTest {
+  private static final URI DOWNLOAD_URI = URI.create("http://localhost:1234/segments/myTable/mySegment");
+  // The last range is a partial range
+  private static final int CONTENT_LENGTH = 10_500;
+  private static final int RANGE_SIZE_BYTES = 1_000;
+  private static final int NUM_RANGES = 11;
+  private static final int NUM_PARALLEL_RANGES = 4;
+  private static final Random RANDOM = new Random();
+
+  private final byte[] _content = new byte[CONTENT_LENGTH];
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    RANDOM.nextBytes(_content);
+    _executorService = Executors.newFixedThreadPool(NUM_PARALLEL_RANGES);
+  }
+
+  @Test
+  public void testRangesReturnedInOrder()
+      throws Exception {
+    // Ranges complete in random order
+    FileUploadDownloadClient httpClient = mock(FileUploadDownloadClient.class);
+    when(httpClient.openDownloadStream(any(URI.class), anyInt(), anyLong(), anyLong())).thenAnswer(invocation -> {
+      Thread.sleep(RANDOM.nextInt(20));
+      return getRangeStream((Long) invocation.getArguments()[2], (Long) invocation.getArguments()[3]);
+    });
+
+    try (InputStream inputStream = new ParallelRangeInputStream(httpClient, DOWNLOAD_URI, CONTENT_LENGTH,
+        RANGE_SIZE_BYTES, NUM_PARALLEL_RANGES, _executorService)) {
+      Assert.assertEquals(IOUtils.toByteArray(inputStream), _content);
+      Assert.assertEquals(inputStream.read(), -1);
+    }
+    verify(httpClient, times(NUM_RANGES)).openDownloadStream(any(URI.class), anyInt(), anyLong(), anyLong());
+  }
+
+  @Test
+  public void testRangeFailure()
+      throws Exception {
+    // Ranges after the first 5 ranges fail
+    int numBytesBeforeFailure = 5 * RANGE_SIZE_BYTES;
+    FileUploadDownloadClient httpClient = mock(FileUploadDownloadClient.class);
+    when(httpClient.openDownloadStream(any(URI.class), anyInt(), anyLong(), anyLong())).thenAnswer(invocation -> {
+      long startOffset = (Long) invocation.getArguments()[2];
+      if (startOffset >= numBytesBeforeFailure) {
+        throw new IOException("Connection reset");
+      }
+      return getRangeStream(startOffset, (Long) invocation.getArguments()[3]);
+    });
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (InputStream inputStream = new ParallelRangeInputStream(httpClient, DOWNLOAD_URI, CONTENT_LENGTH,
+        RANGE_SIZE_BYTES, NUM_PARALLEL_RANGES, _executorService)) {
+      byte[] buffer = new byte[100];
+      int numBytesRead;
+      while ((numBytesRead = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, numBytesRead);
+      }
+      Assert.fail("Expected IOException");
+    } catch (IOException e) {
+      Assert.assertEquals(e.getCause().getMessage(), "Connection reset");
+    }
+
+    // The content before the failed range should be returned in order
+    Assert.assertEquals(outputStream.toByteArray(), Arrays.copyOf(_content, numBytesBeforeFailure));
+  }
+
+  @Test
+  public void testCloseCancelsPendingRanges()
+      throws Exception {
+    // Only the first range can be downloaded, the other ranges block until they are cancelled
+    CountDownLatch startedLatch = new CountDownLatch(NUM_PARALLEL_RANGES);
+    CountDownLatch interruptedLatch = new CountDownLatch(NUM_PARALLEL_RANGES);
+    FileUploadDownloadClient httpClient = mock(FileUploadDownloadClient.class);
+    when(httpClient.openDownloadStream(any(URI.class), anyInt(), anyLong(), anyLong())).thenAnswer(invocation -> {
+      long startOffset = (Long) invocation.getArguments()[2];
+      if (startOffset > 0) {
+        startedLatch.countDown();
+        try {
+          new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+          interruptedLatch.countDown();
+          throw e;
+        }
+      }
+      return getRangeStream(startOffset, (Long) invocation.getArguments()[3]);
+    });
+
+    InputStream inputStream = new ParallelRangeInputStream(httpClient, DOWNLOAD_URI, CONTENT_LENGTH,
+        RANGE_SIZE_BYTES, NUM_PARALLEL_RANGES, _executorService);
+    byte[] buffer = new byte[RANGE_SIZE_BYTES];
+    Assert.assertEquals(inputStream.read(buffer), RANGE_SIZE_BYTES);
+    Assert.assertEquals(buffer, Arrays.copyOf(_content, RANGE_SIZE_BYTES));
+
+    // Reading the first range submits another range, so there are NUM_PARALLEL_RANGES blocked ranges
+    Assert.assertTrue(startedLatch.await(10, TimeUnit.SECONDS));
+    inputStream.close();
+    Assert.assertTrue(interruptedLatch.await(10, TimeUnit.SECONDS));
+    verify(httpClient, times(NUM_PARALLEL_RANGES + 1))
+        .openDownloadStream(any(URI.class), anyInt(), anyLong(), anyLong());
+  }
+
+  private InputStream getRangeStream(long startOffset, long endOffset) {
+    return new ByteArrayInputStream(_content, (int) startOffset, (int) (endOffset - startOffset + 1));
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdownNow();
+  }
+}
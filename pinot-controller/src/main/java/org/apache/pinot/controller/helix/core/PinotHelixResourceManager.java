@@ -1639,10 +1639,10 @@ public class PinotHelixResourceManager {
       // We return success even if we are not able to send messages (which can happen if no servers are alive).
       // For segment validation errors we would have returned earlier.
       sendSegmentRefreshMessage(offlineTableName, offlineSegmentZKMetadata);
-      // Send a message to the brokers to update the table's time boundary info if the segment push type is APPEND.
-      if (shouldSendTimeboundaryRefreshMsg(rawTableName, tableConfig)) {
-        sendTimeboundaryRefreshMessageToBrokers(offlineTableName, offlineSegmentZKMetadata);
-      }
+      // Send a message to the brokers to update the table's time boundary info and invalidate the cached results.
+      // NOTE: the segment refresh does not change the external view, so the brokers need to be notified for all the
+      //       tables, not only the hybrid tables with APPEND push type.
+      sendTimeboundaryRefreshMessageToBrokers(offlineTableName, offlineSegmentZKMetadata);
     } else {
       // Go through the ONLINE->OFFLINE->ONLINE state transition to update the segment
       if (!updateExistedSegment(offlineTableName, offlineSegmentZKMetadata)) {
@@ -1750,19 +1750,6 @@ public class PinotHelixResourceManager {
     return true;
   }
 
-  // Return true iff the table has both realtime and offline sub-tables AND the segment push type is APPEND (i.e.,
-  // there is time column info the segments).
-  private boolean shouldSendTimeboundaryRefreshMsg(String rawTableName, TableConfig tableConfig) {
-    if (!hasOfflineTable(rawTableName) || !hasRealtimeTable(rawTableName)) {
-      return false;
-    }
-    if (tableConfig == null) {
-      return false;
-    }
-    SegmentsValidationAndRetentionConfig validationConfig = tableConfig.getValidationConfig();
-    return validationConfig != null && APPEND.equals(validationConfig.getSegmentPushType());
-  }
-
   /**
    * Attempt to send a message to refresh the new segment. We do not wait for any acknowledgements.
    * The message is sent as session-specific, so if a new zk session is created (e.g. server restarts)
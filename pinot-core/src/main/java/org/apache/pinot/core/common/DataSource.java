@@ -19,9 +19,11 @@
 package org.apache.pinot.core.common;
 
 import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.segment.index.readers.BitmapRangeIndexReader;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 public abstract class DataSource extends BaseOperator {
@@ -33,4 +35,8 @@ public abstract class DataSource extends BaseOperator {
   public abstract Dictionary getDictionary();
 
   public abstract BloomFilterReader getBloomFilter();
+
+  public abstract BitmapRangeIndexReader getRangeIndex();
+
+  public abstract ZoneMapReader getZoneMap();
 }
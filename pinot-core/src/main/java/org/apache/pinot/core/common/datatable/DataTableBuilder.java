@@ -84,7 +84,11 @@ import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils
 // TODO:   2. Use one dictionary for all columns (save space).
 // TODO:   3. Given a data schema, write all values one by one instead of using rowId and colId to position (save time).
 public class DataTableBuilder {
+  public static final int VERSION_2 = 2;
+  public static final int VERSION_3 = 3;
+
   private final DataSchema _dataSchema;
+  private final int _version;
   private final int[] _columnOffsets;
   private final int _rowSizeInBytes;
   private final Map<String, Map<String, Integer>> _dictionaryMap = new HashMap<>();
@@ -98,7 +102,17 @@ public class DataTableBuilder {
   private ByteBuffer _currentRowDataByteBuffer;
 
   public DataTableBuilder(@Nonnull DataSchema dataSchema) {
+    this(dataSchema, VERSION_2);
+  }
+
+  /**
+   * Constructor for the data table builder with the given data table version. Brokers can deserialize all the supported
+   * versions, so brokers should be upgraded before switching the servers to a newer version.
+   */
+  public DataTableBuilder(@Nonnull DataSchema dataSchema, int version) {
+    checkVersion(version);
     _dataSchema = dataSchema;
+    _version = version;
     _columnOffsets = new int[dataSchema.size()];
     _rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, _columnOffsets);
   }
@@ -281,9 +295,32 @@ public class DataTableBuilder {
     _fixedSizeDataByteArrayOutputStream.write(_currentRowDataByteBuffer.array());
   }
 
-  public DataTable build() {
-    return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
-        _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+  public DataTable build()
+      throws IOException {
+    if (_version == VERSION_3) {
+      return new DataTableImplV3(_numRows, _dataSchema, _reverseDictionaryMap,
+          _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+    } else {
+      return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
+          _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+    }
+  }
+
+  /**
+   * Throws {@link IllegalArgumentException} if the given data table version is not supported.
+   */
+  public static void checkVersion(int version) {
+    if (version != VERSION_2 && version != VERSION_3) {
+      throw new IllegalArgumentException("Unsupported data table version: " + version);
+    }
+  }
+
+  /**
+   * Returns an empty data table (without data schema) with the given data table version.
+   */
+  public static DataTable getEmptyDataTable(int version) {
+    checkVersion(version);
+    return version == VERSION_3 ? new DataTableImplV3() : new DataTableImplV2();
   }
 
   /**
@@ -291,6 +328,14 @@ public class DataTableBuilder {
    */
   public static DataTable buildEmptyDataTable(BrokerRequest brokerRequest)
       throws IOException {
+    return buildEmptyDataTable(brokerRequest, VERSION_2);
+  }
+
+  /**
+   * Build an empty data table based on the broker request with the given data table version.
+   */
+  public static DataTable buildEmptyDataTable(BrokerRequest brokerRequest, int version)
+      throws IOException {
     // Selection query.
     if (brokerRequest.isSetSelections()) {
       Selection selection = brokerRequest.getSelections();
@@ -301,7 +346,7 @@ public class DataTableBuilder {
       Arrays.fill(columnDataTypes, DataSchema.ColumnDataType.STRING);
       DataSchema dataSchema =
           new DataSchema(selectionColumns.toArray(new String[numSelectionColumns]), columnDataTypes);
-      return new DataTableBuilder(dataSchema).build();
+      return new DataTableBuilder(dataSchema, version).build();
     }
 
     // Aggregation query.
@@ -319,7 +364,7 @@ public class DataTableBuilder {
           new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.OBJECT};
 
       // Build the data table.
-      DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes), version);
       for (int i = 0; i < numAggregations; i++) {
         dataTableBuilder.startRow();
         dataTableBuilder.setColumn(0, aggregationFunctionContexts[i].getAggregationColumnName());
@@ -343,7 +388,8 @@ public class DataTableBuilder {
       }
 
       // Build the data table.
-      DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(aggregationColumnNames, columnDataTypes));
+      DataTableBuilder dataTableBuilder =
+          new DataTableBuilder(new DataSchema(aggregationColumnNames, columnDataTypes), version);
       dataTableBuilder.startRow();
       for (int i = 0; i < numAggregations; i++) {
         switch (columnDataTypes[i]) {
@@ -33,6 +33,8 @@ public class DataTableFactory {
     switch (version) {
       case 2:
         return new DataTableImplV2(byteBuffer);
+      case DataTableImplV3.VERSION:
+        return new DataTableImplV3(byteBuffer);
       default:
         throw new UnsupportedOperationException("Unsupported data table version: " + version);
     }
@@ -0,0 +1,563 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.common.datatable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+
+
+/**
+ * Column-major data table.
+ * <p>Compared to {@link DataTableImplV2}, the values of each column are stored contiguously in a typed section, and
+ * each STRING column carries its own dictionary stored as an offset array followed by the UTF-8 bytes, so that the
+ * dictionary values are only decoded when the column is first accessed. All the sections are read with absolute
+ * positions from a single buffer, so deserializing a data table only copies the bytes once and does not decode any
+ * value up front.
+ * <p>Float values are stored with 4 bytes (V2 stores them with 8 bytes for backward compatibility).
+ */
+public class DataTableImplV3 implements DataTable {
+  public static final int VERSION = 3;
+
+  // VERSION
+  // NUM_ROWS
+  // NUM_COLUMNS
+  // METADATA_SIZE
+  // DATA_SCHEMA_SIZE
+  // BODY_SIZE
+  private static final int HEADER_SIZE = Integer.BYTES * 6;
+
+  // Column directory entry inside the body: (DATA_START|DATA_SIZE|DICTIONARY_START|DICTIONARY_SIZE), followed by one
+  // entry (VARIABLE_SIZE_DATA_START|VARIABLE_SIZE_DATA_SIZE) for the variable size data shared by all columns.
+  // All offsets are relative to the start of the body.
+  private static final int COLUMN_DIRECTORY_ENTRY_SIZE = Integer.BYTES * 4;
+  private static final int VARIABLE_SIZE_DATA_ENTRY_SIZE = Integer.BYTES * 2;
+
+  private final int _numRows;
+  private final int _numColumns;
+  private final DataSchema _dataSchema;
+  private final byte[] _dataSchemaBytes;
+  private final ByteBuffer _body;
+  private final int _bodySize;
+  private final int[] _columnDataStarts;
+  private final int[] _dictionaryStarts;
+  // Decoded dictionaries, published atomically because the data table can be read by multiple threads
+  private final AtomicReferenceArray<String[]> _dictionaries;
+  private final int _variableSizeDataStart;
+  private final Map<String, String> _metadata;
+
+  /**
+   * Construct data table with results. (Server side)
+   * <p>The fixed size data is passed in row-major order (as built by {@link DataTableBuilder}) and transposed into
+   * column-major order.
+   */
+  public DataTableImplV3(int numRows, @Nonnull DataSchema dataSchema,
+      @Nonnull Map<String, Map<Integer, String>> dictionaryMap, @Nonnull byte[] fixedSizeDataBytes,
+      @Nonnull byte[] variableSizeDataBytes)
+      throws IOException {
+    _numRows = numRows;
+    _numColumns = dataSchema.size();
+    _dataSchema = dataSchema;
+    _dataSchemaBytes = dataSchema.toBytes();
+    _metadata = new HashMap<>();
+
+    int[] rowColumnOffsets = new int[_numColumns];
+    int rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, rowColumnOffsets);
+    ByteBuffer rowMajorData = ByteBuffer.wrap(fixedSizeDataBytes);
+
+    // Serialize the dictionaries first to compute the body size
+    byte[][] dictionaryBytes = new byte[_numColumns][];
+    int bodySize = _numColumns * COLUMN_DIRECTORY_ENTRY_SIZE + VARIABLE_SIZE_DATA_ENTRY_SIZE;
+    for (int colId = 0; colId < _numColumns; colId++) {
+      bodySize += numRows * getColumnSizeInBytes(dataSchema.getColumnDataType(colId));
+      Map<Integer, String> dictionary = dictionaryMap.get(dataSchema.getColumnName(colId));
+      if (dictionary != null) {
+        dictionaryBytes[colId] = serializeDictionary(dictionary);
+        bodySize += dictionaryBytes[colId].length;
+      }
+    }
+    bodySize += variableSizeDataBytes.length;
+
+    _bodySize = bodySize;
+    _body = ByteBuffer.allocate(bodySize);
+    _columnDataStarts = new int[_numColumns];
+    _dictionaryStarts = new int[_numColumns];
+    _dictionaries = new AtomicReferenceArray<>(_numColumns);
+
+    // Write the column data and dictionaries
+    int offset = _numColumns * COLUMN_DIRECTORY_ENTRY_SIZE + VARIABLE_SIZE_DATA_ENTRY_SIZE;
+    for (int colId = 0; colId < _numColumns; colId++) {
+      DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(colId);
+      int columnSizeInBytes = getColumnSizeInBytes(columnDataType);
+      int columnDataSize = numRows * columnSizeInBytes;
+      _columnDataStarts[colId] = offset;
+      _body.putInt(colId * COLUMN_DIRECTORY_ENTRY_SIZE, offset);
+      _body.putInt(colId * COLUMN_DIRECTORY_ENTRY_SIZE + Integer.BYTES, columnDataSize);
+
+      int rowColumnOffset = rowColumnOffsets[colId];
+      _body.position(offset);
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        int rowOffset = rowId * rowSizeInBytes + rowColumnOffset;
+        switch (columnDataType) {
+          case INT:
+          case STRING:
+            _body.putInt(rowMajorData.getInt(rowOffset));
+            break;
+          case LONG:
+            _body.putLong(rowMajorData.getLong(rowOffset));
+            break;
+          case FLOAT:
+            _body.putFloat(rowMajorData.getFloat(rowOffset));
+            break;
+          case DOUBLE:
+            _body.putDouble(rowMajorData.getDouble(rowOffset));
+            break;
+          // Object and array. (POSITION|LENGTH)
+          default:
+            _body.putInt(rowMajorData.getInt(rowOffset));
+            _body.putInt(rowMajorData.getInt(rowOffset + Integer.BYTES));
+            break;
+        }
+      }
+      offset += columnDataSize;
+
+      if (dictionaryBytes[colId] != null) {
+        _dictionaryStarts[colId] = offset;
+        _body.putInt(colId * COLUMN_DIRECTORY_ENTRY_SIZE + Integer.BYTES * 2, offset);
+        _body.putInt(colId * COLUMN_DIRECTORY_ENTRY_SIZE + Integer.BYTES * 3, dictionaryBytes[colId].length);
+        _body.put(dictionaryBytes[colId]);
+        offset += dictionaryBytes[colId].length;
+      }
+    }
+
+    // Write the variable size data
+    _variableSizeDataStart = offset;
+    _body.putInt(_numColumns * COLUMN_DIRECTORY_ENTRY_SIZE, offset);
+    _body.putInt(_numColumns * COLUMN_DIRECTORY_ENTRY_SIZE + Integer.BYTES, variableSizeDataBytes.length);
+    _body.position(offset);
+    _body.put(variableSizeDataBytes);
+  }
+
+  /**
+   * Construct empty data table. (Server side)
+   */
+  public DataTableImplV3() {
+    _numRows = 0;
+    _numColumns = 0;
+    _dataSchema = null;
+    _dataSchemaBytes = null;
+    _body = null;
+    _bodySize = 0;
+    _columnDataStarts = null;
+    _dictionaryStarts = null;
+    _dictionaries = null;
+    _variableSizeDataStart = 0;
+    _metadata = new HashMap<>();
+  }
+
+  /**
+   * Construct data table from byte buffer. (broker side)
+   * <p>The buffer passed in might be backed by a pooled network buffer which is released after this call, so the body
+   * is copied once into a heap buffer. No value is decoded up front.
+   */
+  public DataTableImplV3(@Nonnull ByteBuffer byteBuffer)
+      throws IOException {
+    // Read header.
+    _numRows = byteBuffer.getInt();
+    _numColumns = byteBuffer.getInt();
+    int metadataSize = byteBuffer.getInt();
+    int dataSchemaSize = byteBuffer.getInt();
+    _bodySize = byteBuffer.getInt();
+
+    // Read metadata.
+    byte[] metadataBytes = new byte[metadataSize];
+    byteBuffer.get(metadataBytes);
+    _metadata = deserializeMetadata(metadataBytes);
+
+    // Read data schema.
+    if (dataSchemaSize != 0) {
+      _dataSchemaBytes = new byte[dataSchemaSize];
+      byteBuffer.get(_dataSchemaBytes);
+      _dataSchema = DataSchema.fromBytes(_dataSchemaBytes);
+    } else {
+      _dataSchemaBytes = null;
+      _dataSchema = null;
+    }
+
+    // Read body.
+    if (_bodySize != 0) {
+      byte[] bodyBytes = new byte[_bodySize];
+      byteBuffer.get(bodyBytes);
+      _body = ByteBuffer.wrap(bodyBytes);
+      _columnDataStarts = new int[_numColumns];
+      _dictionaryStarts = new int[_numColumns];
+      _dictionaries = new AtomicReferenceArray<>(_numColumns);
+      for (int colId = 0; colId < _numColumns; colId++) {
+        _columnDataStarts[colId] = _body.getInt(colId * COLUMN_DIRECTORY_ENTRY_SIZE);
+        _dictionaryStarts[colId] = _body.getInt(colId * COLUMN_DIRECTORY_ENTRY_SIZE + Integer.BYTES * 2);
+      }
+      _variableSizeDataStart = _body.getInt(_numColumns * COLUMN_DIRECTORY_ENTRY_SIZE);
+    } else {
+      _body = null;
+      _columnDataStarts = null;
+      _dictionaryStarts = null;
+      _dictionaries = null;
+      _variableSizeDataStart = 0;
+    }
+  }
+
+  /**
+   * Returns the size in bytes of one value inside the column data section.
+   */
+  private static int getColumnSizeInBytes(DataSchema.ColumnDataType columnDataType) {
+    switch (columnDataType) {
+      case INT:
+      case FLOAT:
+      case STRING:
+        return Integer.BYTES;
+      case LONG:
+      case DOUBLE:
+        return Long.BYTES;
+      // Object and array. (POSITION|LENGTH)
+      default:
+        return Integer.BYTES * 2;
+    }
+  }
+
+  /**
+   * Serializes the dictionary as: NUM_VALUES, (NUM_VALUES + 1) value end offsets, UTF-8 bytes of all values.
+   * <p>Dictionary ids generated by {@link DataTableBuilder} are contiguous starting from 0.
+   */
+  private static byte[] serializeDictionary(Map<Integer, String> dictionary)
+      throws IOException {
+    int numValues = dictionary.size();
+    byte[][] valueBytes = new byte[numValues][];
+    for (Map.Entry<Integer, String> entry : dictionary.entrySet()) {
+      valueBytes[entry.getKey()] = StringUtil.encodeUtf8(entry.getValue());
+    }
+
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+    dataOutputStream.writeInt(numValues);
+    int offset = 0;
+    dataOutputStream.writeInt(offset);
+    for (byte[] bytes : valueBytes) {
+      offset += bytes.length;
+      dataOutputStream.writeInt(offset);
+    }
+    for (byte[] bytes : valueBytes) {
+      dataOutputStream.write(bytes);
+    }
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  private Map<String, String> deserializeMetadata(byte[] bytes)
+      throws IOException {
+    try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
+        DataInputStream dataInputStream = new DataInputStream(byteArrayInputStream)) {
+      int numEntries = dataInputStream.readInt();
+      Map<String, String> metadata = new HashMap<>(numEntries);
+
+      for (int i = 0; i < numEntries; i++) {
+        String key = decodeString(dataInputStream);
+        String value = decodeString(dataInputStream);
+        metadata.put(key, value);
+      }
+
+      return metadata;
+    }
+  }
+
+  private static String decodeString(DataInputStream dataInputStream)
+      throws IOException {
+    int length = dataInputStream.readInt();
+    if (length == 0) {
+      return StringUtils.EMPTY;
+    } else {
+      byte[] buffer = new byte[length];
+      dataInputStream.readFully(buffer);
+      return StringUtil.decodeUtf8(buffer);
+    }
+  }
+
+  @Override
+  public void addException(@Nonnull ProcessingException processingException) {
+    _metadata.put(EXCEPTION_METADATA_KEY + processingException.getErrorCode(), processingException.getMessage());
+  }
+
+  @Nonnull
+  @Override
+  public byte[] toBytes()
+      throws IOException {
+    byte[] metadataBytes = serializeMetadata();
+    int dataSchemaSize = _dataSchemaBytes != null ? _dataSchemaBytes.length : 0;
+
+    ByteBuffer byteBuffer = ByteBuffer.allocate(HEADER_SIZE + metadataBytes.length + dataSchemaSize + _bodySize);
+    byteBuffer.putInt(VERSION);
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
+    byteBuffer.putInt(metadataBytes.length);
+    byteBuffer.putInt(dataSchemaSize);
+    byteBuffer.putInt(_bodySize);
+    byteBuffer.put(metadataBytes);
+    if (_dataSchemaBytes != null) {
+      byteBuffer.put(_dataSchemaBytes);
+    }
+    if (_body != null) {
+      byteBuffer.put(_body.array(), _body.arrayOffset(), _bodySize);
+    }
+    return byteBuffer.array();
+  }
+
+  private byte[] serializeMetadata()
+      throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+
+    dataOutputStream.writeInt(_metadata.size());
+    for (Map.Entry<String, String> entry : _metadata.entrySet()) {
+      byte[] keyBytes = StringUtil.encodeUtf8(entry.getKey());
+      dataOutputStream.writeInt(keyBytes.length);
+      dataOutputStream.write(keyBytes);
+
+      byte[] valueBytes = StringUtil.encodeUtf8(entry.getValue());
+      dataOutputStream.writeInt(valueBytes.length);
+      dataOutputStream.write(valueBytes);
+    }
+
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  @Nonnull
+  @Override
+  public Map<String, String> getMetadata() {
+    return _metadata;
+  }
+
+  @Nullable
+  @Override
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  @Override
+  public int getNumberOfRows() {
+    return _numRows;
+  }
+
+  @Override
+  public int getInt(int rowId, int colId) {
+    return _body.getInt(_columnDataStarts[colId] + rowId * Integer.BYTES);
+  }
+
+  @Override
+  public long getLong(int rowId, int colId) {
+    return _body.getLong(_columnDataStarts[colId] + rowId * Long.BYTES);
+  }
+
+  @Override
+  public float getFloat(int rowId, int colId) {
+    return _body.getFloat(_columnDataStarts[colId] + rowId * Float.BYTES);
+  }
+
+  @Override
+  public double getDouble(int rowId, int colId) {
+    return _body.getDouble(_columnDataStarts[colId] + rowId * Double.BYTES);
+  }
+
+  @Nonnull
+  @Override
+  public String getString(int rowId, int colId) {
+    return getDictionaryValue(colId, getInt(rowId, colId));
+  }
+
+  /**
+   * Returns the dictionary value for the given column and dictionary id, decoding the dictionary of the column on first
+   * access.
+   */
+  private String getDictionaryValue(int colId, int dictId) {
+    String[] dictionary = _dictionaries.get(colId);
+    if (dictionary == null) {
+      // Concurrent readers might decode the same dictionary, but only fully decoded dictionaries are published
+      _dictionaries.compareAndSet(colId, null, decodeDictionary(colId));
+      dictionary = _dictionaries.get(colId);
+    }
+    return dictionary[dictId];
+  }
+
+  private String[] decodeDictionary(int colId) {
+    int dictionaryStart = _dictionaryStarts[colId];
+    int dictionarySize = _body.getInt(dictionaryStart);
+    int offsetsStart = dictionaryStart + Integer.BYTES;
+    int valuesStart = offsetsStart + (dictionarySize + 1) * Integer.BYTES;
+    String[] dictionary = new String[dictionarySize];
+    for (int dictId = 0; dictId < dictionarySize; dictId++) {
+      int startOffset = _body.getInt(offsetsStart + dictId * Integer.BYTES);
+      int endOffset = _body.getInt(offsetsStart + (dictId + 1) * Integer.BYTES);
+      int length = endOffset - startOffset;
+      if (length == 0) {
+        dictionary[dictId] = StringUtils.EMPTY;
+      } else {
+        byte[] bytes = new byte[length];
+        System.arraycopy(_body.array(), _body.arrayOffset() + valuesStart + startOffset, bytes, 0, length);
+        dictionary[dictId] = StringUtil.decodeUtf8(bytes);
+      }
+    }
+    return dictionary;
+  }
+
+  @Nonnull
+  @Override
+  public <T> T getObject(int rowId, int colId) {
+    int position = getVariableSizeDataPosition(rowId, colId);
+    int size = getVariableSizeDataLength(rowId, colId);
+    int objectTypeValue = _body.getInt(position);
+    ByteBuffer byteBuffer = _body.duplicate();
+    byteBuffer.position(position + Integer.BYTES);
+    byteBuffer = byteBuffer.slice();
+    byteBuffer.limit(size);
+    return ObjectSerDeUtils.deserialize(byteBuffer, objectTypeValue);
+  }
+
+  @Nonnull
+  @Override
+  public int[] getIntArray(int rowId, int colId) {
+    int position = getVariableSizeDataPosition(rowId, colId);
+    int length = getVariableSizeDataLength(rowId, colId);
+    int[] ints = new int[length];
+    for (int i = 0; i < length; i++) {
+      ints[i] = _body.getInt(position + i * Integer.BYTES);
+    }
+    return ints;
+  }
+
+  @Nonnull
+  @Override
+  public long[] getLongArray(int rowId, int colId) {
+    int position = getVariableSizeDataPosition(rowId, colId);
+    int length = getVariableSizeDataLength(rowId, colId);
+    long[] longs = new long[length];
+    for (int i = 0; i < length; i++) {
+      longs[i] = _body.getLong(position + i * Long.BYTES);
+    }
+    return longs;
+  }
+
+  @Nonnull
+  @Override
+  public float[] getFloatArray(int rowId, int colId) {
+    int position = getVariableSizeDataPosition(rowId, colId);
+    int length = getVariableSizeDataLength(rowId, colId);
+    float[] floats = new float[length];
+    for (int i = 0; i < length; i++) {
+      floats[i] = _body.getFloat(position + i * Float.BYTES);
+    }
+    return floats;
+  }
+
+  @Nonnull
+  @Override
+  public double[] getDoubleArray(int rowId, int colId) {
+    int position = getVariableSizeDataPosition(rowId, colId);
+    int length = getVariableSizeDataLength(rowId, colId);
+    double[] doubles = new double[length];
+    for (int i = 0; i < length; i++) {
+      doubles[i] = _body.getDouble(position + i * Double.BYTES);
+    }
+    return doubles;
+  }
+
+  @Nonnull
+  @Override
+  public String[] getStringArray(int rowId, int colId) {
+    int position = getVariableSizeDataPosition(rowId, colId);
+    int length = getVariableSizeDataLength(rowId, colId);
+    String[] strings = new String[length];
+    for (int i = 0; i < length; i++) {
+      strings[i] = getDictionaryValue(colId, _body.getInt(position + i * Integer.BYTES));
+    }
+    return strings;
+  }
+
+  /**
+   * Returns the absolute position inside the body of the variable size value for the given row and column.
+   */
+  private int getVariableSizeDataPosition(int rowId, int colId) {
+    return _variableSizeDataStart + _body.getInt(_columnDataStarts[colId] + rowId * Integer.BYTES * 2);
+  }
+
+  private int getVariableSizeDataLength(int rowId, int colId) {
+    return _body.getInt(_columnDataStarts[colId] + rowId * Integer.BYTES * 2 + Integer.BYTES);
+  }
+
+  @Override
+  public String toString() {
+    if (_dataSchema == null) {
+      return _metadata.toString();
+    }
+
+    StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(_dataSchema.toString()).append('\n');
+    stringBuilder.append("numRows: ").append(_numRows).append('\n');
+
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      for (int colId = 0; colId < _numColumns; colId++) {
+        switch (_dataSchema.getColumnDataType(colId)) {
+          case INT:
+            stringBuilder.append(getInt(rowId, colId));
+            break;
+          case LONG:
+            stringBuilder.append(getLong(rowId, colId));
+            break;
+          case FLOAT:
+            stringBuilder.append(getFloat(rowId, colId));
+            break;
+          case DOUBLE:
+            stringBuilder.append(getDouble(rowId, colId));
+            break;
+          case STRING:
+            stringBuilder.append(getInt(rowId, colId));
+            break;
+          // Object and array.
+          default:
+            int position = getVariableSizeDataPosition(rowId, colId) - _variableSizeDataStart;
+            stringBuilder.append(String.format("(%s:%s)", position, getVariableSizeDataLength(rowId, colId)));
+            break;
+        }
+        stringBuilder.append("\t");
+      }
+      stringBuilder.append("\n");
+    }
+    return stringBuilder.toString();
+  }
+}
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -36,7 +37,9 @@ import org.apache.pinot.common.metrics.ServerMeter;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.data.manager.config.TableDataManagerConfig;
 import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
+import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +63,13 @@ public abstract class BaseTableDataManager implements TableDataManager {
   protected String _tableDataDir;
   protected File _indexDir;
   protected Logger _logger;
+  // Server level segment result cache shared by all the tables, null if disabled
+  protected volatile SegmentResultCache _segmentResultCache;
+
+  @Override
+  public void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
+  }
 
   @Override
   public void init(@Nonnull TableDataManagerConfig tableDataManagerConfig, @Nonnull String instanceId,
@@ -242,8 +252,13 @@ public abstract class BaseTableDataManager implements TableDataManager {
     _logger.info("Closing segment: {} of table: {}", segmentName, _tableNameWithType);
     _serverMetrics.addValueToTableGauge(_tableNameWithType, ServerGauge.SEGMENT_COUNT, -1L);
     _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.DELETED_SEGMENT_COUNT, 1L);
+    IndexSegment segment = segmentDataManager.getSegment();
     _serverMetrics.addValueToTableGauge(_tableNameWithType, ServerGauge.DOCUMENT_COUNT,
-        -segmentDataManager.getSegment().getSegmentMetadata().getTotalRawDocs());
+        -segment.getSegmentMetadata().getTotalRawDocs());
+    SegmentResultCache segmentResultCache = _segmentResultCache;
+    if (segmentResultCache != null) {
+      segmentResultCache.invalidateSegment(segment.getSegmentMetadata().getTableName(), segmentName);
+    }
     segmentDataManager.destroy();
     _logger.info("Closed segment: {} of table: {}", segmentName, _tableNameWithType);
   }
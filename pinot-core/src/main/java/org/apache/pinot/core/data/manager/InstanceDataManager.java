@@ -30,6 +30,7 @@ import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.segment.SegmentMetadata;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
 
 
 /**
@@ -59,6 +60,12 @@ public interface InstanceDataManager {
    */
   void shutDown();
 
+  /**
+   * Sets the server level segment result cache, which is passed to all the table data managers so that the cached
+   * results are invalidated when a segment is replaced or removed, or {@code null} if the cache is disabled.
+   */
+  void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache);
+
   /**
    * Adds a segment from local disk into an OFFLINE table.
    */
@@ -21,6 +21,7 @@ package org.apache.pinot.core.data.manager;
 import java.io.File;
 import java.util.List;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -28,6 +29,7 @@ import org.apache.pinot.common.config.TableConfig;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.data.manager.config.TableDataManagerConfig;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 
 
@@ -55,6 +57,12 @@ public interface TableDataManager {
    */
   void shutDown();
 
+  /**
+   * Sets the server level segment result cache, whose entries are invalidated when a segment is replaced or removed,
+   * or {@code null} if the cache is disabled.
+   */
+  void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache);
+
   /**
    * Adds a loaded immutable segment into the table.
    */
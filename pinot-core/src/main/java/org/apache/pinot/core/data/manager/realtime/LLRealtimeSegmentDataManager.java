@@ -29,6 +29,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -232,6 +234,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   final String _clientId;
   private final LLCSegmentName _segmentName;
   private final RecordTransformer _recordTransformer;
+  // Decodes and transforms the messages on worker threads when pipelined consumption is enabled, null otherwise
+  private final MessageBatchDecoder _messageBatchDecoder;
   private PartitionLevelConsumer _partitionLevelConsumer = null;
   private StreamMetadataProvider _streamMetadataProvider = null;
   private final File _resourceTmpDir;
@@ -239,7 +243,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private final String _timeColumnName;
   private final List<String> _invertedIndexColumns;
   private final List<String> _noDictionaryColumns;
+  private final Map<String, String> _noDictionaryConfig;
   private final List<String> _varLengthDictionaryColumns;
+  private final List<String> _frameOfReferenceEncodingColumns;
   private final StarTreeIndexSpec _starTreeIndexSpec;
   private final String _sortedColumn;
   private Logger segmentLogger;
@@ -406,6 +412,11 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   }
 
   private void processStreamEvents(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis) {
+    if (_messageBatchDecoder != null) {
+      processStreamEventsPipelined(messagesAndOffsets, idlePipeSleepTimeMillis);
+      return;
+    }
+
     Meter realtimeRowsConsumedMeter = null;
     Meter realtimeRowsDroppedMeter = null;
 
@@ -419,24 +430,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
         break;
       }
       if (!canTakeMore) {
-        // The RealtimeSegmentImpl that we are pushing rows into has indicated that it cannot accept any more
-        // rows. This can happen in one of two conditions:
-        // 1. We are in INITIAL_CONSUMING state, and we somehow exceeded the max number of rows we are allowed to consume
-        //    for this row. Something is seriously wrong, because endCriteriaReached() should have returned true when
-        //    we hit the row limit.
-        //    Throw an exception.
-        //
-        // 2. We are in CATCHING_UP state, and we legally hit this error due to unclean leader election where
-        //    offsets get changed with higher generation numbers for some pinot servers but not others. So, if another
-        //    server (who got a larger stream offset) asked us to catch up to that offset, but we are connected to a
-        //    broker who has smaller offsets, then we may try to push more rows into the buffer than maximum. This
-        //    is a rare case, and we really don't know how to handle this at this time.
-        //    Throw an exception.
-        //
-        segmentLogger
-            .error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed, _numRowsIndexed,
-                _segmentMaxRowCount);
-        throw new RuntimeException("Realtime segment full");
+        handleSegmentFull();
       }
 
       // Index each message
@@ -479,6 +473,106 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       _numRowsConsumed++;
       streamMessageCount++;
     }
+    finishProcessingStreamEvents(indexedMessageCount, streamMessageCount, idlePipeSleepTimeMillis);
+  }
+
+  /**
+   * Pipelined version of {@link #processStreamEvents(MessageBatch, long)}, where the messages are decoded and
+   * transformed by the {@link MessageBatchDecoder} on the worker threads, and the consumer thread only indexes the
+   * transformed rows in the offset order.
+   */
+  private void processStreamEventsPipelined(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis) {
+    Meter realtimeRowsConsumedMeter = null;
+    Meter realtimeRowsDroppedMeter = null;
+
+    int indexedMessageCount = 0;
+    int streamMessageCount = 0;
+    boolean canTakeMore = true;
+
+    List<Future<MessageBatchDecoder.DecodedChunk>> futures = _messageBatchDecoder.submit(messagesAndOffsets);
+    try {
+      chunkLoop:
+      for (Future<MessageBatchDecoder.DecodedChunk> future : futures) {
+        MessageBatchDecoder.DecodedChunk decodedChunk;
+        try {
+          decodedChunk = future.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while waiting for the messages to be decoded", e);
+        } catch (ExecutionException e) {
+          throw new RuntimeException("Caught exception while decoding the messages", e.getCause());
+        }
+
+        int startIndex = decodedChunk.getStartIndex();
+        int numMessages = decodedChunk.getNumMessages();
+        for (int i = 0; i < numMessages; i++) {
+          if (_shouldStop || endCriteriaReached()) {
+            break chunkLoop;
+          }
+          if (!canTakeMore) {
+            handleSegmentFull();
+          }
+
+          int index = startIndex + i;
+          GenericRow row = decodedChunk.getRow(i);
+          Exception transformException = decodedChunk.getTransformException(i);
+          if (transformException != null) {
+            segmentLogger.error("Caught exception while transforming the record: {}", row, transformException);
+            _numRowsErrored++;
+          } else if (row != null) {
+            realtimeRowsConsumedMeter = _serverMetrics
+                .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1, realtimeRowsConsumedMeter);
+            indexedMessageCount++;
+            try {
+              canTakeMore = _realtimeSegment.index(row, messagesAndOffsets.getMetadataAtIndex(index));
+            } catch (Exception e) {
+              segmentLogger.error("Caught exception while indexing the record: {}", row, e);
+              _numRowsErrored++;
+            }
+          } else {
+            realtimeRowsDroppedMeter = _serverMetrics
+                .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
+                    realtimeRowsDroppedMeter);
+          }
+
+          _currentOffset = messagesAndOffsets.getNextStreamMessageOffsetAtIndex(index);
+          _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
+          _numRowsConsumed++;
+          streamMessageCount++;
+        }
+      }
+    } finally {
+      // Skip decoding the remaining messages if we stopped early, they will be fetched again from the current offset
+      for (Future<MessageBatchDecoder.DecodedChunk> future : futures) {
+        future.cancel(false);
+      }
+    }
+    finishProcessingStreamEvents(indexedMessageCount, streamMessageCount, idlePipeSleepTimeMillis);
+  }
+
+  private void handleSegmentFull() {
+    // The RealtimeSegmentImpl that we are pushing rows into has indicated that it cannot accept any more
+    // rows. This can happen in one of two conditions:
+    // 1. We are in INITIAL_CONSUMING state, and we somehow exceeded the max number of rows we are allowed to consume
+    //    for this row. Something is seriously wrong, because endCriteriaReached() should have returned true when
+    //    we hit the row limit.
+    //    Throw an exception.
+    //
+    // 2. We are in CATCHING_UP state, and we legally hit this error due to unclean leader election where
+    //    offsets get changed with higher generation numbers for some pinot servers but not others. So, if another
+    //    server (who got a larger stream offset) asked us to catch up to that offset, but we are connected to a
+    //    broker who has smaller offsets, then we may try to push more rows into the buffer than maximum. This
+    //    is a rare case, and we really don't know how to handle this at this time.
+    //    Throw an exception.
+    //
+    segmentLogger
+        .error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed, _numRowsIndexed,
+            _segmentMaxRowCount);
+    throw new RuntimeException("Realtime segment full");
+  }
+
+  private void finishProcessingStreamEvents(int indexedMessageCount, int streamMessageCount,
+      long idlePipeSleepTimeMillis) {
     updateCurrentDocumentCountMetrics();
     if (streamMessageCount != 0) {
       segmentLogger.debug("Indexed {} messages ({} messages read from stream) current offset {}", indexedMessageCount,
@@ -686,7 +780,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       RealtimeSegmentConverter converter =
           new RealtimeSegmentConverter(_realtimeSegment, tempSegmentFolder.getAbsolutePath(), _schema,
               _tableNameWithType, _timeColumnName, _segmentZKMetadata.getSegmentName(), _sortedColumn,
-              _invertedIndexColumns, _noDictionaryColumns, _varLengthDictionaryColumns, _starTreeIndexSpec);
+              _invertedIndexColumns, _noDictionaryColumns, _noDictionaryConfig, _varLengthDictionaryColumns,
+              _starTreeIndexSpec);
+      converter.setFrameOfReferenceEncodingColumns(_frameOfReferenceEncodingColumns);
       segmentLogger.info("Trying to build segment");
       try {
         converter.build(_segmentVersion, _serverMetrics);
@@ -1018,6 +1114,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       segmentLogger.error("Could not stop consumer thread");
     }
     _realtimeSegment.destroy();
+    if (_messageBatchDecoder != null) {
+      _messageBatchDecoder.shutDown();
+    }
     try {
       _partitionLevelConsumer.close();
     } catch (Exception e) {
@@ -1121,8 +1220,10 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
     // No dictionary Columns
     _noDictionaryColumns = new ArrayList<>(indexLoadingConfig.getNoDictionaryColumns());
+    _noDictionaryConfig = new HashMap<>(indexLoadingConfig.getnoDictionaryConfig());
 
     _varLengthDictionaryColumns = new ArrayList<>(indexLoadingConfig.getVarLengthDictionaryColumns());
+    _frameOfReferenceEncodingColumns = indexingConfig.getFrameOfReferenceEncodingColumns();
 
     // Read the star tree config
     _starTreeIndexSpec = indexingConfig.getStarTreeIndexSpec();
@@ -1178,6 +1279,15 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
     _state = State.INITIAL_CONSUMING;
 
+    int decoderNumThreads = _partitionLevelStreamConfig.getDecoderNumThreads();
+    if (decoderNumThreads > 0) {
+      segmentLogger.info("Decoding and transforming messages with {} threads", decoderNumThreads);
+      _messageBatchDecoder =
+          new MessageBatchDecoder(_partitionLevelStreamConfig, _schema, decoderNumThreads, _segmentNameStr);
+    } else {
+      _messageBatchDecoder = null;
+    }
+
     long now = now();
     _consumeStartTime = now;
     _consumeEndTime = now + _partitionLevelStreamConfig.getFlushThresholdTimeMillis();
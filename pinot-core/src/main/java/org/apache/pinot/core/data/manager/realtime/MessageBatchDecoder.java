@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.data.recordtransformer.CompositeTransformer;
+import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
+import org.apache.pinot.core.realtime.stream.MessageBatch;
+import org.apache.pinot.core.realtime.stream.StreamConfig;
+import org.apache.pinot.core.realtime.stream.StreamDecoderProvider;
+import org.apache.pinot.core.realtime.stream.StreamMessageDecoder;
+
+
+/**
+ * The {@code MessageBatchDecoder} decodes and transforms the messages of a {@link MessageBatch} on a pool of worker
+ * threads, so that the consumer thread only needs to index the transformed rows.
+ * <p>The messages are split into contiguous chunks (at most one chunk per worker), and the futures of the chunks are
+ * returned in the offset order. The consumer thread can start indexing the first chunk while the following chunks are
+ * still being decoded, and the order of the rows is preserved.
+ * <p>Each worker owns its own decoder and transformer because they are not thread-safe.
+ */
+public class MessageBatchDecoder {
+  // Do not split small batches into chunks smaller than this to amortize the overhead of the hand-off
+  static final int MIN_NUM_MESSAGES_PER_CHUNK = 100;
+
+  private final StreamMessageDecoder[] _decoders;
+  private final RecordTransformer[] _recordTransformers;
+  private final ExecutorService _executorService;
+
+  public MessageBatchDecoder(StreamConfig streamConfig, Schema schema, int numThreads, String threadNamePrefix) {
+    this(createDecoders(streamConfig, schema, numThreads), createRecordTransformers(schema, numThreads),
+        threadNamePrefix);
+  }
+
+  MessageBatchDecoder(StreamMessageDecoder[] decoders, RecordTransformer[] recordTransformers,
+      String threadNamePrefix) {
+    Preconditions.checkArgument(decoders.length > 0 && decoders.length == recordTransformers.length);
+    _decoders = decoders;
+    _recordTransformers = recordTransformers;
+    _executorService = Executors.newFixedThreadPool(decoders.length,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat(threadNamePrefix + "-decoder-%d").build());
+  }
+
+  private static StreamMessageDecoder[] createDecoders(StreamConfig streamConfig, Schema schema, int numThreads) {
+    StreamMessageDecoder[] decoders = new StreamMessageDecoder[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      decoders[i] = StreamDecoderProvider.create(streamConfig, schema);
+    }
+    return decoders;
+  }
+
+  private static RecordTransformer[] createRecordTransformers(Schema schema, int numThreads) {
+    RecordTransformer[] recordTransformers = new RecordTransformer[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      recordTransformers[i] = CompositeTransformer.getDefaultTransformer(schema);
+    }
+    return recordTransformers;
+  }
+
+  /**
+   * Submits the messages of the batch to the worker threads, and returns the futures of the decoded chunks in the
+   * offset order.
+   */
+  @SuppressWarnings("unchecked")
+  public List<Future<DecodedChunk>> submit(MessageBatch messageBatch) {
+    int numMessages = messageBatch.getMessageCount();
+    int numWorkers = _decoders.length;
+    int numMessagesPerChunk = Math.max((numMessages + numWorkers - 1) / numWorkers, MIN_NUM_MESSAGES_PER_CHUNK);
+    List<Future<DecodedChunk>> futures = new ArrayList<>(numWorkers);
+    int workerId = 0;
+    for (int startIndex = 0; startIndex < numMessages; startIndex += numMessagesPerChunk) {
+      int chunkStartIndex = startIndex;
+      int chunkEndIndex = Math.min(startIndex + numMessagesPerChunk, numMessages);
+      StreamMessageDecoder decoder = _decoders[workerId];
+      RecordTransformer recordTransformer = _recordTransformers[workerId];
+      workerId++;
+      futures.add(_executorService.submit(() -> {
+        // The consumer thread might abandon the chunks of the previous batch while they are still being decoded, so
+        // guard the decoder against concurrent use
+        synchronized (decoder) {
+          DecodedChunk decodedChunk = new DecodedChunk(chunkStartIndex, chunkEndIndex - chunkStartIndex);
+          for (int i = chunkStartIndex; i < chunkEndIndex; i++) {
+            int indexInChunk = i - chunkStartIndex;
+            GenericRow decodedRow = decoder
+                .decode(messageBatch.getMessageAtIndex(i), messageBatch.getMessageOffsetAtIndex(i),
+                    messageBatch.getMessageLengthAtIndex(i), new GenericRow());
+            if (decodedRow == null) {
+              continue;
+            }
+            try {
+              decodedChunk._rows[indexInChunk] = recordTransformer.transform(decodedRow);
+            } catch (Exception e) {
+              decodedChunk._rows[indexInChunk] = decodedRow;
+              decodedChunk._transformExceptions[indexInChunk] = e;
+            }
+          }
+          return decodedChunk;
+        }
+      }));
+    }
+    return futures;
+  }
+
+  public void shutDown() {
+    _executorService.shutdownNow();
+  }
+
+  /**
+   * Decoded and transformed rows for a contiguous range of messages inside a {@link MessageBatch}.
+   */
+  public static class DecodedChunk {
+    private final int _startIndex;
+    private final GenericRow[] _rows;
+    private final Exception[] _transformExceptions;
+
+    DecodedChunk(int startIndex, int numMessages) {
+      _startIndex = startIndex;
+      _rows = new GenericRow[numMessages];
+      _transformExceptions = new Exception[numMessages];
+    }
+
+    /**
+     * Returns the index of the first message of the chunk inside the message batch.
+     */
+    public int getStartIndex() {
+      return _startIndex;
+    }
+
+    public int getNumMessages() {
+      return _rows.length;
+    }
+
+    /**
+     * Returns the transformed row for the message, or {@code null} if the message should be dropped. If the transform
+     * failed, returns the decoded row.
+     */
+    @Nullable
+    public GenericRow getRow(int indexInChunk) {
+      return _rows[indexInChunk];
+    }
+
+    /**
+     * Returns the exception thrown while transforming the message, or {@code null} if the transform succeeded.
+     */
+    @Nullable
+    public Exception getTransformException(int indexInChunk) {
+      return _transformExceptions[indexInChunk];
+    }
+  }
+}
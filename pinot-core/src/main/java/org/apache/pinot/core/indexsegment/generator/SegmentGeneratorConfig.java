@@ -78,7 +78,9 @@ public class SegmentGeneratorConfig {
   private Map<String, String> _customProperties = new HashMap<>();
   private Set<String> _rawIndexCreationColumns = new HashSet<>();
   private Map<String, ChunkCompressorFactory.CompressionType> _rawIndexCompressionType = new HashMap<>();
+  private Set<String> _frameOfReferenceEncodingColumns = new HashSet<>();
   private List<String> _invertedIndexCreationColumns = new ArrayList<>();
+  private List<String> _rangeIndexCreationColumns = new ArrayList<>();
   private List<String> _columnSortOrder = new ArrayList<>();
   private List<String> _varLengthDictionaryColumns = new ArrayList<>();
   private String _dataDir = null;
@@ -113,6 +115,8 @@ public class SegmentGeneratorConfig {
   // Use on-heap or off-heap memory to generate index (currently only affect inverted index and star-tree v2)
   private boolean _onHeap = false;
   private boolean _checkTimeColumnValidityDuringGeneration = true;
+  // Number of threads to index the columns in parallel (only for data source that can provide values column by column)
+  private int _numColumnIndexingThreads = 1;
 
   public SegmentGeneratorConfig() {
   }
@@ -128,7 +132,9 @@ public class SegmentGeneratorConfig {
     _customProperties.putAll(config._customProperties);
     _rawIndexCreationColumns.addAll(config._rawIndexCreationColumns);
     _rawIndexCompressionType.putAll(config._rawIndexCompressionType);
+    _frameOfReferenceEncodingColumns.addAll(config._frameOfReferenceEncodingColumns);
     _invertedIndexCreationColumns.addAll(config._invertedIndexCreationColumns);
+    _rangeIndexCreationColumns.addAll(config._rangeIndexCreationColumns);
     _columnSortOrder.addAll(config._columnSortOrder);
     _varLengthDictionaryColumns.addAll(config._varLengthDictionaryColumns);
     _dataDir = config._dataDir;
@@ -162,6 +168,7 @@ public class SegmentGeneratorConfig {
     _onHeap = config._onHeap;
     _recordReaderPath = config._recordReaderPath;
     _checkTimeColumnValidityDuringGeneration = config._checkTimeColumnValidityDuringGeneration;
+    _numColumnIndexingThreads = config._numColumnIndexingThreads;
   }
 
   /**
@@ -215,6 +222,12 @@ public class SegmentGeneratorConfig {
     if (indexingConfig.isCreateInvertedIndexDuringSegmentGeneration()) {
       _invertedIndexCreationColumns = indexingConfig.getInvertedIndexColumns();
     }
+    if (indexingConfig.getRangeIndexColumns() != null) {
+      _rangeIndexCreationColumns.addAll(indexingConfig.getRangeIndexColumns());
+    }
+    if (indexingConfig.getFrameOfReferenceEncodingColumns() != null) {
+      _frameOfReferenceEncodingColumns.addAll(indexingConfig.getFrameOfReferenceEncodingColumns());
+    }
 
     SegmentsValidationAndRetentionConfig validationConfig = tableConfig.getValidationConfig();
     _hllConfig = validationConfig.getHllConfig();
@@ -264,6 +277,10 @@ public class SegmentGeneratorConfig {
     return _invertedIndexCreationColumns;
   }
 
+  public List<String> getRangeIndexCreationColumns() {
+    return _rangeIndexCreationColumns;
+  }
+
   public List<String> getColumnSortOrder() {
     return _columnSortOrder;
   }
@@ -278,6 +295,11 @@ public class SegmentGeneratorConfig {
     _invertedIndexCreationColumns.addAll(indexCreationColumns);
   }
 
+  public void setRangeIndexCreationColumns(List<String> rangeIndexCreationColumns) {
+    Preconditions.checkNotNull(rangeIndexCreationColumns);
+    _rangeIndexCreationColumns.addAll(rangeIndexCreationColumns);
+  }
+
   public void setColumnSortOrder(List<String> sortOrder) {
     Preconditions.checkNotNull(sortOrder);
     _columnSortOrder.addAll(sortOrder);
@@ -603,6 +625,14 @@ public class SegmentGeneratorConfig {
     _checkTimeColumnValidityDuringGeneration = checkTimeColumnValidityDuringGeneration;
   }
 
+  public int getNumColumnIndexingThreads() {
+    return _numColumnIndexingThreads;
+  }
+
+  public void setNumColumnIndexingThreads(int numColumnIndexingThreads) {
+    _numColumnIndexingThreads = numColumnIndexingThreads;
+  }
+
   public Map<String, ChunkCompressorFactory.CompressionType> getRawIndexCompressionType() {
     return _rawIndexCompressionType;
   }
@@ -612,6 +642,18 @@ public class SegmentGeneratorConfig {
     _rawIndexCompressionType.putAll(rawIndexCompressionType);
   }
 
+  /**
+   * Returns the raw INT/LONG columns whose forward index is written with frame-of-reference/delta encoding.
+   */
+  public Set<String> getFrameOfReferenceEncodingColumns() {
+    return _frameOfReferenceEncodingColumns;
+  }
+
+  public void setFrameOfReferenceEncodingColumns(List<String> frameOfReferenceEncodingColumns) {
+    Preconditions.checkNotNull(frameOfReferenceEncodingColumns);
+    _frameOfReferenceEncodingColumns.addAll(frameOfReferenceEncodingColumns);
+  }
+
   @JsonIgnore
   public String getMetrics() {
     return getQualifyingFields(FieldType.METRIC, true);
@@ -31,6 +31,7 @@ import org.apache.pinot.core.io.reader.DataFileReader;
 import org.apache.pinot.core.segment.index.SegmentMetadataImpl;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
 import org.apache.pinot.core.segment.index.data.source.ColumnDataSource;
+import org.apache.pinot.core.segment.index.readers.BitmapRangeIndexReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.store.SegmentDirectory;
@@ -137,6 +138,14 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
       } catch (Exception e) {
         LOGGER.error("Error when close inverted index for column : " + column, e);
       }
+      try {
+        BitmapRangeIndexReader rangeIndex = columnIndexContainer.getRangeIndex();
+        if (rangeIndex != null) {
+          rangeIndex.close();
+        }
+      } catch (Exception e) {
+        LOGGER.error("Error when close range index for column : " + column, e);
+      }
     }
     try {
       _segmentDirectory.close();
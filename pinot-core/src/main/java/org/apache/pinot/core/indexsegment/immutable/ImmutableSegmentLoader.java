@@ -114,7 +114,8 @@ public class ImmutableSegmentLoader {
 
     // Load the segment
     ReadMode readMode = indexLoadingConfig.getReadMode();
-    SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(indexDir, segmentMetadata, readMode);
+    SegmentDirectory segmentDirectory = SegmentDirectory
+        .createFromLocalFS(indexDir, segmentMetadata, readMode, indexLoadingConfig.getIndexLoadPolicy());
     SegmentDirectory.Reader segmentReader = segmentDirectory.createReader();
     Map<String, ColumnIndexContainer> indexContainerMap = new HashMap<>();
     for (Map.Entry<String, ColumnMetadata> entry : segmentMetadata.getColumnMetadataMap().entrySet()) {
@@ -21,6 +21,7 @@ package org.apache.pinot.core.indexsegment.mutable;
 import com.google.common.base.Preconditions;
 import it.unimi.dsi.fastutil.ints.IntArrays;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +45,7 @@ import org.apache.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
 import org.apache.pinot.core.realtime.impl.dictionary.MutableDictionary;
 import org.apache.pinot.core.realtime.impl.dictionary.MutableDictionaryFactory;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeInvertedIndexReader;
+import org.apache.pinot.core.realtime.impl.zonemap.RealtimeZoneMap;
 import org.apache.pinot.core.realtime.stream.StreamMessageMetadata;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
 import org.apache.pinot.core.segment.index.SegmentMetadataImpl;
@@ -87,9 +89,16 @@ public class MutableSegmentImpl implements MutableSegment {
   private final Map<String, Integer> _maxNumValuesMap = new HashMap<>();
   private final Map<String, RealtimeInvertedIndexReader> _invertedIndexMap = new HashMap<>();
   private final Map<String, BloomFilterReader> _bloomFilterMap = new HashMap<>();
+  private final Map<String, RealtimeZoneMap> _zoneMapMap = new HashMap<>();
   private final IdMap<FixedIntArray> _recordIdMap;
   private boolean _aggregateMetrics;
 
+  // Per-column index containers resolved once at construction, so that indexing a row does not need any map lookup
+  private final IndexContainer[] _indexContainers;
+  private final IndexContainer[] _invertedIndexContainers;
+  // Index containers for the dimension columns and the time column, only set when metrics aggregation is enabled
+  private final IndexContainer[] _keyIndexContainers;
+
   private volatile int _numDocsIndexed = 0;
 
   // to compute the rolling interval
@@ -197,6 +206,43 @@ public class MutableSegmentImpl implements MutableSegment {
     // Metric aggregation can be enabled only if config is specified, and all dimensions have dictionary,
     // and no metrics have dictionary. If not enabled, the map returned is null.
     _recordIdMap = enableMetricsAggregationIfPossible(config, _schema, noDictionaryColumns);
+
+    Map<String, IndexContainer> indexContainerMap = new HashMap<>();
+    List<IndexContainer> indexContainers = new ArrayList<>();
+    List<IndexContainer> invertedIndexContainers = new ArrayList<>();
+    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
+      String column = fieldSpec.getName();
+      // Maintain zone map for single-value numeric columns so that range filters can skip chunks of documents
+      // NOTE: metric values can be updated in place when metrics aggregation is enabled, so skip zone map for them
+      if (fieldSpec.isSingleValueField() && RealtimeZoneMap.isSupported(fieldSpec.getDataType()) && !(_aggregateMetrics
+          && fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC)) {
+        _zoneMapMap.put(column, new RealtimeZoneMap(fieldSpec.getDataType()));
+      }
+      IndexContainer indexContainer =
+          new IndexContainer(fieldSpec, _dictionaryMap.get(column), _indexReaderWriterMap.get(column),
+              _invertedIndexMap.get(column), _zoneMapMap.get(column));
+      indexContainerMap.put(column, indexContainer);
+      indexContainers.add(indexContainer);
+      if (indexContainer._invertedIndex != null) {
+        invertedIndexContainers.add(indexContainer);
+      }
+    }
+    _indexContainers = indexContainers.toArray(new IndexContainer[0]);
+    _invertedIndexContainers = invertedIndexContainers.toArray(new IndexContainer[0]);
+    if (_aggregateMetrics) {
+      // Dimension columns followed by the time column, in the same order as the record id map key
+      List<IndexContainer> keyIndexContainers = new ArrayList<>(_numKeyColumns);
+      for (String dimension : _schema.getDimensionNames()) {
+        keyIndexContainers.add(indexContainerMap.get(dimension));
+      }
+      String timeColumnName = _schema.getTimeColumnName();
+      if (timeColumnName != null) {
+        keyIndexContainers.add(indexContainerMap.get(timeColumnName));
+      }
+      _keyIndexContainers = keyIndexContainers.toArray(new IndexContainer[0]);
+    } else {
+      _keyIndexContainers = null;
+    }
   }
 
   public SegmentPartitionConfig getSegmentPartitionConfig() {
@@ -216,19 +262,19 @@ public class MutableSegmentImpl implements MutableSegment {
 
     boolean canTakeMore;
     // Update dictionary first
-    Map<String, Object> dictIdMap = updateDictionary(row);
+    updateDictionary(row);
 
     int numDocs = _numDocsIndexed;
 
     // If metrics aggregation is enabled and if the dimension values were already seen, this will return existing docId,
     // else this will return a new docId.
-    int docId = getOrCreateDocId(dictIdMap);
+    int docId = getOrCreateDocId();
 
     // docId == numDocs implies new docId.
     if (docId == numDocs) {
       // Add forward and inverted indices for new document.
-      addForwardIndex(row, docId, dictIdMap);
-      addInvertedIndex(docId, dictIdMap);
+      addForwardIndex(docId);
+      addInvertedIndex(docId);
 
       // Update number of document indexed at last to make the latest record queryable
       canTakeMore = _numDocsIndexed++ < _capacity;
@@ -247,37 +293,45 @@ public class MutableSegmentImpl implements MutableSegment {
     return canTakeMore;
   }
 
-  private Map<String, Object> updateDictionary(GenericRow row) {
-    Map<String, Object> dictIdMap = new HashMap<>();
-    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
-      String column = fieldSpec.getName();
-      Object value = row.getValue(column);
-      MutableDictionary dictionary = _dictionaryMap.get(column);
+  /**
+   * Indexes the values of the row into the dictionaries, and stores the values and dictionary ids into the index
+   * containers so that the following steps can read them without any map lookup or per-row allocation.
+   */
+  private void updateDictionary(GenericRow row) {
+    for (IndexContainer indexContainer : _indexContainers) {
+      Object value = row.getValue(indexContainer._column);
+      indexContainer._value = value;
+      MutableDictionary dictionary = indexContainer._dictionary;
       if (dictionary != null) {
         dictionary.index(value);
       }
-      // Update max number of values for multi-value column
-      if (fieldSpec.isSingleValueField()) {
+      if (indexContainer._isSingleValue) {
         if (dictionary != null) {
-          dictIdMap.put(column, dictionary.indexOf(value));
+          indexContainer._dictId = dictionary.indexOf(value);
         }
       } else {
         // No-dictionary not supported for multi-valued columns.
-        int i = 0;
         Object[] values = (Object[]) value;
-        int[] dictIds = new int[values.length];
-        for (Object object : values) {
-          dictIds[i++] = dictionary.indexOf(object);
+        int numValues = values.length;
+        int[] dictIds = indexContainer._dictIds;
+        if (dictIds.length < numValues) {
+          // Let the forward index reject the row if it has too many values
+          dictIds = new int[numValues];
+          indexContainer._dictIds = dictIds;
+        }
+        for (int i = 0; i < numValues; i++) {
+          dictIds[i] = dictionary.indexOf(values[i]);
         }
-        dictIdMap.put(column, dictIds);
-        int numValues = ((Object[]) value).length;
-        if (_maxNumValuesMap.get(column) < numValues) {
-          _maxNumValuesMap.put(column, numValues);
+        indexContainer._numValues = numValues;
+        // Update max number of values for multi-value column
+        if (indexContainer._maxNumValues < numValues) {
+          indexContainer._maxNumValues = numValues;
+          _maxNumValuesMap.put(indexContainer._column, numValues);
         }
         continue;
       }
       // Update min/max value for time column
-      if (fieldSpec.getFieldType().equals(FieldSpec.FieldType.TIME)) {
+      if (indexContainer._isTimeColumn) {
         long timeValue;
         if (value instanceof Number) {
           timeValue = ((Number) value).longValue();
@@ -288,24 +342,20 @@ public class MutableSegmentImpl implements MutableSegment {
         _maxTime = Math.max(_maxTime, timeValue);
       }
     }
-    return dictIdMap;
   }
 
-  private void addForwardIndex(GenericRow row, int docId, Map<String, Object> dictIdMap) {
+  private void addForwardIndex(int docId) {
     // Store dictionary Id(s) for columns with dictionary
-    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
-      String column = fieldSpec.getName();
-      Object value = row.getValue(column);
-      if (fieldSpec.isSingleValueField()) {
-        FixedByteSingleColumnSingleValueReaderWriter indexReaderWriter =
-            (FixedByteSingleColumnSingleValueReaderWriter) _indexReaderWriterMap.get(column);
-        Integer dictId = (Integer) dictIdMap.get(column);
-        if (dictId != null) {
+    for (IndexContainer indexContainer : _indexContainers) {
+      if (indexContainer._isSingleValue) {
+        FixedByteSingleColumnSingleValueReaderWriter indexReaderWriter = indexContainer._svForwardIndex;
+        if (indexContainer._dictionary != null) {
           // Column with dictionary
-          indexReaderWriter.setInt(docId, dictId);
+          indexReaderWriter.setInt(docId, indexContainer._dictId);
         } else {
           // No-dictionary column
-          FieldSpec.DataType dataType = fieldSpec.getDataType();
+          Object value = indexContainer._value;
+          FieldSpec.DataType dataType = indexContainer._dataType;
           switch (dataType) {
             case INT:
               indexReaderWriter.setInt(docId, (Integer) value);
@@ -321,31 +371,32 @@ public class MutableSegmentImpl implements MutableSegment {
               break;
             default:
               throw new UnsupportedOperationException(
-                  "Unsupported data type: " + dataType + " for no-dictionary column: " + column);
+                  "Unsupported data type: " + dataType + " for no-dictionary column: " + indexContainer._column);
           }
         }
+        RealtimeZoneMap zoneMap = indexContainer._zoneMap;
+        if (zoneMap != null) {
+          zoneMap.add(docId, (Number) indexContainer._value);
+        }
       } else {
-        int[] dictIds = (int[]) dictIdMap.get(column);
-        ((FixedByteSingleColumnMultiValueReaderWriter) _indexReaderWriterMap.get(column)).setIntArray(docId, dictIds);
+        indexContainer._mvForwardIndex.setIntArray(docId, indexContainer._dictIds, indexContainer._numValues);
       }
     }
   }
 
-  private void addInvertedIndex(int docId, Map<String, Object> dictIdMap) {
+  private void addInvertedIndex(int docId) {
     // Update inverted index at last
     // NOTE: inverted index have to be updated at last because once it gets updated, the latest record will become
     // queryable
-    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
-      String column = fieldSpec.getName();
-      RealtimeInvertedIndexReader invertedIndex = _invertedIndexMap.get(column);
-      if (invertedIndex != null) {
-        if (fieldSpec.isSingleValueField()) {
-          invertedIndex.add(((Integer) dictIdMap.get(column)), docId);
-        } else {
-          int[] dictIds = (int[]) dictIdMap.get(column);
-          for (int dictId : dictIds) {
-            invertedIndex.add(dictId, docId);
-          }
+    for (IndexContainer indexContainer : _invertedIndexContainers) {
+      RealtimeInvertedIndexReader invertedIndex = indexContainer._invertedIndex;
+      if (indexContainer._isSingleValue) {
+        invertedIndex.add(indexContainer._dictId, docId);
+      } else {
+        int[] dictIds = indexContainer._dictIds;
+        int numValues = indexContainer._numValues;
+        for (int i = 0; i < numValues; i++) {
+          invertedIndex.add(dictIds[i], docId);
         }
       }
     }
@@ -421,7 +472,7 @@ public class MutableSegmentImpl implements MutableSegment {
     if (!_schema.isVirtualColumn(columnName)) {
       return new ColumnDataSource(_schema.getFieldSpecFor(columnName), _numDocsIndexed,
           _maxNumValuesMap.get(columnName), _indexReaderWriterMap.get(columnName), _invertedIndexMap.get(columnName),
-          _dictionaryMap.get(columnName), _bloomFilterMap.get(columnName));
+          _dictionaryMap.get(columnName), _bloomFilterMap.get(columnName), _zoneMapMap.get(columnName));
     } else {
       return getVirtualDataSource(columnName);
     }
@@ -516,6 +567,17 @@ public class MutableSegmentImpl implements MutableSegment {
     }
   }
 
+  /**
+   * Returns the forward index (dictionary ids for column with dictionary, raw values otherwise) for the given column.
+   * <p>Called only by realtime segment converter.
+   *
+   * @param column The column name
+   * @return The forward index for the column
+   */
+  public DataFileReader getForwardIndex(String column) {
+    return _indexReaderWriterMap.get(column);
+  }
+
   /**
    * Returns the docIds to use for iteration when the data is sorted by the given column.
    * <p>Called only by realtime record reader.
@@ -563,22 +625,18 @@ public class MutableSegmentImpl implements MutableSegment {
     return segmentName + ":" + columnName + indexType;
   }
 
-  private int getOrCreateDocId(Map<String, Object> dictIdMap) {
+  private int getOrCreateDocId() {
     if (!_aggregateMetrics) {
       return _numDocsIndexed;
     }
 
-    int i = 0;
+    // NOTE: the key array cannot be reused because the record id map might keep a reference to it
     int[] dictIds = new int[_numKeyColumns]; // dimensions + time column.
 
     // FIXME: this for loop breaks for multi value dimensions. https://github.com/apache/incubator-pinot/issues/3867
-    for (String column : _schema.getDimensionNames()) {
-      dictIds[i++] = (Integer) dictIdMap.get(column);
-    }
-
-    String timeColumnName = _schema.getTimeColumnName();
-    if (timeColumnName != null) {
-      dictIds[i] = (Integer) dictIdMap.get(timeColumnName);
+    int numKeyIndexContainers = _keyIndexContainers.length;
+    for (int i = 0; i < numKeyIndexContainers; i++) {
+      dictIds[i] = _keyIndexContainers[i]._dictId;
     }
     return _recordIdMap.put(new FixedIntArray(dictIds));
   }
@@ -673,4 +731,45 @@ public class MutableSegmentImpl implements MutableSegment {
     return new FixedIntArrayOffHeapIdMap(estimatedRowsToIndex, maxOverFlowHashSize, _numKeyColumns, _memoryManager,
         RECORD_ID_MAP);
   }
+
+  /**
+   * Per-column index container, which also holds the value and dictionary id(s) of the row being indexed.
+   */
+  private static class IndexContainer {
+    final String _column;
+    final FieldSpec.DataType _dataType;
+    final boolean _isSingleValue;
+    final boolean _isTimeColumn;
+    final MutableDictionary _dictionary;
+    final FixedByteSingleColumnSingleValueReaderWriter _svForwardIndex;
+    final FixedByteSingleColumnMultiValueReaderWriter _mvForwardIndex;
+    final RealtimeInvertedIndexReader _invertedIndex;
+    final RealtimeZoneMap _zoneMap;
+    int _maxNumValues = 0;
+
+    // Value and dictionary id(s) of the row being indexed
+    Object _value;
+    int _dictId;
+    int[] _dictIds;
+    int _numValues;
+
+    IndexContainer(FieldSpec fieldSpec, @Nullable MutableDictionary dictionary, DataFileReader forwardIndex,
+        @Nullable RealtimeInvertedIndexReader invertedIndex, @Nullable RealtimeZoneMap zoneMap) {
+      _column = fieldSpec.getName();
+      _dataType = fieldSpec.getDataType();
+      _isSingleValue = fieldSpec.isSingleValueField();
+      _isTimeColumn = fieldSpec.getFieldType() == FieldSpec.FieldType.TIME;
+      _dictionary = dictionary;
+      if (_isSingleValue) {
+        _svForwardIndex = (FixedByteSingleColumnSingleValueReaderWriter) forwardIndex;
+        _mvForwardIndex = null;
+      } else {
+        _svForwardIndex = null;
+        _mvForwardIndex = (FixedByteSingleColumnMultiValueReaderWriter) forwardIndex;
+        _dictIds = new int[MAX_MULTI_VALUES_PER_ROW];
+      }
+      _invertedIndex = invertedIndex;
+      _zoneMap = zoneMap;
+    }
+  }
 }
@@ -29,7 +29,9 @@ public class ChunkCompressorFactory {
   }
 
   public enum CompressionType {
-    PASS_THROUGH(0), SNAPPY(1);
+    // NOTE: the value is stored in the raw index header and resolved through the ordinal, so new types can only be
+    // appended at the end.
+    PASS_THROUGH(0), SNAPPY(1), ZSTANDARD(2), LZ4(3);
 
     private final int _value;
 
@@ -57,6 +59,12 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyCompressor();
 
+      case ZSTANDARD:
+        return new ZstandardCompressor();
+
+      case LZ4:
+        return new LZ4Compressor();
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -76,6 +84,12 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyDecompressor();
 
+      case ZSTANDARD:
+        return new ZstandardDecompressor();
+
+      case LZ4:
+        return new LZ4Decompressor();
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.io.reader.impl;
+
+/**
+ * Class to represent the reader context for FixedBitChunkSingleValueReader.
+ * The values of the last decoded chunk are cached in the context, so that the subsequent reads from the same chunk do
+ * not need to decode the chunk again.
+ */
+public class FixedBitChunkReaderContext extends UnSortedValueReaderContext {
+  private final long[] _values;
+  private final int[] _packedValues;
+  private int _chunkId;
+
+  public FixedBitChunkReaderContext(int numDocsPerChunk) {
+    _values = new long[numDocsPerChunk];
+    _packedValues = new int[numDocsPerChunk];
+    _chunkId = -1;
+  }
+
+  public long[] getValues() {
+    return _values;
+  }
+
+  public int[] getPackedValues() {
+    return _packedValues;
+  }
+
+  public int getChunkId() {
+    return _chunkId;
+  }
+
+  public void setChunkId(int chunkId) {
+    _chunkId = chunkId;
+  }
+}
@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.io.reader.impl.v1;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import org.apache.pinot.core.io.reader.BaseSingleColumnSingleValueReader;
+import org.apache.pinot.core.io.reader.impl.FixedBitChunkReaderContext;
+import org.apache.pinot.core.io.util.PinotDataBitSet;
+import org.apache.pinot.core.io.writer.impl.v1.FixedBitChunkSingleValueWriter;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+
+
+/**
+ * Reader class for data written out by {@link FixedBitChunkSingleValueWriter}.
+ * For data layout, please refer to the documentation for {@link FixedBitChunkSingleValueWriter}.
+ * <p>The whole chunk is decoded in bulk into the reader context on the first read of the chunk, so sequential reads
+ * should go through the reader context. Reads without context decode only the requested value, which for a delta
+ * encoded chunk requires summing up the deltas from the start of the chunk.
+ */
+public class FixedBitChunkSingleValueReader extends BaseSingleColumnSingleValueReader<FixedBitChunkReaderContext> {
+  private final PinotDataBuffer _dataBuffer;
+  private final int _numChunks;
+  private final int _numDocsPerChunk;
+  private final int _lengthOfEntry;
+  private final int _totalDocs;
+  private final PinotDataBuffer _dataHeader;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param pinotDataBuffer Data buffer to read from
+   */
+  public FixedBitChunkSingleValueReader(PinotDataBuffer pinotDataBuffer) {
+    _dataBuffer = pinotDataBuffer;
+
+    int headerOffset = 0;
+    int version = _dataBuffer.getInt(headerOffset);
+    Preconditions.checkState(version == 1, "Unsupported version: %s", version);
+    headerOffset += Integer.BYTES;
+
+    _numChunks = _dataBuffer.getInt(headerOffset);
+    headerOffset += Integer.BYTES;
+
+    _numDocsPerChunk = _dataBuffer.getInt(headerOffset);
+    headerOffset += Integer.BYTES;
+
+    _lengthOfEntry = _dataBuffer.getInt(headerOffset);
+    headerOffset += Integer.BYTES;
+
+    _totalDocs = _dataBuffer.getInt(headerOffset);
+    headerOffset += Integer.BYTES;
+
+    int dataHeaderStart = _dataBuffer.getInt(headerOffset);
+    _dataHeader = _dataBuffer.view(dataHeaderStart, dataHeaderStart + _numChunks * Integer.BYTES);
+  }
+
+  @Override
+  public int getInt(int row) {
+    assert _lengthOfEntry == Integer.BYTES;
+    return (int) getLong(row);
+  }
+
+  @Override
+  public int getInt(int row, FixedBitChunkReaderContext context) {
+    assert _lengthOfEntry == Integer.BYTES;
+    return (int) getLong(row, context);
+  }
+
+  @Override
+  public long getLong(int row) {
+    int chunkId = row / _numDocsPerChunk;
+    int chunkRowId = row % _numDocsPerChunk;
+    int chunkStart = _dataHeader.getInt(chunkId * Integer.BYTES);
+    int chunkEnd = chunkId == _numChunks - 1 ? (int) _dataBuffer.size()
+        : _dataHeader.getInt((chunkId + 1) * Integer.BYTES);
+
+    byte encoding = _dataBuffer.getByte(chunkStart);
+    int numBitsPerValue = _dataBuffer.getByte(chunkStart + 1);
+    long baseValue = _dataBuffer.getLong(chunkStart + 2);
+    long minDelta = _dataBuffer.getLong(chunkStart + 2 + Long.BYTES);
+    int dataStart = chunkStart + FixedBitChunkSingleValueWriter.CHUNK_HEADER_SIZE;
+
+    if (encoding == FixedBitChunkSingleValueWriter.RAW_ENCODING) {
+      return _dataBuffer.getLong(dataStart + chunkRowId * Long.BYTES);
+    }
+    PinotDataBitSet bitSet = new PinotDataBitSet(_dataBuffer.view(dataStart, chunkEnd));
+    if (encoding == FixedBitChunkSingleValueWriter.FRAME_OF_REFERENCE_ENCODING) {
+      return baseValue + bitSet.readInt(chunkRowId, numBitsPerValue);
+    }
+    long value = baseValue;
+    for (int i = 1; i <= chunkRowId; i++) {
+      value += minDelta + bitSet.readInt(i, numBitsPerValue);
+    }
+    return value;
+  }
+
+  @Override
+  public long getLong(int row, FixedBitChunkReaderContext context) {
+    int chunkId = row / _numDocsPerChunk;
+    if (context.getChunkId() != chunkId) {
+      decodeChunk(chunkId, context);
+    }
+    return context.getValues()[row % _numDocsPerChunk];
+  }
+
+  /**
+   * Helper method to decode all the values of the chunk into the reader context.
+   */
+  private void decodeChunk(int chunkId, FixedBitChunkReaderContext context) {
+    int chunkStart = _dataHeader.getInt(chunkId * Integer.BYTES);
+    int chunkEnd;
+    int numValues;
+    if (chunkId == _numChunks - 1) {
+      chunkEnd = (int) _dataBuffer.size();
+      numValues = _totalDocs - chunkId * _numDocsPerChunk;
+    } else {
+      chunkEnd = _dataHeader.getInt((chunkId + 1) * Integer.BYTES);
+      numValues = _numDocsPerChunk;
+    }
+
+    byte encoding = _dataBuffer.getByte(chunkStart);
+    int numBitsPerValue = _dataBuffer.getByte(chunkStart + 1);
+    long baseValue = _dataBuffer.getLong(chunkStart + 2);
+    long minDelta = _dataBuffer.getLong(chunkStart + 2 + Long.BYTES);
+    int dataStart = chunkStart + FixedBitChunkSingleValueWriter.CHUNK_HEADER_SIZE;
+
+    long[] values = context.getValues();
+    if (encoding == FixedBitChunkSingleValueWriter.RAW_ENCODING) {
+      for (int i = 0; i < numValues; i++) {
+        values[i] = _dataBuffer.getLong(dataStart + i * Long.BYTES);
+      }
+    } else {
+      int[] packedValues = context.getPackedValues();
+      new PinotDataBitSet(_dataBuffer.view(dataStart, chunkEnd)).readInt(0, numBitsPerValue, numValues, packedValues);
+      if (encoding == FixedBitChunkSingleValueWriter.FRAME_OF_REFERENCE_ENCODING) {
+        for (int i = 0; i < numValues; i++) {
+          values[i] = baseValue + packedValues[i];
+        }
+      } else {
+        long value = baseValue;
+        values[0] = value;
+        for (int i = 1; i < numValues; i++) {
+          value += minDelta + packedValues[i];
+          values[i] = value;
+        }
+      }
+    }
+    context.setChunkId(chunkId);
+  }
+
+  @Override
+  public FixedBitChunkReaderContext createContext() {
+    return new FixedBitChunkReaderContext(_numDocsPerChunk);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _dataBuffer.close();
+  }
+}
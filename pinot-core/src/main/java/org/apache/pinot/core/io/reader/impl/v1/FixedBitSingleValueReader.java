@@ -44,12 +44,33 @@ public final class FixedBitSingleValueReader extends BaseSingleColumnSingleValue
 
   @Override
   public void readValues(int[] rows, int rowsStartIndex, int rowSize, int[] values, int valuesStartIndex) {
+    if (rowSize == 0) {
+      return;
+    }
     int rowsEndIndex = rowsStartIndex + rowSize;
+    // Use bulk read (decode the bits sequentially) when the rows are consecutive, which is the case for scan
+    if (valuesStartIndex == 0 && isConsecutive(rows, rowsStartIndex, rowsEndIndex)) {
+      _reader.readInt(rows[rowsStartIndex], rowSize, values);
+      return;
+    }
     for (int i = rowsStartIndex; i < rowsEndIndex; i++) {
       values[valuesStartIndex++] = getInt(rows[i]);
     }
   }
 
+  private static boolean isConsecutive(int[] rows, int rowsStartIndex, int rowsEndIndex) {
+    int firstRow = rows[rowsStartIndex];
+    if (rows[rowsEndIndex - 1] - firstRow != rowsEndIndex - rowsStartIndex - 1) {
+      return false;
+    }
+    for (int i = rowsStartIndex + 1; i < rowsEndIndex; i++) {
+      if (rows[i] != firstRow + i - rowsStartIndex) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public ReaderContext createContext() {
     return null;
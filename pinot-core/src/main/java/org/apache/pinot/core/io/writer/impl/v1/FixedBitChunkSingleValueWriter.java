@@ -0,0 +1,279 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.io.writer.impl.v1;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.core.io.util.PinotDataBitSet;
+import org.apache.pinot.core.io.writer.SingleColumnSingleValueWriter;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+
+
+/**
+ * Class to write out int/long values into a single column with frame-of-reference or delta encoding, and bit-packing.
+ * For each chunk, the writer picks the encoding that requires less bits per value:
+ * <ul>
+ *   <li> Frame of reference: stores (value - min value of the chunk). </li>
+ *   <li> Delta: stores (value - previous value - min delta of the chunk), which works best for columns with values
+ *        increasing at a steady pace (e.g. time and counter columns). </li>
+ *   <li> Raw: stores the 8-byte values if the values cannot be packed into {@link #MAX_NUM_BITS_PER_VALUE} bits. </li>
+ * </ul>
+ *
+ * The layout of the file is as follows:
+ * <p> Header Section: </p>
+ * <ul>
+ *   <li> Integer: File format version. </li>
+ *   <li> Integer: Total number of chunks. </li>
+ *   <li> Integer: Number of docs per chunk. </li>
+ *   <li> Integer: Length of entry (in bytes) of the original values. </li>
+ *   <li> Integer: Total number of docs. </li>
+ *   <li> Integer: Start offset of data header. </li>
+ *   <li> Integer array: Integer offsets for all chunks in the data. </li>
+ * </ul>
+ *
+ * <p> Individual Chunks: </p>
+ * <ul>
+ *   <li> Byte: Encoding of the chunk. </li>
+ *   <li> Byte: Number of bits per value. </li>
+ *   <li> Long: Base value (min value for frame of reference, first value for delta). </li>
+ *   <li> Long: Min delta between consecutive values (delta only). </li>
+ *   <li> Bit-packed values (or 8-byte values for raw). </li>
+ * </ul>
+ *
+ * Only sequential writes are supported.
+ */
+@NotThreadSafe
+public class FixedBitChunkSingleValueWriter implements SingleColumnSingleValueWriter {
+  public static final byte FRAME_OF_REFERENCE_ENCODING = 0;
+  public static final byte DELTA_ENCODING = 1;
+  public static final byte RAW_ENCODING = 2;
+
+  public static final int CHUNK_HEADER_SIZE = 2 + 2 * Long.BYTES;
+  // PinotDataBitSet packs non-negative int values
+  public static final int MAX_NUM_BITS_PER_VALUE = Integer.SIZE - 1;
+
+  private static final int CURRENT_VERSION = 1;
+  private static final int NUM_HEADER_FIELDS = 6;
+
+  private final FileChannel _dataFile;
+  private final ByteBuffer _header;
+  private final long[] _chunkValues;
+  private final int[] _packedValues;
+  private final PinotDataBuffer _chunkBuffer;
+  private final PinotDataBitSet _chunkBitSet;
+
+  private int _numValuesInChunk;
+  private int _dataOffset;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param file File to write to.
+   * @param totalDocs Total number of docs to write.
+   * @param numDocsPerChunk Number of documents per chunk.
+   * @param sizeOfEntry Size of entry (in bytes), 4 for int values and 8 for long values.
+   * @throws IOException
+   */
+  public FixedBitChunkSingleValueWriter(File file, int totalDocs, int numDocsPerChunk, int sizeOfEntry)
+      throws IOException {
+    Preconditions.checkArgument(sizeOfEntry == Integer.BYTES || sizeOfEntry == Long.BYTES,
+        "Illegal size of entry: %s", sizeOfEntry);
+    _chunkValues = new long[numDocsPerChunk];
+    _packedValues = new int[numDocsPerChunk];
+
+    // Raw encoding is the worst case
+    int maxChunkSize = CHUNK_HEADER_SIZE + numDocsPerChunk * Long.BYTES;
+    _chunkBuffer = PinotDataBuffer.allocateDirect(maxChunkSize, ByteOrder.BIG_ENDIAN, file.getName());
+    _chunkBitSet = new PinotDataBitSet(_chunkBuffer.view(CHUNK_HEADER_SIZE, maxChunkSize));
+
+    int numChunks = (totalDocs + numDocsPerChunk - 1) / numDocsPerChunk;
+    int headerSize = (NUM_HEADER_FIELDS + numChunks) * Integer.BYTES;
+    _header = ByteBuffer.allocateDirect(headerSize);
+    _header.putInt(CURRENT_VERSION);
+    _header.putInt(numChunks);
+    _header.putInt(numDocsPerChunk);
+    _header.putInt(sizeOfEntry);
+    _header.putInt(totalDocs);
+    _header.putInt(NUM_HEADER_FIELDS * Integer.BYTES);
+    _dataOffset = headerSize;
+
+    _dataFile = new RandomAccessFile(file, "rw").getChannel();
+  }
+
+  @Override
+  public void setChar(int row, char ch) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setInt(int row, int i) {
+    addValue(i);
+  }
+
+  @Override
+  public void setShort(int row, short s) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setLong(int row, long l) {
+    addValue(l);
+  }
+
+  @Override
+  public void setFloat(int row, float f) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setDouble(int row, double d) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setString(int row, String string) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setBytes(int row, byte[] bytes) {
+    throw new UnsupportedOperationException();
+  }
+
+  private void addValue(long value) {
+    _chunkValues[_numValuesInChunk++] = value;
+    if (_numValuesInChunk == _chunkValues.length) {
+      writeChunk();
+    }
+  }
+
+  /**
+   * Helper method to encode and write the current chunk, and update the header with the offset of the chunk.
+   */
+  private void writeChunk() {
+    int numValues = _numValuesInChunk;
+    long minValue = _chunkValues[0];
+    long maxValue = _chunkValues[0];
+    long minDelta = 0;
+    long maxDelta = 0;
+    for (int i = 1; i < numValues; i++) {
+      long value = _chunkValues[i];
+      minValue = Math.min(minValue, value);
+      maxValue = Math.max(maxValue, value);
+      long delta = value - _chunkValues[i - 1];
+      if (i == 1) {
+        minDelta = delta;
+        maxDelta = delta;
+      } else {
+        minDelta = Math.min(minDelta, delta);
+        maxDelta = Math.max(maxDelta, delta);
+      }
+    }
+
+    // NOTE: the ranges overflow to negative values when they cannot fit into a long
+    int numBitsForFrameOfReference = getNumBitsPerValue(maxValue - minValue);
+    int numBitsForDelta = getNumBitsPerValue(maxDelta - minDelta);
+
+    byte encoding;
+    int numBitsPerValue;
+    long baseValue;
+    if (numBitsForFrameOfReference <= numBitsForDelta) {
+      encoding = FRAME_OF_REFERENCE_ENCODING;
+      numBitsPerValue = numBitsForFrameOfReference;
+      baseValue = minValue;
+      minDelta = 0;
+      for (int i = 0; i < numValues; i++) {
+        _packedValues[i] = (int) (_chunkValues[i] - minValue);
+      }
+    } else {
+      encoding = DELTA_ENCODING;
+      numBitsPerValue = numBitsForDelta;
+      baseValue = _chunkValues[0];
+      _packedValues[0] = 0;
+      for (int i = 1; i < numValues; i++) {
+        _packedValues[i] = (int) (_chunkValues[i] - _chunkValues[i - 1] - minDelta);
+      }
+    }
+
+    int chunkSize;
+    if (numBitsPerValue <= MAX_NUM_BITS_PER_VALUE) {
+      int numBytes = (int) (((long) numValues * numBitsPerValue + Byte.SIZE - 1) / Byte.SIZE);
+      // The bit set keeps the existing bits of the partially written bytes, so clear the bytes first
+      for (int i = 0; i < numBytes; i++) {
+        _chunkBuffer.putByte(CHUNK_HEADER_SIZE + i, (byte) 0);
+      }
+      _chunkBitSet.writeInt(0, numBitsPerValue, numValues, _packedValues);
+      chunkSize = CHUNK_HEADER_SIZE + numBytes;
+    } else {
+      encoding = RAW_ENCODING;
+      numBitsPerValue = Long.SIZE;
+      baseValue = 0;
+      minDelta = 0;
+      for (int i = 0; i < numValues; i++) {
+        _chunkBuffer.putLong(CHUNK_HEADER_SIZE + i * Long.BYTES, _chunkValues[i]);
+      }
+      chunkSize = CHUNK_HEADER_SIZE + numValues * Long.BYTES;
+    }
+    _chunkBuffer.putByte(0, encoding);
+    _chunkBuffer.putByte(1, (byte) numBitsPerValue);
+    _chunkBuffer.putLong(2, baseValue);
+    _chunkBuffer.putLong(2 + Long.BYTES, minDelta);
+
+    try {
+      _dataFile.write(_chunkBuffer.toDirectByteBuffer(0, chunkSize), _dataOffset);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    _header.putInt(_dataOffset);
+    _dataOffset += chunkSize;
+    _numValuesInChunk = 0;
+  }
+
+  /**
+   * Returns the number of bits required to pack the values within the given range, or {@link Integer#MAX_VALUE} if
+   * the values cannot be packed.
+   */
+  private static int getNumBitsPerValue(long range) {
+    if (range < 0 || range > Integer.MAX_VALUE) {
+      return Integer.MAX_VALUE;
+    }
+    return PinotDataBitSet.getNumBitsPerValue((int) range);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    // Write the chunk if it is non-empty.
+    if (_numValuesInChunk > 0) {
+      writeChunk();
+    }
+
+    // Write the header and close the file.
+    _header.flip();
+    _dataFile.write(_header, 0);
+    _dataFile.close();
+    _chunkBuffer.close();
+  }
+}
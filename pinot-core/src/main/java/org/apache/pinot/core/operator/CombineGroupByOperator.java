@@ -20,17 +20,14 @@ package org.apache.pinot.core.operator;
 
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.ProcessingException;
@@ -41,7 +38,7 @@ import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
-import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.aggregation.groupby.ConcurrentGroupByResultsTable;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,11 +85,12 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
    * result block.
    * <ul>
    *   <li>
-   *     Concurrently merge group-by results form multiple result blocks into a map from group key to group results
+   *     Concurrently merge group-by results form multiple result blocks into a lock-striped table from group key to
+   *     group results (see {@link ConcurrentGroupByResultsTable})
    *   </li>
    *   <li>
    *     Sort and trim the results map based on {@code TOP N} in the request
-   *     <p>Results map will be converted from {@code Map<String, Object[]>} to {@code List<Map<String, Object>>} which
+   *     <p>Results table will be converted from {@code Map<String, Object[]>} to {@code List<Map<String, Object>>} which
    *     is expected by the broker
    *   </li>
    *   <li>
@@ -104,8 +102,6 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
   protected IntermediateResultsBlock getNextBlock() {
     int numOperators = _operators.size();
     CountDownLatch operatorLatch = new CountDownLatch(numOperators);
-    ConcurrentHashMap<String, Object[]> resultsMap = new ConcurrentHashMap<>();
-    AtomicInteger numGroups = new AtomicInteger();
     ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions = new ConcurrentLinkedQueue<>();
 
     AggregationFunctionContext[] aggregationFunctionContexts =
@@ -115,6 +111,8 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
     for (int i = 0; i < numAggregationFunctions; i++) {
       aggregationFunctions[i] = aggregationFunctionContexts[i].getAggregationFunction();
     }
+    ConcurrentGroupByResultsTable resultsTable =
+        new ConcurrentGroupByResultsTable(aggregationFunctions, _interSegmentNumGroupsLimit);
 
     Future[] futures = new Future[numOperators];
     for (int i = 0; i < numOperators; i++) {
@@ -123,8 +121,6 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
         @SuppressWarnings("unchecked")
         @Override
         public void runJob() {
-          AggregationGroupByResult aggregationGroupByResult;
-
           try {
             IntermediateResultsBlock intermediateResultsBlock =
                 (IntermediateResultsBlock) _operators.get(index).nextBlock();
@@ -136,29 +132,9 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
             }
 
             // Merge aggregation group-by result.
-            aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
+            AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
             if (aggregationGroupByResult != null) {
-              // Iterate over the group-by keys, for each key, update the group-by result in the resultsMap.
-              Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-              while (groupKeyIterator.hasNext()) {
-                GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                resultsMap.compute(groupKey._stringKey, (key, value) -> {
-                  if (value == null) {
-                    if (numGroups.getAndIncrement() < _interSegmentNumGroupsLimit) {
-                      value = new Object[numAggregationFunctions];
-                      for (int i = 0; i < numAggregationFunctions; i++) {
-                        value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
-                      }
-                    }
-                  } else {
-                    for (int i = 0; i < numAggregationFunctions; i++) {
-                      value[i] = aggregationFunctions[i]
-                          .merge(value[i], aggregationGroupByResult.getResultForKey(groupKey, i));
-                    }
-                  }
-                  return value;
-                });
-              }
+              resultsTable.merge(aggregationGroupByResult);
             }
           } catch (Exception e) {
             LOGGER.error("Exception processing CombineGroupBy for index {}, operator {}", index,
@@ -184,7 +160,7 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
       AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
           new AggregationGroupByTrimmingService(aggregationFunctions, (int) _brokerRequest.getGroupBy().getTopN());
       List<Map<String, Object>> trimmedResults =
-          aggregationGroupByTrimmingService.trimIntermediateResultsMap(resultsMap);
+          aggregationGroupByTrimmingService.trimIntermediateResultsMap(resultsTable);
       IntermediateResultsBlock mergedBlock =
           new IntermediateResultsBlock(aggregationFunctionContexts, trimmedResults, true);
 
@@ -210,7 +186,7 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
 
       // TODO: this value should be set in the inner-segment operators. Setting it here might cause false positive as we
       //       are comparing number of groups across segments with the groups limit for each segment.
-      if (resultsMap.size() >= _innerSegmentNumGroupsLimit) {
+      if (resultsTable.size() >= _innerSegmentNumGroupsLimit) {
         mergedBlock.setNumGroupsLimitReached(true);
       }
 
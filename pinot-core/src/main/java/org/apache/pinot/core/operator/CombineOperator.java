@@ -18,8 +18,13 @@
  */
 package org.apache.pinot.core.operator;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
@@ -29,9 +34,12 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.Selection;
+import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.Block;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.SelectionOperator;
 import org.apache.pinot.core.query.reduce.CombineService;
 import org.apache.pinot.core.util.trace.TraceCallable;
 import org.apache.pinot.core.util.trace.TraceRunnable;
@@ -41,6 +49,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * The <code>CombineOperator</code> class is the operator to combine selection results and aggregation only results.
+ * <p>For selection order-by queries, the segments are processed in the order of the min/max value (based on the sort
+ * order) of the first order-by column from the segment metadata, and a segment is skipped when none of its rows can
+ * make into the top rows already collected.
  */
 public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
   private static final Logger LOGGER = LoggerFactory.getLogger(CombineOperator.class);
@@ -50,6 +61,8 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
   private final BrokerRequest _brokerRequest;
   private final ExecutorService _executorService;
   private final long _timeOutMs;
+  // For selection order-by queries, map from operator to the boundary value of the first order-by column
+  private final Map<Operator, Comparable> _boundaryValueMap = new HashMap<>();
   //Make this configurable
   //These two control the parallelism on a per query basis, depending on the number of segments to process
   private static final int MIN_THREADS_PER_QUERY;
@@ -71,11 +84,95 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
     _timeOutMs = timeOutMs;
   }
 
+  /**
+   * For selection order-by queries, returns the operators sorted by the boundary value of the first order-by column
+   * (operators without boundary value first), so that the segments more likely to contain the top rows are processed
+   * first. Returns the operators as is for other queries.
+   */
+  private List<Operator> getOperatorsInProcessingOrder() {
+    Selection selection = _brokerRequest.getSelections();
+    if (selection == null || !selection.isSetSelectionSortSequence() || selection.getSelectionSortSequence()
+        .isEmpty()) {
+      return _operators;
+    }
+    Class boundaryValueClass = null;
+    for (Operator operator : _operators) {
+      if (operator instanceof SelectionOperator) {
+        Comparable boundaryValue = ((SelectionOperator) operator).getFirstOrderByBoundaryValue();
+        if (boundaryValue != null) {
+          if (boundaryValueClass == null) {
+            boundaryValueClass = boundaryValue.getClass();
+          } else if (boundaryValue.getClass() != boundaryValueClass) {
+            // Boundary values are not comparable
+            _boundaryValueMap.clear();
+            return _operators;
+          }
+          _boundaryValueMap.put(operator, boundaryValue);
+        }
+      }
+    }
+    if (_boundaryValueMap.isEmpty()) {
+      return _operators;
+    }
+    boolean isAsc = selection.getSelectionSortSequence().get(0).isIsAsc();
+    List<Operator> operators = new ArrayList<>(_operators);
+    operators.sort((o1, o2) -> {
+      Comparable v1 = _boundaryValueMap.get(o1);
+      Comparable v2 = _boundaryValueMap.get(o2);
+      if (v1 == null) {
+        return v2 == null ? 0 : -1;
+      }
+      if (v2 == null) {
+        return 1;
+      }
+      return isAsc ? v1.compareTo(v2) : v2.compareTo(v1);
+    });
+    return operators;
+  }
+
+  /**
+   * Returns whether the segment for the given operator can be skipped because the merged block already has enough
+   * rows, and the boundary value of the first order-by column of the segment cannot beat the last row.
+   * <p>Only {@link SelectionOperator}s have boundary values, and the skipped ones should be marked through
+   * {@link SelectionOperator#skip()} to keep their execution statistics.
+   */
+  @SuppressWarnings("unchecked")
+  private boolean canSkip(Operator operator, IntermediateResultsBlock mergedBlock) {
+    Comparable boundaryValue = _boundaryValueMap.get(operator);
+    if (boundaryValue == null) {
+      return false;
+    }
+    Collection<Serializable[]> rows = mergedBlock.getSelectionResult();
+    DataSchema dataSchema = mergedBlock.getSelectionDataSchema();
+    if (!(rows instanceof PriorityQueue) || dataSchema == null) {
+      return false;
+    }
+    Selection selection = _brokerRequest.getSelections();
+    if (rows.size() < selection.getOffset() + selection.getSize()) {
+      return false;
+    }
+    String firstOrderByColumn = selection.getSelectionSortSequence().get(0).getColumn();
+    int numColumns = dataSchema.size();
+    for (int i = 0; i < numColumns; i++) {
+      if (dataSchema.getColumnName(i).equals(firstOrderByColumn)) {
+        // The head of the priority queue is the last row
+        Serializable lastValue = ((PriorityQueue<Serializable[]>) rows).peek()[i];
+        if (lastValue == null || lastValue.getClass() != boundaryValue.getClass()) {
+          return false;
+        }
+        int result = boundaryValue.compareTo(lastValue);
+        return selection.getSelectionSortSequence().get(0).isIsAsc() ? result > 0 : result < 0;
+      }
+    }
+    return false;
+  }
+
   @Override
   protected IntermediateResultsBlock getNextBlock() {
     final long startTime = System.currentTimeMillis();
     final long queryEndTime = System.currentTimeMillis() + _timeOutMs;
-    final int numOperators = _operators.size();
+    final List<Operator> operators = getOperatorsInProcessingOrder();
+    final int numOperators = operators.size();
     // Ensure that the number of groups is not more than the number of segments
     final int numGroups = Math.min(numOperators, Math.max(MIN_THREADS_PER_QUERY,
         Math.min(MAX_THREADS_PER_QUERY, (numOperators + MIN_SEGMENTS_PER_THREAD - 1) / MIN_SEGMENTS_PER_THREAD)));
@@ -85,7 +182,7 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
       operatorGroups.add(new ArrayList<Operator>());
     }
     for (int i = 0; i < numOperators; i++) {
-      operatorGroups.get(i % numGroups).add(_operators.get(i));
+      operatorGroups.get(i % numGroups).add(operators.get(i));
     }
 
     final BlockingQueue<Block> blockingQueue = new ArrayBlockingQueue<>(numGroups);
@@ -97,6 +194,10 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
           IntermediateResultsBlock mergedBlock = null;
           try {
             for (Operator operator : operatorGroup) {
+              if (mergedBlock != null && canSkip(operator, mergedBlock)) {
+                ((SelectionOperator) operator).skip();
+                continue;
+              }
               IntermediateResultsBlock blockToMerge = (IntermediateResultsBlock) operator.nextBlock();
               if (mergedBlock == null) {
                 mergedBlock = blockToMerge;
@@ -24,6 +24,7 @@ import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.common.BlockDocIdValueSet;
 import org.apache.pinot.core.common.BlockMetadata;
 import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,8 +40,12 @@ public class InstanceResponseBlock implements Block {
   private DataTable _instanceResponseDataTable;
 
   public InstanceResponseBlock(IntermediateResultsBlock intermediateResultsBlock) {
+    this(intermediateResultsBlock, DataTableBuilder.VERSION_2);
+  }
+
+  public InstanceResponseBlock(IntermediateResultsBlock intermediateResultsBlock, int dataTableVersion) {
     try {
-      _instanceResponseDataTable = intermediateResultsBlock.getDataTable();
+      _instanceResponseDataTable = intermediateResultsBlock.getDataTable(dataTableVersion);
     } catch (Exception e) {
       LOGGER.error("Caught exception while building data table.", e);
       throw new RuntimeException("Caught exception while building data table.", e);
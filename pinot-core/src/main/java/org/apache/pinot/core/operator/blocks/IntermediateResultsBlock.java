@@ -35,7 +35,6 @@ import org.apache.pinot.core.common.BlockDocIdValueSet;
 import org.apache.pinot.core.common.BlockMetadata;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.common.datatable.DataTableBuilder;
-import org.apache.pinot.core.common.datatable.DataTableImplV2;
 import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
@@ -205,34 +204,43 @@ public class IntermediateResultsBlock implements Block {
   @Nonnull
   public DataTable getDataTable()
       throws Exception {
+    return getDataTable(DataTableBuilder.VERSION_2);
+  }
+
+  /**
+   * Returns the data table with the given data table version.
+   */
+  @Nonnull
+  public DataTable getDataTable(int dataTableVersion)
+      throws Exception {
     if (_selectionResult != null) {
-      return getSelectionResultDataTable();
+      return getSelectionResultDataTable(dataTableVersion);
     }
 
     if (_aggregationResult != null) {
-      return getAggregationResultDataTable();
+      return getAggregationResultDataTable(dataTableVersion);
     }
 
     if (_combinedAggregationGroupByResult != null) {
-      return getAggregationGroupByResultDataTable();
+      return getAggregationGroupByResultDataTable(dataTableVersion);
     }
 
     if (_processingExceptions != null && _processingExceptions.size() > 0) {
-      return getProcessingExceptionsDataTable();
+      return getProcessingExceptionsDataTable(dataTableVersion);
     }
 
     throw new UnsupportedOperationException("No data inside IntermediateResultsBlock.");
   }
 
   @Nonnull
-  private DataTable getSelectionResultDataTable()
+  private DataTable getSelectionResultDataTable(int dataTableVersion)
       throws Exception {
     return attachMetadataToDataTable(
-        SelectionOperatorUtils.getDataTableFromRows(_selectionResult, _selectionDataSchema));
+        SelectionOperatorUtils.getDataTableFromRows(_selectionResult, _selectionDataSchema, dataTableVersion));
   }
 
   @Nonnull
-  private DataTable getAggregationResultDataTable()
+  private DataTable getAggregationResultDataTable(int dataTableVersion)
       throws Exception {
     // Extract each aggregation column name and type from aggregation function context.
     int numAggregationFunctions = _aggregationFunctionContexts.length;
@@ -245,7 +253,8 @@ public class IntermediateResultsBlock implements Block {
     }
 
     // Build the data table.
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+    DataTableBuilder dataTableBuilder =
+        new DataTableBuilder(new DataSchema(columnNames, columnDataTypes), dataTableVersion);
     dataTableBuilder.startRow();
     for (int i = 0; i < numAggregationFunctions; i++) {
       switch (columnDataTypes[i]) {
@@ -270,14 +279,15 @@ public class IntermediateResultsBlock implements Block {
   }
 
   @Nonnull
-  private DataTable getAggregationGroupByResultDataTable()
+  private DataTable getAggregationGroupByResultDataTable(int dataTableVersion)
       throws Exception {
     String[] columnNames = new String[]{"functionName", "GroupByResultMap"};
     DataSchema.ColumnDataType[] columnDataTypes =
         new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.OBJECT};
 
     // Build the data table.
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+    DataTableBuilder dataTableBuilder =
+        new DataTableBuilder(new DataSchema(columnNames, columnDataTypes), dataTableVersion);
     int numAggregationFunctions = _aggregationFunctionContexts.length;
     for (int i = 0; i < numAggregationFunctions; i++) {
       dataTableBuilder.startRow();
@@ -291,8 +301,8 @@ public class IntermediateResultsBlock implements Block {
     return attachMetadataToDataTable(dataTable);
   }
 
-  private DataTable getProcessingExceptionsDataTable() {
-    return attachMetadataToDataTable(new DataTableImplV2());
+  private DataTable getProcessingExceptionsDataTable(int dataTableVersion) {
+    return attachMetadataToDataTable(DataTableBuilder.getEmptyDataTable(dataTableVersion));
   }
 
   private DataTable attachMetadataToDataTable(DataTable dataTable) {
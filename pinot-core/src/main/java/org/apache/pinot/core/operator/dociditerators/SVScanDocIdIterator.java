@@ -24,13 +24,28 @@ import org.apache.pinot.core.common.BlockSingleValIterator;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.common.Constants;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
+/**
+ * Scan based doc id iterator for single-value columns.
+ * <p>Sequential iteration ({@link #next()}, {@link #advance(int)}) and {@link #applyAnd(MutableRoaringBitmap)} process
+ * the documents in batches: the dictionary ids (or raw values) for a batch of documents are read with one bulk call to
+ * the {@link BlockValSet}, then the predicate is evaluated on the whole batch in a tight loop, and the matching
+ * document ids are buffered. Random access through {@link #isMatch(int)} still reads one value at a time.
+ * <p>If the matching chunks are set (e.g. from the zone map of a consuming segment), the documents inside the chunks
+ * that cannot match are skipped without reading their values.
+ */
 public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
+  private static final int BATCH_SIZE = DocIdSetPlanNode.MAX_DOC_PER_CALL;
+
   private int _currentDocId = -1;
   private final BlockSingleValIterator _valueIterator;
+  private final BlockValSet _blockValSet;
+  private final FieldSpec.DataType _valueType;
+  private final int _maxDocId;
   private int _startDocId;
   private int _endDocId;
   private PredicateEvaluator _evaluator;
@@ -38,11 +53,32 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private int _numEntriesScanned = 0;
   private final ValueMatcher _valueMatcher;
 
+  // Buffers for batch evaluation, lazily allocated
+  // Matching doc ids in the current batch are stored in _docIdBuffer[_nextMatchIndex, _numMatchingDocIds)
+  private int[] _docIdBuffer;
+  private int[] _intValueBuffer;
+  private long[] _longValueBuffer;
+  private float[] _floatValueBuffer;
+  private double[] _doubleValueBuffer;
+  private String[] _stringValueBuffer;
+  private int _numMatchingDocIds;
+  private int _nextMatchIndex;
+  // First doc id not yet scanned
+  private int _nextDocIdToScan;
+
+  // Chunks of documents that might match the predicate, where chunk id for a document is (docId >>> _chunkSizeBits)
+  // Documents beyond the chunks are treated as matching
+  private boolean[] _matchingChunks;
+  private int _chunkSizeBits;
+
   public SVScanDocIdIterator(String operatorName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
     _operatorName = operatorName;
     _evaluator = evaluator;
+    _blockValSet = blockValSet;
     _valueIterator = (BlockSingleValIterator) blockValSet.iterator();
+    _valueType = blockMetadata.getDataType();
+    _maxDocId = blockMetadata.getEndDocId();
 
     if (evaluator.isAlwaysFalse()) {
       _currentDocId = Constants.EOF;
@@ -70,6 +106,7 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _currentDocId = startDocId - 1;
     _valueIterator.skipTo(startDocId);
     _startDocId = startDocId;
+    resetBatch(startDocId);
   }
 
   /**
@@ -79,12 +116,24 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
    * @param endDocId End doc id
    */
   public void setEndDocId(int endDocId) {
-    _endDocId = endDocId;
+    _endDocId = Math.min(endDocId, _maxDocId);
+  }
+
+  /**
+   * Sets the chunks of documents that might match the predicate, so that the documents inside the other chunks can be
+   * skipped.
+   *
+   * @param matchingChunks Flag for each chunk, false if none of the documents inside the chunk can match
+   * @param chunkSizeBits Number of bits for the chunk size
+   */
+  public void setMatchingChunks(boolean[] matchingChunks, int chunkSizeBits) {
+    _matchingChunks = matchingChunks;
+    _chunkSizeBits = chunkSizeBits;
   }
 
   @Override
   public boolean isMatch(int docId) {
-    if (_currentDocId == Constants.EOF) {
+    if (_currentDocId == Constants.EOF || !isInMatchingChunk(docId)) {
       return false;
     }
     _valueIterator.skipTo(docId);
@@ -101,30 +150,38 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       targetDocId = _startDocId;
     } else if (targetDocId > _endDocId) {
       _currentDocId = Constants.EOF;
+      return Constants.EOF;
     }
     if (_currentDocId >= targetDocId) {
       return _currentDocId;
+    }
+    if (targetDocId >= _nextDocIdToScan) {
+      // Target is not scanned yet, drop the buffered matches and start scanning from the target
+      resetBatch(targetDocId);
     } else {
-      _currentDocId = targetDocId - 1;
-      _valueIterator.skipTo(targetDocId);
-      return next();
+      // Target is inside the current batch, skip the buffered matches before the target
+      while (_nextMatchIndex < _numMatchingDocIds && _docIdBuffer[_nextMatchIndex] < targetDocId) {
+        _nextMatchIndex++;
+      }
     }
+    return next();
   }
 
   @Override
   public int next() {
-    if (_currentDocId == Constants.EOF) {
+    if (_currentDocId == Constants.EOF || _evaluator.isAlwaysFalse()) {
+      _currentDocId = Constants.EOF;
       return Constants.EOF;
     }
-    while (_valueIterator.hasNext() && _currentDocId < _endDocId) {
-      _currentDocId = _currentDocId + 1;
-      _numEntriesScanned++;
-      if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
-        return _currentDocId;
+    while (_nextMatchIndex == _numMatchingDocIds) {
+      if (_nextDocIdToScan > _endDocId) {
+        _currentDocId = Constants.EOF;
+        return Constants.EOF;
       }
+      scanNextBatch();
     }
-    _currentDocId = Constants.EOF;
-    return Constants.EOF;
+    _currentDocId = _docIdBuffer[_nextMatchIndex++];
+    return _currentDocId;
   }
 
   @Override
@@ -143,21 +200,148 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (_evaluator.isAlwaysFalse()) {
       return result;
     }
+    if (_docIdBuffer == null) {
+      _docIdBuffer = new int[BATCH_SIZE];
+    }
+    int[] docIds = _docIdBuffer;
+    int numDocs = 0;
     IntIterator intIterator = answer.getIntIterator();
     int docId = -1;
     while (intIterator.hasNext() && docId < _endDocId) {
       docId = intIterator.next();
-      if (docId >= _startDocId) {
-        _valueIterator.skipTo(docId);
-        _numEntriesScanned++;
-        if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
-          result.add(docId);
+      if (docId >= _startDocId && docId <= _endDocId && isInMatchingChunk(docId)) {
+        docIds[numDocs++] = docId;
+        if (numDocs == BATCH_SIZE) {
+          addMatchingDocIds(result, docIds, evaluateBatch(docIds, numDocs));
+          numDocs = 0;
         }
       }
     }
+    if (numDocs != 0) {
+      addMatchingDocIds(result, docIds, evaluateBatch(docIds, numDocs));
+    }
+    // The buffer is shared with the sequential iteration, restart it from the current position
+    resetBatch(_currentDocId + 1);
     return result;
   }
 
+  private static void addMatchingDocIds(MutableRoaringBitmap bitmap, int[] docIds, int numMatchingDocIds) {
+    for (int i = 0; i < numMatchingDocIds; i++) {
+      bitmap.add(docIds[i]);
+    }
+  }
+
+  private boolean isInMatchingChunk(int docId) {
+    if (_matchingChunks == null) {
+      return true;
+    }
+    int chunkId = docId >>> _chunkSizeBits;
+    return chunkId >= _matchingChunks.length || _matchingChunks[chunkId];
+  }
+
+  /**
+   * Drops the buffered matches and sets the next doc id to scan.
+   */
+  private void resetBatch(int nextDocIdToScan) {
+    _numMatchingDocIds = 0;
+    _nextMatchIndex = 0;
+    _nextDocIdToScan = nextDocIdToScan;
+  }
+
+  /**
+   * Scans the next batch of consecutive doc ids, and buffers the matching doc ids.
+   */
+  private void scanNextBatch() {
+    if (_docIdBuffer == null) {
+      _docIdBuffer = new int[BATCH_SIZE];
+    }
+    int startDocId = _nextDocIdToScan;
+    int numDocs = Math.min(BATCH_SIZE, _endDocId - startDocId + 1);
+    if (_matchingChunks != null) {
+      int numChunks = _matchingChunks.length;
+      int chunkId = startDocId >>> _chunkSizeBits;
+      if (chunkId < numChunks && !_matchingChunks[chunkId]) {
+        // Skip the chunks that cannot match
+        do {
+          chunkId++;
+        } while (chunkId < numChunks && !_matchingChunks[chunkId]);
+        startDocId = chunkId << _chunkSizeBits;
+        if (startDocId > _endDocId) {
+          _numMatchingDocIds = 0;
+          _nextMatchIndex = 0;
+          _nextDocIdToScan = _endDocId + 1;
+          return;
+        }
+        numDocs = Math.min(BATCH_SIZE, _endDocId - startDocId + 1);
+      }
+      // Stop the batch before the next chunk that cannot match
+      int nextChunkId = chunkId + 1;
+      while (nextChunkId < numChunks && _matchingChunks[nextChunkId]) {
+        nextChunkId++;
+      }
+      if (nextChunkId < numChunks) {
+        numDocs = Math.min(numDocs, (nextChunkId << _chunkSizeBits) - startDocId);
+      }
+    }
+    for (int i = 0; i < numDocs; i++) {
+      _docIdBuffer[i] = startDocId + i;
+    }
+    _numMatchingDocIds = evaluateBatch(_docIdBuffer, numDocs);
+    _nextMatchIndex = 0;
+    _nextDocIdToScan = startDocId + numDocs;
+  }
+
+  /**
+   * Reads the values for the given doc ids in bulk and evaluates the predicate on them. The matching doc ids are
+   * compacted to the front of the given array.
+   *
+   * @return Number of matching doc ids
+   */
+  private int evaluateBatch(int[] docIds, int numDocs) {
+    _numEntriesScanned += numDocs;
+    if (_evaluator.isDictionaryBased()) {
+      if (_intValueBuffer == null) {
+        _intValueBuffer = new int[BATCH_SIZE];
+      }
+      _blockValSet.getDictionaryIds(docIds, 0, numDocs, _intValueBuffer, 0);
+      return _evaluator.applySV(numDocs, docIds, _intValueBuffer);
+    }
+    switch (_valueType) {
+      case INT:
+        if (_intValueBuffer == null) {
+          _intValueBuffer = new int[BATCH_SIZE];
+        }
+        _blockValSet.getIntValues(docIds, 0, numDocs, _intValueBuffer, 0);
+        return _evaluator.applySV(numDocs, docIds, _intValueBuffer);
+      case LONG:
+        if (_longValueBuffer == null) {
+          _longValueBuffer = new long[BATCH_SIZE];
+        }
+        _blockValSet.getLongValues(docIds, 0, numDocs, _longValueBuffer, 0);
+        return _evaluator.applySV(numDocs, docIds, _longValueBuffer);
+      case FLOAT:
+        if (_floatValueBuffer == null) {
+          _floatValueBuffer = new float[BATCH_SIZE];
+        }
+        _blockValSet.getFloatValues(docIds, 0, numDocs, _floatValueBuffer, 0);
+        return _evaluator.applySV(numDocs, docIds, _floatValueBuffer);
+      case DOUBLE:
+        if (_doubleValueBuffer == null) {
+          _doubleValueBuffer = new double[BATCH_SIZE];
+        }
+        _blockValSet.getDoubleValues(docIds, 0, numDocs, _doubleValueBuffer, 0);
+        return _evaluator.applySV(numDocs, docIds, _doubleValueBuffer);
+      case STRING:
+        if (_stringValueBuffer == null) {
+          _stringValueBuffer = new String[BATCH_SIZE];
+        }
+        _blockValSet.getStringValues(docIds, 0, numDocs, _stringValueBuffer, 0);
+        return _evaluator.applySV(numDocs, docIds, _stringValueBuffer);
+      default:
+        throw new UnsupportedOperationException("Index without dictionary not supported for data type: " + _valueType);
+    }
+  }
+
   @Override
   public int getNumEntriesScanned() {
     return _numEntriesScanned;
@@ -29,8 +29,18 @@ public class BitmapDocIdSet implements FilterBlockDocIdSet {
   private int _startDocId;
   // Inclusive
   private int _endDocId;
+  private final long _numEntriesScannedInFilter;
 
   public BitmapDocIdSet(ImmutableRoaringBitmap[] bitmaps, int startDocId, int endDocId, boolean exclusive) {
+    this(bitmaps, startDocId, endDocId, exclusive, 0L);
+  }
+
+  /**
+   * Constructor for bitmaps (partially) computed by scanning the forward index, where the number of entries scanned is
+   * reported as part of the filter execution statistics.
+   */
+  public BitmapDocIdSet(ImmutableRoaringBitmap[] bitmaps, int startDocId, int endDocId, boolean exclusive,
+      long numEntriesScannedInFilter) {
     int numBitmaps = bitmaps.length;
     if (numBitmaps > 1) {
       MutableRoaringBitmap orBitmap = MutableRoaringBitmap.or(bitmaps);
@@ -55,6 +65,7 @@ public class BitmapDocIdSet implements FilterBlockDocIdSet {
 
     _startDocId = startDocId;
     _endDocId = endDocId;
+    _numEntriesScannedInFilter = numEntriesScannedInFilter;
   }
 
   @Override
@@ -79,7 +90,7 @@ public class BitmapDocIdSet implements FilterBlockDocIdSet {
 
   @Override
   public long getNumEntriesScannedInFilter() {
-    return 0L;
+    return _numEntriesScannedInFilter;
   }
 
   @Override
@@ -71,6 +71,14 @@ public class ScanBasedSingleValueDocIdSet implements FilterBlockDocIdSet {
     blockValSetBlockDocIdIterator.setEndDocId(endDocId);
   }
 
+  /**
+   * Sets the chunks of documents that might match the predicate, so that the documents inside the other chunks can be
+   * skipped.
+   */
+  public void setMatchingChunks(boolean[] matchingChunks, int chunkSizeBits) {
+    blockValSetBlockDocIdIterator.setMatchingChunks(matchingChunks, chunkSizeBits);
+  }
+
   @Override
   public long getNumEntriesScannedInFilter() {
     return blockValSetBlockDocIdIterator.getNumEntriesScanned();
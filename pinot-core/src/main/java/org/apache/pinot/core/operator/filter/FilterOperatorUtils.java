@@ -27,7 +27,10 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.common.DataSourceMetadata;
 import org.apache.pinot.core.common.Predicate;
+import org.apache.pinot.core.common.predicate.RangePredicate;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.OfflineDictionaryBasedRangePredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 public class FilterOperatorUtils {
@@ -42,6 +45,15 @@ public class FilterOperatorUtils {
    */
   public static BaseFilterOperator getLeafFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource,
       int numDocs) {
+    return getLeafFilterOperator(null, predicateEvaluator, dataSource, numDocs);
+  }
+
+  /**
+   * Returns the leaf filter operator (i.e. not {@link AndFilterOperator} or {@link OrFilterOperator}). If the predicate
+   * is provided, it is used to skip the chunks of documents that cannot match based on the zone map of the column.
+   */
+  public static BaseFilterOperator getLeafFilterOperator(@Nullable Predicate predicate,
+      PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs) {
     if (predicateEvaluator.isAlwaysFalse()) {
       return EmptyFilterOperator.getInstance();
     } else if (predicateEvaluator.isAlwaysTrue()) {
@@ -53,9 +65,16 @@ public class FilterOperatorUtils {
     // TODO: make it exclusive
     int endDocId = numDocs - 1;
 
-    // Use inverted index if the predicate type is not RANGE or REGEXP_LIKE for efficiency
+    // Use range index for dictionary-based RANGE predicate if exists
     DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
     Predicate.Type predicateType = predicateEvaluator.getPredicateType();
+    if (predicateType == Predicate.Type.RANGE && dataSource.getRangeIndex() != null
+        && predicateEvaluator instanceof OfflineDictionaryBasedRangePredicateEvaluator) {
+      return new RangeIndexBasedFilterOperator((OfflineDictionaryBasedRangePredicateEvaluator) predicateEvaluator,
+          dataSource, startDocId, endDocId);
+    }
+
+    // Use inverted index if the predicate type is not RANGE or REGEXP_LIKE for efficiency
     if (dataSourceMetadata.hasInvertedIndex() && (predicateType != Predicate.Type.RANGE) && (predicateType
         != Predicate.Type.REGEXP_LIKE)) {
       if (dataSourceMetadata.isSorted()) {
@@ -63,9 +82,30 @@ public class FilterOperatorUtils {
       } else {
         return new BitmapBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
       }
-    } else {
-      return new ScanBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
     }
+
+    // Use zone map (e.g. for consuming segment) to skip the chunks of documents that cannot match the RANGE predicate
+    ZoneMapReader zoneMap = dataSource.getZoneMap();
+    if (predicateType == Predicate.Type.RANGE && predicate instanceof RangePredicate && zoneMap != null
+        && dataSourceMetadata.isSingleValue()) {
+      boolean[] matchingChunks = zoneMap.getMatchingChunks((RangePredicate) predicate, numDocs);
+      if (matchingChunks != null) {
+        int numMatchingChunks = 0;
+        for (boolean matchingChunk : matchingChunks) {
+          if (matchingChunk) {
+            numMatchingChunks++;
+          }
+        }
+        if (numMatchingChunks == 0) {
+          return EmptyFilterOperator.getInstance();
+        }
+        if (numMatchingChunks < matchingChunks.length) {
+          return new ScanBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId, matchingChunks,
+              zoneMap.getChunkSizeBits());
+        }
+      }
+    }
+    return new ScanBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
   }
 
   /**
@@ -139,7 +179,8 @@ public class FilterOperatorUtils {
         if (filterOperator instanceof SortedInvertedIndexBasedFilterOperator) {
           return 0;
         }
-        if (filterOperator instanceof BitmapBasedFilterOperator) {
+        if (filterOperator instanceof BitmapBasedFilterOperator
+            || filterOperator instanceof RangeIndexBasedFilterOperator) {
           return 1;
         }
         if (filterOperator instanceof AndFilterOperator) {
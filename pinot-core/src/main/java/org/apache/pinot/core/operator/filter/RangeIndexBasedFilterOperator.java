@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.operator.blocks.FilterBlock;
+import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.OfflineDictionaryBasedRangePredicateEvaluator;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
+import org.apache.pinot.core.segment.index.readers.BitmapRangeIndexReader;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Filter operator for RANGE predicate on single-value dictionary-encoded column with range index.
+ * <p>The bitmaps of the ranges fully covered by the predicate are OR-ed directly, and only the documents within the
+ * partially covered ranges (at most 2) are scanned against the forward index.
+ */
+public class RangeIndexBasedFilterOperator extends BaseFilterOperator {
+  private static final String OPERATOR_NAME = "RangeIndexBasedFilterOperator";
+
+  private final OfflineDictionaryBasedRangePredicateEvaluator _predicateEvaluator;
+  private final DataSource _dataSource;
+  private final int _startDocId;
+  // Inclusive
+  private final int _endDocId;
+
+  RangeIndexBasedFilterOperator(OfflineDictionaryBasedRangePredicateEvaluator predicateEvaluator,
+      DataSource dataSource, int startDocId, int endDocId) {
+    // NOTE:
+    // Predicate that is always evaluated as true or false should not be passed into the RangeIndexBasedFilterOperator
+    // for performance concern.
+    // If predicate is always evaluated as true, use MatchAllFilterOperator; if predicate is always evaluated as false,
+    // use EmptyFilterOperator.
+    Preconditions.checkArgument(!predicateEvaluator.isAlwaysTrue() && !predicateEvaluator.isAlwaysFalse());
+
+    _predicateEvaluator = predicateEvaluator;
+    _dataSource = dataSource;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  protected FilterBlock getNextBlock() {
+    BitmapRangeIndexReader rangeIndex = _dataSource.getRangeIndex();
+    int startDictId = _predicateEvaluator.getStartDictId();
+    int endDictId = _predicateEvaluator.getEndDictId();
+    int firstRangeId = rangeIndex.findRangeId(startDictId);
+    int lastRangeId = rangeIndex.findRangeId(endDictId - 1);
+
+    MutableRoaringBitmap matchingDocIds = new MutableRoaringBitmap();
+    long numEntriesScanned = 0L;
+    for (int rangeId = firstRangeId; rangeId <= lastRangeId; rangeId++) {
+      ImmutableRoaringBitmap docIds = rangeIndex.getDocIds(rangeId);
+      if (startDictId <= rangeIndex.getRangeStartDictId(rangeId)
+          && rangeIndex.getRangeEndDictId(rangeId) <= endDictId) {
+        matchingDocIds.or(docIds);
+      } else {
+        numEntriesScanned += addMatchingDocIds(docIds, matchingDocIds);
+      }
+    }
+
+    return new FilterBlock(
+        new BitmapDocIdSet(new ImmutableRoaringBitmap[]{matchingDocIds}, _startDocId, _endDocId, false,
+            numEntriesScanned));
+  }
+
+  /**
+   * Scans the documents within a partially covered range, and adds the ones matching the predicate.
+   *
+   * @return Number of entries scanned
+   */
+  private int addMatchingDocIds(ImmutableRoaringBitmap docIds, MutableRoaringBitmap matchingDocIds) {
+    BlockValSet blockValSet = _dataSource.nextBlock().getBlockValueSet();
+    int[] docIdBuffer = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    int[] dictIdBuffer = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    IntIterator docIdIterator = docIds.getIntIterator();
+    int numEntriesScanned = 0;
+    while (docIdIterator.hasNext()) {
+      int numDocs = 0;
+      while (numDocs < DocIdSetPlanNode.MAX_DOC_PER_CALL && docIdIterator.hasNext()) {
+        docIdBuffer[numDocs++] = docIdIterator.next();
+      }
+      blockValSet.getDictionaryIds(docIdBuffer, 0, numDocs, dictIdBuffer, 0);
+      int numMatchingDocs = _predicateEvaluator.applySV(numDocs, docIdBuffer, dictIdBuffer);
+      matchingDocIds.addN(docIdBuffer, 0, numMatchingDocs);
+      numEntriesScanned += numDocs;
+    }
+    return numEntriesScanned;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.operator.filter;
 
 import com.google.common.base.Preconditions;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.common.Block;
 import org.apache.pinot.core.common.BlockMetadata;
 import org.apache.pinot.core.common.BlockValSet;
@@ -40,8 +41,16 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
   // TODO: change it to exclusive
   // Inclusive
   private final int _endDocId;
+  // Chunks of documents that might match the predicate (from zone map), null if all documents should be scanned
+  private final boolean[] _matchingChunks;
+  private final int _chunkSizeBits;
 
   ScanBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int startDocId, int endDocId) {
+    this(predicateEvaluator, dataSource, startDocId, endDocId, null, 0);
+  }
+
+  ScanBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int startDocId, int endDocId,
+      @Nullable boolean[] matchingChunks, int chunkSizeBits) {
     // NOTE:
     // Predicate that is always evaluated as true or false should not be passed into the ScanBasedFilterOperator for
     // performance concern.
@@ -53,6 +62,8 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
     _dataSource = dataSource;
     _startDocId = startDocId;
     _endDocId = endDocId;
+    _matchingChunks = matchingChunks;
+    _chunkSizeBits = chunkSizeBits;
   }
 
   @Override
@@ -64,9 +75,13 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
 
     FilterBlockDocIdSet filterBlockDocIdSet;
     if (dataSourceMetadata.isSingleValue()) {
-      filterBlockDocIdSet =
+      ScanBasedSingleValueDocIdSet singleValueDocIdSet =
           new ScanBasedSingleValueDocIdSet(_dataSource.getOperatorName(), blockValueSet, blockMetadata,
               _predicateEvaluator);
+      if (_matchingChunks != null) {
+        singleValueDocIdSet.setMatchingChunks(_matchingChunks, _chunkSizeBits);
+      }
+      filterBlockDocIdSet = singleValueDocIdSet;
     } else {
       filterBlockDocIdSet = new ScanBasedMultiValueDocIdSet(_dataSource.getOperatorName(), blockValueSet, blockMetadata,
           _predicateEvaluator);
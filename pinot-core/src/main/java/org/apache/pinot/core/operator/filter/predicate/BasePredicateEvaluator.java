@@ -34,4 +34,59 @@ public abstract class BasePredicateEvaluator implements PredicateEvaluator {
   public int getNumNonMatchingDictIds() {
     return getNonMatchingDictIds().length;
   }
+
+  @Override
+  public int applySV(int limit, int[] docIds, int[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, long[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, float[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, double[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, String[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
 }
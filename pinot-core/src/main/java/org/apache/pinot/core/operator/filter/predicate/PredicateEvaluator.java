@@ -68,6 +68,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(int[] values, int length);
 
+  /**
+   * Apply the single-value entries for a batch of documents to the predicate, and compact the ids of the matching
+   * documents to the front of the document ids array (in the same order).
+   *
+   * @param limit Number of documents in the batch
+   * @param docIds Array of document ids, will be overwritten with the matching document ids
+   * @param values Array of dictionary ids or raw values for the documents
+   * @return Number of matching documents
+   */
+  int applySV(int limit, int[] docIds, int[] values);
+
   /**
    * APIs for dictionary based predicate evaluator
    */
@@ -113,6 +124,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(long[] values, int length);
 
+  /**
+   * Apply the single-value entries for a batch of documents to the predicate, and compact the ids of the matching
+   * documents to the front of the document ids array (in the same order).
+   *
+   * @param limit Number of documents in the batch
+   * @param docIds Array of document ids, will be overwritten with the matching document ids
+   * @param values Array of raw values for the documents
+   * @return Number of matching documents
+   */
+  int applySV(int limit, int[] docIds, long[] values);
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -130,6 +152,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(float[] values, int length);
 
+  /**
+   * Apply the single-value entries for a batch of documents to the predicate, and compact the ids of the matching
+   * documents to the front of the document ids array (in the same order).
+   *
+   * @param limit Number of documents in the batch
+   * @param docIds Array of document ids, will be overwritten with the matching document ids
+   * @param values Array of raw values for the documents
+   * @return Number of matching documents
+   */
+  int applySV(int limit, int[] docIds, float[] values);
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -147,6 +180,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(double[] values, int length);
 
+  /**
+   * Apply the single-value entries for a batch of documents to the predicate, and compact the ids of the matching
+   * documents to the front of the document ids array (in the same order).
+   *
+   * @param limit Number of documents in the batch
+   * @param docIds Array of document ids, will be overwritten with the matching document ids
+   * @param values Array of raw values for the documents
+   * @return Number of matching documents
+   */
+  int applySV(int limit, int[] docIds, double[] values);
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -163,4 +207,15 @@ public interface PredicateEvaluator {
    * @return Whether the entry matches the predicate
    */
   boolean applyMV(String[] values, int length);
+
+  /**
+   * Apply the single-value entries for a batch of documents to the predicate, and compact the ids of the matching
+   * documents to the front of the document ids array (in the same order).
+   *
+   * @param limit Number of documents in the batch
+   * @param docIds Array of document ids, will be overwritten with the matching document ids
+   * @param values Array of raw values for the documents
+   * @return Number of matching documents
+   */
+  int applySV(int limit, int[] docIds, String[] values);
 }
@@ -76,7 +76,7 @@ public class RangePredicateEvaluatorFactory {
     }
   }
 
-  private static final class OfflineDictionaryBasedRangePredicateEvaluator extends BaseDictionaryBasedPredicateEvaluator {
+  public static final class OfflineDictionaryBasedRangePredicateEvaluator extends BaseDictionaryBasedPredicateEvaluator {
     final int _startDictId;
     // Exclusive
     final int _endDictId;
@@ -126,6 +126,20 @@ public class RangePredicateEvaluatorFactory {
       }
     }
 
+    /**
+     * Returns the first matching dictionary id (inclusive).
+     */
+    public int getStartDictId() {
+      return _startDictId;
+    }
+
+    /**
+     * Returns the last matching dictionary id (exclusive).
+     */
+    public int getEndDictId() {
+      return _endDictId;
+    }
+
     @Override
     public Predicate.Type getPredicateType() {
       return Predicate.Type.RANGE;
@@ -136,6 +150,18 @@ public class RangePredicateEvaluatorFactory {
       return _startDictId <= dictId && _endDictId > dictId;
     }
 
+    @Override
+    public int applySV(int limit, int[] docIds, int[] dictIds) {
+      // Branch-free loop so that the matching is not bounded by branch mispredictions
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        int dictId = dictIds[i];
+        docIds[numMatchingDocs] = docIds[i];
+        numMatchingDocs += (_startDictId <= dictId & _endDictId > dictId) ? 1 : 0;
+      }
+      return numMatchingDocs;
+    }
+
     @Override
     public int getNumMatchingDictIds() {
       return _numMatchingDictIds;
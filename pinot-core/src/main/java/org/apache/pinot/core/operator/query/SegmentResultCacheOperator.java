@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import java.util.function.Supplier;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
+import org.apache.pinot.core.query.cache.CachedSegmentResult;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
+
+
+/**
+ * The <code>SegmentResultCacheOperator</code> class serves the result of a single segment from the
+ * {@link SegmentResultCache} if possible, or executes the actual plan and caches the result otherwise.
+ * <p>The actual plan is only created on cache miss. On cache hit, the execution statistics replay the number of
+ * documents scanned (and thus whether the segment matched) when the result was computed, so that the statistics of the
+ * query do not depend on the cache. Only the entries scanned are reported as 0, as no index is read.
+ */
+public class SegmentResultCacheOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final String OPERATOR_NAME = "SegmentResultCacheOperator";
+
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.Key _cacheKey;
+  private final AggregationFunctionContext[] _functionContexts;
+  private final Supplier<PlanNode> _planNodeSupplier;
+  private final long _numTotalRawDocs;
+
+  private ExecutionStatistics _executionStatistics;
+
+  public SegmentResultCacheOperator(SegmentResultCache segmentResultCache, SegmentResultCache.Key cacheKey,
+      AggregationFunctionContext[] functionContexts, Supplier<PlanNode> planNodeSupplier, long numTotalRawDocs) {
+    _segmentResultCache = segmentResultCache;
+    _cacheKey = cacheKey;
+    _functionContexts = functionContexts;
+    _planNodeSupplier = planNodeSupplier;
+    _numTotalRawDocs = numTotalRawDocs;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    CachedSegmentResult cachedResult = _segmentResultCache.get(_cacheKey);
+    if (cachedResult != null) {
+      // No entry is scanned when the result is served from the cache
+      _executionStatistics = new ExecutionStatistics(cachedResult.getNumDocsScanned(), 0L, 0L, _numTotalRawDocs);
+      return cachedResult.toResultsBlock(_functionContexts);
+    }
+
+    Operator<IntermediateResultsBlock> operator = _planNodeSupplier.get().run();
+    IntermediateResultsBlock resultsBlock = operator.nextBlock();
+    _executionStatistics = operator.getExecutionStatistics();
+    _segmentResultCache.put(_cacheKey, resultsBlock, _executionStatistics.getNumDocsScanned());
+    return resultsBlock;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _executionStatistics;
+  }
+}
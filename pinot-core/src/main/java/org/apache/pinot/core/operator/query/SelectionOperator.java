@@ -24,9 +24,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.data.FieldSpec.DataType;
 import org.apache.pinot.common.request.Selection;
 import org.apache.pinot.common.request.SelectionSort;
@@ -34,20 +37,32 @@ import org.apache.pinot.common.request.transform.TransformExpressionTree;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.primitive.ByteArray;
 import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.common.DataBlockCache;
+import org.apache.pinot.core.common.DataFetcher;
+import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
+import org.apache.pinot.core.operator.docvalsets.ProjectionBlockValSet;
 import org.apache.pinot.core.operator.transform.TransformBlockDataFetcher;
 import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
+import org.apache.pinot.core.segment.index.ColumnMetadata;
+import org.apache.pinot.core.segment.index.SegmentMetadataImpl;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 
 
 /**
  * This SelectionOnlyOperator will take care of applying a selection query to one IndexSegment.
  * nextBlock() will return an IntermediateResultBlock for the given IndexSegment.
+ * <p>For selection order-by queries where all the expressions are columns, the rows are materialized lazily: while
+ * scanning the documents, only the single-value order-by columns (dictionary ids for columns with sorted dictionary)
+ * are read to pick the top document ids, and all the selected columns are only read for the top documents.
+ * <p>If the first order-by column is the sorted column of the segment in ascending order, the documents are read in
+ * the order of the column, so the scan stops once the top rows are collected and the sorted column value changes.
  */
 public class SelectionOperator extends BaseOperator<IntermediateResultsBlock> {
 
@@ -70,6 +85,20 @@ public class SelectionOperator extends BaseOperator<IntermediateResultsBlock> {
   private Collection<Serializable[]> _rowEvents;
   private PriorityQueue<Serializable[]> _priorityQueue;
 
+  // For late materialization of selection order-by
+  private boolean _lateMaterialization;
+  // Indices of the single-value order-by expressions
+  private int[] _sortExpressionIndices;
+  private Dictionary[] _sortDictionaries;
+  private TransformResultMetadata[] _sortResultMetadata;
+  // Whether to sort on dictionary ids (for columns with sorted dictionary) instead of values
+  private boolean[] _sortOnDictIds;
+  // Sort keys: [sort values (or dictionary ids)..., docId]
+  private PriorityQueue<Serializable[]> _sortKeyQueue;
+  private Serializable[] _reusableSortKey;
+  // Whether the scan can be early terminated because the first order-by column is the sorted column in ascending order
+  private boolean _sortedColumnEarlyTermination;
+
   private ExecutionStatistics _executionStatistics;
 
   public SelectionOperator(IndexSegment indexSegment, Selection selection, TransformOperator transformOperator) {
@@ -134,6 +163,104 @@ public class SelectionOperator extends BaseOperator<IntermediateResultsBlock> {
     } else {
       Comparator<Serializable[]> comparator = getStrictComparator();
       _priorityQueue = new PriorityQueue<>(_maxRows, comparator);
+      initLateMaterialization();
+    }
+  }
+
+  private void initLateMaterialization() {
+    // All the expressions need to be columns so that their values can be read for arbitrary documents
+    for (TransformExpressionTree expression : _expressions) {
+      if (!expression.isColumn()) {
+        return;
+      }
+    }
+    _lateMaterialization = true;
+
+    // Multi-value columns are not compared
+    List<SelectionSort> sortSequence = _selection.getSelectionSortSequence();
+    int numSortColumns = sortSequence.size();
+    int[] sortExpressionIndices = new int[numSortColumns];
+    boolean[] sortIsAsc = new boolean[numSortColumns];
+    int count = 0;
+    for (int i = 0; i < numSortColumns; i++) {
+      int index = _orderByIndices.get(i);
+      if (_expressionResultMetadata[index].isSingleValue()) {
+        sortExpressionIndices[count] = index;
+        sortIsAsc[count++] = sortSequence.get(i).isIsAsc();
+      }
+    }
+    int numSortExpressions = count;
+    _sortExpressionIndices = Arrays.copyOf(sortExpressionIndices, numSortExpressions);
+    _sortDictionaries = new Dictionary[numSortExpressions];
+    _sortResultMetadata = new TransformResultMetadata[numSortExpressions];
+    _sortOnDictIds = new boolean[numSortExpressions];
+    DataType[] sortDataTypes = new DataType[numSortExpressions];
+    for (int i = 0; i < numSortExpressions; i++) {
+      int index = _sortExpressionIndices[i];
+      _sortDictionaries[i] = _dictionaries[index];
+      _sortResultMetadata[i] = _expressionResultMetadata[index];
+      if (_dictionaries[index] != null && _dictionaries[index].isSorted()) {
+        _sortOnDictIds[i] = true;
+        sortDataTypes[i] = DataType.INT;
+      } else {
+        sortDataTypes[i] = _expressionResultMetadata[index].getDataType();
+      }
+    }
+
+    _sortKeyQueue = new PriorityQueue<>(_maxRows, (o1, o2) -> {
+      for (int i = 0; i < numSortExpressions; i++) {
+        int ret = sortIsAsc[i] ? compareValues(sortDataTypes[i], o2[i], o1[i])
+            : compareValues(sortDataTypes[i], o1[i], o2[i]);
+        if (ret != 0) {
+          return ret;
+        }
+      }
+      return 0;
+    });
+    _reusableSortKey = new Serializable[numSortExpressions + 1];
+    if (numSortExpressions > 0 && sortIsAsc[0] && _sortOnDictIds[0]) {
+      String firstSortColumn = _expressions.get(_sortExpressionIndices[0]).getValue();
+      _sortedColumnEarlyTermination = _indexSegment.getDataSource(firstSortColumn).getDataSourceMetadata().isSorted();
+    }
+  }
+
+  /**
+   * Returns the boundary value of the first order-by column in the segment based on the segment metadata (min value
+   * for ascending order, max value for descending order), or {@code null} if it is not available. No row from this
+   * segment can have the first order-by value better than the boundary value, which can be used to skip the segment.
+   */
+  @Nullable
+  public Comparable getFirstOrderByBoundaryValue() {
+    if (_orderByExpressions.isEmpty()) {
+      return null;
+    }
+    int index = _orderByIndices.get(0);
+    if (!_expressions.get(index).isColumn() || !_expressionResultMetadata[index].isSingleValue()) {
+      return null;
+    }
+    if (!(_indexSegment.getSegmentMetadata() instanceof SegmentMetadataImpl)) {
+      return null;
+    }
+    // For realtime segment, the column metadata map is null
+    Map<String, ColumnMetadata> columnMetadataMap =
+        ((SegmentMetadataImpl) _indexSegment.getSegmentMetadata()).getColumnMetadataMap();
+    if (columnMetadataMap == null) {
+      return null;
+    }
+    ColumnMetadata columnMetadata = columnMetadataMap.get(_expressions.get(index).getValue());
+    if (columnMetadata == null) {
+      return null;
+    }
+    switch (columnMetadata.getDataType()) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+        return _selection.getSelectionSortSequence().get(0).isIsAsc() ? columnMetadata.getMinValue()
+            : columnMetadata.getMaxValue();
+      default:
+        return null;
     }
   }
 
@@ -156,51 +283,10 @@ public class SelectionOperator extends BaseOperator<IntermediateResultsBlock> {
           Serializable v2 = o2[index];
 
           DataType dataType = _expressionResultMetadata[index].getDataType();
-          switch (dataType) {
-            case INT:
-              if (!selectionSort.isIsAsc()) {
-                ret = ((Integer) v1).compareTo((Integer) v2);
-              } else {
-                ret = ((Integer) v2).compareTo((Integer) v1);
-              }
-              break;
-            case LONG:
-              if (!selectionSort.isIsAsc()) {
-                ret = ((Long) v1).compareTo((Long) v2);
-              } else {
-                ret = ((Long) v2).compareTo((Long) v1);
-              }
-              break;
-            case FLOAT:
-              if (!selectionSort.isIsAsc()) {
-                ret = ((Float) v1).compareTo((Float) v2);
-              } else {
-                ret = ((Float) v2).compareTo((Float) v1);
-              }
-              break;
-            case DOUBLE:
-              if (!selectionSort.isIsAsc()) {
-                ret = ((Double) v1).compareTo((Double) v2);
-              } else {
-                ret = ((Double) v2).compareTo((Double) v1);
-              }
-              break;
-            case BOOLEAN:
-            case STRING:
-              if (!selectionSort.isIsAsc()) {
-                ret = ((String) v1).compareTo((String) v2);
-              } else {
-                ret = ((String) v2).compareTo((String) v1);
-              }
-              break;
-            case BYTES:
-              if (!selectionSort.isIsAsc()) {
-                ret = ByteArray.compare((byte[]) v1, (byte[]) v2);
-              } else {
-                ret = ByteArray.compare((byte[]) v2, (byte[]) v1);
-              }
-            default:
-              break;
+          if (!selectionSort.isIsAsc()) {
+            ret = compareValues(dataType, v1, v2);
+          } else {
+            ret = compareValues(dataType, v2, v1);
           }
 
           if (ret != 0) {
@@ -212,6 +298,26 @@ public class SelectionOperator extends BaseOperator<IntermediateResultsBlock> {
     };
   }
 
+  private static int compareValues(DataType dataType, Serializable v1, Serializable v2) {
+    switch (dataType) {
+      case INT:
+        return ((Integer) v1).compareTo((Integer) v2);
+      case LONG:
+        return ((Long) v1).compareTo((Long) v2);
+      case FLOAT:
+        return ((Float) v1).compareTo((Float) v2);
+      case DOUBLE:
+        return ((Double) v1).compareTo((Double) v2);
+      case BOOLEAN:
+      case STRING:
+        return ((String) v1).compareTo((String) v2);
+      case BYTES:
+        return ByteArray.compare((byte[]) v1, (byte[]) v2);
+      default:
+        return 0;
+    }
+  }
+
   @Override
   protected IntermediateResultsBlock getNextBlock() {
     int numDocsScanned = 0;
@@ -219,6 +325,16 @@ public class SelectionOperator extends BaseOperator<IntermediateResultsBlock> {
     TransformBlock transformBlock;
     boolean selectionOnly = _orderByExpressions.isEmpty();
     while ((transformBlock = _transformOperator.nextBlock()) != null) {
+      if (_lateMaterialization) {
+        int numDocs = transformBlock.getNumDocs();
+        int numDocsAdded = addSortKeys(transformBlock);
+        numDocsScanned += numDocsAdded;
+        if (numDocsAdded < numDocs) {
+          // Early terminated on the sorted column
+          break;
+        }
+        continue;
+      }
       for (int i = 0; i < _expressions.size(); i++) {
         TransformExpressionTree expression = _expressions.get(i);
         _blockValSets[i] = transformBlock.getBlockValueSet(expression);
@@ -253,6 +369,10 @@ public class SelectionOperator extends BaseOperator<IntermediateResultsBlock> {
       }
     }
 
+    if (_lateMaterialization) {
+      materializeTopRows();
+    }
+
     // Create execution statistics.
     long numEntriesScannedInFilter = _transformOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
     long numEntriesScannedPostFilter = numDocsScanned * _transformOperator.getNumColumnsProjected();
@@ -267,11 +387,104 @@ public class SelectionOperator extends BaseOperator<IntermediateResultsBlock> {
     }
   }
 
+  /**
+   * Reads the sort keys for the documents in the block, and keeps the top sort keys in the sort key queue.
+   *
+   * @return Number of documents processed, which is smaller than the number of documents in the block when the scan
+   *         is early terminated on the sorted column
+   */
+  private int addSortKeys(TransformBlock transformBlock) {
+    int numSortExpressions = _sortExpressionIndices.length;
+    BlockValSet[] blockValSets = new BlockValSet[numSortExpressions];
+    int[][] dictIds = new int[numSortExpressions][];
+    for (int i = 0; i < numSortExpressions; i++) {
+      blockValSets[i] = transformBlock.getBlockValueSet(_expressions.get(_sortExpressionIndices[i]));
+      if (_sortOnDictIds[i]) {
+        dictIds[i] = blockValSets[i].getDictionaryIdsSV();
+      }
+    }
+    TransformBlockDataFetcher dataFetcher =
+        new TransformBlockDataFetcher(blockValSets, _sortDictionaries, _sortResultMetadata);
+    int[] docIds = transformBlock.getDocIdSetBlock().getDocIdSet();
+    int numDocs = transformBlock.getNumDocs();
+    Comparator<? super Serializable[]> comparator = _sortKeyQueue.comparator();
+    for (int i = 0; i < numDocs; i++) {
+      Serializable[] sortKey = _reusableSortKey;
+      for (int j = 0; j < numSortExpressions; j++) {
+        sortKey[j] = _sortOnDictIds[j] ? dictIds[j][i] : dataFetcher.getValue(j, i);
+      }
+      sortKey[numSortExpressions] = docIds[i];
+      if (_sortedColumnEarlyTermination && _sortKeyQueue.size() == _maxRows
+          && (Integer) sortKey[0] > (Integer) _sortKeyQueue.peek()[0]) {
+        // The following documents all have larger sorted column value, and cannot make into the top rows
+        return i;
+      }
+      if (_sortKeyQueue.size() < _maxRows) {
+        _sortKeyQueue.add(sortKey);
+        _reusableSortKey = new Serializable[numSortExpressions + 1];
+      } else if (comparator.compare(_sortKeyQueue.peek(), sortKey) < 0) {
+        // Reuse the evicted sort key
+        _reusableSortKey = _sortKeyQueue.poll();
+        _sortKeyQueue.offer(sortKey);
+      }
+    }
+    return numDocs;
+  }
+
+  /**
+   * Reads all the selected columns for the documents in the sort key queue, and adds the rows into the priority queue.
+   */
+  private void materializeTopRows() {
+    int numRows = _sortKeyQueue.size();
+    if (numRows == 0) {
+      return;
+    }
+    int docIdIndex = _sortExpressionIndices.length;
+    int[] docIds = new int[numRows];
+    int rowIndex = 0;
+    for (Serializable[] sortKey : _sortKeyQueue) {
+      docIds[rowIndex++] = (Integer) sortKey[docIdIndex];
+    }
+    // Read the documents in ascending docId order
+    Arrays.sort(docIds);
+
+    int numExpressions = _expressions.size();
+    Map<String, DataSource> dataSourceMap = new HashMap<>(numExpressions);
+    for (TransformExpressionTree expression : _expressions) {
+      String column = expression.getValue();
+      dataSourceMap.put(column, _indexSegment.getDataSource(column));
+    }
+    DataBlockCache dataBlockCache = new DataBlockCache(new DataFetcher(dataSourceMap));
+    for (int startIndex = 0; startIndex < numRows; startIndex += DocIdSetPlanNode.MAX_DOC_PER_CALL) {
+      int length = Math.min(numRows - startIndex, DocIdSetPlanNode.MAX_DOC_PER_CALL);
+      dataBlockCache.initNewBlock(Arrays.copyOfRange(docIds, startIndex, startIndex + length), length);
+      for (int i = 0; i < numExpressions; i++) {
+        String column = _expressions.get(i).getValue();
+        _blockValSets[i] = new ProjectionBlockValSet(dataBlockCache, column,
+            dataSourceMap.get(column).getDataSourceMetadata().getDataType());
+      }
+      TransformBlockDataFetcher dataFetcher =
+          new TransformBlockDataFetcher(_blockValSets, _dictionaries, _expressionResultMetadata);
+      for (int i = 0; i < length; i++) {
+        _priorityQueue.add(dataFetcher.getRow(i));
+      }
+    }
+    _sortKeyQueue.clear();
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
   }
 
+  /**
+   * Marks the segment skipped without processing it. The segment is still counted as processed without any matching
+   * document, so that the total docs of the segment are kept in the execution statistics.
+   */
+  public void skip() {
+    _executionStatistics = new ExecutionStatistics(0L, 0L, 0L, _indexSegment.getSegmentMetadata().getTotalRawDocs());
+  }
+
   @Override
   public ExecutionStatistics getExecutionStatistics() {
     return _executionStatistics;
@@ -49,6 +49,13 @@ public class TransformBlockDataFetcher {
     return row;
   }
 
+  /**
+   * Returns the value of the given column (index in the block value sets passed in) for the given document.
+   */
+  public Serializable getValue(int columnIndex, int docId) {
+    return _fetchers[columnIndex].getValue(docId);
+  }
+
   Fetcher createFetcher(BlockValSet blockValSet,
       Dictionary dictionary,
       TransformResultMetadata expressionResultMetadata) {
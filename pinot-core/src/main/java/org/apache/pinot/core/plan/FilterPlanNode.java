@@ -120,7 +120,7 @@ public class FilterPlanNode implements PlanNode {
         PredicateEvaluator predicateEvaluator = PredicateEvaluatorProvider
             .getPredicateEvaluator(predicate, dataSource.getDictionary(),
                 dataSource.getDataSourceMetadata().getDataType());
-        return FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource, numDocs);
+        return FilterOperatorUtils.getLeafFilterOperator(predicate, predicateEvaluator, dataSource, numDocs);
       }
     }
   }
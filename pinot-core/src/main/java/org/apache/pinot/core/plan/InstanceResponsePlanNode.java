@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.plan;
 
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
 import org.apache.pinot.core.operator.InstanceResponseOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,15 +28,22 @@ public class InstanceResponsePlanNode implements PlanNode {
   private static final Logger LOGGER = LoggerFactory.getLogger(InstanceResponsePlanNode.class);
 
   private final CombinePlanNode _combinePlanNode;
+  private final int _dataTableVersion;
 
   public InstanceResponsePlanNode(CombinePlanNode combinePlanNode) {
+    this(combinePlanNode, DataTableBuilder.VERSION_2);
+  }
+
+  public InstanceResponsePlanNode(CombinePlanNode combinePlanNode, int dataTableVersion) {
     _combinePlanNode = combinePlanNode;
+    _dataTableVersion = dataTableVersion;
   }
 
   @Override
   public InstanceResponseOperator run() {
     long start = System.currentTimeMillis();
-    InstanceResponseOperator instanceResponseOperator = new InstanceResponseOperator(_combinePlanNode.run());
+    InstanceResponseOperator instanceResponseOperator =
+        new InstanceResponseOperator(_combinePlanNode.run(), _dataTableVersion);
     long end = System.currentTimeMillis();
     LOGGER.debug("InstanceResponsePlanNode.run took: {}ms", end - start);
     return instanceResponseOperator;
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import java.util.function.Supplier;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.operator.query.SegmentResultCacheOperator;
+import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCachePlanNode</code> class provides the execution plan for aggregation and aggregation
+ * group-by query on a single immutable segment with the {@link SegmentResultCache} enabled.
+ */
+public class SegmentResultCachePlanNode implements PlanNode {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCachePlanNode.class);
+
+  private final IndexSegment _indexSegment;
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.Key _cacheKey;
+  private final AggregationFunctionContext[] _functionContexts;
+  private final Supplier<PlanNode> _planNodeSupplier;
+
+  public SegmentResultCachePlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest,
+      SegmentResultCache segmentResultCache, SegmentResultCache.Key cacheKey, Supplier<PlanNode> planNodeSupplier) {
+    _indexSegment = indexSegment;
+    _segmentResultCache = segmentResultCache;
+    _cacheKey = cacheKey;
+    _functionContexts = AggregationFunctionUtils
+        .getAggregationFunctionContexts(brokerRequest.getAggregationsInfo(), indexSegment.getSegmentMetadata());
+    _planNodeSupplier = planNodeSupplier;
+  }
+
+  @Override
+  public SegmentResultCacheOperator run() {
+    return new SegmentResultCacheOperator(_segmentResultCache, _cacheKey, _functionContexts, _planNodeSupplier,
+        _indexSegment.getSegmentMetadata().getTotalRawDocs());
+  }
+
+  @Override
+  public void showTree(String prefix) {
+    LOGGER.debug("{} Segment Level Inner-Segment Plan Node:", prefix);
+    LOGGER.debug("{} Operator: SegmentResultCacheOperator", prefix);
+    LOGGER.debug("{} IndexSegment: {}", prefix, _indexSegment.getSegmentName());
+  }
+}
@@ -23,9 +23,11 @@ import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.request.AggregationInfo;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.request.transform.TransformExpressionTree;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
 import org.apache.pinot.core.data.manager.SegmentDataManager;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.plan.AggregationGroupByPlanNode;
@@ -37,9 +39,11 @@ import org.apache.pinot.core.plan.InstanceResponsePlanNode;
 import org.apache.pinot.core.plan.MetadataBasedAggregationPlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultCachePlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
 import org.apache.pinot.core.query.config.QueryExecutorConfig;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.slf4j.Logger;
@@ -60,17 +64,22 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   private final int _maxInitialResultHolderCapacity;
   // Limit on number of groups stored for each segment, beyond which no new group will be created
   private final int _numGroupsLimit;
+  private final int _dataTableVersion;
+  // Optional cache for the per-segment results, null if disabled
+  private SegmentResultCache _segmentResultCache;
 
   @VisibleForTesting
   public InstancePlanMakerImplV2() {
     _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
     _numGroupsLimit = DEFAULT_NUM_GROUPS_LIMIT;
+    _dataTableVersion = DataTableBuilder.VERSION_2;
   }
 
   @VisibleForTesting
   public InstancePlanMakerImplV2(int maxInitialResultHolderCapacity, int numGroupsLimit) {
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
+    _dataTableVersion = DataTableBuilder.VERSION_2;
   }
 
   /**
@@ -78,6 +87,7 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
    * <ul>
    *   <li>Set limit on the initial result holder capacity</li>
    *   <li>Set limit on number of groups returned from each segment and combined result</li>
+   *   <li>Set the version of the data table returned to the broker</li>
    * </ul>
    *
    * @param queryExecutorConfig Query executor configuration
@@ -89,8 +99,17 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     Preconditions.checkState(_maxInitialResultHolderCapacity <= _numGroupsLimit,
         "Invalid configuration: maxInitialResultHolderCapacity: %d must be smaller or equal to numGroupsLimit: %d",
         _maxInitialResultHolderCapacity, _numGroupsLimit);
-    LOGGER.info("Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}",
-        _maxInitialResultHolderCapacity, _numGroupsLimit);
+    _dataTableVersion = queryExecutorConfig.getDataTableVersion();
+    LOGGER.info(
+        "Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}, dataTableVersion: {}",
+        _maxInitialResultHolderCapacity, _numGroupsLimit, _dataTableVersion);
+  }
+
+  /**
+   * Sets the {@link SegmentResultCache} used to cache the per-segment results, or {@code null} to disable the cache.
+   */
+  public void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
   }
 
   @Override
@@ -127,12 +146,28 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
 
     List<PlanNode> planNodes = new ArrayList<>();
     for (IndexSegment indexSegment : indexSegments) {
-      planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+      planNodes.add(makeCacheableInnerSegmentPlan(indexSegment, brokerRequest));
     }
     CombinePlanNode combinePlanNode =
         new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs, _numGroupsLimit);
 
-    return new GlobalPlanImplV0(new InstanceResponsePlanNode(combinePlanNode));
+    return new GlobalPlanImplV0(new InstanceResponsePlanNode(combinePlanNode, _dataTableVersion));
+  }
+
+  /**
+   * Helper method to wrap the inner-segment plan with the {@link SegmentResultCache} if the cache is enabled and the
+   * result of the segment is cacheable. Metadata and dictionary based plans are cheap enough to be served directly.
+   */
+  private PlanNode makeCacheableInnerSegmentPlan(IndexSegment indexSegment, BrokerRequest brokerRequest) {
+    if (_segmentResultCache != null && !isFitForMetadataBasedPlan(brokerRequest, indexSegment)
+        && !isFitForDictionaryBasedPlan(brokerRequest, indexSegment)) {
+      SegmentResultCache.Key cacheKey = SegmentResultCache.getKey(indexSegment, brokerRequest);
+      if (cacheKey != null) {
+        return new SegmentResultCachePlanNode(indexSegment, brokerRequest, _segmentResultCache, cacheKey,
+            () -> makeInnerSegmentPlan(indexSegment, brokerRequest));
+      }
+    }
+    return makeInnerSegmentPlan(indexSegment, brokerRequest);
   }
 
   /**
@@ -0,0 +1,304 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+
+
+/**
+ * The <code>ConcurrentGroupByResultsTable</code> class is a lock-striped hash table used to merge group-by results
+ * from multiple segments concurrently.
+ * <p>The table is split into a fixed number of stripes, each of which is an open-addressing (linear probing) table
+ * backed by parallel primitive/object arrays, so that no entry object is allocated per group. Each segment is merged
+ * through {@link #merge(AggregationGroupByResult)}, which first buckets the group ids of the segment by stripe, then
+ * acquires each stripe lock only once to merge the whole bucket. This keeps the number of lock acquisitions per segment
+ * bounded by the number of stripes instead of the number of groups. The results of a group are read from the segment
+ * result while holding the stripe lock and merged in place, so the value array is only allocated for new groups.
+ * <p>The table exposes a read-only {@link Map} view so that it can be passed directly to
+ * {@link AggregationGroupByTrimmingService#trimIntermediateResultsMap(Map)}. The map view should only be accessed after
+ * all the merges are done.
+ */
+public class ConcurrentGroupByResultsTable extends AbstractMap<String, Object[]> {
+  private static final int DEFAULT_NUM_STRIPES = 64;
+  private static final int INITIAL_STRIPE_CAPACITY = 64;
+  private static final int INITIAL_MERGE_BUFFER_CAPACITY = 1024;
+
+  private final AggregationFunction[] _aggregationFunctions;
+  private final int _numAggregationFunctions;
+  private final int _numGroupsLimit;
+  private final Stripe[] _stripes;
+  private final int _stripeMask;
+  private final AtomicInteger _numGroups = new AtomicInteger();
+
+  private EntrySet _entrySet;
+
+  public ConcurrentGroupByResultsTable(@Nonnull AggregationFunction[] aggregationFunctions, int numGroupsLimit) {
+    this(aggregationFunctions, numGroupsLimit, DEFAULT_NUM_STRIPES);
+  }
+
+  /**
+   * Constructor for the table.
+   *
+   * @param aggregationFunctions Aggregation functions used to merge the intermediate results
+   * @param numGroupsLimit Limit on number of groups stored, beyond which no new group will be created
+   * @param numStripes Number of stripes, will be rounded up to the next power of 2
+   */
+  public ConcurrentGroupByResultsTable(@Nonnull AggregationFunction[] aggregationFunctions, int numGroupsLimit,
+      int numStripes) {
+    _aggregationFunctions = aggregationFunctions;
+    _numAggregationFunctions = aggregationFunctions.length;
+    _numGroupsLimit = numGroupsLimit;
+
+    int numStripesPowerOf2 = Integer.highestOneBit(Math.max(numStripes - 1, 1)) << 1;
+    _stripes = new Stripe[numStripesPowerOf2];
+    for (int i = 0; i < numStripesPowerOf2; i++) {
+      _stripes[i] = new Stripe();
+    }
+    _stripeMask = numStripesPowerOf2 - 1;
+  }
+
+  /**
+   * Merges the group-by result from one segment into the table. This method is thread-safe.
+   */
+  public void merge(@Nonnull AggregationGroupByResult aggregationGroupByResult) {
+    int numStripes = _stripes.length;
+
+    // Bucket the group ids by stripe without holding any lock
+    // Groups of the same stripe are chained through the next indices, starting from the head index of the stripe
+    int[] stripeHeads = new int[numStripes];
+    Arrays.fill(stripeHeads, -1);
+    String[] keys = new String[INITIAL_MERGE_BUFFER_CAPACITY];
+    int[] hashes = new int[INITIAL_MERGE_BUFFER_CAPACITY];
+    int[] groupIds = new int[INITIAL_MERGE_BUFFER_CAPACITY];
+    int[] nextIndices = new int[INITIAL_MERGE_BUFFER_CAPACITY];
+    int numKeys = 0;
+    Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+    while (groupKeyIterator.hasNext()) {
+      GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+      if (numKeys == keys.length) {
+        int newCapacity = numKeys << 1;
+        keys = Arrays.copyOf(keys, newCapacity);
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        groupIds = Arrays.copyOf(groupIds, newCapacity);
+        nextIndices = Arrays.copyOf(nextIndices, newCapacity);
+      }
+      String stringKey = groupKey._stringKey;
+      int hash = spread(stringKey.hashCode());
+      int stripeId = hash & _stripeMask;
+      keys[numKeys] = stringKey;
+      hashes[numKeys] = hash;
+      groupIds[numKeys] = groupKey._groupId;
+      nextIndices[numKeys] = stripeHeads[stripeId];
+      stripeHeads[stripeId] = numKeys++;
+    }
+
+    // Merge each bucket into its stripe, acquiring the stripe lock only once per bucket
+    // NOTE: the group key returned by the iterator might be reused, so use a separate one to look up the results
+    GroupKeyGenerator.GroupKey groupKey = new GroupKeyGenerator.GroupKey();
+    for (int stripeId = 0; stripeId < numStripes; stripeId++) {
+      int index = stripeHeads[stripeId];
+      if (index == -1) {
+        continue;
+      }
+      Stripe stripe = _stripes[stripeId];
+      synchronized (stripe) {
+        while (index != -1) {
+          groupKey._groupId = groupIds[index];
+          stripe.merge(keys[index], hashes[index], aggregationGroupByResult, groupKey);
+          index = nextIndices[index];
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of groups stored in the table.
+   */
+  @Override
+  public int size() {
+    return Math.min(_numGroups.get(), _numGroupsLimit);
+  }
+
+  @Override
+  public Object[] get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    int hash = spread(key.hashCode());
+    Stripe stripe = _stripes[hash & _stripeMask];
+    synchronized (stripe) {
+      int index = stripe.indexOf((String) key, hash);
+      return index >= 0 ? stripe._values[index] : null;
+    }
+  }
+
+  @Nonnull
+  @Override
+  public Set<Entry<String, Object[]>> entrySet() {
+    if (_entrySet == null) {
+      _entrySet = new EntrySet();
+    }
+    return _entrySet;
+  }
+
+  /**
+   * Spreads the higher bits of the hash code to the lower bits, same as {@link java.util.HashMap}. The lowest bits are
+   * used to pick the stripe, the remaining bits are used to pick the slot inside the stripe.
+   */
+  private static int spread(int hashCode) {
+    return hashCode ^ (hashCode >>> 16);
+  }
+
+  /**
+   * Open-addressing hash table for one stripe. All the methods must be called while holding the lock on the stripe.
+   */
+  private final class Stripe {
+    String[] _keys = new String[INITIAL_STRIPE_CAPACITY];
+    int[] _hashes = new int[INITIAL_STRIPE_CAPACITY];
+    Object[][] _values = new Object[INITIAL_STRIPE_CAPACITY][];
+    int _size;
+
+    int indexOf(String key, int hash) {
+      int mask = _keys.length - 1;
+      int index = slot(hash, mask);
+      String existingKey;
+      while ((existingKey = _keys[index]) != null) {
+        if (_hashes[index] == hash && existingKey.equals(key)) {
+          return index;
+        }
+        index = (index + 1) & mask;
+      }
+      return -(index + 1);
+    }
+
+    void merge(String key, int hash, AggregationGroupByResult aggregationGroupByResult,
+        GroupKeyGenerator.GroupKey groupKey) {
+      int index = indexOf(key, hash);
+      if (index >= 0) {
+        Object[] values = _values[index];
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          values[i] = _aggregationFunctions[i].merge(values[i], aggregationGroupByResult.getResultForKey(groupKey, i));
+        }
+      } else if (_numGroups.getAndIncrement() < _numGroupsLimit) {
+        Object[] values = new Object[_numAggregationFunctions];
+        for (int i = 0; i < _numAggregationFunctions; i++) {
+          values[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+        }
+        index = -index - 1;
+        _keys[index] = key;
+        _hashes[index] = hash;
+        _values[index] = values;
+        // Keep the load factor under 0.75
+        if (++_size > (_keys.length >>> 2) * 3) {
+          expand();
+        }
+      }
+    }
+
+    void expand() {
+      String[] oldKeys = _keys;
+      int[] oldHashes = _hashes;
+      Object[][] oldValues = _values;
+      int newCapacity = oldKeys.length << 1;
+      int mask = newCapacity - 1;
+      _keys = new String[newCapacity];
+      _hashes = new int[newCapacity];
+      _values = new Object[newCapacity][];
+      for (int i = 0; i < oldKeys.length; i++) {
+        String key = oldKeys[i];
+        if (key != null) {
+          int hash = oldHashes[i];
+          int index = slot(hash, mask);
+          while (_keys[index] != null) {
+            index = (index + 1) & mask;
+          }
+          _keys[index] = key;
+          _hashes[index] = hash;
+          _values[index] = oldValues[i];
+        }
+      }
+    }
+
+    /**
+     * Skips the bits used to pick the stripe so that the keys inside the stripe are evenly distributed.
+     */
+    int slot(int hash, int mask) {
+      return (hash >>> Integer.bitCount(_stripeMask)) & mask;
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<String, Object[]>> {
+
+    @Nonnull
+    @Override
+    public Iterator<Entry<String, Object[]>> iterator() {
+      return new Iterator<Entry<String, Object[]>>() {
+        private int _stripeId = 0;
+        private int _index = -1;
+
+        {
+          advance();
+        }
+
+        private void advance() {
+          while (_stripeId < _stripes.length) {
+            String[] keys = _stripes[_stripeId]._keys;
+            while (++_index < keys.length) {
+              if (keys[_index] != null) {
+                return;
+              }
+            }
+            _stripeId++;
+            _index = -1;
+          }
+        }
+
+        @Override
+        public boolean hasNext() {
+          return _stripeId < _stripes.length;
+        }
+
+        @Override
+        public Entry<String, Object[]> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          Stripe stripe = _stripes[_stripeId];
+          Entry<String, Object[]> entry = new SimpleImmutableEntry<>(stripe._keys[_index], stripe._values[_index]);
+          advance();
+          return entry;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return ConcurrentGroupByResultsTable.this.size();
+    }
+  }
+}
@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.core.query.aggregation.groupby;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.HashCommon;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2IntMap;
@@ -25,9 +28,11 @@ import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.request.transform.TransformExpressionTree;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
@@ -53,14 +58,21 @@ import org.apache.pinot.core.segment.index.readers.Dictionary;
  *     raw keys and map them onto contiguous group ids. (LONG_MAP_BASED)
  *   </li>
  *   <li>
- *     If the maximum number of possible group keys cannot fit into long, use int arrays as the raw keys to store the
- *     dictionary ids of all the group-by columns and map them onto contiguous group ids. (ARRAY_MAP_BASED)
+ *     If the maximum number of possible group keys cannot fit into long, store the dictionary ids of all the group-by
+ *     columns for each group in a fixed-width key arena indexed by the group id, and map them onto contiguous group ids
+ *     with an open-addressing hash index, so that no object is allocated per row. (ARENA_MAP_BASED)
  *   </li>
  * </ul>
+ * <p>The legacy holder which uses int arrays as the raw keys (ARRAY_MAP_BASED) can still be explicitly specified for
+ * testing and benchmarking purpose.
  * <p>All the logic is maintained internally, and to the outside world, the group ids are always int type, and are
  * bounded by the number of groups limit (globalGroupIdUpperBound is always smaller or equal to numGroupsLimit).
  */
 public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
+  public enum RawKeyHolderType {
+    ARRAY_BASED, INT_MAP_BASED, LONG_MAP_BASED, ARRAY_MAP_BASED, ARENA_MAP_BASED
+  }
+
   private final TransformExpressionTree[] _groupByExpressions;
   private final int _numGroupByExpressions;
   private final int[] _cardinalities;
@@ -74,10 +86,22 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   private final int[][][] _multiValueDictIds;
 
   private final int _globalGroupIdUpperBound;
+  private final RawKeyHolderType _rawKeyHolderType;
   private final RawKeyHolder _rawKeyHolder;
 
   public DictionaryBasedGroupKeyGenerator(TransformOperator transformOperator,
       TransformExpressionTree[] groupByExpressions, int numGroupsLimit, int arrayBasedThreshold) {
+    this(transformOperator, groupByExpressions, numGroupsLimit, arrayBasedThreshold, null);
+  }
+
+  /**
+   * Constructor with the raw key holder type explicitly specified (for testing and benchmarking purpose). If the raw
+   * key holder type is not specified, pick the type based on the cardinality product of the group-by columns.
+   */
+  @VisibleForTesting
+  public DictionaryBasedGroupKeyGenerator(TransformOperator transformOperator,
+      TransformExpressionTree[] groupByExpressions, int numGroupsLimit, int arrayBasedThreshold,
+      @Nullable RawKeyHolderType rawKeyHolderType) {
     assert numGroupsLimit >= arrayBasedThreshold;
 
     _groupByExpressions = groupByExpressions;
@@ -107,22 +131,47 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       _isSingleValueColumn[i] = transformOperator.getResultMetadata(groupByExpression).isSingleValue();
     }
 
-    if (longOverflow) {
-      _globalGroupIdUpperBound = numGroupsLimit;
-      _rawKeyHolder = new ArrayMapBasedHolder();
-    } else {
-      if (cardinalityProduct > Integer.MAX_VALUE) {
-        _globalGroupIdUpperBound = numGroupsLimit;
-        _rawKeyHolder = new LongMapBasedHolder();
+    boolean intOverflow = longOverflow || cardinalityProduct > Integer.MAX_VALUE;
+    if (rawKeyHolderType == null) {
+      if (longOverflow) {
+        rawKeyHolderType = RawKeyHolderType.ARENA_MAP_BASED;
+      } else if (intOverflow) {
+        rawKeyHolderType = RawKeyHolderType.LONG_MAP_BASED;
+      } else if (cardinalityProduct > arrayBasedThreshold) {
+        rawKeyHolderType = RawKeyHolderType.INT_MAP_BASED;
       } else {
-        _globalGroupIdUpperBound = Math.min((int) cardinalityProduct, numGroupsLimit);
-        if (cardinalityProduct > arrayBasedThreshold) {
-          _rawKeyHolder = new IntMapBasedHolder();
-        } else {
-          _rawKeyHolder = new ArrayBasedHolder();
-        }
+        rawKeyHolderType = RawKeyHolderType.ARRAY_BASED;
       }
     }
+    _globalGroupIdUpperBound = intOverflow ? numGroupsLimit : Math.min((int) cardinalityProduct, numGroupsLimit);
+    _rawKeyHolderType = rawKeyHolderType;
+    switch (rawKeyHolderType) {
+      case ARRAY_BASED:
+        Preconditions.checkState(!intOverflow && cardinalityProduct <= arrayBasedThreshold,
+            "Cardinality product is too large for ARRAY_BASED raw key holder");
+        _rawKeyHolder = new ArrayBasedHolder();
+        break;
+      case INT_MAP_BASED:
+        Preconditions.checkState(!intOverflow, "Cardinality product is too large for INT_MAP_BASED raw key holder");
+        _rawKeyHolder = new IntMapBasedHolder();
+        break;
+      case LONG_MAP_BASED:
+        Preconditions.checkState(!longOverflow, "Cardinality product is too large for LONG_MAP_BASED raw key holder");
+        _rawKeyHolder = new LongMapBasedHolder();
+        break;
+      case ARRAY_MAP_BASED:
+        _rawKeyHolder = new ArrayMapBasedHolder();
+        break;
+      case ARENA_MAP_BASED:
+        _rawKeyHolder = new ArenaMapBasedHolder();
+        break;
+      default:
+        throw new IllegalStateException("Unsupported raw key holder type: " + rawKeyHolderType);
+    }
+  }
+
+  public RawKeyHolderType getRawKeyHolderType() {
+    return _rawKeyHolderType;
   }
 
   @Override
@@ -776,6 +825,192 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     return groupKeyBuilder.toString();
   }
 
+  private class ArenaMapBasedHolder implements RawKeyHolder {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    // Key arena which stores the dictionary ids of all the group-by columns for each group contiguously, where the
+    // dictionary ids for group id i are stored in range [i * numGroupByExpressions, (i + 1) * numGroupByExpressions)
+    private int[] _keyArena = new int[INITIAL_CAPACITY * _numGroupByExpressions];
+    // Open-addressing (linear probing) hash index from the hash of the key to the group id
+    private int[] _hashIndex = new int[INITIAL_CAPACITY];
+    private int _mask = INITIAL_CAPACITY - 1;
+    private int _maxNumGroupsBeforeResize = (int) (INITIAL_CAPACITY * LOAD_FACTOR);
+    // Reusable buffer for the dictionary ids of the current key
+    private final int[] _dictIds = new int[_numGroupByExpressions];
+
+    private int _numGroups = 0;
+
+    public ArenaMapBasedHolder() {
+      Arrays.fill(_hashIndex, INVALID_ID);
+    }
+
+    @Override
+    public void processSingleValue(int numDocs, @Nonnull int[] outGroupIds) {
+      for (int i = 0; i < numDocs; i++) {
+        for (int j = 0; j < _numGroupByExpressions; j++) {
+          _dictIds[j] = _singleValueDictIds[j][i];
+        }
+        outGroupIds[i] = getGroupId();
+      }
+    }
+
+    @Override
+    public void processMultiValue(int numDocs, @Nonnull int[][] outGroupIds) {
+      for (int i = 0; i < numDocs; i++) {
+        int numKeys = 1;
+        for (int j = 0; j < _numGroupByExpressions; j++) {
+          if (!_isSingleValueColumn[j]) {
+            numKeys *= _multiValueDictIds[j][i].length;
+          }
+        }
+        int[] groupIds = new int[numKeys];
+        for (int k = 0; k < numKeys; k++) {
+          // Decode the index of the key into the index of the value for each multi-value column, where the values of
+          // the last multi-value column change the fastest (same order as the other raw key holders)
+          int remaining = k;
+          for (int j = _numGroupByExpressions - 1; j >= 0; j--) {
+            if (_isSingleValueColumn[j]) {
+              _dictIds[j] = _singleValueDictIds[j][i];
+            } else {
+              int[] multiValueDictIds = _multiValueDictIds[j][i];
+              int numValues = multiValueDictIds.length;
+              _dictIds[j] = multiValueDictIds[remaining % numValues];
+              remaining /= numValues;
+            }
+          }
+          groupIds[k] = getGroupId();
+        }
+        outGroupIds[i] = groupIds;
+      }
+    }
+
+    /**
+     * Returns the group id for the key stored in the reusable dictionary ids buffer.
+     */
+    private int getGroupId() {
+      int slot = hash(_dictIds) & _mask;
+      int groupId;
+      while ((groupId = _hashIndex[slot]) != INVALID_ID) {
+        if (keyEquals(groupId)) {
+          return groupId;
+        }
+        slot = (slot + 1) & _mask;
+      }
+      if (_numGroups == _globalGroupIdUpperBound) {
+        return INVALID_ID;
+      }
+      groupId = _numGroups++;
+      int keyOffset = groupId * _numGroupByExpressions;
+      if (keyOffset + _numGroupByExpressions > _keyArena.length) {
+        _keyArena = Arrays.copyOf(_keyArena, _keyArena.length * 2);
+      }
+      System.arraycopy(_dictIds, 0, _keyArena, keyOffset, _numGroupByExpressions);
+      _hashIndex[slot] = groupId;
+      if (_numGroups > _maxNumGroupsBeforeResize) {
+        resize();
+      }
+      return groupId;
+    }
+
+    private boolean keyEquals(int groupId) {
+      int keyOffset = groupId * _numGroupByExpressions;
+      for (int i = 0; i < _numGroupByExpressions; i++) {
+        if (_keyArena[keyOffset + i] != _dictIds[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private int hash(int[] dictIds) {
+      int hash = 1;
+      for (int dictId : dictIds) {
+        hash = 31 * hash + dictId;
+      }
+      return HashCommon.mix(hash);
+    }
+
+    private int hash(int groupId) {
+      int keyOffset = groupId * _numGroupByExpressions;
+      int hash = 1;
+      for (int i = 0; i < _numGroupByExpressions; i++) {
+        hash = 31 * hash + _keyArena[keyOffset + i];
+      }
+      return HashCommon.mix(hash);
+    }
+
+    /**
+     * Doubles the capacity of the hash index and re-inserts all the group ids. The keys are read from the key arena so
+     * no key needs to be re-computed.
+     */
+    private void resize() {
+      int capacity = _hashIndex.length * 2;
+      _hashIndex = new int[capacity];
+      Arrays.fill(_hashIndex, INVALID_ID);
+      _mask = capacity - 1;
+      _maxNumGroupsBeforeResize = (int) (capacity * LOAD_FACTOR);
+      for (int groupId = 0; groupId < _numGroups; groupId++) {
+        int slot = hash(groupId) & _mask;
+        while (_hashIndex[slot] != INVALID_ID) {
+          slot = (slot + 1) & _mask;
+        }
+        _hashIndex[slot] = groupId;
+      }
+    }
+
+    @Override
+    public int getGroupIdUpperBound() {
+      return _numGroups;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<GroupKey> iterator() {
+      return new Iterator<GroupKey>() {
+        private int _currentGroupId;
+        private final GroupKey _groupKey = new GroupKey();
+
+        @Override
+        public boolean hasNext() {
+          return _currentGroupId < _numGroups;
+        }
+
+        @Override
+        public GroupKey next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          _groupKey._groupId = _currentGroupId;
+          _groupKey._stringKey = getGroupKey(_keyArena, _currentGroupId * _numGroupByExpressions);
+          _currentGroupId++;
+          return _groupKey;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+
+  /**
+   * Helper method to get group key from the dictionary ids stored in the key arena.
+   *
+   * @param keyArena Key arena
+   * @param keyOffset Offset of the key in the key arena
+   * @return String group key
+   */
+  private String getGroupKey(int[] keyArena, int keyOffset) {
+    StringBuilder groupKeyBuilder = new StringBuilder(_dictionaries[0].get(keyArena[keyOffset]).toString());
+    for (int i = 1; i < _numGroupByExpressions; i++) {
+      groupKeyBuilder.append(AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER);
+      groupKeyBuilder.append(_dictionaries[i].get(keyArena[keyOffset + i]));
+    }
+    return groupKeyBuilder.toString();
+  }
+
   /**
    * Drop un-necessary checks for highest performance.
    */
@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+
+
+/**
+ * Immutable snapshot of the per-segment result of an aggregation or aggregation group-by query.
+ * <p>The intermediate results are stored in serialized format, so that each cache hit can be served with fresh copies
+ * of the results (the combine operators modify the intermediate results in place while merging), and so that the
+ * memory usage of the entry can be estimated.
+ */
+public class CachedSegmentResult {
+  // Rough estimation of the memory overhead of each entry (objects, references and array headers)
+  private static final long ENTRY_OVERHEAD_IN_BYTES = 128;
+  private static final long VALUE_OVERHEAD_IN_BYTES = 24;
+
+  // Group keys for aggregation group-by, null for aggregation only
+  private final String[] _groupKeys;
+  // For aggregation only: [functionIndex][0]; for aggregation group-by: [functionIndex][groupIndex]
+  private final ObjectSerDeUtils.ObjectType[][] _objectTypes;
+  private final byte[][][] _serializedValues;
+  private final long _numDocsScanned;
+  private final long _sizeInBytes;
+
+  private CachedSegmentResult(@Nullable String[] groupKeys, ObjectSerDeUtils.ObjectType[][] objectTypes,
+      byte[][][] serializedValues, long numDocsScanned) {
+    _groupKeys = groupKeys;
+    _objectTypes = objectTypes;
+    _serializedValues = serializedValues;
+    _numDocsScanned = numDocsScanned;
+
+    long sizeInBytes = ENTRY_OVERHEAD_IN_BYTES;
+    if (groupKeys != null) {
+      for (String groupKey : groupKeys) {
+        sizeInBytes += VALUE_OVERHEAD_IN_BYTES + 2L * groupKey.length();
+      }
+    }
+    for (byte[][] values : serializedValues) {
+      for (byte[] value : values) {
+        sizeInBytes += VALUE_OVERHEAD_IN_BYTES + value.length;
+      }
+    }
+    _sizeInBytes = sizeInBytes;
+  }
+
+  /**
+   * Creates a snapshot of the given results block and the number of documents scanned to compute it, or returns
+   * {@code null} if the block cannot be cached.
+   */
+  @Nullable
+  static CachedSegmentResult fromResultsBlock(IntermediateResultsBlock resultsBlock, long numDocsScanned) {
+    try {
+      List<Object> aggregationResult = resultsBlock.getAggregationResult();
+      if (aggregationResult != null) {
+        int numFunctions = aggregationResult.size();
+        ObjectSerDeUtils.ObjectType[][] objectTypes = new ObjectSerDeUtils.ObjectType[numFunctions][1];
+        byte[][][] serializedValues = new byte[numFunctions][1][];
+        for (int i = 0; i < numFunctions; i++) {
+          Object value = aggregationResult.get(i);
+          objectTypes[i][0] = ObjectSerDeUtils.ObjectType.getObjectType(value);
+          serializedValues[i][0] = ObjectSerDeUtils.serialize(value, objectTypes[i][0]);
+        }
+        return new CachedSegmentResult(null, objectTypes, serializedValues, numDocsScanned);
+      }
+
+      AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+      AggregationFunctionContext[] functionContexts = resultsBlock.getAggregationFunctionContexts();
+      if (aggregationGroupByResult == null || functionContexts == null) {
+        return null;
+      }
+      int numFunctions = functionContexts.length;
+      List<String> groupKeys = new ArrayList<>();
+      List<List<Object>> values = new ArrayList<>(numFunctions);
+      for (int i = 0; i < numFunctions; i++) {
+        values.add(new ArrayList<>());
+      }
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+        groupKeys.add(groupKey._stringKey);
+        for (int i = 0; i < numFunctions; i++) {
+          values.get(i).add(aggregationGroupByResult.getResultForKey(groupKey, i));
+        }
+      }
+      int numGroups = groupKeys.size();
+      ObjectSerDeUtils.ObjectType[][] objectTypes = new ObjectSerDeUtils.ObjectType[numFunctions][numGroups];
+      byte[][][] serializedValues = new byte[numFunctions][numGroups][];
+      for (int i = 0; i < numFunctions; i++) {
+        List<Object> valuesForFunction = values.get(i);
+        for (int j = 0; j < numGroups; j++) {
+          Object value = valuesForFunction.get(j);
+          objectTypes[i][j] = ObjectSerDeUtils.ObjectType.getObjectType(value);
+          serializedValues[i][j] = ObjectSerDeUtils.serialize(value, objectTypes[i][j]);
+        }
+      }
+      return new CachedSegmentResult(groupKeys.toArray(new String[0]), objectTypes, serializedValues, numDocsScanned);
+    } catch (IllegalArgumentException e) {
+      // Unsupported intermediate result type
+      return null;
+    }
+  }
+
+  /**
+   * Returns a new {@link IntermediateResultsBlock} with fresh copies of the intermediate results.
+   */
+  public IntermediateResultsBlock toResultsBlock(AggregationFunctionContext[] functionContexts) {
+    int numFunctions = _serializedValues.length;
+    if (_groupKeys == null) {
+      List<Object> aggregationResult = new ArrayList<>(numFunctions);
+      for (int i = 0; i < numFunctions; i++) {
+        aggregationResult.add(ObjectSerDeUtils.deserialize(_serializedValues[i][0], _objectTypes[i][0]));
+      }
+      return new IntermediateResultsBlock(functionContexts, aggregationResult, false);
+    }
+
+    int numGroups = _groupKeys.length;
+    Object[][] results = new Object[numFunctions][numGroups];
+    for (int i = 0; i < numFunctions; i++) {
+      for (int j = 0; j < numGroups; j++) {
+        results[i][j] = ObjectSerDeUtils.deserialize(_serializedValues[i][j], _objectTypes[i][j]);
+      }
+    }
+    return new IntermediateResultsBlock(functionContexts, new CachedAggregationGroupByResult(_groupKeys, results));
+  }
+
+  /**
+   * Returns the number of documents scanned when the result was computed, which is reported again on cache hit so that
+   * the query returns the same execution statistics (except for the entries scanned) with or without the cache.
+   */
+  public long getNumDocsScanned() {
+    return _numDocsScanned;
+  }
+
+  public long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+
+  /**
+   * {@link AggregationGroupByResult} backed by the deserialized group keys and results.
+   */
+  private static class CachedAggregationGroupByResult extends AggregationGroupByResult {
+    private final String[] _groupKeys;
+    private final Object[][] _results;
+
+    CachedAggregationGroupByResult(String[] groupKeys, Object[][] results) {
+      super(null, null, null);
+      _groupKeys = groupKeys;
+      _results = results;
+    }
+
+    @Override
+    public Iterator<GroupKeyGenerator.GroupKey> getGroupKeyIterator() {
+      return new Iterator<GroupKeyGenerator.GroupKey>() {
+        private final GroupKeyGenerator.GroupKey _groupKey = new GroupKeyGenerator.GroupKey();
+        private int _groupId = 0;
+
+        @Override
+        public boolean hasNext() {
+          return _groupId < _groupKeys.length;
+        }
+
+        @Override
+        public GroupKeyGenerator.GroupKey next() {
+          _groupKey._groupId = _groupId;
+          _groupKey._stringKey = _groupKeys[_groupId++];
+          return _groupKey;
+        }
+      };
+    }
+
+    @Override
+    public Object getResultForKey(GroupKeyGenerator.GroupKey groupKey, int index) {
+      return _results[index][groupKey._groupId];
+    }
+  }
+}
@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.segment.SegmentMetadata;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code SegmentResultCache} caches the per-segment {@link IntermediateResultsBlock} of aggregation and
+ * aggregation group-by queries on immutable segments.
+ * <p>The cache key is composed of the segment name, the segment CRC and the normalized broker request (only the parts
+ * of the request that affect the per-segment result). Because the CRC changes whenever the segment is refreshed,
+ * a stale entry can never be served, and the entries of a replaced or unloaded segment are invalidated eagerly through
+ * {@link #invalidateSegment(String, String)} to release the memory.
+ * <p>The entries are stored in a concurrent cache bounded by the estimated size of the entries, and are indexed by
+ * segment so that invalidating a segment only touches the entries of that segment.
+ */
+@ThreadSafe
+public class SegmentResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCache.class);
+
+  // The cache is split into segments (one per concurrency level) with their own LRU order and share of the max size
+  private static final int DEFAULT_CONCURRENCY_LEVEL = 4;
+
+  // A single result cannot take more than the share of one cache segment
+  private final long _maxEntrySizeInBytes;
+  private final ServerMetrics _serverMetrics;
+  private final Cache<Key, CachedSegmentResult> _cache;
+  // Keys of the cached entries for each (table name, segment name)
+  private final ConcurrentHashMap<Pair<String, String>, Set<Key>> _keysBySegment = new ConcurrentHashMap<>();
+  private final AtomicLong _sizeInBytes = new AtomicLong();
+
+  public SegmentResultCache(long maxSizeInBytes, ServerMetrics serverMetrics) {
+    this(maxSizeInBytes, serverMetrics, DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  @VisibleForTesting
+  SegmentResultCache(long maxSizeInBytes, ServerMetrics serverMetrics, int concurrencyLevel) {
+    _maxEntrySizeInBytes = maxSizeInBytes / concurrencyLevel;
+    _serverMetrics = serverMetrics;
+    _cache = CacheBuilder.newBuilder().concurrencyLevel(concurrencyLevel).maximumWeight(maxSizeInBytes)
+        .<Key, CachedSegmentResult>weigher(
+            (key, value) -> (int) Math.min(getEntrySizeInBytes(key, value), Integer.MAX_VALUE))
+        .removalListener(this::onRemoval).build();
+    LOGGER.info("Initializing segment result cache with max size: {} bytes", maxSizeInBytes);
+  }
+
+  /**
+   * Returns the cache key for the given segment and broker request, or {@code null} if the result is not cacheable.
+   * <p>Only aggregation and aggregation group-by queries without tracing on immutable segments are cacheable.
+   */
+  @Nullable
+  public static Key getKey(IndexSegment indexSegment, BrokerRequest brokerRequest) {
+    if (!(indexSegment instanceof ImmutableSegment) || !brokerRequest.isSetAggregationsInfo() || brokerRequest
+        .isEnableTrace()) {
+      return null;
+    }
+    SegmentMetadata segmentMetadata = indexSegment.getSegmentMetadata();
+    String crc = segmentMetadata.getCrc();
+    if (crc == null) {
+      return null;
+    }
+
+    // Only keep the fields that affect the per-segment result
+    BrokerRequest normalizedRequest = new BrokerRequest();
+    normalizedRequest.setQuerySource(brokerRequest.getQuerySource());
+    normalizedRequest.setFilterQuery(brokerRequest.getFilterQuery());
+    normalizedRequest.setFilterSubQueryMap(brokerRequest.getFilterSubQueryMap());
+    normalizedRequest.setAggregationsInfo(brokerRequest.getAggregationsInfo());
+    normalizedRequest.setGroupBy(brokerRequest.getGroupBy());
+    normalizedRequest.setDebugOptions(brokerRequest.getDebugOptions());
+    byte[] requestBytes;
+    try {
+      // NOTE: TSerializer is not thread-safe
+      requestBytes = new TSerializer(new TCompactProtocol.Factory()).serialize(normalizedRequest);
+    } catch (TException e) {
+      LOGGER.warn("Caught exception while serializing broker request: {}, skipping the cache", brokerRequest, e);
+      return null;
+    }
+    return new Key(segmentMetadata.getTableName(), indexSegment.getSegmentName(), crc, requestBytes);
+  }
+
+  /**
+   * Returns the cached result for the given key, or {@code null} if the result is not cached.
+   */
+  @Nullable
+  public CachedSegmentResult get(Key key) {
+    CachedSegmentResult cachedResult = _cache.getIfPresent(key);
+    _serverMetrics.addMeteredGlobalValue(
+        cachedResult != null ? ServerMeter.SEGMENT_RESULT_CACHE_HITS : ServerMeter.SEGMENT_RESULT_CACHE_MISSES, 1L);
+    return cachedResult;
+  }
+
+  /**
+   * Caches the result for the given key along with the number of documents scanned to compute it. Results with
+   * processing exceptions, results that cannot be serialized and results that are too large for the cache are skipped.
+   */
+  public void put(Key key, IntermediateResultsBlock resultsBlock, long numDocsScanned) {
+    if (resultsBlock.getProcessingExceptions() != null) {
+      return;
+    }
+    CachedSegmentResult cachedResult = CachedSegmentResult.fromResultsBlock(resultsBlock, numDocsScanned);
+    if (cachedResult == null) {
+      return;
+    }
+    long entrySizeInBytes = getEntrySizeInBytes(key, cachedResult);
+    if (entrySizeInBytes > _maxEntrySizeInBytes) {
+      return;
+    }
+
+    // Index the key before caching the entry so that the entry can always be found when the segment is invalidated
+    _keysBySegment.compute(key.getSegment(), (segment, keys) -> {
+      if (keys == null) {
+        keys = new HashSet<>();
+      }
+      keys.add(key);
+      return keys;
+    });
+    _sizeInBytes.addAndGet(entrySizeInBytes);
+    _cache.put(key, cachedResult);
+  }
+
+  /**
+   * Removes all the cached results for the given segment. Should be invoked when the segment is replaced or unloaded.
+   */
+  public void invalidateSegment(String tableName, String segmentName) {
+    Set<Key> keys = _keysBySegment.remove(Pair.of(tableName, segmentName));
+    if (keys != null) {
+      _cache.invalidateAll(keys);
+    }
+  }
+
+  public long getNumEntries() {
+    return _cache.size();
+  }
+
+  public long getSizeInBytes() {
+    return _sizeInBytes.get();
+  }
+
+  private void onRemoval(RemovalNotification<Key, CachedSegmentResult> notification) {
+    Key key = notification.getKey();
+    CachedSegmentResult cachedResult = notification.getValue();
+    _sizeInBytes.addAndGet(-getEntrySizeInBytes(key, cachedResult));
+    if (notification.wasEvicted()) {
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENT_RESULT_CACHE_EVICTIONS, 1L);
+    }
+    // The key is still indexed if the entry is replaced
+    if (notification.getCause() != RemovalCause.REPLACED) {
+      _keysBySegment.computeIfPresent(key.getSegment(), (segment, keys) -> {
+        keys.remove(key);
+        return keys.isEmpty() ? null : keys;
+      });
+    }
+  }
+
+  private static long getEntrySizeInBytes(Key key, CachedSegmentResult cachedResult) {
+    return key.getSizeInBytes() + cachedResult.getSizeInBytes();
+  }
+
+  /**
+   * Key of the cache: (table name, segment name, segment CRC, normalized broker request).
+   */
+  public static final class Key {
+    private final String _tableName;
+    private final String _segmentName;
+    private final String _crc;
+    private final byte[] _requestBytes;
+    private final int _hashCode;
+
+    private Key(String tableName, String segmentName, String crc, byte[] requestBytes) {
+      _tableName = tableName;
+      _segmentName = segmentName;
+      _crc = crc;
+      _requestBytes = requestBytes;
+      _hashCode = 31 * (31 * (31 * tableName.hashCode() + segmentName.hashCode()) + crc.hashCode()) + Arrays
+          .hashCode(requestBytes);
+    }
+
+    private Pair<String, String> getSegment() {
+      return Pair.of(_tableName, _segmentName);
+    }
+
+    private long getSizeInBytes() {
+      return 2L * (_tableName.length() + _segmentName.length() + _crc.length()) + _requestBytes.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _hashCode == that._hashCode && _tableName.equals(that._tableName) && _segmentName
+          .equals(that._segmentName) && _crc.equals(that._crc) && Arrays.equals(_requestBytes, that._requestBytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.pinot.core.query.config;
 
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
 
 
 /**
@@ -35,6 +36,12 @@ public class QueryExecutorConfig {
   public static final String QUERY_PLANNER = "queryPlanner";
   // Prefix key of TimeOut
   public static final String TIME_OUT = "timeout";
+  // Max size in bytes of the segment result cache, 0 to disable the cache
+  public static final String SEGMENT_RESULT_CACHE_MAX_SIZE = "segment.result.cache.max.size.bytes";
+  public static final long DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE = 0L;
+  // Version of the data table sent to the brokers, brokers must be upgraded before bumping the version
+  public static final String DATA_TABLE_VERSION = "dataTableVersion";
+  public static final int DEFAULT_DATA_TABLE_VERSION = DataTableBuilder.VERSION_2;
 
   private static final String[] REQUIRED_KEYS = {};
 
@@ -42,6 +49,8 @@ public class QueryExecutorConfig {
   private SegmentPrunerConfig _segmentPrunerConfig;
   private QueryPlannerConfig _queryPlannerConfig;
   private final long _timeOutMs;
+  private final long _segmentResultCacheMaxSizeInBytes;
+  private final int _dataTableVersion;
 
   public QueryExecutorConfig(Configuration config)
       throws ConfigurationException {
@@ -50,6 +59,14 @@ public class QueryExecutorConfig {
     _segmentPrunerConfig = new SegmentPrunerConfig(_queryExecutorConfig.subset(QUERY_PRUNER));
     _queryPlannerConfig = new QueryPlannerConfig(_queryExecutorConfig.subset(QUERY_PLANNER));
     _timeOutMs = _queryExecutorConfig.getLong(TIME_OUT, -1);
+    _segmentResultCacheMaxSizeInBytes =
+        _queryExecutorConfig.getLong(SEGMENT_RESULT_CACHE_MAX_SIZE, DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE);
+    _dataTableVersion = _queryExecutorConfig.getInt(DATA_TABLE_VERSION, DEFAULT_DATA_TABLE_VERSION);
+    try {
+      DataTableBuilder.checkVersion(_dataTableVersion);
+    } catch (IllegalArgumentException e) {
+      throw new ConfigurationException(e.getMessage());
+    }
   }
 
   private void checkRequiredKeys()
@@ -76,4 +93,12 @@ public class QueryExecutorConfig {
   public long getTimeOut() {
     return _timeOutMs;
   }
+
+  public long getSegmentResultCacheMaxSizeInBytes() {
+    return _segmentResultCacheMaxSizeInBytes;
+  }
+
+  public int getDataTableVersion() {
+    return _dataTableVersion;
+  }
 }
@@ -26,9 +26,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.config.TableNameBuilder;
 import org.apache.pinot.common.exception.QueryException;
@@ -50,6 +57,7 @@ import org.apache.pinot.common.response.broker.SelectionResults;
 import org.apache.pinot.common.utils.CommonConstants;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
@@ -62,211 +70,516 @@ import org.slf4j.LoggerFactory;
 /**
  * The <code>BrokerReduceService</code> class provides service to reduce data tables gathered from multiple servers
  * to {@link BrokerResponseNative}.
+ * <p>The data tables can be reduced incrementally as they arrive through the {@link StreamingReducer} returned by
+ * {@link #startReduce(BrokerRequest, BrokerMetrics)}. When a reduce thread pool is configured, the merge of the
+ * aggregation group-by results and the selection order-by results are split across at most
+ * {@code maxReduceThreadsPerQuery} threads of the pool.
  */
 @ThreadSafe
 public class BrokerReduceService implements ReduceService<BrokerResponseNative> {
   private static final Logger LOGGER = LoggerFactory.getLogger(BrokerReduceService.class);
 
+  // Null if the reduce is performed on the caller thread only
+  private final ExecutorService _reduceExecutor;
+  private final int _maxReduceThreadsPerQuery;
+
+  public BrokerReduceService() {
+    this(0, 1);
+  }
+
+  /**
+   * @param numReduceThreads Number of threads in the reduce thread pool shared by all queries, 0 to reduce on the
+   *                         caller thread only
+   * @param maxReduceThreadsPerQuery Max number of threads a single query can use to reduce
+   */
+  public BrokerReduceService(int numReduceThreads, int maxReduceThreadsPerQuery) {
+    if (numReduceThreads > 0 && maxReduceThreadsPerQuery > 1) {
+      LOGGER.info("Initializing reduce thread pool with {} threads, max {} threads per query", numReduceThreads,
+          maxReduceThreadsPerQuery);
+      _reduceExecutor = Executors.newFixedThreadPool(numReduceThreads, new NamedThreadFactory("broker-reduce"));
+      _maxReduceThreadsPerQuery = maxReduceThreadsPerQuery;
+    } else {
+      _reduceExecutor = null;
+      _maxReduceThreadsPerQuery = 1;
+    }
+  }
+
   @Nonnull
   @Override
   public BrokerResponseNative reduceOnDataTable(@Nonnull BrokerRequest brokerRequest,
       @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nullable BrokerMetrics brokerMetrics) {
-    if (dataTableMap.size() == 0) {
-      // Empty response.
-      return BrokerResponseNative.empty();
+    StreamingReducer streamingReducer = startReduce(brokerRequest, brokerMetrics);
+    for (Map.Entry<ServerInstance, DataTable> entry : dataTableMap.entrySet()) {
+      streamingReducer.addDataTable(entry.getKey(), entry.getValue());
+    }
+    return streamingReducer.finish();
+  }
+
+  /**
+   * Returns a {@link StreamingReducer} which reduces the data tables for the given broker request incrementally as they
+   * are added.
+   */
+  public StreamingReducer startReduce(BrokerRequest brokerRequest, @Nullable BrokerMetrics brokerMetrics) {
+    return new StreamingReducer(brokerRequest, brokerMetrics);
+  }
+
+  public void shutDown() {
+    if (_reduceExecutor != null) {
+      _reduceExecutor.shutdownNow();
     }
+  }
 
-    BrokerResponseNative brokerResponseNative = new BrokerResponseNative();
-    List<QueryProcessingException> processingExceptions = brokerResponseNative.getProcessingExceptions();
-    long numDocsScanned = 0L;
-    long numEntriesScannedInFilter = 0L;
-    long numEntriesScannedPostFilter = 0L;
-    long numSegmentsQueried = 0L;
-    long numSegmentsProcessed = 0L;
-    long numSegmentsMatched = 0L;
-    long numConsumingSegmentsQueried = 0L;
-    long minConsumingFreshnessTimeMs = Long.MAX_VALUE;
-    long numTotalRawDocs = 0L;
-    boolean numGroupsLimitReached = false;
+  /**
+   * The {@code StreamingReducer} reduces the data tables for a single query. The metadata of each data table is
+   * processed and the aggregation results are merged into the partial results as soon as the data table is added, so
+   * that the reduce can overlap with waiting for the responses from the other servers.
+   * <p>Should be accessed by a single thread: call {@link #addDataTable(ServerInstance, DataTable)} for each server
+   * response, then {@link #finish()} to get the broker response. A data table should not be accessed by the caller
+   * after it is added until {@link #finish()} returns because it might be read by the reduce threads.
+   */
+  @NotThreadSafe
+  public class StreamingReducer {
+    private final BrokerRequest _brokerRequest;
+    private final BrokerMetrics _brokerMetrics;
+    private final BrokerResponseNative _brokerResponseNative = new BrokerResponseNative();
+
+    private boolean _receivedDataTable = false;
+    private long _numDocsScanned = 0L;
+    private long _numEntriesScannedInFilter = 0L;
+    private long _numEntriesScannedPostFilter = 0L;
+    private long _numSegmentsQueried = 0L;
+    private long _numSegmentsProcessed = 0L;
+    private long _numSegmentsMatched = 0L;
+    private long _numConsumingSegmentsQueried = 0L;
+    private long _minConsumingFreshnessTimeMs = Long.MAX_VALUE;
+    private long _numTotalRawDocs = 0L;
+    private boolean _numGroupsLimitReached = false;
 
     // Cache a data schema from data tables (try to cache one with data rows associated with it).
-    DataSchema cachedDataSchema = null;
+    private DataSchema _cachedDataSchema = null;
 
-    // Process server response metadata.
-    Iterator<Map.Entry<ServerInstance, DataTable>> iterator = dataTableMap.entrySet().iterator();
-    while (iterator.hasNext()) {
-      Map.Entry<ServerInstance, DataTable> entry = iterator.next();
-      ServerInstance serverInstance = entry.getKey();
-      DataTable dataTable = entry.getValue();
+    // For selection query, data tables with data rows inside
+    private final Map<ServerInstance, DataTable> _dataTableMap = new HashMap<>();
+
+    // For aggregation query, each partial result is merged by at most one thread at a time, and the semaphore bounds
+    // the number of concurrent merges so that a partial result is always available for a submitted merge
+    private final AggregationFunction[] _aggregationFunctions;
+    private final ArrayBlockingQueue<PartialAggregationResult> _partialResults;
+    private final Semaphore _mergeSemaphore;
+    private final boolean _parallelMerge;
+    private final List<Future<?>> _mergeFutures = new ArrayList<>();
+
+    private long _reduceTimeNs = 0L;
+
+    private StreamingReducer(BrokerRequest brokerRequest, @Nullable BrokerMetrics brokerMetrics) {
+      _brokerRequest = brokerRequest;
+      _brokerMetrics = brokerMetrics;
+      if (brokerRequest.isSetSelections()) {
+        _aggregationFunctions = null;
+        _partialResults = null;
+        _mergeSemaphore = null;
+        _parallelMerge = false;
+      } else {
+        _aggregationFunctions = AggregationFunctionUtils.getAggregationFunctions(brokerRequest.getAggregationsInfo());
+        // Only split the merge for aggregation group-by query, the merge for aggregation only query is cheap
+        boolean isGroupBy = brokerRequest.isSetGroupBy();
+        int numPartialResults = _reduceExecutor != null && isGroupBy ? _maxReduceThreadsPerQuery : 1;
+        _partialResults = new ArrayBlockingQueue<>(numPartialResults);
+        for (int i = 0; i < numPartialResults; i++) {
+          _partialResults.offer(new PartialAggregationResult(_aggregationFunctions, isGroupBy));
+        }
+        _mergeSemaphore = new Semaphore(numPartialResults);
+        _parallelMerge = numPartialResults > 1;
+      }
+    }
+
+    /**
+     * Processes the metadata of the data table, and merges the results in the data table into the partial results.
+     */
+    public void addDataTable(ServerInstance serverInstance, DataTable dataTable) {
+      long startTimeNs = System.nanoTime();
+      _receivedDataTable = true;
       Map<String, String> metadata = dataTable.getMetadata();
 
       // Reduce on trace info.
-      if (brokerRequest.isEnableTrace()) {
-        brokerResponseNative.getTraceInfo()
+      if (_brokerRequest.isEnableTrace()) {
+        _brokerResponseNative.getTraceInfo()
             .put(serverInstance.getHostname(), metadata.get(DataTable.TRACE_INFO_METADATA_KEY));
       }
 
       // Reduce on exceptions.
       for (String key : metadata.keySet()) {
         if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
-          processingExceptions.add(new QueryProcessingException(Integer.parseInt(key.substring(9)), metadata.get(key)));
+          _brokerResponseNative.getProcessingExceptions()
+              .add(new QueryProcessingException(Integer.parseInt(key.substring(9)), metadata.get(key)));
         }
       }
 
       // Reduce on execution statistics.
       String numDocsScannedString = metadata.get(DataTable.NUM_DOCS_SCANNED_METADATA_KEY);
       if (numDocsScannedString != null) {
-        numDocsScanned += Long.parseLong(numDocsScannedString);
+        _numDocsScanned += Long.parseLong(numDocsScannedString);
       }
       String numEntriesScannedInFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY);
       if (numEntriesScannedInFilterString != null) {
-        numEntriesScannedInFilter += Long.parseLong(numEntriesScannedInFilterString);
+        _numEntriesScannedInFilter += Long.parseLong(numEntriesScannedInFilterString);
       }
       String numEntriesScannedPostFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY);
       if (numEntriesScannedPostFilterString != null) {
-        numEntriesScannedPostFilter += Long.parseLong(numEntriesScannedPostFilterString);
+        _numEntriesScannedPostFilter += Long.parseLong(numEntriesScannedPostFilterString);
       }
       String numSegmentsQueriedString = metadata.get(DataTable.NUM_SEGMENTS_QUERIED);
       if (numSegmentsQueriedString != null) {
-        numSegmentsQueried += Long.parseLong(numSegmentsQueriedString);
+        _numSegmentsQueried += Long.parseLong(numSegmentsQueriedString);
       }
 
       String numSegmentsProcessedString = metadata.get(DataTable.NUM_SEGMENTS_PROCESSED);
       if (numSegmentsProcessedString != null) {
-        numSegmentsProcessed += Long.parseLong(numSegmentsProcessedString);
+        _numSegmentsProcessed += Long.parseLong(numSegmentsProcessedString);
       }
       String numSegmentsMatchedString = metadata.get(DataTable.NUM_SEGMENTS_MATCHED);
       if (numSegmentsMatchedString != null) {
-        numSegmentsMatched += Long.parseLong(numSegmentsMatchedString);
+        _numSegmentsMatched += Long.parseLong(numSegmentsMatchedString);
       }
 
       String numConsumingString = metadata.get(DataTable.NUM_CONSUMING_SEGMENTS_QUERIED);
       if (numConsumingString != null) {
-        numConsumingSegmentsQueried += Long.parseLong(numConsumingString);
+        _numConsumingSegmentsQueried += Long.parseLong(numConsumingString);
       }
 
       String minConsumingFreshnessTimeMsString = metadata.get(DataTable.MIN_CONSUMING_FRESHNESS_TIME_MS);
       if (minConsumingFreshnessTimeMsString != null) {
-          minConsumingFreshnessTimeMs = Math.min(Long.parseLong(minConsumingFreshnessTimeMsString), minConsumingFreshnessTimeMs);
+        _minConsumingFreshnessTimeMs =
+            Math.min(Long.parseLong(minConsumingFreshnessTimeMsString), _minConsumingFreshnessTimeMs);
       }
 
       String numTotalRawDocsString = metadata.get(DataTable.TOTAL_DOCS_METADATA_KEY);
       if (numTotalRawDocsString != null) {
-        numTotalRawDocs += Long.parseLong(numTotalRawDocsString);
+        _numTotalRawDocs += Long.parseLong(numTotalRawDocsString);
       }
-      numGroupsLimitReached |= Boolean.valueOf(metadata.get(DataTable.NUM_GROUPS_LIMIT_REACHED_KEY));
+      _numGroupsLimitReached |= Boolean.valueOf(metadata.get(DataTable.NUM_GROUPS_LIMIT_REACHED_KEY));
 
-      // After processing the metadata, remove data tables without data rows inside.
+      // After processing the metadata, skip data tables without data rows inside.
       DataSchema dataSchema = dataTable.getDataSchema();
-      if (dataSchema == null) {
-        iterator.remove();
-      } else {
+      if (dataSchema != null) {
         // Try to cache a data table with data rows inside, or cache one with data schema inside.
         if (dataTable.getNumberOfRows() == 0) {
-          if (cachedDataSchema == null) {
-            cachedDataSchema = dataSchema;
+          if (_cachedDataSchema == null) {
+            _cachedDataSchema = dataSchema;
           }
-          iterator.remove();
         } else {
-          cachedDataSchema = dataSchema;
+          _cachedDataSchema = dataSchema;
+          if (_aggregationFunctions == null) {
+            _dataTableMap.put(serverInstance, dataTable);
+          } else {
+            mergeAggregationResults(dataTable);
+          }
         }
       }
+      _reduceTimeNs += System.nanoTime() - startTimeNs;
     }
 
-    // Set execution statistics.
-    brokerResponseNative.setNumDocsScanned(numDocsScanned);
-    brokerResponseNative.setNumEntriesScannedInFilter(numEntriesScannedInFilter);
-    brokerResponseNative.setNumEntriesScannedPostFilter(numEntriesScannedPostFilter);
-    brokerResponseNative.setNumSegmentsQueried(numSegmentsQueried);
-    brokerResponseNative.setNumSegmentsProcessed(numSegmentsProcessed);
-    brokerResponseNative.setNumSegmentsMatched(numSegmentsMatched);
-    brokerResponseNative.setTotalDocs(numTotalRawDocs);
-    brokerResponseNative.setNumGroupsLimitReached(numGroupsLimitReached);
-    if (numConsumingSegmentsQueried > 0) {
-      brokerResponseNative.setNumConsumingSegmentsQueried(numConsumingSegmentsQueried);
-      brokerResponseNative.setMinConsumingFreshnessTimeMs(minConsumingFreshnessTimeMs);
+    private void mergeAggregationResults(DataTable dataTable) {
+      if (!_parallelMerge) {
+        _partialResults.peek().merge(dataTable);
+        return;
+      }
+      try {
+        _mergeSemaphore.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for the reduce threads", e);
+      }
+      try {
+        _mergeFutures.add(_reduceExecutor.submit(() -> {
+          PartialAggregationResult partialResult = _partialResults.poll();
+          try {
+            partialResult.merge(dataTable);
+          } finally {
+            _partialResults.offer(partialResult);
+            _mergeSemaphore.release();
+          }
+        }));
+      } catch (RuntimeException e) {
+        _mergeSemaphore.release();
+        throw e;
+      }
     }
 
-    // Update broker metrics.
-    String tableName = brokerRequest.getQuerySource().getTableName();
-    String rawTableName = TableNameBuilder.extractRawTableName(tableName);
-    if (brokerMetrics != null) {
-      brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.DOCUMENTS_SCANNED, numDocsScanned);
-      brokerMetrics
-          .addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_IN_FILTER, numEntriesScannedInFilter);
-      brokerMetrics
-          .addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_POST_FILTER, numEntriesScannedPostFilter);
+    /**
+     * Returns the time spent on the reduce on the caller thread, including the time spent in
+     * {@link #addDataTable(ServerInstance, DataTable)} and {@link #finish()}.
+     */
+    public long getReduceTimeNs() {
+      return _reduceTimeNs;
+    }
 
-      if (numConsumingSegmentsQueried > 0 && minConsumingFreshnessTimeMs > 0) {
-        brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.FRESHNESS_LAG_MS,
-            System.currentTimeMillis() - minConsumingFreshnessTimeMs, TimeUnit.MILLISECONDS);
+    /**
+     * Finishes the reduce and returns the broker response.
+     */
+    public BrokerResponseNative finish() {
+      long startTimeNs = System.nanoTime();
+      try {
+        return reduce();
+      } finally {
+        _reduceTimeNs += System.nanoTime() - startTimeNs;
       }
     }
 
-    // Parse the option from request whether to preserve the type
-    String preserveTypeString = (brokerRequest.getQueryOptions() == null) ? "false" : brokerRequest.getQueryOptions()
-        .getOrDefault(CommonConstants.Broker.Request.QueryOptionKey.PRESERVE_TYPE, "false");
-    boolean preserveType = Boolean.valueOf(preserveTypeString);
+    private BrokerResponseNative reduce() {
+      if (!_receivedDataTable) {
+        // Empty response.
+        return BrokerResponseNative.empty();
+      }
+
+      // Wait for all the merges to finish, then merge the partial results
+      PartialAggregationResult mergedResult = null;
+      if (_aggregationFunctions != null) {
+        for (Future<?> mergeFuture : _mergeFutures) {
+          getResult(mergeFuture);
+        }
+        mergedResult = _partialResults.poll();
+        PartialAggregationResult partialResult;
+        while ((partialResult = _partialResults.poll()) != null) {
+          mergedResult.merge(partialResult);
+        }
+      }
 
-    if (dataTableMap.isEmpty()) {
-      // For empty data table map, construct empty result using the cached data schema.
+      BrokerResponseNative brokerResponseNative = _brokerResponseNative;
+
+      // Set execution statistics.
+      brokerResponseNative.setNumDocsScanned(_numDocsScanned);
+      brokerResponseNative.setNumEntriesScannedInFilter(_numEntriesScannedInFilter);
+      brokerResponseNative.setNumEntriesScannedPostFilter(_numEntriesScannedPostFilter);
+      brokerResponseNative.setNumSegmentsQueried(_numSegmentsQueried);
+      brokerResponseNative.setNumSegmentsProcessed(_numSegmentsProcessed);
+      brokerResponseNative.setNumSegmentsMatched(_numSegmentsMatched);
+      brokerResponseNative.setTotalDocs(_numTotalRawDocs);
+      brokerResponseNative.setNumGroupsLimitReached(_numGroupsLimitReached);
+      if (_numConsumingSegmentsQueried > 0) {
+        brokerResponseNative.setNumConsumingSegmentsQueried(_numConsumingSegmentsQueried);
+        brokerResponseNative.setMinConsumingFreshnessTimeMs(_minConsumingFreshnessTimeMs);
+      }
 
-      // This will only happen to selection query.
-      if (cachedDataSchema != null) {
-        List<String> selectionColumns = SelectionOperatorUtils
-            .getSelectionColumns(brokerRequest.getSelections().getSelectionColumns(), cachedDataSchema);
-        brokerResponseNative.setSelectionResults(new SelectionResults(selectionColumns, new ArrayList<>(0)));
+      // Update broker metrics.
+      BrokerRequest brokerRequest = _brokerRequest;
+      BrokerMetrics brokerMetrics = _brokerMetrics;
+      String tableName = brokerRequest.getQuerySource().getTableName();
+      String rawTableName = TableNameBuilder.extractRawTableName(tableName);
+      if (brokerMetrics != null) {
+        brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.DOCUMENTS_SCANNED, _numDocsScanned);
+        brokerMetrics
+            .addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_IN_FILTER, _numEntriesScannedInFilter);
+        brokerMetrics
+            .addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_POST_FILTER, _numEntriesScannedPostFilter);
+
+        if (_numConsumingSegmentsQueried > 0 && _minConsumingFreshnessTimeMs > 0) {
+          brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.FRESHNESS_LAG_MS,
+              System.currentTimeMillis() - _minConsumingFreshnessTimeMs, TimeUnit.MILLISECONDS);
+        }
       }
-    } else {
-      // Reduce server responses data and set query results into the broker response.
-      assert cachedDataSchema != null;
 
+      // Parse the option from request whether to preserve the type
+      String preserveTypeString = (brokerRequest.getQueryOptions() == null) ? "false" : brokerRequest.getQueryOptions()
+          .getOrDefault(CommonConstants.Broker.Request.QueryOptionKey.PRESERVE_TYPE, "false");
+      boolean preserveType = Boolean.valueOf(preserveTypeString);
+
+      DataSchema cachedDataSchema = _cachedDataSchema;
+      Map<ServerInstance, DataTable> dataTableMap = _dataTableMap;
       if (brokerRequest.isSetSelections()) {
         // Selection query.
-
-        // For data table map with more than one data tables, remove conflicting data tables.
-        DataSchema masterDataSchema = cachedDataSchema.clone();
-        if (dataTableMap.size() > 1) {
-          List<String> droppedServers = removeConflictingResponses(masterDataSchema, dataTableMap);
-          if (!droppedServers.isEmpty()) {
-            String errorMessage =
-                QueryException.MERGE_RESPONSE_ERROR.getMessage() + ": responses for table: " + tableName
-                    + " from servers: " + droppedServers + " got dropped due to data schema inconsistency.";
-            LOGGER.info(errorMessage);
-            if (brokerMetrics != null) {
-              brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1L);
+        if (dataTableMap.isEmpty()) {
+          // For empty data table map, construct empty result using the cached data schema.
+          if (cachedDataSchema != null) {
+            List<String> selectionColumns = SelectionOperatorUtils
+                .getSelectionColumns(brokerRequest.getSelections().getSelectionColumns(), cachedDataSchema);
+            brokerResponseNative.setSelectionResults(new SelectionResults(selectionColumns, new ArrayList<>(0)));
+          }
+        } else {
+          // For data table map with more than one data tables, remove conflicting data tables.
+          assert cachedDataSchema != null;
+          DataSchema masterDataSchema = cachedDataSchema.clone();
+          if (dataTableMap.size() > 1) {
+            List<String> droppedServers = removeConflictingResponses(masterDataSchema, dataTableMap);
+            if (!droppedServers.isEmpty()) {
+              String errorMessage =
+                  QueryException.MERGE_RESPONSE_ERROR.getMessage() + ": responses for table: " + tableName
+                      + " from servers: " + droppedServers + " got dropped due to data schema inconsistency.";
+              LOGGER.info(errorMessage);
+              if (brokerMetrics != null) {
+                brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1L);
+              }
+              brokerResponseNative.addToExceptions(
+                  new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
             }
-            brokerResponseNative
-                .addToExceptions(new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
           }
+          setSelectionResults(brokerResponseNative, brokerRequest.getSelections(), dataTableMap, masterDataSchema,
+              preserveType);
         }
-        setSelectionResults(brokerResponseNative, brokerRequest.getSelections(), dataTableMap, masterDataSchema,
-            preserveType);
-      } else {
+      } else if (!mergedResult.isEmpty()) {
         // Aggregation query.
-        AggregationFunction[] aggregationFunctions =
-            AggregationFunctionUtils.getAggregationFunctions(brokerRequest.getAggregationsInfo());
+        assert cachedDataSchema != null;
         if (!brokerRequest.isSetGroupBy()) {
           // Aggregation only query.
-          setAggregationResults(brokerResponseNative, aggregationFunctions, dataTableMap, cachedDataSchema,
-              preserveType);
+          setAggregationResults(brokerResponseNative, _aggregationFunctions, mergedResult._intermediateResults,
+              cachedDataSchema, preserveType);
         } else {
           // Aggregation group-by query.
           boolean[] aggregationFunctionSelectStatus =
               AggregationFunctionUtils.getAggregationFunctionsSelectStatus(brokerRequest.getAggregationsInfo());
-          setGroupByHavingResults(brokerResponseNative, aggregationFunctions, aggregationFunctionSelectStatus,
-              brokerRequest.getGroupBy(), dataTableMap, brokerRequest.getHavingFilterQuery(),
-              brokerRequest.getHavingFilterSubQueryMap(), preserveType);
+          setGroupByHavingResults(brokerResponseNative, _aggregationFunctions, aggregationFunctionSelectStatus,
+              brokerRequest.getGroupBy(), mergedResult._columnNames, mergedResult._intermediateResultMaps,
+              brokerRequest.getHavingFilterQuery(), brokerRequest.getHavingFilterSubQueryMap(), preserveType);
           if (brokerMetrics != null && (!brokerResponseNative.getAggregationResults().isEmpty())) {
-            // We emit the group by size when the result isn't empty. All the sizes among group-by results should be the same.
-            // Thus, we can just emit the one from the 1st result.
+            // We emit the group by size when the result isn't empty. All the sizes among group-by results should be the
+            // same. Thus, we can just emit the one from the 1st result.
             brokerMetrics.addMeteredQueryValue(brokerRequest, BrokerMeter.GROUP_BY_SIZE,
                 brokerResponseNative.getAggregationResults().get(0).getGroupByResult().size());
           }
         }
       }
+      return brokerResponseNative;
+    }
+  }
+
+  /**
+   * Partial result of an aggregation or aggregation group-by query merged from a subset of the data tables.
+   * <p>Should be accessed by one thread at a time.
+   */
+  private static class PartialAggregationResult {
+    final AggregationFunction[] _aggregationFunctions;
+    final boolean _isGroupBy;
+    // For aggregation only query
+    final Object[] _intermediateResults;
+    // For aggregation group-by query
+    final String[] _columnNames;
+    final Map<String, Object>[] _intermediateResultMaps;
+    boolean _isEmpty = true;
+
+    @SuppressWarnings("unchecked")
+    PartialAggregationResult(AggregationFunction[] aggregationFunctions, boolean isGroupBy) {
+      _aggregationFunctions = aggregationFunctions;
+      _isGroupBy = isGroupBy;
+      int numAggregationFunctions = aggregationFunctions.length;
+      if (isGroupBy) {
+        _intermediateResults = null;
+        _columnNames = new String[numAggregationFunctions];
+        _intermediateResultMaps = new Map[numAggregationFunctions];
+      } else {
+        _intermediateResults = new Object[numAggregationFunctions];
+        _columnNames = null;
+        _intermediateResultMaps = null;
+      }
+    }
+
+    boolean isEmpty() {
+      return _isEmpty;
+    }
+
+    void merge(DataTable dataTable) {
+      int numAggregationFunctions = _aggregationFunctions.length;
+      if (_isGroupBy) {
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          if (_isEmpty) {
+            _columnNames[i] = dataTable.getString(i, 0);
+          }
+          mergeIntermediateResultMap(i, dataTable.getObject(i, 1));
+        }
+      } else {
+        DataSchema dataSchema = dataTable.getDataSchema();
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          Object intermediateResultToMerge;
+          DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
+          switch (columnDataType) {
+            case LONG:
+              intermediateResultToMerge = dataTable.getLong(0, i);
+              break;
+            case DOUBLE:
+              intermediateResultToMerge = dataTable.getDouble(0, i);
+              break;
+            case OBJECT:
+              intermediateResultToMerge = dataTable.getObject(0, i);
+              break;
+            default:
+              throw new IllegalStateException("Illegal column data type in aggregation results: " + columnDataType);
+          }
+          mergeIntermediateResult(i, intermediateResultToMerge);
+        }
+      }
+      _isEmpty = false;
+    }
+
+    void merge(PartialAggregationResult partialResult) {
+      if (partialResult._isEmpty) {
+        return;
+      }
+      int numAggregationFunctions = _aggregationFunctions.length;
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        if (_isGroupBy) {
+          if (_isEmpty) {
+            _columnNames[i] = partialResult._columnNames[i];
+          }
+          mergeIntermediateResultMap(i, partialResult._intermediateResultMaps[i]);
+        } else {
+          mergeIntermediateResult(i, partialResult._intermediateResults[i]);
+        }
+      }
+      _isEmpty = false;
+    }
+
+    private void mergeIntermediateResult(int index, Object intermediateResultToMerge) {
+      Object mergedIntermediateResult = _intermediateResults[index];
+      if (mergedIntermediateResult == null) {
+        _intermediateResults[index] = intermediateResultToMerge;
+      } else {
+        _intermediateResults[index] =
+            _aggregationFunctions[index].merge(mergedIntermediateResult, intermediateResultToMerge);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mergeIntermediateResultMap(int index, Map<String, Object> intermediateResultMapToMerge) {
+      Map<String, Object> mergedIntermediateResultMap = _intermediateResultMaps[index];
+      if (mergedIntermediateResultMap == null) {
+        _intermediateResultMaps[index] = intermediateResultMapToMerge;
+        return;
+      }
+      // Always iterate over the smaller map
+      if (mergedIntermediateResultMap.size() < intermediateResultMapToMerge.size()) {
+        Map<String, Object> temp = mergedIntermediateResultMap;
+        mergedIntermediateResultMap = intermediateResultMapToMerge;
+        intermediateResultMapToMerge = temp;
+        _intermediateResultMaps[index] = mergedIntermediateResultMap;
+      }
+      AggregationFunction aggregationFunction = _aggregationFunctions[index];
+      for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
+        String groupKey = entry.getKey();
+        Object intermediateResultToMerge = entry.getValue();
+        Object mergedIntermediateResult = mergedIntermediateResultMap.get(groupKey);
+        if (mergedIntermediateResult != null) {
+          mergedIntermediateResultMap
+              .put(groupKey, aggregationFunction.merge(mergedIntermediateResult, intermediateResultToMerge));
+        } else {
+          mergedIntermediateResultMap.put(groupKey, intermediateResultToMerge);
+        }
+      }
+    }
+  }
+
+  private static <T> T getResult(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the reduce threads", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else {
+        throw new RuntimeException("Caught exception while reducing the data tables", cause);
+      }
     }
-    return brokerResponseNative;
   }
 
   /**
@@ -314,9 +627,7 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
         SelectionOperatorUtils.getSelectionColumns(selection.getSelectionColumns(), dataSchema);
     if (selection.isSetSelectionSortSequence() && selectionSize != 0) {
       // Selection order-by.
-      SelectionOperatorService selectionService = new SelectionOperatorService(selection, dataSchema);
-      selectionService.reduceWithOrdering(dataTableMap);
-      selectionResults = selectionService.renderSelectionResultsWithOrdering();
+      selectionResults = reduceSelectionWithOrdering(selection, dataSchema, dataTableMap);
       columnIndices = SelectionOperatorUtils.getColumnIndicesWithOrdering(selectionColumns, dataSchema);
     } else {
       // Selection only.
@@ -336,47 +647,59 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
   }
 
   /**
-   * Reduce aggregation results from multiple servers and set them into BrokerResponseNative passed in.
+   * Reduce selection order-by results from multiple servers. When the reduce thread pool is configured, the data tables
+   * are split into partitions, and each partition is reduced into a separate priority queue in parallel before merging
+   * the priority queues.
+   */
+  private SelectionResults reduceSelectionWithOrdering(Selection selection, DataSchema dataSchema,
+      Map<ServerInstance, DataTable> dataTableMap) {
+    SelectionOperatorService selectionService = new SelectionOperatorService(selection, dataSchema);
+    int numPartitions = Math.min(_maxReduceThreadsPerQuery, dataTableMap.size());
+    if (numPartitions <= 1) {
+      selectionService.reduceWithOrdering(dataTableMap);
+      return selectionService.renderSelectionResultsWithOrdering();
+    }
+
+    List<Map<ServerInstance, DataTable>> partitions = new ArrayList<>(numPartitions);
+    for (int i = 0; i < numPartitions; i++) {
+      partitions.add(new HashMap<>());
+    }
+    int index = 0;
+    for (Map.Entry<ServerInstance, DataTable> entry : dataTableMap.entrySet()) {
+      partitions.get(index++ % numPartitions).put(entry.getKey(), entry.getValue());
+    }
+    List<Future<SelectionOperatorService>> futures = new ArrayList<>(numPartitions - 1);
+    for (int i = 1; i < numPartitions; i++) {
+      Map<ServerInstance, DataTable> partition = partitions.get(i);
+      futures.add(_reduceExecutor.submit(() -> {
+        SelectionOperatorService partitionSelectionService = new SelectionOperatorService(selection, dataSchema);
+        partitionSelectionService.reduceWithOrdering(partition);
+        return partitionSelectionService;
+      }));
+    }
+    // Reduce the first partition on the caller thread
+    selectionService.reduceWithOrdering(partitions.get(0));
+    int maxNumRows = selection.getOffset() + selection.getSize();
+    for (Future<SelectionOperatorService> future : futures) {
+      SelectionOperatorUtils.mergeWithOrdering(selectionService.getRows(), getResult(future).getRows(), maxNumRows);
+    }
+    return selectionService.renderSelectionResultsWithOrdering();
+  }
+
+  /**
+   * Extract the final aggregation results from the merged intermediate results and set them into BrokerResponseNative
+   * passed in.
    *
    * @param brokerResponseNative broker response.
    * @param aggregationFunctions array of aggregation functions.
-   * @param dataTableMap map from server to data table.
+   * @param intermediateResults merged intermediate results.
    * @param dataSchema data schema.
    */
-  @SuppressWarnings("unchecked")
   private void setAggregationResults(@Nonnull BrokerResponseNative brokerResponseNative,
-      @Nonnull AggregationFunction[] aggregationFunctions, @Nonnull Map<ServerInstance, DataTable> dataTableMap,
+      @Nonnull AggregationFunction[] aggregationFunctions, @Nonnull Object[] intermediateResults,
       @Nonnull DataSchema dataSchema, boolean preserveType) {
     int numAggregationFunctions = aggregationFunctions.length;
 
-    // Merge results from all data tables.
-    Object[] intermediateResults = new Object[numAggregationFunctions];
-    for (DataTable dataTable : dataTableMap.values()) {
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        Object intermediateResultToMerge;
-        DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
-        switch (columnDataType) {
-          case LONG:
-            intermediateResultToMerge = dataTable.getLong(0, i);
-            break;
-          case DOUBLE:
-            intermediateResultToMerge = dataTable.getDouble(0, i);
-            break;
-          case OBJECT:
-            intermediateResultToMerge = dataTable.getObject(0, i);
-            break;
-          default:
-            throw new IllegalStateException("Illegal column data type in aggregation results: " + columnDataType);
-        }
-        Object mergedIntermediateResult = intermediateResults[i];
-        if (mergedIntermediateResult == null) {
-          intermediateResults[i] = intermediateResultToMerge;
-        } else {
-          intermediateResults[i] = aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
-        }
-      }
-    }
-
     // Extract final results and set them into the broker response.
     List<AggregationResult> reducedAggregationResults = new ArrayList<>(numAggregationFunctions);
     for (int i = 0; i < numAggregationFunctions; i++) {
@@ -393,48 +716,24 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
   }
 
   /**
-   * Reduce group-by results from multiple servers and set them into BrokerResponseNative passed in.
+   * Extract the final group-by results from the merged intermediate result maps and set them into
+   * BrokerResponseNative passed in.
    *
    * @param brokerResponseNative broker response.
    * @param aggregationFunctions array of aggregation functions.
    * @param groupBy group-by information.
-   * @param dataTableMap map from server to data table.
+   * @param columnNames column names of the aggregation functions.
+   * @param intermediateResultMaps merged intermediate result maps.
    * @param havingFilterQuery having filter query
    * @param havingFilterQueryMap having filter query map
    */
   @SuppressWarnings("unchecked")
   private void setGroupByHavingResults(@Nonnull BrokerResponseNative brokerResponseNative,
       @Nonnull AggregationFunction[] aggregationFunctions, boolean[] aggregationFunctionsSelectStatus,
-      @Nonnull GroupBy groupBy, @Nonnull Map<ServerInstance, DataTable> dataTableMap,
+      @Nonnull GroupBy groupBy, @Nonnull String[] columnNames, @Nonnull Map<String, Object>[] intermediateResultMaps,
       HavingFilterQuery havingFilterQuery, HavingFilterQueryMap havingFilterQueryMap, boolean preserveType) {
     int numAggregationFunctions = aggregationFunctions.length;
 
-    // Merge results from all data tables.
-    String[] columnNames = new String[numAggregationFunctions];
-    Map<String, Object>[] intermediateResultMaps = new Map[numAggregationFunctions];
-    for (DataTable dataTable : dataTableMap.values()) {
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        if (columnNames[i] == null) {
-          columnNames[i] = dataTable.getString(i, 0);
-          intermediateResultMaps[i] = dataTable.getObject(i, 1);
-        } else {
-          Map<String, Object> mergedIntermediateResultMap = intermediateResultMaps[i];
-          Map<String, Object> intermediateResultMapToMerge = dataTable.getObject(i, 1);
-          for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
-            String groupKey = entry.getKey();
-            Object intermediateResultToMerge = entry.getValue();
-            if (mergedIntermediateResultMap.containsKey(groupKey)) {
-              Object mergedIntermediateResult = mergedIntermediateResultMap.get(groupKey);
-              mergedIntermediateResultMap
-                  .put(groupKey, aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge));
-            } else {
-              mergedIntermediateResultMap.put(groupKey, intermediateResultToMerge);
-            }
-          }
-        }
-      }
-    }
-
     // Extract final result maps from the merged intermediate result maps.
     Map<String, Comparable>[] finalResultMaps = new Map[numAggregationFunctions];
     for (int i = 0; i < numAggregationFunctions; i++) {
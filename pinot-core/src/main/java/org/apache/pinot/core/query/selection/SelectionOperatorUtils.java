@@ -225,9 +225,20 @@ public class SelectionOperatorUtils {
   @Nonnull
   public static DataTable getDataTableFromRows(@Nonnull Collection<Serializable[]> rows, @Nonnull DataSchema dataSchema)
       throws Exception {
+    return getDataTableFromRows(rows, dataSchema, DataTableBuilder.VERSION_2);
+  }
+
+  /**
+   * Build a {@link DataTable} with the given data table version from a {@link Collection} of selection rows with
+   * {@link DataSchema}. (Server side)
+   */
+  @Nonnull
+  public static DataTable getDataTableFromRows(@Nonnull Collection<Serializable[]> rows, @Nonnull DataSchema dataSchema,
+      int dataTableVersion)
+      throws Exception {
     int numColumns = dataSchema.size();
 
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, dataTableVersion);
     for (Serializable[] row : rows) {
       dataTableBuilder.startRow();
       for (int i = 0; i < numColumns; i++) {
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.converter;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.core.indexsegment.IndexSegmentUtils;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.io.reader.DataFileReader;
+import org.apache.pinot.core.io.reader.SingleColumnMultiValueReader;
+import org.apache.pinot.core.io.reader.SingleColumnSingleValueReader;
+import org.apache.pinot.core.realtime.impl.dictionary.MutableDictionary;
+import org.apache.pinot.core.segment.creator.ColumnarSegmentCreationDataSource;
+
+
+/**
+ * Column reader for Pinot realtime segment, which reads the dictionary ids (or raw values) directly from the forward
+ * index of the realtime segment, so that the dictionary ids can be remapped without looking up the values.
+ */
+public class RealtimeSegmentColumnReader implements ColumnarSegmentCreationDataSource.ColumnReader {
+  private final FieldSpec _fieldSpec;
+  private final DataFileReader _forwardIndex;
+  private final MutableDictionary _dictionary;
+  private final int[] _sortedDocIdIterationOrder;
+
+  public RealtimeSegmentColumnReader(MutableSegmentImpl realtimeSegment, String column,
+      @Nullable int[] sortedDocIdIterationOrder) {
+    _fieldSpec = realtimeSegment.getSegmentMetadata().getSchema().getFieldSpecFor(column);
+    _forwardIndex = realtimeSegment.getForwardIndex(column);
+    _dictionary = (MutableDictionary) realtimeSegment.getDataSource(column).getDictionary();
+    _sortedDocIdIterationOrder = sortedDocIdIterationOrder;
+  }
+
+  @Nullable
+  @Override
+  public MutableDictionary getDictionary() {
+    return _dictionary;
+  }
+
+  @Override
+  public int getDictId(int docId) {
+    return ((SingleColumnSingleValueReader) _forwardIndex).getInt(getRealtimeDocId(docId));
+  }
+
+  @Override
+  public int getDictIds(int docId, int[] dictIdBuffer) {
+    return ((SingleColumnMultiValueReader) _forwardIndex).getIntArray(getRealtimeDocId(docId), dictIdBuffer);
+  }
+
+  @Override
+  public Object getValue(int docId) {
+    return IndexSegmentUtils.getValue(getRealtimeDocId(docId), _fieldSpec, _forwardIndex, _dictionary, 0);
+  }
+
+  private int getRealtimeDocId(int docId) {
+    return _sortedDocIdIterationOrder == null ? docId : _sortedDocIdIterationOrder[docId];
+  }
+}
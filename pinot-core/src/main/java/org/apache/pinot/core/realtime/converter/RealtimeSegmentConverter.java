@@ -44,6 +44,9 @@ import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl
 
 
 public class RealtimeSegmentConverter {
+  // Index the columns in parallel, but leave half of the cores for consumption and query processing
+  private static final int NUM_COLUMN_INDEXING_THREADS = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+
   private MutableSegmentImpl realtimeSegmentImpl;
   private String outputPath;
   private Schema dataSchema;
@@ -53,13 +56,26 @@ public class RealtimeSegmentConverter {
   private String sortedColumn;
   private List<String> invertedIndexColumns;
   private List<String> noDictionaryColumns;
+  private Map<String, String> noDictionaryConfig;
   private StarTreeIndexSpec starTreeIndexSpec;
   private List<String> varLengthDictionaryColumns;
+  private List<String> frameOfReferenceEncodingColumns;
 
   public RealtimeSegmentConverter(MutableSegmentImpl realtimeSegment, String outputPath, Schema schema,
       String tableName, String timeColumnName, String segmentName, String sortedColumn,
       List<String> invertedIndexColumns, List<String> noDictionaryColumns,
       List<String> varLengthDictionaryColumns, StarTreeIndexSpec starTreeIndexSpec) {
+    this(realtimeSegment, outputPath, schema, tableName, timeColumnName, segmentName, sortedColumn,
+        invertedIndexColumns, noDictionaryColumns, new HashMap<>(), varLengthDictionaryColumns, starTreeIndexSpec);
+  }
+
+  /**
+   * @param noDictionaryConfig Map from no-dictionary column to the name of its chunk compression type
+   */
+  public RealtimeSegmentConverter(MutableSegmentImpl realtimeSegment, String outputPath, Schema schema,
+      String tableName, String timeColumnName, String segmentName, String sortedColumn,
+      List<String> invertedIndexColumns, List<String> noDictionaryColumns, Map<String, String> noDictionaryConfig,
+      List<String> varLengthDictionaryColumns, StarTreeIndexSpec starTreeIndexSpec) {
     if (new File(outputPath).exists()) {
       throw new IllegalAccessError("path already exists:" + outputPath);
     }
@@ -75,10 +91,18 @@ public class RealtimeSegmentConverter {
     this.tableName = tableName;
     this.segmentName = segmentName;
     this.noDictionaryColumns = noDictionaryColumns;
+    this.noDictionaryConfig = noDictionaryConfig;
     this.varLengthDictionaryColumns = varLengthDictionaryColumns;
     this.starTreeIndexSpec = starTreeIndexSpec;
   }
 
+  /**
+   * Sets the no-dictionary INT/LONG columns to be written with frame-of-reference/delta encoding.
+   */
+  public void setFrameOfReferenceEncodingColumns(@Nullable List<String> frameOfReferenceEncodingColumns) {
+    this.frameOfReferenceEncodingColumns = frameOfReferenceEncodingColumns;
+  }
+
   public RealtimeSegmentConverter(MutableSegmentImpl realtimeSegment, String outputPath, Schema schema,
       String tableName, String timeColumnName, String segmentName, String sortedColumn) {
     this(realtimeSegment, outputPath, schema, tableName, timeColumnName, segmentName, sortedColumn, new ArrayList<>(),
@@ -101,6 +125,8 @@ public class RealtimeSegmentConverter {
     // is thrown) and thus the time validity check is explicitly disabled for
     // realtime segment generation
     genConfig.setCheckTimeColumnValidityDuringGeneration(false);
+    // The values are read column by column from the realtime segment (see RealtimeSegmentSegmentCreationDataSource)
+    genConfig.setNumColumnIndexingThreads(NUM_COLUMN_INDEXING_THREADS);
     if (invertedIndexColumns != null && !invertedIndexColumns.isEmpty()) {
       for (String column : invertedIndexColumns) {
         genConfig.createInvertedIndexForColumn(column);
@@ -110,6 +136,11 @@ public class RealtimeSegmentConverter {
       genConfig.setRawIndexCreationColumns(noDictionaryColumns);
       Map<String, ChunkCompressorFactory.CompressionType> columnToCompressionType = new HashMap<>();
       for (String column : noDictionaryColumns) {
+        String compressionType = noDictionaryConfig.get(column);
+        if (compressionType != null) {
+          columnToCompressionType.put(column, ChunkCompressorFactory.CompressionType.valueOf(compressionType));
+          continue;
+        }
         FieldSpec fieldSpec = dataSchema.getFieldSpecFor(column);
         if (fieldSpec.getFieldType().equals(FieldSpec.FieldType.METRIC)) {
           columnToCompressionType.put(column, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
@@ -118,6 +149,10 @@ public class RealtimeSegmentConverter {
       genConfig.setRawIndexCompressionType(columnToCompressionType);
     }
 
+    if (frameOfReferenceEncodingColumns != null) {
+      genConfig.setFrameOfReferenceEncodingColumns(frameOfReferenceEncodingColumns);
+    }
+
     if (varLengthDictionaryColumns != null) {
       genConfig.setVarLengthDictionaryColumns(varLengthDictionaryColumns);
     }
@@ -21,16 +21,19 @@ package org.apache.pinot.core.realtime.converter.stats;
 import org.apache.pinot.common.data.Schema;
 import org.apache.pinot.core.data.readers.RecordReader;
 import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.realtime.converter.RealtimeSegmentColumnReader;
 import org.apache.pinot.core.realtime.converter.RealtimeSegmentRecordReader;
-import org.apache.pinot.core.segment.creator.SegmentCreationDataSource;
+import org.apache.pinot.core.segment.creator.ColumnarSegmentCreationDataSource;
 import org.apache.pinot.core.segment.creator.SegmentPreIndexStatsContainer;
 import org.apache.pinot.core.segment.creator.StatsCollectorConfig;
 
 
 /**
  * Segment creation data source that is based on an in-memory realtime segment.
+ * <p>The values are provided column by column from the forward indexes of the realtime segment, so that the segment
+ * can be created without reading the records row by row.
  */
-public class RealtimeSegmentSegmentCreationDataSource implements SegmentCreationDataSource {
+public class RealtimeSegmentSegmentCreationDataSource implements ColumnarSegmentCreationDataSource {
   private final MutableSegmentImpl _realtimeSegment;
   private final RealtimeSegmentRecordReader _realtimeSegmentRecordReader;
   private final Schema _schema;
@@ -55,4 +58,10 @@ public class RealtimeSegmentSegmentCreationDataSource implements SegmentCreation
   public RecordReader getRecordReader() {
     return _realtimeSegmentRecordReader;
   }
+
+  @Override
+  public ColumnReader getColumnReader(String column) {
+    return new RealtimeSegmentColumnReader(_realtimeSegment, column,
+        _realtimeSegmentRecordReader.getSortedDocIdIterationOrder());
+  }
 }
@@ -18,64 +18,69 @@
  */
 package org.apache.pinot.core.realtime.impl.invertedindex;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Arrays;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
  * Real-time bitmap based inverted index reader which allows adding values on the fly.
- * <p>This class is thread-safe for single writer multiple readers.
+ * <p>This class is thread-safe for single writer multiple readers, and neither the writer nor the readers acquire any
+ * lock:
+ * <ul>
+ *   <li>
+ *     The writer appends the document ids into an append-only posting list for each dictionary id, and publishes the
+ *     number of document ids in the posting list after the document id is written.
+ *   </li>
+ *   <li>
+ *     The readers only read the published prefix of the posting list. The bitmap built from the posting list is cached
+ *     and shared by the following readers until more document ids are added, at which time the next reader only adds
+ *     the new document ids on top of a copy of the cached bitmap.
+ *   </li>
+ * </ul>
+ * <p>NOTE: the bitmaps returned by {@link #getDocIds(int)} are shared across readers and should not be modified.
  */
 public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableRoaringBitmap> {
-  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
-  private final ReentrantReadWriteLock.ReadLock _readLock;
-  private final ReentrantReadWriteLock.WriteLock _writeLock;
+  private static final int INITIAL_NUM_POSTING_LISTS = 16;
 
-  public RealtimeInvertedIndexReader() {
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
-  }
+  // NOTE: the array is only replaced by the writer when it needs to grow, and the readers might see a stale array or a
+  // null posting list for the newly added dictionary ids, which is the same as reading before the value is added
+  private volatile PostingList[] _postingLists = new PostingList[INITIAL_NUM_POSTING_LISTS];
 
   /**
    * Adds the document id to the bitmap of the given dictionary id.
+   * <p>Should be called by a single writer, with non-decreasing document ids.
    */
   public void add(int dictId, int docId) {
-    if (_bitmaps.size() == dictId) {
-      // Bitmap for the dictionary id does not exist, add a new bitmap into the list
-      ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
-      try {
-        _writeLock.lock();
-        _bitmaps.add(bitmap);
-      } finally {
-        _writeLock.unlock();
-      }
+    PostingList[] postingLists = _postingLists;
+    if (dictId >= postingLists.length) {
+      postingLists = Arrays.copyOf(postingLists, Math.max(dictId + 1, postingLists.length * 2));
+      _postingLists = postingLists;
+    }
+    PostingList postingList = postingLists[dictId];
+    if (postingList == null) {
+      // Bitmap for the dictionary id does not exist, add a new posting list
+      postingLists[dictId] = new PostingList(docId);
     } else {
-      // Bitmap for the dictionary id already exists, check and add document id into the bitmap
-      _bitmaps.get(dictId).checkAndAdd(docId);
+      postingList.add(docId);
     }
   }
 
   @Override
   public MutableRoaringBitmap getDocIds(int dictId) {
-    ThreadSafeMutableRoaringBitmap bitmap;
-    try {
-      _readLock.lock();
-      // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
-      // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
-      // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
-      // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
-      if (_bitmaps.size() <= dictId) {
-        return new MutableRoaringBitmap();
-      }
-      bitmap = _bitmaps.get(dictId);
-    } finally {
-      _readLock.unlock();
+    // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
+    // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
+    // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
+    // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
+    PostingList[] postingLists = _postingLists;
+    if (dictId >= postingLists.length) {
+      return new MutableRoaringBitmap();
     }
-    return bitmap.getMutableRoaringBitmap();
+    PostingList postingList = postingLists[dictId];
+    if (postingList == null) {
+      return new MutableRoaringBitmap();
+    }
+    return postingList.getBitmap();
   }
 
   @Override
@@ -83,26 +88,76 @@ public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableR
   }
 
   /**
-   * Helper wrapper class for {@link MutableRoaringBitmap} to make it thread-safe.
+   * Append-only posting list of the document ids for a dictionary id.
    */
-  private static class ThreadSafeMutableRoaringBitmap {
-    private MutableRoaringBitmap _mutableRoaringBitmap;
+  private static class PostingList {
+    // Only accessed by the writer
+    private int _lastDocId;
+
+    // The array is replaced when it needs to grow, and the values before the published size are never modified
+    private volatile int[] _docIds;
+    private volatile int _size;
 
-    public ThreadSafeMutableRoaringBitmap(int firstDocId) {
-      _mutableRoaringBitmap = new MutableRoaringBitmap();
-      _mutableRoaringBitmap.add(firstDocId);
+    // Cached bitmap for the first several document ids
+    private volatile Snapshot _snapshot;
+
+    PostingList(int firstDocId) {
+      _docIds = new int[]{firstDocId};
+      _size = 1;
+      _lastDocId = firstDocId;
     }
 
-    public void checkAndAdd(int docId) {
-      if (!_mutableRoaringBitmap.contains(docId)) {
-        synchronized (this) {
-          _mutableRoaringBitmap.add(docId);
-        }
+    void add(int docId) {
+      // Multi-valued column might contain duplicate values in the same document
+      if (docId == _lastDocId) {
+        return;
+      }
+      _lastDocId = docId;
+      int size = _size;
+      int[] docIds = _docIds;
+      if (size == docIds.length) {
+        docIds = Arrays.copyOf(docIds, size * 2);
+        _docIds = docIds;
       }
+      docIds[size] = docId;
+      // Publish the document id after it is written
+      _size = size + 1;
     }
 
-    public synchronized MutableRoaringBitmap getMutableRoaringBitmap() {
-      return _mutableRoaringBitmap.clone();
+    MutableRoaringBitmap getBitmap() {
+      // NOTE: read the size before the array, so that the array contains at least size values
+      int size = _size;
+      int[] docIds = _docIds;
+      Snapshot snapshot = _snapshot;
+      if (snapshot != null && snapshot._size >= size) {
+        return snapshot._bitmap;
+      }
+      MutableRoaringBitmap bitmap;
+      int startIndex;
+      if (snapshot != null) {
+        bitmap = snapshot._bitmap.clone();
+        startIndex = snapshot._size;
+      } else {
+        bitmap = new MutableRoaringBitmap();
+        startIndex = 0;
+      }
+      bitmap.addN(docIds, startIndex, size - startIndex);
+      // Racy update is fine because every snapshot is consistent, and a larger snapshot is preferred
+      Snapshot currentSnapshot = _snapshot;
+      if (currentSnapshot == null || currentSnapshot._size < size) {
+        _snapshot = new Snapshot(bitmap, size);
+      }
+      return bitmap;
+    }
+  }
+
+  private static class Snapshot {
+    final MutableRoaringBitmap _bitmap;
+    final int _size;
+
+    Snapshot(MutableRoaringBitmap bitmap, int size) {
+      _bitmap = bitmap;
+      _size = size;
     }
   }
 }
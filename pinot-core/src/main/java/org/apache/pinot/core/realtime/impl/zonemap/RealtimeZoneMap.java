@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.zonemap;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.core.common.predicate.RangePredicate;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
+
+
+/**
+ * Zone map for a single-value numeric column of a consuming segment, which is maintained incrementally while the
+ * documents are indexed.
+ * <p>Values for INT/LONG columns are tracked as long, and values for FLOAT/DOUBLE columns are tracked as double. The
+ * min/max values of each chunk are stored next to each other in one array, which grows as the documents are added.
+ * <p>This class is thread-safe for single writer multiple readers: the documents must be added in doc id order by the
+ * writer thread before they become queryable (i.e. before the number of indexed documents is published), so readers
+ * only access the chunks covered by the number of documents they observed. The min/max values of a chunk only widen,
+ * so a reader racing with the writer on the last chunk still gets a range covering all the documents it can see.
+ */
+public class RealtimeZoneMap implements ZoneMapReader {
+  // 1024 documents per chunk
+  public static final int DEFAULT_CHUNK_SIZE_BITS = 10;
+
+  private static final int INITIAL_NUM_CHUNKS = 16;
+
+  private final boolean _isIntegral;
+  private final int _chunkSizeBits;
+
+  // Min/max values of chunk i are stored at index 2 * i and 2 * i + 1
+  private volatile long[] _longMinMaxValues;
+  private volatile double[] _doubleMinMaxValues;
+
+  // Only accessed by the writer
+  private int _numChunks;
+
+  public RealtimeZoneMap(FieldSpec.DataType dataType) {
+    this(dataType, DEFAULT_CHUNK_SIZE_BITS);
+  }
+
+  public RealtimeZoneMap(FieldSpec.DataType dataType, int chunkSizeBits) {
+    Preconditions.checkArgument(isSupported(dataType), "Unsupported data type: %s", dataType);
+    _isIntegral = dataType == FieldSpec.DataType.INT || dataType == FieldSpec.DataType.LONG;
+    _chunkSizeBits = chunkSizeBits;
+    if (_isIntegral) {
+      _longMinMaxValues = new long[2 * INITIAL_NUM_CHUNKS];
+    } else {
+      _doubleMinMaxValues = new double[2 * INITIAL_NUM_CHUNKS];
+    }
+  }
+
+  /**
+   * Returns whether zone map can be maintained for the given data type.
+   */
+  public static boolean isSupported(FieldSpec.DataType dataType) {
+    switch (dataType) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Adds the value of the next document. Documents must be added in doc id order.
+   */
+  public void add(int docId, Number value) {
+    int chunkId = docId >>> _chunkSizeBits;
+    if (_isIntegral) {
+      long longValue = value.longValue();
+      long[] minMaxValues = _longMinMaxValues;
+      if (chunkId == _numChunks) {
+        if (2 * chunkId == minMaxValues.length) {
+          minMaxValues = Arrays.copyOf(minMaxValues, 2 * minMaxValues.length);
+        }
+        minMaxValues[2 * chunkId] = longValue;
+        minMaxValues[2 * chunkId + 1] = longValue;
+        _numChunks++;
+        // Publish the new chunk (and the new array if expanded)
+        _longMinMaxValues = minMaxValues;
+      } else {
+        if (longValue < minMaxValues[2 * chunkId]) {
+          minMaxValues[2 * chunkId] = longValue;
+        }
+        if (longValue > minMaxValues[2 * chunkId + 1]) {
+          minMaxValues[2 * chunkId + 1] = longValue;
+        }
+      }
+    } else {
+      double doubleValue = value.doubleValue();
+      double[] minMaxValues = _doubleMinMaxValues;
+      if (chunkId == _numChunks) {
+        if (2 * chunkId == minMaxValues.length) {
+          minMaxValues = Arrays.copyOf(minMaxValues, 2 * minMaxValues.length);
+        }
+        // Start with an empty range so that NaN (which never matches a range) is not tracked
+        minMaxValues[2 * chunkId] = Double.POSITIVE_INFINITY;
+        minMaxValues[2 * chunkId + 1] = Double.NEGATIVE_INFINITY;
+        _numChunks++;
+        // Publish the new chunk (and the new array if expanded)
+        _doubleMinMaxValues = minMaxValues;
+      }
+      if (doubleValue < minMaxValues[2 * chunkId]) {
+        minMaxValues[2 * chunkId] = doubleValue;
+      }
+      if (doubleValue > minMaxValues[2 * chunkId + 1]) {
+        minMaxValues[2 * chunkId + 1] = doubleValue;
+      }
+    }
+  }
+
+  @Override
+  public int getChunkSizeBits() {
+    return _chunkSizeBits;
+  }
+
+  @Nullable
+  @Override
+  public boolean[] getMatchingChunks(RangePredicate rangePredicate, int numDocs) {
+    int numChunks = (int) (((long) numDocs + (1 << _chunkSizeBits) - 1) >>> _chunkSizeBits);
+    String lowerBoundary = rangePredicate.getLowerBoundary();
+    String upperBoundary = rangePredicate.getUpperBoundary();
+    boolean hasLowerBoundary = !lowerBoundary.equals(RangePredicate.UNBOUNDED);
+    boolean hasUpperBoundary = !upperBoundary.equals(RangePredicate.UNBOUNDED);
+    boolean includeLowerBoundary = rangePredicate.includeLowerBoundary();
+    boolean includeUpperBoundary = rangePredicate.includeUpperBoundary();
+    boolean[] matchingChunks = new boolean[numChunks];
+
+    if (_isIntegral) {
+      long lower;
+      long upper;
+      try {
+        lower = hasLowerBoundary ? Long.parseLong(lowerBoundary) : Long.MIN_VALUE;
+        upper = hasUpperBoundary ? Long.parseLong(upperBoundary) : Long.MAX_VALUE;
+      } catch (NumberFormatException e) {
+        // Boundaries not in the long format (e.g. decimal boundaries on INT column), cannot prune
+        return null;
+      }
+      long[] minMaxValues = _longMinMaxValues;
+      for (int i = 0; i < numChunks; i++) {
+        long min = minMaxValues[2 * i];
+        long max = minMaxValues[2 * i + 1];
+        matchingChunks[i] =
+            (!hasLowerBoundary || max > lower || (includeLowerBoundary && max == lower)) && (!hasUpperBoundary
+                || min < upper || (includeUpperBoundary && min == upper));
+      }
+    } else {
+      double lower;
+      double upper;
+      try {
+        lower = hasLowerBoundary ? Double.parseDouble(lowerBoundary) : Double.NEGATIVE_INFINITY;
+        upper = hasUpperBoundary ? Double.parseDouble(upperBoundary) : Double.POSITIVE_INFINITY;
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      double[] minMaxValues = _doubleMinMaxValues;
+      for (int i = 0; i < numChunks; i++) {
+        double min = minMaxValues[2 * i];
+        double max = minMaxValues[2 * i + 1];
+        matchingChunks[i] =
+            (!hasLowerBoundary || max > lower || (includeLowerBoundary && max == lower)) && (!hasUpperBoundary
+                || min < upper || (includeUpperBoundary && min == upper));
+      }
+    }
+    return matchingChunks;
+  }
+}
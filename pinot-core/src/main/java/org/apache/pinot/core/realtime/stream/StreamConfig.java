@@ -48,6 +48,7 @@ public class StreamConfig {
   private static final long DEFAULT_FLUSH_THRESHOLD_TIME = TimeUnit.MILLISECONDS.convert(6, TimeUnit.HOURS);
   private static final long DEFAULT_DESIRED_SEGMENT_SIZE_BYTES = 200 * 1024 * 1024; // 200M
   private static final int DEFAULT_FLUSH_AUTOTUNE_INITIAL_ROWS = 100_000;
+  private static final int DEFAULT_DECODER_NUM_THREADS = 0; // Decode on the consumer thread
   private static final String DEFAULT_CONSUMER_FACTORY_CLASS_NAME_STRING =
       "org.apache.pinot.core.realtime.impl.kafka.KafkaConsumerFactory";
 
@@ -71,6 +72,8 @@ public class StreamConfig {
   final private long _flushSegmentDesiredSizeBytes;
   final private int _flushAutotuneInitialRows; // initial num rows to use for SegmentSizeBasedFlushThresholdUpdater
 
+  final private int _decoderNumThreads;
+
   final private String _groupId;
 
   final private Map<String, String> _streamConfigMap = new HashMap<>();
@@ -212,6 +215,18 @@ public class StreamConfig {
     }
     _flushAutotuneInitialRows = autotuneInitialRows > 0 ? autotuneInitialRows : DEFAULT_FLUSH_AUTOTUNE_INITIAL_ROWS;
 
+    int decoderNumThreads = DEFAULT_DECODER_NUM_THREADS;
+    String decoderNumThreadsValue = streamConfigMap.get(StreamConfigProperties.DECODER_NUM_THREADS);
+    if (decoderNumThreadsValue != null) {
+      try {
+        decoderNumThreads = Integer.parseInt(decoderNumThreadsValue);
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while parsing {}:{}, defaulting to {}",
+            StreamConfigProperties.DECODER_NUM_THREADS, decoderNumThreadsValue, DEFAULT_DECODER_NUM_THREADS, e);
+      }
+    }
+    _decoderNumThreads = Math.max(decoderNumThreads, 0);
+
     String groupIdKey = StreamConfigProperties.constructStreamProperty(_type, StreamConfigProperties.GROUP_ID);
     _groupId = streamConfigMap.get(groupIdKey);
 
@@ -298,6 +313,18 @@ public class StreamConfig {
     return DEFAULT_FLUSH_AUTOTUNE_INITIAL_ROWS;
   }
 
+  /**
+   * Returns the number of threads to decode and transform the consumed messages, or 0 to decode and transform them on
+   * the consumer thread.
+   */
+  public int getDecoderNumThreads() {
+    return _decoderNumThreads;
+  }
+
+  public static int getDefaultDecoderNumThreads() {
+    return DEFAULT_DECODER_NUM_THREADS;
+  }
+
   public String getGroupId() {
     return _groupId;
   }
@@ -313,7 +340,8 @@ public class StreamConfig {
         + _offsetCriteria + '\'' + ", _connectionTimeoutMillis=" + _connectionTimeoutMillis + ", _fetchTimeoutMillis="
         + _fetchTimeoutMillis + ", _flushThresholdRows=" + _flushThresholdRows + ", _flushThresholdTimeMillis="
         + _flushThresholdTimeMillis + ", _flushSegmentDesiredSizeBytes=" + _flushSegmentDesiredSizeBytes
-        + ", _flushAutotuneInitialRows=" + _flushAutotuneInitialRows + ", _decoderClass='" + _decoderClass
+        + ", _flushAutotuneInitialRows=" + _flushAutotuneInitialRows + ", _decoderNumThreads=" + _decoderNumThreads
+        + ", _decoderClass='" + _decoderClass
         + '\'' + ", _decoderProperties=" + _decoderProperties + ", _groupId='" + _groupId + '}';
   }
 
@@ -335,6 +363,7 @@ public class StreamConfig {
         .isEqual(_flushThresholdTimeMillis, that._flushThresholdTimeMillis) && EqualityUtils
         .isEqual(_flushSegmentDesiredSizeBytes, that._flushSegmentDesiredSizeBytes) && EqualityUtils
         .isEqual(_flushAutotuneInitialRows, that._flushAutotuneInitialRows) && EqualityUtils
+        .isEqual(_decoderNumThreads, that._decoderNumThreads) && EqualityUtils
         .isEqual(_type, that._type) && EqualityUtils.isEqual(_topicName, that._topicName) && EqualityUtils
         .isEqual(_consumerTypes, that._consumerTypes) && EqualityUtils
         .isEqual(_consumerFactoryClassName, that._consumerFactoryClassName) && EqualityUtils
@@ -356,6 +385,7 @@ public class StreamConfig {
     result = EqualityUtils.hashCodeOf(result, _flushThresholdTimeMillis);
     result = EqualityUtils.hashCodeOf(result, _flushSegmentDesiredSizeBytes);
     result = EqualityUtils.hashCodeOf(result, _flushAutotuneInitialRows);
+    result = EqualityUtils.hashCodeOf(result, _decoderNumThreads);
     result = EqualityUtils.hashCodeOf(result, _decoderClass);
     result = EqualityUtils.hashCodeOf(result, _decoderProperties);
     result = EqualityUtils.hashCodeOf(result, _groupId);
@@ -97,6 +97,14 @@ public class StreamConfigProperties {
   // Time threshold that controller will wait for the segment to be built by the server
   public static final String SEGMENT_COMMIT_TIMEOUT_SECONDS = "realtime.segment.commit.timeoutSeconds";
 
+  /**
+   * Number of threads used by each low level consumer to decode and transform the consumed messages. When set to a
+   * positive value, the messages are decoded and transformed on a worker pool while the consumer thread indexes the
+   * already transformed rows in the offset order. By default (0), the messages are decoded, transformed and indexed on
+   * the consumer thread.
+   */
+  public static final String DECODER_NUM_THREADS = "realtime.decoder.numThreads";
+
   /**
    * Helper method to create a stream specific property
    */
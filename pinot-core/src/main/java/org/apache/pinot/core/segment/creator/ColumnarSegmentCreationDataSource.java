@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+
+
+/**
+ * Data source used to build segments, which can also provide the values column by column. With a columnar data source,
+ * the segment is created one column at a time (and multiple columns in parallel) without reading the records row by
+ * row.
+ * <p>NOTE: the values are indexed as is, so they should already be transformed.
+ */
+public interface ColumnarSegmentCreationDataSource extends SegmentCreationDataSource {
+
+  /**
+   * Returns the reader for the values of the given column. Each reader is only accessed by a single thread.
+   */
+  ColumnReader getColumnReader(String column);
+
+  /**
+   * Reader for the values of a column, where the doc ids are the ones of the segment to be created.
+   */
+  interface ColumnReader {
+
+    /**
+     * Returns the dictionary for the dictionary ids returned by {@link #getDictId(int)} and
+     * {@link #getDictIds(int, int[])}, or {@code null} if the values are not dictionary-encoded. The dictionary does
+     * not need to be sorted.
+     */
+    @Nullable
+    Dictionary getDictionary();
+
+    /**
+     * For single-value column with dictionary, returns the dictionary id for the document.
+     */
+    int getDictId(int docId);
+
+    /**
+     * For multi-value column with dictionary, fills the dictionary ids for the document into the buffer, and returns
+     * the number of values.
+     */
+    int getDictIds(int docId, int[] dictIdBuffer);
+
+    /**
+     * For single-value column, returns the value for the document.
+     */
+    Object getValue(int docId);
+  }
+}
@@ -53,6 +53,15 @@ public interface SegmentCreator extends Closeable {
    */
   void indexRow(GenericRow row);
 
+  /**
+   * Adds all the values of a column to the index. This method can be called concurrently for different columns, but
+   * should not be mixed with {@link #indexRow(GenericRow)}.
+   *
+   * @param columnName The name of the column to index
+   * @param columnReader The reader for the values of the column
+   */
+  void indexColumn(String columnName, ColumnarSegmentCreationDataSource.ColumnReader columnReader);
+
   /**
    * Sets the name of the segment.
    *
@@ -44,6 +44,7 @@ import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
 import org.apache.pinot.core.io.util.PinotDataBitSet;
 import org.apache.pinot.core.segment.creator.ColumnIndexCreationInfo;
+import org.apache.pinot.core.segment.creator.ColumnarSegmentCreationDataSource;
 import org.apache.pinot.core.segment.creator.ForwardIndexCreator;
 import org.apache.pinot.core.segment.creator.InvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.MultiValueForwardIndexCreator;
@@ -52,12 +53,15 @@ import org.apache.pinot.core.segment.creator.SegmentIndexCreationInfo;
 import org.apache.pinot.core.segment.creator.SingleValueForwardIndexCreator;
 import org.apache.pinot.core.segment.creator.SingleValueRawIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.MultiValueUnsortedForwardIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueFixedBitRawIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueSortedForwardIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueUnsortedForwardIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.inv.BitmapRangeIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OnHeapBitmapInvertedIndexCreator;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.startree.hll.HllConfig;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
@@ -81,6 +85,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new HashMap<>();
   private Map<String, ForwardIndexCreator> _forwardIndexCreatorMap = new HashMap<>();
   private Map<String, InvertedIndexCreator> _invertedIndexCreatorMap = new HashMap<>();
+  private Map<String, InvertedIndexCreator> _rangeIndexCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
   private File _indexDir;
@@ -115,6 +120,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           "Cannot create inverted index for column: %s because it is not in schema", columnName);
       invertedIndexColumns.add(columnName);
     }
+    Set<String> rangeIndexColumns = new HashSet<>();
+    for (String columnName : config.getRangeIndexCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create range index for column: %s because it is not in schema", columnName);
+      rangeIndexColumns.add(columnName);
+    }
 
     // Initialize creators for dictionary, forward index and inverted index
     for (FieldSpec fieldSpec : fieldSpecs) {
@@ -173,6 +184,13 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
                     indexCreationInfo.getTotalNumberOfEntries()));
           }
         }
+
+        // Initialize range index creator; only for single-value column, skip creating range index if sorted
+        if (rangeIndexColumns.contains(columnName) && fieldSpec.isSingleValueField()
+            && !indexCreationInfo.isSorted()) {
+          _rangeIndexCreatorMap
+              .put(columnName, new BitmapRangeIndexCreator(_indexDir, columnName, cardinality, totalDocs));
+        }
       } else {
         // Create raw index
 
@@ -181,14 +199,24 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             columnName);
         Preconditions.checkState(!invertedIndexColumns.contains(columnName),
             "Cannot create inverted index for raw index column: %s", columnName);
-
-        ChunkCompressorFactory.CompressionType compressionType =
-            getColumnCompressionType(segmentCreationSpec, fieldSpec);
+        Preconditions.checkState(!rangeIndexColumns.contains(columnName),
+            "Cannot create range index for raw index column: %s", columnName);
 
         // Initialize forward index creator
-        _forwardIndexCreatorMap.put(columnName,
-            getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, fieldSpec.getDataType(), totalDocs,
-                indexCreationInfo.getLengthOfLongestEntry()));
+        FieldSpec.DataType dataType = fieldSpec.getDataType();
+        if (segmentCreationSpec.getFrameOfReferenceEncodingColumns().contains(columnName)) {
+          Preconditions.checkState(dataType == FieldSpec.DataType.INT || dataType == FieldSpec.DataType.LONG,
+              "Frame of reference encoding is only supported for INT/LONG column, got: %s for column: %s", dataType,
+              columnName);
+          _forwardIndexCreatorMap.put(columnName, new SingleValueFixedBitRawIndexCreator(_indexDir, columnName,
+              totalDocs, dataType == FieldSpec.DataType.INT ? Integer.BYTES : Long.BYTES));
+        } else {
+          ChunkCompressorFactory.CompressionType compressionType =
+              getColumnCompressionType(segmentCreationSpec, fieldSpec);
+          _forwardIndexCreatorMap.put(columnName,
+              getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, dataType, totalDocs,
+                  indexCreationInfo.getLengthOfLongestEntry()));
+        }
       }
     }
   }
@@ -269,6 +297,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           if (_invertedIndexCreatorMap.containsKey(columnName)) {
             _invertedIndexCreatorMap.get(columnName).add(dictId);
           }
+          if (_rangeIndexCreatorMap.containsKey(columnName)) {
+            _rangeIndexCreatorMap.get(columnName).add(dictId);
+          }
         } else {
           ((SingleValueRawIndexCreator) _forwardIndexCreatorMap.get(columnName))
               .index(docIdCounter, columnValueToIndex);
@@ -284,6 +315,70 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     docIdCounter++;
   }
 
+  @Override
+  public void indexColumn(String columnName, ColumnarSegmentCreationDataSource.ColumnReader columnReader) {
+    ForwardIndexCreator forwardIndexCreator = _forwardIndexCreatorMap.get(columnName);
+    Preconditions.checkState(forwardIndexCreator != null, "Missing forward index creator for column: %s", columnName);
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    if (dictionaryCreator == null) {
+      // Raw index
+      SingleValueRawIndexCreator rawIndexCreator = (SingleValueRawIndexCreator) forwardIndexCreator;
+      for (int docId = 0; docId < totalDocs; docId++) {
+        rawIndexCreator.index(docId, columnReader.getValue(docId));
+      }
+      return;
+    }
+
+    // Map the dictionary ids of the source dictionary to the dictionary ids of the segment dictionary up-front, so
+    // that the values do not need to be looked up for each document
+    Dictionary sourceDictionary = columnReader.getDictionary();
+    int[] dictIdMap = null;
+    if (sourceDictionary != null) {
+      int sourceCardinality = sourceDictionary.length();
+      dictIdMap = new int[sourceCardinality];
+      for (int i = 0; i < sourceCardinality; i++) {
+        dictIdMap[i] = dictionaryCreator.indexOfSV(sourceDictionary.get(i));
+      }
+    }
+
+    InvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+    if (schema.getFieldSpecFor(columnName).isSingleValueField()) {
+      SingleValueForwardIndexCreator singleValueForwardIndexCreator =
+          (SingleValueForwardIndexCreator) forwardIndexCreator;
+      InvertedIndexCreator rangeIndexCreator = _rangeIndexCreatorMap.get(columnName);
+      for (int docId = 0; docId < totalDocs; docId++) {
+        int dictId;
+        if (dictIdMap != null) {
+          dictId = dictIdMap[columnReader.getDictId(docId)];
+        } else {
+          dictId = dictionaryCreator.indexOfSV(columnReader.getValue(docId));
+        }
+        singleValueForwardIndexCreator.index(docId, dictId);
+        if (invertedIndexCreator != null) {
+          invertedIndexCreator.add(dictId);
+        }
+        if (rangeIndexCreator != null) {
+          rangeIndexCreator.add(dictId);
+        }
+      }
+    } else {
+      Preconditions.checkState(dictIdMap != null, "Missing source dictionary for multi-value column: %s", columnName);
+      MultiValueForwardIndexCreator multiValueForwardIndexCreator = (MultiValueForwardIndexCreator) forwardIndexCreator;
+      int[] dictIdBuffer = new int[indexCreationInfoMap.get(columnName).getMaxNumberOfMultiValueElements()];
+      for (int docId = 0; docId < totalDocs; docId++) {
+        int numValues = columnReader.getDictIds(docId, dictIdBuffer);
+        int[] dictIds = new int[numValues];
+        for (int i = 0; i < numValues; i++) {
+          dictIds[i] = dictIdMap[dictIdBuffer[i]];
+        }
+        multiValueForwardIndexCreator.index(docId, dictIds);
+        if (invertedIndexCreator != null) {
+          invertedIndexCreator.add(dictIds, numValues);
+        }
+      }
+    }
+  }
+
   @Override
   public void setSegmentName(String segmentName) {
     this.segmentName = segmentName;
@@ -295,6 +390,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (InvertedIndexCreator invertedIndexCreator : _invertedIndexCreatorMap.values()) {
       invertedIndexCreator.seal();
     }
+    for (InvertedIndexCreator rangeIndexCreator : _rangeIndexCreatorMap.values()) {
+      rangeIndexCreator.seal();
+    }
     writeMetadata();
   }
 
@@ -396,6 +494,16 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       addColumnMetadataInfo(properties, column, columnIndexCreationInfo, totalDocs, totalRawDocs, totalAggDocs,
           schema.getFieldSpecFor(column), _dictionaryCreatorMap.containsKey(column), dictionaryElementSize,
           hasInvertedIndex, hllOriginColumn);
+
+      // Record the encoding or the chunk compression type for raw index columns
+      if (!_dictionaryCreatorMap.containsKey(column)) {
+        if (_forwardIndexCreatorMap.get(column) instanceof SingleValueFixedBitRawIndexCreator) {
+          properties.setProperty(getKeyFor(column, HAS_FRAME_OF_REFERENCE_ENCODING), true);
+        } else {
+          properties.setProperty(getKeyFor(column, COMPRESSION_TYPE),
+              getColumnCompressionType(config, schema.getFieldSpecFor(column)).name());
+        }
+      }
     }
 
     properties.save();
@@ -660,6 +768,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   public void close()
       throws IOException {
     FileUtils.close(Iterables
-        .concat(_dictionaryCreatorMap.values(), _forwardIndexCreatorMap.values(), _invertedIndexCreatorMap.values()));
+        .concat(_dictionaryCreatorMap.values(), _forwardIndexCreatorMap.values(), _invertedIndexCreatorMap.values(),
+            _rangeIndexCreatorMap.values()));
   }
 }
@@ -23,6 +23,7 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,6 +32,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.data.FieldSpec;
 import org.apache.pinot.common.data.MetricFieldSpec;
@@ -45,6 +49,7 @@ import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.segment.creator.ColumnIndexCreationInfo;
 import org.apache.pinot.core.segment.creator.ColumnStatistics;
+import org.apache.pinot.core.segment.creator.ColumnarSegmentCreationDataSource;
 import org.apache.pinot.core.segment.creator.ForwardIndexType;
 import org.apache.pinot.core.segment.creator.InvertedIndexType;
 import org.apache.pinot.core.segment.creator.RecordReaderSegmentCreationDataSource;
@@ -80,6 +85,8 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
   private SegmentGeneratorConfig config;
   private RecordReader recordReader;
+  // Set if the data source can provide the values column by column
+  private ColumnarSegmentCreationDataSource columnarDataSource;
   private SegmentPreIndexStatsContainer segmentStats;
   private Map<String, ColumnIndexCreationInfo> indexCreationInfoMap;
   private SegmentCreator indexCreator;
@@ -122,6 +129,9 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     this.createStarTree = config.isEnableStarTreeIndex();
     recordReader = dataSource.getRecordReader();
     Preconditions.checkState(recordReader.hasNext(), "No record in data source");
+    if (dataSource instanceof ColumnarSegmentCreationDataSource) {
+      columnarDataSource = (ColumnarSegmentCreationDataSource) dataSource;
+    }
     dataSchema = recordReader.getSchema();
 
     if (config.getHllConfig() != null) {
@@ -332,19 +342,23 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       indexCreator.init(config, segmentIndexCreationInfo, indexCreationInfoMap, dataSchema, tempIndexDir);
 
       // Build the index
-      recordReader.rewind();
       LOGGER.info("Start building IndexCreator!");
-      GenericRow readRow = null;
-      while (recordReader.hasNext()) {
-        long start = System.currentTimeMillis();
-        readRow = GenericRow.createOrReuseRow(readRow);
-        GenericRow transformedRow = _recordTransformer.transform(recordReader.next(readRow));
-        long stop = System.currentTimeMillis();
-        totalRecordReadTime += (stop - start);
-        if (transformedRow != null) {
-          indexCreator.indexRow(transformedRow);
-          long stop1 = System.currentTimeMillis();
-          totalIndexTime += (stop1 - stop);
+      if (columnarDataSource != null) {
+        indexColumns();
+      } else {
+        recordReader.rewind();
+        GenericRow readRow = null;
+        while (recordReader.hasNext()) {
+          long start = System.currentTimeMillis();
+          readRow = GenericRow.createOrReuseRow(readRow);
+          GenericRow transformedRow = _recordTransformer.transform(recordReader.next(readRow));
+          long stop = System.currentTimeMillis();
+          totalRecordReadTime += (stop - start);
+          if (transformedRow != null) {
+            indexCreator.indexRow(transformedRow);
+            long stop1 = System.currentTimeMillis();
+            totalIndexTime += (stop1 - stop);
+          }
         }
       }
     } catch (Exception e) {
@@ -358,6 +372,45 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     handlePostCreation();
   }
 
+  /**
+   * Indexes the values from the columnar data source one column at a time, and multiple columns in parallel if
+   * configured.
+   */
+  private void indexColumns()
+      throws Exception {
+    long start = System.currentTimeMillis();
+    List<String> columns = new ArrayList<>();
+    for (FieldSpec fieldSpec : dataSchema.getAllFieldSpecs()) {
+      String column = fieldSpec.getName();
+      if (!dataSchema.isVirtualColumn(column)) {
+        columns.add(column);
+      }
+    }
+    int numThreads = Math.min(config.getNumColumnIndexingThreads(), columns.size());
+    if (numThreads <= 1) {
+      for (String column : columns) {
+        indexCreator.indexColumn(column, columnarDataSource.getColumnReader(column));
+      }
+    } else {
+      ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+      try {
+        List<Future<?>> futures = new ArrayList<>(columns.size());
+        for (String column : columns) {
+          futures.add(executorService
+              .submit(() -> indexCreator.indexColumn(column, columnarDataSource.getColumnReader(column))));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        executorService.shutdownNow();
+      }
+    }
+    totalIndexTime += System.currentTimeMillis() - start;
+    LOGGER.info("Indexed {} columns with {} threads in {}ms", columns.size(), Math.max(numThreads, 1),
+        System.currentTimeMillis() - start);
+  }
+
   private void handlePostCreation()
       throws Exception {
     ColumnStatistics timeColumnStatistics = segmentStats.getColumnProfileFor(config.getTimeColumnName());
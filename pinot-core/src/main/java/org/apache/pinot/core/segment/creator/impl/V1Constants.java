@@ -61,6 +61,7 @@ public class V1Constants {
     public static final String UNSORTED_MV_FORWARD_INDEX_FILE_EXTENSION = ".mv.fwd";
     public static final String BITMAP_INVERTED_INDEX_FILE_EXTENSION = ".bitmap.inv";
     public static final String BLOOM_FILTER_FILE_EXTENSION = ".bloom";
+    public static final String BITMAP_RANGE_INDEX_FILE_EXTENSION = ".bitmap.range";
   }
 
   public static class MetadataKeys {
@@ -137,6 +138,8 @@ public class V1Constants {
       public static final String PARTITION_VALUES = "partitionValues";
       public static final String DATETIME_FORMAT = "datetimeFormat";
       public static final String DATETIME_GRANULARITY = "datetimeGranularity";
+      public static final String COMPRESSION_TYPE = "compressionType";
+      public static final String HAS_FRAME_OF_REFERENCE_ENCODING = "hasFrameOfReferenceEncoding";
 
       private static final String COLUMN_PROPS_KEY_PREFIX = "column.";
 
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.fwd;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.pinot.core.io.writer.impl.v1.FixedBitChunkSingleValueWriter;
+import org.apache.pinot.core.segment.creator.BaseSingleValueRawIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+
+
+/**
+ * Implementation of {@link org.apache.pinot.core.segment.creator.SingleValueRawIndexCreator}
+ * <ul>
+ *   <li> Uses {@link FixedBitChunkSingleValueWriter} as the underlying writer. </li>
+ *   <li> Should be used for writing int & long data with frame-of-reference/delta encoding and bit-packing. </li>
+ * </ul>
+ */
+public class SingleValueFixedBitRawIndexCreator extends BaseSingleValueRawIndexCreator {
+  private static final int NUM_DOCS_PER_CHUNK = 1000;
+
+  final FixedBitChunkSingleValueWriter _indexWriter;
+
+  /**
+   * Constructor for the class
+   *
+   * @param baseIndexDir Index directory
+   * @param column Name of column to index
+   * @param totalDocs Total number of documents to index
+   * @param sizeOfEntry Size of entry (in bytes)
+   * @throws IOException
+   */
+  public SingleValueFixedBitRawIndexCreator(File baseIndexDir, String column, int totalDocs, int sizeOfEntry)
+      throws IOException {
+    File file = new File(baseIndexDir, column + V1Constants.Indexes.RAW_SV_FORWARD_INDEX_FILE_EXTENSION);
+    _indexWriter = new FixedBitChunkSingleValueWriter(file, totalDocs, NUM_DOCS_PER_CHUNK, sizeOfEntry);
+  }
+
+  @Override
+  public void index(int docId, int valueToIndex) {
+    _indexWriter.setInt(docId, valueToIndex);
+  }
+
+  @Override
+  public void index(int docId, long valueToIndex) {
+    _indexWriter.setLong(docId, valueToIndex);
+  }
+
+  @Override
+  public void index(int docId, Object valueToIndex) {
+    if (valueToIndex instanceof Integer) {
+      index(docId, ((Integer) valueToIndex).intValue());
+    } else if (valueToIndex instanceof Long) {
+      index(docId, ((Long) valueToIndex).longValue());
+    } else {
+      throw new IllegalArgumentException(
+          "Illegal argument type for fixed bit raw indexing: " + valueToIndex.getClass().getName());
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _indexWriter.close();
+  }
+}
@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.inv;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.segment.creator.InvertedIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Bitmap based range index creator for dictionary-encoded columns.
+ * <p>The dictionary ids are split into a small number of contiguous ranges, each holding roughly the same number of
+ * values, and one bitmap is stored per range. Because the dictionary is sorted, a RANGE predicate maps to a contiguous
+ * range of dictionary ids, which can be solved by OR-ing the bitmaps of the fully covered ranges and scanning only the
+ * documents of the (at most 2) partially covered ranges at the edges.
+ * <pre>
+ * Layout for bitmap range index:
+ * |-------------------------------------------------------------------------|
+ * |                                 Version                                 |
+ * |                             Number of ranges                            |
+ * |-------------------------------------------------------------------------|
+ * |                   Start dictionary id of 1st range (0)                  |
+ * |                    Start dictionary id of 2nd range                     |
+ * |                                   ...                                   |
+ * |                    Start dictionary id of last range                    |
+ * |          End dictionary id of last range (exclusive, cardinality)       |
+ * |-------------------------------------------------------------------------|
+ * |                    Start offset of 1st bitmap                           |
+ * |    End offset of 1st bitmap (exclusive) / Start offset of 2nd bitmap    |
+ * |                                   ...                                   |
+ * |                  End offset of last bitmap (exclusive)                  |
+ * |-------------------------------------------------------------------------|
+ * |                           Data for 1st bitmap                           |
+ * |                                   ...                                   |
+ * |                           Data for last bitmap                          |
+ * |-------------------------------------------------------------------------|
+ * </pre>
+ */
+public final class BitmapRangeIndexCreator implements InvertedIndexCreator {
+  public static final int VERSION = 1;
+  public static final int DEFAULT_NUM_RANGES = 20;
+
+  private final File _rangeIndexFile;
+  private final int _cardinality;
+  private final int _numRanges;
+  // Dictionary id and document id for each value added
+  private final int[] _dictIds;
+  private final int[] _docIds;
+  private int _nextDocId;
+  private int _nextValueId;
+
+  public BitmapRangeIndexCreator(File indexDir, String columnName, int cardinality, int numValues) {
+    this(indexDir, columnName, cardinality, numValues, DEFAULT_NUM_RANGES);
+  }
+
+  /**
+   * Constructor for the creator.
+   *
+   * @param indexDir Index directory
+   * @param columnName Column name
+   * @param cardinality Cardinality of the column
+   * @param numValues Total number of values (number of documents for single-value column)
+   * @param numRanges Maximum number of ranges
+   */
+  public BitmapRangeIndexCreator(File indexDir, String columnName, int cardinality, int numValues, int numRanges) {
+    Preconditions.checkArgument(numRanges > 0, "Number of ranges must be positive, got: %s", numRanges);
+    _rangeIndexFile = new File(indexDir, columnName + V1Constants.Indexes.BITMAP_RANGE_INDEX_FILE_EXTENSION);
+    _cardinality = cardinality;
+    _numRanges = Math.max(Math.min(numRanges, cardinality), 1);
+    _dictIds = new int[numValues];
+    _docIds = new int[numValues];
+  }
+
+  @Override
+  public void add(int dictId) {
+    _dictIds[_nextValueId] = dictId;
+    _docIds[_nextValueId++] = _nextDocId++;
+  }
+
+  @Override
+  public void add(int[] dictIds, int length) {
+    for (int i = 0; i < length; i++) {
+      _dictIds[_nextValueId] = dictIds[i];
+      _docIds[_nextValueId++] = _nextDocId;
+    }
+    _nextDocId++;
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    int[] rangeStartDictIds = computeRanges();
+    int numRanges = rangeStartDictIds.length - 1;
+
+    // Map each dictionary id to its range, then build one bitmap per range
+    int[] rangeIds = new int[_cardinality];
+    for (int rangeId = 0; rangeId < numRanges; rangeId++) {
+      for (int dictId = rangeStartDictIds[rangeId]; dictId < rangeStartDictIds[rangeId + 1]; dictId++) {
+        rangeIds[dictId] = rangeId;
+      }
+    }
+    MutableRoaringBitmap[] bitmaps = new MutableRoaringBitmap[numRanges];
+    for (int i = 0; i < numRanges; i++) {
+      bitmaps[i] = new MutableRoaringBitmap();
+    }
+    for (int i = 0; i < _nextValueId; i++) {
+      bitmaps[rangeIds[_dictIds[i]]].add(_docIds[i]);
+    }
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(_rangeIndexFile)))) {
+      out.writeInt(VERSION);
+      out.writeInt(numRanges);
+
+      // Write range boundaries
+      for (int rangeStartDictId : rangeStartDictIds) {
+        out.writeInt(rangeStartDictId);
+      }
+
+      // Write bitmap offsets
+      int bitmapOffset = (2 + 2 * (numRanges + 1)) * Integer.BYTES;
+      out.writeInt(bitmapOffset);
+      for (MutableRoaringBitmap bitmap : bitmaps) {
+        bitmap.runOptimize();
+        bitmapOffset += bitmap.serializedSizeInBytes();
+        // Check for int overflow
+        Preconditions.checkState(bitmapOffset > 0, "Range index file: %s exceeds 2GB limit", _rangeIndexFile);
+        out.writeInt(bitmapOffset);
+      }
+
+      // Write bitmap data
+      for (MutableRoaringBitmap bitmap : bitmaps) {
+        bitmap.serialize(out);
+      }
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(_rangeIndexFile);
+      throw e;
+    }
+  }
+
+  /**
+   * Computes the range boundaries so that each range holds roughly the same number of values. A dictionary id never
+   * spans two ranges, so a range holding a very frequent value can be larger than the others.
+   *
+   * @return Array of size (number of ranges + 1) with the start dictionary id of each range, and the cardinality as
+   *         the exclusive end of the last range
+   */
+  private int[] computeRanges() {
+    int[] valueCounts = new int[_cardinality];
+    for (int i = 0; i < _nextValueId; i++) {
+      valueCounts[_dictIds[i]]++;
+    }
+
+    int[] rangeStartDictIds = new int[_numRanges + 1];
+    int numRanges = 0;
+    long numValuesPerRange = Math.max((_nextValueId + _numRanges - 1) / _numRanges, 1);
+    long numValuesInRange = 0;
+    for (int dictId = 0; dictId < _cardinality; dictId++) {
+      if (numValuesInRange >= numValuesPerRange && numRanges < _numRanges - 1) {
+        rangeStartDictIds[++numRanges] = dictId;
+        numValuesInRange = 0;
+      }
+      numValuesInRange += valueCounts[dictId];
+    }
+    numRanges++;
+    rangeStartDictIds[numRanges] = _cardinality;
+
+    if (numRanges == _numRanges) {
+      return rangeStartDictIds;
+    }
+    int[] trimmedRangeStartDictIds = new int[numRanges + 1];
+    System.arraycopy(rangeStartDictIds, 0, trimmedRangeStartDictIds, 0, numRanges + 1);
+    return trimmedRangeStartDictIds;
+  }
+
+  @Override
+  public void close() {
+  }
+}
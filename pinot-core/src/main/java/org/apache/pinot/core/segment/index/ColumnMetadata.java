@@ -35,6 +35,7 @@ import org.apache.pinot.common.data.TimeFieldSpec;
 import org.apache.pinot.common.metadata.segment.ColumnPartitionMetadata;
 import org.apache.pinot.core.data.partition.PartitionFunction;
 import org.apache.pinot.core.data.partition.PartitionFunctionFactory;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
 import org.apache.pinot.startree.hll.HllSizeUtils;
 import org.slf4j.Logger;
@@ -83,6 +84,8 @@ public class ColumnMetadata {
   private final Set<Integer> _partitions;
   private final String dateTimeFormat;
   private final String dateTimeGranularity;
+  private final ChunkCompressorFactory.CompressionType compressionType;
+  private final boolean hasFrameOfReferenceEncoding;
 
   public static ColumnMetadata fromPropertiesConfiguration(String column, PropertiesConfiguration config) {
     Builder builder = new Builder();
@@ -125,6 +128,13 @@ public class ColumnMetadata {
       builder.setDateTimeGranularity(dateTimeGranularity);
     }
 
+    String compressionType = config.getString(getKeyFor(column, COMPRESSION_TYPE), null);
+    if (compressionType != null) {
+      builder.setCompressionType(ChunkCompressorFactory.CompressionType.valueOf(compressionType));
+    }
+    builder.setHasFrameOfReferenceEncoding(
+        config.getBoolean(getKeyFor(column, HAS_FRAME_OF_REFERENCE_ENCODING), false));
+
     // DERIVED_METRIC_TYPE property is used to check whether this field is derived or not
     // ORIGIN_COLUMN property is used to indicate the origin field of this derived metric
     String typeStr = config.getString(getKeyFor(column, DERIVED_METRIC_TYPE), null);
@@ -240,6 +250,8 @@ public class ColumnMetadata {
     private Set<Integer> _partitions;
     private String dateTimeFormat;
     private String dateTimeGranularity;
+    private ChunkCompressorFactory.CompressionType compressionType;
+    private boolean hasFrameOfReferenceEncoding;
 
     public Builder setColumnName(String columnName) {
       this.columnName = columnName;
@@ -395,12 +407,23 @@ public class ColumnMetadata {
       return this;
     }
 
+    public Builder setCompressionType(ChunkCompressorFactory.CompressionType compressionType) {
+      this.compressionType = compressionType;
+      return this;
+    }
+
+    public Builder setHasFrameOfReferenceEncoding(boolean hasFrameOfReferenceEncoding) {
+      this.hasFrameOfReferenceEncoding = hasFrameOfReferenceEncoding;
+      return this;
+    }
+
     public ColumnMetadata build() {
       return new ColumnMetadata(columnName, cardinality, totalDocs, totalRawDocs, totalAggDocs, dataType,
           bitsPerElement, columnMaxLength, fieldType, isSorted, containsNulls, hasDictionary, hasInvertedIndex,
           isSingleValue, maxNumberOfMultiValues, totalNumberOfEntries, isAutoGenerated, isVirtual,
           defaultNullValueString, timeUnit, paddingCharacter, derivedMetricType, fieldSize, originColumnName, minValue,
-          maxValue, partitionFunction, numPartitions, _partitions, dateTimeFormat, dateTimeGranularity);
+          maxValue, partitionFunction, numPartitions, _partitions, dateTimeFormat, dateTimeGranularity,
+          compressionType, hasFrameOfReferenceEncoding);
     }
   }
 
@@ -411,7 +434,8 @@ public class ColumnMetadata {
       String defaultNullValueString, TimeUnit timeUnit, char paddingCharacter, DerivedMetricType derivedMetricType,
       int fieldSize, String originColumnName, Comparable minValue, Comparable maxValue,
       PartitionFunction partitionFunction, int numPartitions, Set<Integer> partitions, String dateTimeFormat,
-      String dateTimeGranularity) {
+      String dateTimeGranularity, ChunkCompressorFactory.CompressionType compressionType,
+      boolean hasFrameOfReferenceEncoding) {
     this.columnName = columnName;
     this.cardinality = cardinality;
     this.totalDocs = totalDocs;
@@ -443,6 +467,8 @@ public class ColumnMetadata {
     _partitions = partitions;
     this.dateTimeFormat = dateTimeFormat;
     this.dateTimeGranularity = dateTimeGranularity;
+    this.compressionType = compressionType;
+    this.hasFrameOfReferenceEncoding = hasFrameOfReferenceEncoding;
 
     switch (fieldType) {
       case DIMENSION:
@@ -584,6 +610,21 @@ public class ColumnMetadata {
     return dateTimeGranularity;
   }
 
+  /**
+   * Returns the chunk compression type of the raw (no-dictionary) forward index, or {@code null} for dictionary-encoded
+   * columns and segments created before the compression type was recorded in the metadata.
+   */
+  public ChunkCompressorFactory.CompressionType getCompressionType() {
+    return compressionType;
+  }
+
+  /**
+   * Returns whether the raw (no-dictionary) forward index is written with frame-of-reference/delta encoding.
+   */
+  public boolean hasFrameOfReferenceEncoding() {
+    return hasFrameOfReferenceEncoding;
+  }
+
   @Override
   public String toString() {
     final StringBuilder result = new StringBuilder();
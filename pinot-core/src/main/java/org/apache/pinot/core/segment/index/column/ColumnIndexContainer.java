@@ -19,6 +19,7 @@
 package org.apache.pinot.core.segment.index.column;
 
 import org.apache.pinot.core.io.reader.DataFileReader;
+import org.apache.pinot.core.segment.index.readers.BitmapRangeIndexReader;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
@@ -45,4 +46,9 @@ public interface ColumnIndexContainer {
   Dictionary getDictionary();
 
   BloomFilterReader getBloomFilter();
+
+  /**
+   * Returns the range index for the column, or {@code null} if it does not exist.
+   */
+  BitmapRangeIndexReader getRangeIndex();
 }
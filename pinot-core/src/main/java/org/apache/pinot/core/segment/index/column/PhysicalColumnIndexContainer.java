@@ -22,6 +22,7 @@ import java.io.IOException;
 import org.apache.pinot.common.data.FieldSpec;
 import org.apache.pinot.core.io.reader.DataFileReader;
 import org.apache.pinot.core.io.reader.SingleColumnSingleValueReader;
+import org.apache.pinot.core.io.reader.impl.v1.FixedBitChunkSingleValueReader;
 import org.apache.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
 import org.apache.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
 import org.apache.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
@@ -31,6 +32,7 @@ import org.apache.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
 import org.apache.pinot.core.segment.index.ColumnMetadata;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.BitmapRangeIndexReader;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.BytesDictionary;
 import org.apache.pinot.core.segment.index.readers.DoubleDictionary;
@@ -59,6 +61,7 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   private final InvertedIndexReader _invertedIndex;
   private final ImmutableDictionaryReader _dictionary;
   private final BloomFilterReader _bloomFilterReader;
+  private final BitmapRangeIndexReader _rangeIndex;
 
   public PhysicalColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
       IndexLoadingConfig indexLoadingConfig)
@@ -67,10 +70,12 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     boolean loadInvertedIndex = false;
     boolean loadOnHeapDictionary = false;
     boolean loadBloomFilter = false;
+    boolean loadRangeIndex = false;
     if (indexLoadingConfig != null) {
       loadInvertedIndex = indexLoadingConfig.getInvertedIndexColumns().contains(columnName);
       loadOnHeapDictionary = indexLoadingConfig.getOnHeapDictionaryColumns().contains(columnName);
       loadBloomFilter = indexLoadingConfig.getBloomFilterColumns().contains(columnName);
+      loadRangeIndex = indexLoadingConfig.getRangeIndexColumns().contains(columnName);
     }
     PinotDataBuffer fwdIndexBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.FORWARD_INDEX);
 
@@ -92,17 +97,26 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
           SortedIndexReader sortedIndexReader = new SortedIndexReaderImpl(fwdIndexBuffer, metadata.getCardinality());
           _forwardIndex = sortedIndexReader;
           _invertedIndex = sortedIndexReader;
+          // Range index is not needed for sorted column
+          _rangeIndex = null;
           return;
         } else {
           // Unsorted
           _forwardIndex =
               new FixedBitSingleValueReader(fwdIndexBuffer, metadata.getTotalDocs(), metadata.getBitsPerElement());
+          if (loadRangeIndex) {
+            _rangeIndex =
+                new BitmapRangeIndexReader(segmentReader.getIndexFor(columnName, ColumnIndexType.RANGE_INDEX));
+          } else {
+            _rangeIndex = null;
+          }
         }
       } else {
         // Multi-value
         _forwardIndex =
             new FixedBitMultiValueReader(fwdIndexBuffer, metadata.getTotalDocs(), metadata.getTotalNumberOfEntries(),
                 metadata.getBitsPerElement());
+        _rangeIndex = null;
       }
       if (loadInvertedIndex) {
         _invertedIndex =
@@ -113,10 +127,12 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       }
     } else {
       // Raw index
-      _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType());
+      _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType(),
+          metadata.hasFrameOfReferenceEncoding());
       _invertedIndex = null;
       _dictionary = null;
       _bloomFilterReader = null;
+      _rangeIndex = null;
     }
   }
 
@@ -140,6 +156,11 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     return _bloomFilterReader;
   }
 
+  @Override
+  public BitmapRangeIndexReader getRangeIndex() {
+    return _rangeIndex;
+  }
+
   private static ImmutableDictionaryReader loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
       boolean loadOnHeap) {
     FieldSpec.DataType dataType = metadata.getDataType();
@@ -182,7 +203,10 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   }
 
   private static SingleColumnSingleValueReader loadRawForwardIndex(PinotDataBuffer forwardIndexBuffer,
-      FieldSpec.DataType dataType) {
+      FieldSpec.DataType dataType, boolean hasFrameOfReferenceEncoding) {
+    if (hasFrameOfReferenceEncoding) {
+      return new FixedBitChunkSingleValueReader(forwardIndexBuffer);
+    }
 
     switch (dataType) {
       case INT:
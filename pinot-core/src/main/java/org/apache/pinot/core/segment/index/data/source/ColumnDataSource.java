@@ -19,6 +19,7 @@
 package org.apache.pinot.core.segment.index.data.source;
 
 import com.google.common.base.Preconditions;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.data.FieldSpec;
 import org.apache.pinot.core.common.Block;
 import org.apache.pinot.core.common.Constants;
@@ -33,9 +34,11 @@ import org.apache.pinot.core.operator.blocks.SingleValueBlock;
 import org.apache.pinot.core.realtime.impl.dictionary.MutableDictionary;
 import org.apache.pinot.core.segment.index.ColumnMetadata;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
+import org.apache.pinot.core.segment.index.readers.BitmapRangeIndexReader;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 public final class ColumnDataSource extends DataSource {
@@ -49,6 +52,8 @@ public final class ColumnDataSource extends DataSource {
   private final InvertedIndexReader _invertedIndex;
   private final Dictionary _dictionary;
   private final BloomFilterReader _bloomFilter;
+  private final BitmapRangeIndexReader _rangeIndex;
+  private final ZoneMapReader _zoneMap;
   private final int _cardinality;
   private final DataSourceMetadata _metadata;
 
@@ -59,7 +64,7 @@ public final class ColumnDataSource extends DataSource {
     this(metadata.getColumnName(), metadata.getDataType(), metadata.isSingleValue(), metadata.isSorted(),
         metadata.getTotalDocs(), metadata.getMaxNumberOfMultiValues(), indexContainer.getForwardIndex(),
         indexContainer.getInvertedIndex(), indexContainer.getDictionary(), indexContainer.getBloomFilter(),
-        metadata.getCardinality());
+        indexContainer.getRangeIndex(), null, metadata.getCardinality());
   }
 
   /**
@@ -67,13 +72,24 @@ public final class ColumnDataSource extends DataSource {
    */
   public ColumnDataSource(FieldSpec fieldSpec, int numDocs, int maxNumMultiValues, DataFileReader forwardIndex,
       InvertedIndexReader invertedIndex, MutableDictionary dictionary, BloomFilterReader bloomFilter) {
+    this(fieldSpec, numDocs, maxNumMultiValues, forwardIndex, invertedIndex, dictionary, bloomFilter, null);
+  }
+
+  /**
+   * For REALTIME segment with zone map.
+   */
+  public ColumnDataSource(FieldSpec fieldSpec, int numDocs, int maxNumMultiValues, DataFileReader forwardIndex,
+      InvertedIndexReader invertedIndex, MutableDictionary dictionary, BloomFilterReader bloomFilter,
+      @Nullable ZoneMapReader zoneMap) {
     this(fieldSpec.getName(), fieldSpec.getDataType(), fieldSpec.isSingleValueField(), false, numDocs,
-        maxNumMultiValues, forwardIndex, invertedIndex, dictionary, bloomFilter, Constants.UNKNOWN_CARDINALITY);
+        maxNumMultiValues, forwardIndex, invertedIndex, dictionary, bloomFilter, null, zoneMap,
+        Constants.UNKNOWN_CARDINALITY);
   }
 
   private ColumnDataSource(String columnName, FieldSpec.DataType dataType, boolean isSingleValue, boolean isSorted,
       int numDocs, int maxNumMultiValues, DataFileReader forwardIndex, InvertedIndexReader invertedIndex,
-      Dictionary dictionary, BloomFilterReader bloomFilterReader, int cardinality) {
+      Dictionary dictionary, BloomFilterReader bloomFilterReader, BitmapRangeIndexReader rangeIndex,
+      ZoneMapReader zoneMap, int cardinality) {
     // Sanity check
     if (isSingleValue) {
       Preconditions.checkState(forwardIndex instanceof SingleColumnSingleValueReader);
@@ -100,6 +116,8 @@ public final class ColumnDataSource extends DataSource {
     _invertedIndex = invertedIndex;
     _dictionary = dictionary;
     _bloomFilter = bloomFilterReader;
+    _rangeIndex = rangeIndex;
+    _zoneMap = zoneMap;
     _cardinality = cardinality;
 
     _metadata = new DataSourceMetadata() {
@@ -165,6 +183,16 @@ public final class ColumnDataSource extends DataSource {
     return _bloomFilter;
   }
 
+  @Override
+  public BitmapRangeIndexReader getRangeIndex() {
+    return _rangeIndex;
+  }
+
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return _zoneMap;
+  }
+
   @Override
   protected Block getNextBlock() {
     if (_isSingleValue) {
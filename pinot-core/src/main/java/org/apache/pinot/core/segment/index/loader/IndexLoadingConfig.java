@@ -33,6 +33,8 @@ import org.apache.pinot.common.segment.ReadMode;
 import org.apache.pinot.core.data.manager.config.InstanceDataManagerConfig;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGeneratorMode;
+import org.apache.pinot.core.segment.store.ColumnIndexType;
+import org.apache.pinot.core.segment.store.IndexLoadPolicy;
 
 
 /**
@@ -49,6 +51,9 @@ public class IndexLoadingConfig {
   private Set<String> _varLengthDictionaryColumns = new HashSet<>();
   private Set<String> _onHeapDictionaryColumns = new HashSet<>();
   private Set<String> _bloomFilterColumns = new HashSet<>();
+  private Set<String> _rangeIndexColumns = new HashSet<>();
+  private Set<ColumnIndexType> _preloadIndexTypes = new HashSet<>();
+  private Set<String> _prefetchColumns;
 
   private SegmentVersion _segmentVersion;
   private ColumnMinMaxValueGeneratorMode _columnMinMaxValueGeneratorMode = ColumnMinMaxValueGeneratorMode.DEFAULT_MODE;
@@ -71,6 +76,18 @@ public class IndexLoadingConfig {
       _readMode = ReadMode.getEnum(tableReadMode);
     }
 
+    List<String> preloadIndexTypes = indexingConfig.getPreloadIndexTypes();
+    if (preloadIndexTypes != null) {
+      for (String preloadIndexType : preloadIndexTypes) {
+        _preloadIndexTypes.add(ColumnIndexType.getValue(preloadIndexType));
+      }
+    }
+
+    List<String> prefetchColumns = indexingConfig.getPrefetchColumns();
+    if (prefetchColumns != null) {
+      _prefetchColumns = new HashSet<>(prefetchColumns);
+    }
+
     List<String> sortedColumns = indexingConfig.getSortedColumn();
     if (sortedColumns != null) {
       _sortedColumns = sortedColumns;
@@ -86,6 +103,11 @@ public class IndexLoadingConfig {
       _bloomFilterColumns.addAll(bloomFilterColumns);
     }
 
+    List<String> rangeIndexColumns = indexingConfig.getRangeIndexColumns();
+    if (rangeIndexColumns != null) {
+      _rangeIndexColumns.addAll(rangeIndexColumns);
+    }
+
     List<String> noDictionaryColumns = indexingConfig.getNoDictionaryColumns();
     if (noDictionaryColumns != null) {
       _noDictionaryColumns.addAll(noDictionaryColumns);
@@ -159,6 +181,30 @@ public class IndexLoadingConfig {
     _readMode = readMode;
   }
 
+  /**
+   * Returns the policy on which indexes to load into direct memory and which columns to prefetch in mmap mode.
+   */
+  @Nonnull
+  public IndexLoadPolicy getIndexLoadPolicy() {
+    return new IndexLoadPolicy(_preloadIndexTypes, _prefetchColumns);
+  }
+
+  /**
+   * For tests only.
+   */
+  @VisibleForTesting
+  public void setPreloadIndexTypes(@Nonnull Set<ColumnIndexType> preloadIndexTypes) {
+    _preloadIndexTypes = preloadIndexTypes;
+  }
+
+  /**
+   * For tests only.
+   */
+  @VisibleForTesting
+  public void setPrefetchColumns(@Nullable Set<String> prefetchColumns) {
+    _prefetchColumns = prefetchColumns;
+  }
+
   @Nonnull
   public List<String> getSortedColumns() {
     return _sortedColumns;
@@ -182,6 +228,11 @@ public class IndexLoadingConfig {
     _bloomFilterColumns = bloomFilterColumns;
   }
 
+  @VisibleForTesting
+  public void setRangeIndexColumns(@Nonnull Set<String> rangeIndexColumns) {
+    _rangeIndexColumns = rangeIndexColumns;
+  }
+
   @VisibleForTesting
   public void setOnHeapDictionaryColumns(@Nonnull Set<String> onHeapDictionaryColumns) {
     _onHeapDictionaryColumns = onHeapDictionaryColumns;
@@ -211,6 +262,11 @@ public class IndexLoadingConfig {
     return _bloomFilterColumns;
   }
 
+  @Nonnull
+  public Set<String> getRangeIndexColumns() {
+    return _rangeIndexColumns;
+  }
+
   @Nullable
   public SegmentVersion getSegmentVersion() {
     return _segmentVersion;
@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.pinot.core.segment.creator.impl.inv.BitmapRangeIndexCreator;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Reader for the bitmap range index created by {@link BitmapRangeIndexCreator}.
+ * <p>The number of ranges is small, so the range boundaries and the bitmaps (which are backed by the index buffer) are
+ * loaded up-front.
+ */
+public class BitmapRangeIndexReader implements Closeable {
+  private final PinotDataBuffer _buffer;
+  private final int _numRanges;
+  private final int[] _rangeStartDictIds;
+  private final ImmutableRoaringBitmap[] _bitmaps;
+
+  public BitmapRangeIndexReader(PinotDataBuffer rangeIndexBuffer) {
+    _buffer = rangeIndexBuffer;
+    int version = rangeIndexBuffer.getInt(0);
+    Preconditions.checkState(version == BitmapRangeIndexCreator.VERSION, "Unsupported range index version: %s",
+        version);
+    _numRanges = rangeIndexBuffer.getInt(Integer.BYTES);
+
+    long offset = 2 * Integer.BYTES;
+    _rangeStartDictIds = new int[_numRanges + 1];
+    for (int i = 0; i <= _numRanges; i++) {
+      _rangeStartDictIds[i] = rangeIndexBuffer.getInt(offset);
+      offset += Integer.BYTES;
+    }
+
+    _bitmaps = new ImmutableRoaringBitmap[_numRanges];
+    int bitmapStartOffset = rangeIndexBuffer.getInt(offset);
+    for (int i = 0; i < _numRanges; i++) {
+      offset += Integer.BYTES;
+      int bitmapEndOffset = rangeIndexBuffer.getInt(offset);
+      _bitmaps[i] = new ImmutableRoaringBitmap(
+          rangeIndexBuffer.toDirectByteBuffer(bitmapStartOffset, bitmapEndOffset - bitmapStartOffset));
+      bitmapStartOffset = bitmapEndOffset;
+    }
+  }
+
+  /**
+   * Returns the number of ranges.
+   */
+  public int getNumRanges() {
+    return _numRanges;
+  }
+
+  /**
+   * Returns the id of the range that contains the given dictionary id.
+   */
+  public int findRangeId(int dictId) {
+    int index = Arrays.binarySearch(_rangeStartDictIds, 0, _numRanges, dictId);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  /**
+   * Returns the first dictionary id (inclusive) of the given range.
+   */
+  public int getRangeStartDictId(int rangeId) {
+    return _rangeStartDictIds[rangeId];
+  }
+
+  /**
+   * Returns the last dictionary id (exclusive) of the given range.
+   */
+  public int getRangeEndDictId(int rangeId) {
+    return _rangeStartDictIds[rangeId + 1];
+  }
+
+  /**
+   * Returns the document ids for all the values within the given range.
+   */
+  public ImmutableRoaringBitmap getDocIds(int rangeId) {
+    return _bitmaps[rangeId];
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _buffer.close();
+  }
+}
@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.core.common.predicate.RangePredicate;
+
+
+/**
+ * Zone map (per-chunk min/max values) for a single-value column. The documents are split into fixed size chunks of
+ * consecutive doc ids, and the documents inside a chunk whose min/max values do not overlap with a range cannot match
+ * the range.
+ */
+public interface ZoneMapReader {
+
+  /**
+   * Returns the number of bits for the chunk size, i.e. chunk id for a document is {@code docId >>> chunkSizeBits}.
+   */
+  int getChunkSizeBits();
+
+  /**
+   * Returns a flag for each chunk of the first {@code numDocs} documents, which is {@code false} if none of the
+   * documents in the chunk can match the given RANGE predicate, or {@code null} if the zone map cannot be used to
+   * evaluate the predicate.
+   */
+  @Nullable
+  boolean[] getMatchingChunks(RangePredicate rangePredicate, int numDocs);
+}
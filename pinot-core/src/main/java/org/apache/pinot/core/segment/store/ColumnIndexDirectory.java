@@ -40,6 +40,7 @@ abstract class ColumnIndexDirectory implements Closeable {
   protected File segmentDirectory;
   protected SegmentMetadataImpl metadata;
   protected ReadMode readMode;
+  protected IndexLoadPolicy loadPolicy;
 
   /**
    * @param segmentDirectory File pointing to segment directory
@@ -47,9 +48,21 @@ abstract class ColumnIndexDirectory implements Closeable {
    * @param readMode mmap vs heap map mode
    */
   protected ColumnIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode) {
+    this(segmentDirectory, metadata, readMode, IndexLoadPolicy.DEFAULT);
+  }
+
+  /**
+   * @param segmentDirectory File pointing to segment directory
+   * @param metadata segment metadata. Metadata must be fully initialized
+   * @param readMode mmap vs heap map mode
+   * @param loadPolicy policy on which indexes to load into direct memory in mmap mode
+   */
+  protected ColumnIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode,
+      IndexLoadPolicy loadPolicy) {
     Preconditions.checkNotNull(segmentDirectory);
     Preconditions.checkNotNull(readMode);
     Preconditions.checkNotNull(metadata);
+    Preconditions.checkNotNull(loadPolicy);
 
     Preconditions.checkArgument(segmentDirectory.exists(),
         "SegmentDirectory: " + segmentDirectory.toString() + " does not exist");
@@ -59,6 +72,15 @@ abstract class ColumnIndexDirectory implements Closeable {
     this.segmentDirectory = segmentDirectory;
     this.metadata = metadata;
     this.readMode = readMode;
+    this.loadPolicy = loadPolicy;
+  }
+
+  /**
+   * Returns true if the buffer for the given index type should be loaded into direct memory, either because the
+   * segment is loaded in heap mode or because the index type is configured to be preloaded.
+   */
+  protected boolean shouldLoadIntoMemory(ColumnIndexType indexType) {
+    return readMode == ReadMode.heap || loadPolicy.shouldPreload(indexType);
   }
 
   /**
@@ -107,6 +129,15 @@ abstract class ColumnIndexDirectory implements Closeable {
   public abstract PinotDataBuffer getBloomFilterBufferFor(String column)
       throws IOException;
 
+  /**
+   * Get range index data buffer for a column
+   * @param column column name
+   * @return in-memory ByteBuffer like buffer for data
+   * @throws IOException
+   */
+  public abstract PinotDataBuffer getRangeIndexBufferFor(String column)
+      throws IOException;
+
   /**
    * Allocate a new data buffer of specified sizeBytes in the columnar index directory
    * @param column column name
@@ -147,6 +178,16 @@ abstract class ColumnIndexDirectory implements Closeable {
   public abstract PinotDataBuffer newBloomFilterBuffer(String column, long sizeBytes)
       throws IOException;
 
+  /**
+   * Allocate a new data buffer of specified sizeBytes in the columnar index directory
+   * @param column column name
+   * @param sizeBytes sizeBytes for the buffer allocation
+   * @return in-memory ByteBuffer like buffer for data
+   * @throws IOException
+   */
+  public abstract PinotDataBuffer newRangeIndexBuffer(String column, long sizeBytes)
+      throws IOException;
+
   /**
    * Check if an index exists for a column
    * @param column column name
@@ -38,7 +38,12 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
   private Map<IndexKey, PinotDataBuffer> indexBuffers = new HashMap<>();
 
   protected FilePerIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode) {
-    super(segmentDirectory, metadata, readMode);
+    this(segmentDirectory, metadata, readMode, IndexLoadPolicy.DEFAULT);
+  }
+
+  protected FilePerIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode,
+      IndexLoadPolicy loadPolicy) {
+    super(segmentDirectory, metadata, readMode, loadPolicy);
   }
 
   @Override
@@ -97,6 +102,20 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
     return getWriteBufferFor(key, sizeBytes);
   }
 
+  @Override
+  public PinotDataBuffer getRangeIndexBufferFor(String column)
+      throws IOException {
+    IndexKey key = new IndexKey(column, ColumnIndexType.RANGE_INDEX);
+    return getReadBufferFor(key);
+  }
+
+  @Override
+  public PinotDataBuffer newRangeIndexBuffer(String column, long sizeBytes)
+      throws IOException {
+    IndexKey key = new IndexKey(column, ColumnIndexType.RANGE_INDEX);
+    return getWriteBufferFor(key, sizeBytes);
+  }
+
   @Override
   public boolean hasIndexFor(String column, ColumnIndexType type) {
     File indexFile = getFileFor(column, type);
@@ -129,7 +148,7 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
     }
 
     File filename = getFileFor(key.name, key.type);
-    PinotDataBuffer buffer = mapForReads(filename, key.type.toString() + ".reader");
+    PinotDataBuffer buffer = mapForReads(filename, key.type.toString() + ".reader", shouldLoadIntoMemory(key.type));
     indexBuffers.put(key, buffer);
     return buffer;
   }
@@ -162,6 +181,9 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
       case BLOOM_FILTER:
         filename = metadata.getBloomFilterFileName(column);
         break;
+      case RANGE_INDEX:
+        filename = metadata.getBitmapRangeIndexFileName(column);
+        break;
       default:
         throw new UnsupportedOperationException("Unknown index type: " + indexType.toString());
     }
@@ -180,7 +202,7 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
     return PinotDataBuffer.mapFile(file, false, 0, sizeBytes, ByteOrder.BIG_ENDIAN, allocationContext);
   }
 
-  private PinotDataBuffer mapForReads(File file, String context)
+  private PinotDataBuffer mapForReads(File file, String context, boolean loadIntoMemory)
       throws IOException {
     Preconditions.checkNotNull(file);
     Preconditions.checkNotNull(context);
@@ -189,7 +211,7 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
     String allocationContext = allocationContext(file, context);
 
     // Backward-compatible: index file is always big-endian
-    if (readMode == ReadMode.heap) {
+    if (loadIntoMemory) {
       return PinotDataBuffer.loadFile(file, 0, file.length(), ByteOrder.BIG_ENDIAN, allocationContext);
     } else {
       return PinotDataBuffer.mapFile(file, true, 0, file.length(), ByteOrder.BIG_ENDIAN, allocationContext);
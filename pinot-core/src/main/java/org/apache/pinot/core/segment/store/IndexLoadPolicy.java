@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.store;
+
+import java.util.Collections;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+
+/**
+ * Per table policy on how the column indexes are brought into memory when a segment is loaded in mmap mode.
+ * <ul>
+ *   <li>Index types to preload: the buffers of these index types are loaded into direct memory instead of being memory
+ *   mapped, so that the randomly accessed indexes (e.g. dictionary, inverted index) never page fault.</li>
+ *   <li>Columns to prefetch: the memory mapped buffers of these columns are touched page by page on load so that the
+ *   first queries on the hot columns do not pay for the major page faults. When not configured, all the columns are
+ *   prefetched up to the server wide limit.</li>
+ * </ul>
+ * <p>The policy has no effect when the segment is loaded in heap mode, where all the buffers are already loaded.
+ */
+public class IndexLoadPolicy {
+  public static final IndexLoadPolicy DEFAULT = new IndexLoadPolicy(Collections.emptySet(), null);
+
+  private final Set<ColumnIndexType> _preloadIndexTypes;
+  private final Set<String> _prefetchColumns;
+
+  /**
+   * @param preloadIndexTypes Index types to be loaded into direct memory
+   * @param prefetchColumns Columns to be prefetched, or {@code null} to prefetch all the columns
+   */
+  public IndexLoadPolicy(Set<ColumnIndexType> preloadIndexTypes, @Nullable Set<String> prefetchColumns) {
+    _preloadIndexTypes = preloadIndexTypes;
+    _prefetchColumns = prefetchColumns;
+  }
+
+  public boolean shouldPreload(ColumnIndexType indexType) {
+    return _preloadIndexTypes.contains(indexType);
+  }
+
+  public boolean shouldPrefetch(String column) {
+    return _prefetchColumns == null || _prefetchColumns.contains(column);
+  }
+
+  /**
+   * Returns {@code true} if the columns to prefetch are explicitly configured, in which case the buffers of these
+   * columns are fully prefetched regardless of the server wide limit.
+   */
+  public boolean hasPrefetchColumns() {
+    return _prefetchColumns != null;
+  }
+
+  @Override
+  public String toString() {
+    return "IndexLoadPolicy{preloadIndexTypes=" + _preloadIndexTypes + ", prefetchColumns=" + _prefetchColumns + "}";
+  }
+}
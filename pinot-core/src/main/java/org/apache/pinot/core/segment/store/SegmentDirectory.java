@@ -110,11 +110,32 @@ public abstract class SegmentDirectory implements Closeable {
     return new SegmentLocalFSDirectory(directory, metadata, readMode);
   }
 
+  /**
+   * Create segment directory from local file system
+   * @param directory File object representing segment directory on disk
+   * @param metadata segment metadata
+   * @param readMode mmap vs heap ReadMode for data
+   * @param loadPolicy policy on which indexes to preload or prefetch in mmap mode
+   * @return segmentDirectory
+   */
+  public static SegmentDirectory createFromLocalFS(File directory, SegmentMetadataImpl metadata, ReadMode readMode,
+      IndexLoadPolicy loadPolicy) {
+    return new SegmentLocalFSDirectory(directory, metadata, readMode, loadPolicy);
+  }
+
   public static SegmentDirectory createFromLocalFS(File directory, ReadMode readMode)
       throws IOException, ConfigurationException {
     return new SegmentLocalFSDirectory(directory, readMode);
   }
 
+  /**
+   * Returns the number of bytes of the memory mapped index buffers touched by the prefetch on segment load, for the
+   * segments that are currently loaded.
+   */
+  public static long getPrefetchedBytes() {
+    return SegmentLocalFSDirectory.getTotalPrefetchedBytes();
+  }
+
   public static SegmentMetadataImpl loadSegmentMetadata(File directory)
       throws IOException, ConfigurationException {
     return SegmentLocalFSDirectory.loadSegmentMetadata(directory);
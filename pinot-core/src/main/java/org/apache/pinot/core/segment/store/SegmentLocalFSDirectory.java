@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.io.FileUtils;
@@ -48,11 +50,16 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
   private static final long MAX_MMAP_PREFETCH_PAGES = 100 * 1024 * 1024 * 1024L / PAGE_SIZE_BYTES;
   private static final double PREFETCH_SLOWDOWN_PCT = 0.67;
   private static AtomicLong prefetchedPages = new AtomicLong(0);
+  // Bytes prefetched by the currently loaded segments, released when the segments are closed
+  private static AtomicLong totalPrefetchedBytes = new AtomicLong(0);
 
   private final File segmentDirectory;
   SegmentLock segmentLock;
   private SegmentMetadataImpl segmentMetadata;
   private ReadMode readMode;
+  private IndexLoadPolicy loadPolicy;
+  private final Set<IndexKey> prefetchedIndexes = ConcurrentHashMap.newKeySet();
+  private final AtomicLong prefetchedBytes = new AtomicLong(0);
 
   private ColumnIndexDirectory columnIndexDirectory;
 
@@ -66,9 +73,15 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
   }
 
   SegmentLocalFSDirectory(File directoryFile, SegmentMetadataImpl metadata, ReadMode readMode) {
+    this(directoryFile, metadata, readMode, IndexLoadPolicy.DEFAULT);
+  }
+
+  SegmentLocalFSDirectory(File directoryFile, SegmentMetadataImpl metadata, ReadMode readMode,
+      IndexLoadPolicy loadPolicy) {
 
     Preconditions.checkNotNull(directoryFile);
     Preconditions.checkNotNull(metadata);
+    Preconditions.checkNotNull(loadPolicy);
 
     segmentDirectory = getSegmentPath(directoryFile, metadata.getSegmentVersion());
     Preconditions.checkState(segmentDirectory.exists(), "Segment directory: " + directoryFile + " must exist");
@@ -76,6 +89,7 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
     segmentLock = new SegmentLock();
     this.segmentMetadata = metadata;
     this.readMode = readMode;
+    this.loadPolicy = loadPolicy;
     try {
       load();
     } catch (IOException | ConfigurationException e) {
@@ -196,11 +210,11 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
     switch (segmentVersion) {
       case v1:
       case v2:
-        columnIndexDirectory = new FilePerIndexDirectory(segmentDirectory, segmentMetadata, readMode);
+        columnIndexDirectory = new FilePerIndexDirectory(segmentDirectory, segmentMetadata, readMode, loadPolicy);
         break;
       case v3:
         try {
-          columnIndexDirectory = new SingleFileIndexDirectory(segmentDirectory, segmentMetadata, readMode);
+          columnIndexDirectory = new SingleFileIndexDirectory(segmentDirectory, segmentMetadata, readMode, loadPolicy);
         } catch (ConfigurationException e) {
           LOGGER.error("Failed to create columnar index directory", e);
           throw new RuntimeException(e);
@@ -218,6 +232,7 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
         columnIndexDirectory.close();
         columnIndexDirectory = null;
       }
+      totalPrefetchedBytes.addAndGet(-prefetchedBytes.getAndSet(0));
     }
   }
 
@@ -242,16 +257,64 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
       case BLOOM_FILTER:
         buffer = columnIndexDirectory.getBloomFilterBufferFor(column);
         break;
+      case RANGE_INDEX:
+        buffer = columnIndexDirectory.getRangeIndexBufferFor(column);
+        break;
       default:
         throw new RuntimeException("Unknown index type: " + type.name());
     }
-    if (readMode == ReadMode.mmap) {
-      prefetchMmapData(buffer);
+    // Preloaded indexes are already in direct memory
+    if (readMode == ReadMode.mmap && !loadPolicy.shouldPreload(type) && loadPolicy.shouldPrefetch(column)
+        && prefetchedIndexes.add(new IndexKey(column, type))) {
+      long numPrefetchedPages;
+      if (loadPolicy.hasPrefetchColumns()) {
+        numPrefetchedPages = prefetchAllPages(buffer);
+      } else {
+        numPrefetchedPages = prefetchMmapData(buffer);
+      }
+      prefetchedBytes.addAndGet(numPrefetchedPages * PAGE_SIZE_BYTES);
+      totalPrefetchedBytes.addAndGet(numPrefetchedPages * PAGE_SIZE_BYTES);
     }
     return buffer;
   }
 
-  private void prefetchMmapData(PinotDataBuffer buffer) {
+  static long getTotalPrefetchedBytes() {
+    return totalPrefetchedBytes.get();
+  }
+
+  /**
+   * Returns the number of bytes prefetched for this segment, which are released from the total when it is closed.
+   */
+  long getSegmentPrefetchedBytes() {
+    return prefetchedBytes.get();
+  }
+
+  /**
+   * Returns the number of pages counted against the server wide prefetch limit.
+   */
+  static long getNumPrefetchedPagesInLimit() {
+    return prefetchedPages.get();
+  }
+
+  /**
+   * Touches all the pages of the buffer for the explicitly configured hot columns. These pages are not counted against
+   * the server wide prefetch limit, which only applies to the blanket prefetch of all the columns. The indexes of the
+   * other columns are left to the OS read-ahead.
+   *
+   * @return Number of pages touched
+   */
+  private long prefetchAllPages(PinotDataBuffer buffer) {
+    long size = buffer.size();
+    for (long pos = 0; pos < size; pos += PAGE_SIZE_BYTES) {
+      buffer.getByte(pos);
+    }
+    return (size + PAGE_SIZE_BYTES - 1) / PAGE_SIZE_BYTES;
+  }
+
+  /**
+   * @return Number of pages touched
+   */
+  private long prefetchMmapData(PinotDataBuffer buffer) {
     // mmap mode causes high number of major page faults after server restart.
     // This impacts latency especially for prod "online" use cases that require low latency.
     // This function proactively loads pages in memory to lower the variance in
@@ -272,14 +335,16 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
 
     // Prefetch limit and slowdown percentage are arbitrary
     if (prefetchedPages.get() >= MAX_MMAP_PREFETCH_PAGES) {
-      return;
+      return 0;
     }
 
+    long numPages = 0;
     final long prefetchSlowdownPageLimit = (long) (PREFETCH_SLOWDOWN_PCT * MAX_MMAP_PREFETCH_PAGES);
     if (prefetchedPages.get() >= prefetchSlowdownPageLimit) {
       if (0 < buffer.size()) {
         buffer.getByte(0);
         prefetchedPages.incrementAndGet();
+        numPages++;
       }
     } else {
       // pos needs to be long because buffer.size() is 32 bit but
@@ -288,8 +353,10 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
           pos += PAGE_SIZE_BYTES) {
         buffer.getByte((int) pos);
         prefetchedPages.incrementAndGet();
+        numPages++;
       }
     }
+    return numPages;
   }
 
   private boolean hasIndexFor(String column, ColumnIndexType type) {
@@ -423,6 +490,8 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
           return columnIndexDirectory.newInvertedIndexBuffer(key.name, sizeBytes);
         case BLOOM_FILTER:
           return columnIndexDirectory.newBloomFilterBuffer(key.name, sizeBytes);
+        case RANGE_INDEX:
+          return columnIndexDirectory.newRangeIndexBuffer(key.name, sizeBytes);
         default:
           throw new RuntimeException("Unknown index type: " + indexType.name() + " for directory: " + segmentDirectory);
       }
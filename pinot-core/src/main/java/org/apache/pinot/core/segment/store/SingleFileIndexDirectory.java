@@ -79,7 +79,13 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
 
   public SingleFileIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode)
       throws IOException, ConfigurationException {
-    super(segmentDirectory, metadata, readMode);
+    this(segmentDirectory, metadata, readMode, IndexLoadPolicy.DEFAULT);
+  }
+
+  public SingleFileIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode,
+      IndexLoadPolicy loadPolicy)
+      throws IOException, ConfigurationException {
+    super(segmentDirectory, metadata, readMode, loadPolicy);
     indexFile = new File(segmentDirectory, DEFAULT_INDEX_FILE_NAME);
     if (!indexFile.exists()) {
       indexFile.createNewFile();
@@ -113,6 +119,12 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
     return checkAndGetIndexBuffer(column, ColumnIndexType.BLOOM_FILTER);
   }
 
+  @Override
+  public PinotDataBuffer getRangeIndexBufferFor(String column)
+      throws IOException {
+    return checkAndGetIndexBuffer(column, ColumnIndexType.RANGE_INDEX);
+  }
+
   @Override
   public boolean hasIndexFor(String column, ColumnIndexType type) {
     IndexKey key = new IndexKey(column, type);
@@ -143,6 +155,12 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
     return allocNewBufferInternal(column, ColumnIndexType.BLOOM_FILTER, sizeBytes, "bloom_filter.create");
   }
 
+  @Override
+  public PinotDataBuffer newRangeIndexBuffer(String column, long sizeBytes)
+      throws IOException {
+    return allocNewBufferInternal(column, ColumnIndexType.RANGE_INDEX, sizeBytes, "range_index.create");
+  }
+
   private PinotDataBuffer checkAndGetIndexBuffer(String column, ColumnIndexType type) {
     IndexKey key = new IndexKey(column, type);
     IndexEntry entry = columnEntries.get(key);
@@ -308,8 +326,16 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
       IndexEntry entry = startOffsets.get(fileOffset);
       int endSlicePoint = prevSlicePoint + (int) entry.size;
       validateMagicMarker(buffer, prevSlicePoint);
-      PinotDataBuffer viewBuffer = buffer.view(prevSlicePoint + MAGIC_MARKER_SIZE_BYTES, endSlicePoint);
-      entry.buffer = viewBuffer;
+      if (readMode == ReadMode.mmap && loadPolicy.shouldPreload(entry.key.type)) {
+        // Load the preloaded index into its own direct buffer, the mapped pages of the index are never accessed
+        PinotDataBuffer preloadedBuffer = PinotDataBuffer
+            .loadFile(indexFile, fileOffset + MAGIC_MARKER_SIZE_BYTES, entry.size - MAGIC_MARKER_SIZE_BYTES,
+                ByteOrder.BIG_ENDIAN, allocationContext(entry.key) + "preload");
+        allocBuffers.add(preloadedBuffer);
+        entry.buffer = preloadedBuffer;
+      } else {
+        entry.buffer = buffer.view(prevSlicePoint + MAGIC_MARKER_SIZE_BYTES, endSlicePoint);
+      }
       prevSlicePoint = endSlicePoint;
     }
   }
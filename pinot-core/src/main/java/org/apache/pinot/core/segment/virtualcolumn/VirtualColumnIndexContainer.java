@@ -20,6 +20,7 @@ package org.apache.pinot.core.segment.virtualcolumn;
 
 import org.apache.pinot.core.io.reader.DataFileReader;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
+import org.apache.pinot.core.segment.index.readers.BitmapRangeIndexReader;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
@@ -59,4 +60,9 @@ public class VirtualColumnIndexContainer implements ColumnIndexContainer {
   public BloomFilterReader getBloomFilter() {
     return null;
   }
+
+  @Override
+  public BitmapRangeIndexReader getRangeIndex() {
+    return null;
+  }
 }
@@ -0,0 +1,211 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.apache.pinot.common.metrics.BrokerGauge;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code AdaptiveServerSelector} class tracks the latency and the number of in-flight requests of each server, and
+ * routes each segment to the replica with the lowest score at query time, so that a slow server (e.g. in a GC pause)
+ * receives less queries.
+ * <p>The score of a server is {@code (ewmaLatencyMs + 1) * (numInFlightRequests + 1)}, where the latency is the
+ * exponentially weighted moving average of the request latencies. Requests not answered before the query finishes
+ * (timed out or failed) are counted with the time elapsed before the query finishes.
+ * <p>A server with a high latency receives few queries, so its latency would rarely be updated after it recovers. To
+ * let it get queries again, the latency decays exponentially toward zero (the score of a new server) with the
+ * configured half-life since the last finished request.
+ * <p>Servers are keyed by the instance name (e.g. {@code Server_localhost_12345}), so that the OFFLINE and REALTIME
+ * requests to the same server share the stats.
+ */
+@ThreadSafe
+public class AdaptiveServerSelector {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveServerSelector.class);
+
+  private final double _ewmaAlpha;
+  private final long _decayHalfLifeMs;
+  private final BrokerMetrics _brokerMetrics;
+  private final LongSupplier _clock;
+  private final ConcurrentHashMap<String, ServerStats> _serverStatsMap = new ConcurrentHashMap<>();
+
+  public AdaptiveServerSelector(double ewmaAlpha, long decayHalfLifeMs, @Nullable BrokerMetrics brokerMetrics) {
+    this(ewmaAlpha, decayHalfLifeMs, brokerMetrics, System::currentTimeMillis);
+  }
+
+  @VisibleForTesting
+  AdaptiveServerSelector(double ewmaAlpha, long decayHalfLifeMs, @Nullable BrokerMetrics brokerMetrics,
+      LongSupplier clock) {
+    Preconditions.checkArgument(ewmaAlpha > 0 && ewmaAlpha <= 1, "Illegal EWMA alpha: %s", ewmaAlpha);
+    Preconditions.checkArgument(decayHalfLifeMs > 0, "Illegal decay half-life: %s", decayHalfLifeMs);
+    _ewmaAlpha = ewmaAlpha;
+    _decayHalfLifeMs = decayHalfLifeMs;
+    _brokerMetrics = brokerMetrics;
+    _clock = clock;
+  }
+
+  /**
+   * Creates the adaptive server selector based on the broker config, or returns {@code null} if it is not enabled.
+   */
+  @Nullable
+  public static AdaptiveServerSelector create(Configuration config, @Nullable BrokerMetrics brokerMetrics) {
+    if (!config.getBoolean(Broker.CONFIG_OF_ADAPTIVE_SERVER_SELECTION_ENABLED,
+        Broker.DEFAULT_ADAPTIVE_SERVER_SELECTION_ENABLED)) {
+      return null;
+    }
+    double ewmaAlpha = config.getDouble(Broker.CONFIG_OF_ADAPTIVE_SERVER_SELECTION_EWMA_ALPHA,
+        Broker.DEFAULT_ADAPTIVE_SERVER_SELECTION_EWMA_ALPHA);
+    long decayHalfLifeMs = config.getLong(Broker.CONFIG_OF_ADAPTIVE_SERVER_SELECTION_DECAY_HALF_LIFE_MS,
+        Broker.DEFAULT_ADAPTIVE_SERVER_SELECTION_DECAY_HALF_LIFE_MS);
+    LOGGER.info("Initializing adaptive server selector with EWMA alpha: {}, decay half-life: {}ms", ewmaAlpha,
+        decayHalfLifeMs);
+    return new AdaptiveServerSelector(ewmaAlpha, decayHalfLifeMs, brokerMetrics);
+  }
+
+  /**
+   * Records that a request is sent to the server.
+   */
+  public void recordRequestSubmitted(String instanceName) {
+    getServerStats(instanceName)._numInFlightRequests.incrementAndGet();
+  }
+
+  /**
+   * Records that a request recorded as sent is cancelled before being sent to the server, which does not affect the
+   * latency of the server.
+   */
+  public void recordRequestCancelled(String instanceName) {
+    getServerStats(instanceName)._numInFlightRequests.decrementAndGet();
+  }
+
+  /**
+   * Records that a request to the server is finished (responded or abandoned) with the given latency.
+   */
+  public void recordRequestFinished(String instanceName, long latencyMs) {
+    ServerStats serverStats = getServerStats(instanceName);
+    serverStats._numInFlightRequests.decrementAndGet();
+    long nowMs = _clock.getAsLong();
+    double ewmaLatencyMs = serverStats.updateLatency(latencyMs, _ewmaAlpha, nowMs, _decayHalfLifeMs);
+    if (_brokerMetrics != null) {
+      _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.SERVER_EWMA_LATENCY_MS, instanceName, (long) ewmaLatencyMs);
+      _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.SERVER_SELECTION_SCORE, instanceName,
+          (long) serverStats.getScore(nowMs, _decayHalfLifeMs));
+    }
+  }
+
+  /**
+   * Returns the score of the server, where lower is better.
+   */
+  public double getScore(String instanceName) {
+    return getScore(instanceName, _clock.getAsLong());
+  }
+
+  private double getScore(String instanceName, long nowMs) {
+    ServerStats serverStats = _serverStatsMap.get(instanceName);
+    return serverStats != null ? serverStats.getScore(nowMs, _decayHalfLifeMs) : 1.0;
+  }
+
+  private ServerStats getServerStats(String instanceName) {
+    return _serverStatsMap.computeIfAbsent(instanceName, k -> new ServerStats());
+  }
+
+  /**
+   * Computes the routing table by selecting a server for each segment to query.
+   * <p>To avoid routing all the segments to the same server within a query, the score of a server is multiplied by
+   * the number of segments already assigned to it plus one, so that the segments are distributed among the replicas
+   * in inverse proportion to their scores.
+   *
+   * @param segmentToServersMap Map from segment to the servers serving it
+   * @param segmentsToQuery Segments to query
+   * @return Map from server to the segments to query on it
+   */
+  public Map<String, List<String>> computeRoutingTable(Map<String, List<String>> segmentToServersMap,
+      Set<String> segmentsToQuery) {
+    // Snapshot the scores so that the scores stay the same within the query
+    long nowMs = _clock.getAsLong();
+    Map<String, Double> scoreMap = new HashMap<>();
+    Map<String, List<String>> routingTable = new HashMap<>();
+    for (String segmentName : segmentsToQuery) {
+      List<String> servers = segmentToServersMap.get(segmentName);
+      int numServers = servers.size();
+      // Start from a random server to break ties randomly
+      int startIndex = ThreadLocalRandom.current().nextInt(numServers);
+      String selectedServer = null;
+      double minScore = Double.MAX_VALUE;
+      for (int i = 0; i < numServers; i++) {
+        String server = servers.get((startIndex + i) % numServers);
+        List<String> assignedSegments = routingTable.get(server);
+        int numAssignedSegments = assignedSegments != null ? assignedSegments.size() : 0;
+        double score = scoreMap.computeIfAbsent(server, k -> getScore(k, nowMs)) * (numAssignedSegments + 1);
+        if (score < minScore) {
+          minScore = score;
+          selectedServer = server;
+        }
+      }
+      routingTable.computeIfAbsent(selectedServer, k -> new ArrayList<>()).add(segmentName);
+    }
+    return routingTable;
+  }
+
+  private static class ServerStats {
+    final AtomicInteger _numInFlightRequests = new AtomicInteger();
+    double _ewmaLatencyMs;
+    long _lastUpdateTimeMs;
+    boolean _hasLatency;
+
+    synchronized double updateLatency(long latencyMs, double ewmaAlpha, long nowMs, long decayHalfLifeMs) {
+      if (_hasLatency) {
+        _ewmaLatencyMs = ewmaAlpha * latencyMs + (1 - ewmaAlpha) * getDecayedLatencyMs(nowMs, decayHalfLifeMs);
+      } else {
+        _ewmaLatencyMs = latencyMs;
+        _hasLatency = true;
+      }
+      _lastUpdateTimeMs = nowMs;
+      return _ewmaLatencyMs;
+    }
+
+    synchronized double getDecayedLatencyMs(long nowMs, long decayHalfLifeMs) {
+      long elapsedMs = nowMs - _lastUpdateTimeMs;
+      if (elapsedMs <= 0) {
+        return _ewmaLatencyMs;
+      }
+      return _ewmaLatencyMs * Math.pow(0.5, (double) elapsedMs / decayHalfLifeMs);
+    }
+
+    double getScore(long nowMs, long decayHalfLifeMs) {
+      return (getDecayedLatencyMs(nowMs, decayHalfLifeMs) + 1) * (Math.max(_numInFlightRequests.get(), 0) + 1);
+    }
+  }
+}
@@ -18,31 +18,52 @@
  */
 package org.apache.pinot.core.transport;
 
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.utils.DataTable;
 
 
 /**
  * The {@code AsyncQueryResponse} class represents an asynchronous query response.
- * <p>Call {@link #getResponse()} to get the query response asynchronously.
+ * <p>Call {@link #getResponse()} to get the query response asynchronously. To process the server responses
+ * incrementally as they arrive, call {@link #waitForNextResponse()} until it returns {@code null} before calling
+ * {@link #getResponse()}. To return without waiting for all the servers, call {@link #getPartialResponse()} instead
+ * of {@link #getResponse()}.
  */
 @ThreadSafe
 public class AsyncQueryResponse {
   private final QueryRouter _queryRouter;
   private final long _requestId;
+  private final String _rawTableName;
   private final ConcurrentHashMap<Server, ServerResponse> _responseMap;
   private final CountDownLatch _countDownLatch;
+  // Lock and condition to wake up the thread waiting for the next response when a server responds or the query fails
+  // NOTE: _respondedServers and _queryFailed are guarded by the lock
+  private final Lock _respondedServersLock = new ReentrantLock();
+  private final Condition _respondedServersCondition = _respondedServersLock.newCondition();
+  private final Queue<Server> _respondedServers = new ArrayDeque<>();
+  private boolean _queryFailed;
   private final long _maxEndTimeMs;
+  // Map from the hedged request id to the hedged request
+  private final ConcurrentHashMap<Long, HedgedRequest> _hedgedRequestMap = new ConcurrentHashMap<>();
+  private int _numResponsesWaited = 0;
+  private volatile boolean _done;
 
-  public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<Server> serversQueried, long startTimeMs,
-      long timeoutMs) {
+  public AsyncQueryResponse(QueryRouter queryRouter, long requestId, String rawTableName, Set<Server> serversQueried,
+      long startTimeMs, long timeoutMs) {
     _queryRouter = queryRouter;
     _requestId = requestId;
+    _rawTableName = rawTableName;
     int numServersQueried = serversQueried.size();
     _responseMap = new ConcurrentHashMap<>(numServersQueried);
     for (Server server : serversQueried) {
@@ -61,10 +82,81 @@ public class AsyncQueryResponse {
       _countDownLatch.await(_maxEndTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
       return _responseMap;
     } finally {
+      _done = true;
       _queryRouter.markQueryDone(_requestId);
     }
   }
 
+  /**
+   * Marks the query done without waiting for the remaining servers and returns a map from the server to the response.
+   * The servers that have not responded have no data table in the response.
+   */
+  public Map<Server, ServerResponse> getPartialResponse() {
+    _done = true;
+    _queryRouter.markQueryDone(_requestId);
+    return _responseMap;
+  }
+
+  /**
+   * Waits until the next server responds and returns the server, or returns {@code null} if all the servers have
+   * responded, the query failed or the query timed out. Once the query failed, all the following calls return
+   * {@code null} immediately, and {@link #isQueryFailed()} returns {@code true}.
+   * <p>Should be called by a single thread, and the response of the returned server can be fetched from
+   * {@link #getServerResponse(Server)}.
+   */
+  @Nullable
+  public Server waitForNextResponse()
+      throws InterruptedException {
+    return waitForNextResponse(Long.MAX_VALUE);
+  }
+
+  /**
+   * Same as {@link #waitForNextResponse()}, but also returns {@code null} if no server responds before the given end
+   * time. Unlike the query timeout, the following calls can still wait for the remaining servers.
+   */
+  @Nullable
+  public Server waitForNextResponse(long endTimeMs)
+      throws InterruptedException {
+    if (_numResponsesWaited == _responseMap.size()) {
+      return null;
+    }
+    long waitEndTimeMs = Math.min(endTimeMs, _maxEndTimeMs);
+    _respondedServersLock.lock();
+    try {
+      while (!_queryFailed && _respondedServers.isEmpty()) {
+        long remainingTimeMs = waitEndTimeMs - System.currentTimeMillis();
+        if (remainingTimeMs <= 0) {
+          return null;
+        }
+        _respondedServersCondition.await(remainingTimeMs, TimeUnit.MILLISECONDS);
+      }
+      if (_queryFailed) {
+        return null;
+      }
+      _numResponsesWaited++;
+      return _respondedServers.poll();
+    } finally {
+      _respondedServersLock.unlock();
+    }
+  }
+
+  /**
+   * Returns whether the query failed (e.g. failed to send the request or a queried server went down) before all the
+   * servers responded.
+   */
+  public boolean isQueryFailed() {
+    _respondedServersLock.lock();
+    try {
+      return _queryFailed;
+    } finally {
+      _respondedServersLock.unlock();
+    }
+  }
+
+  public ServerResponse getServerResponse(Server server) {
+    return _responseMap.get(server);
+  }
+
   /**
    * Returns the statistics for the servers the query sent to.
    * <p>Should be called after calling {@link #getResponse()}.
@@ -78,16 +170,96 @@ public class AsyncQueryResponse {
     return stringBuilder.toString();
   }
 
+  /**
+   * Returns the map from the server to the response without waiting for the query to be done.
+   */
+  Map<Server, ServerResponse> getResponseMap() {
+    return _responseMap;
+  }
+
+  String getRawTableName() {
+    return _rawTableName;
+  }
+
+  boolean isDone() {
+    return _done;
+  }
+
+  /**
+   * Returns whether the query is still waiting for the response of the server.
+   */
+  boolean isWaitingForResponse(Server server) {
+    return !_done && _countDownLatch.getCount() > 0 && _responseMap.get(server).getDataTable() == null;
+  }
+
+  /**
+   * Registers a hedged request, returns {@code false} if the query is already done.
+   */
+  boolean addHedgedRequest(long hedgedRequestId, HedgedRequest hedgedRequest) {
+    if (_done) {
+      return false;
+    }
+    _hedgedRequestMap.put(hedgedRequestId, hedgedRequest);
+    return true;
+  }
+
+  /**
+   * Returns the hedged request if the given request id is a hedged request, {@code null} otherwise.
+   */
+  @Nullable
+  HedgedRequest getHedgedRequest(long requestId) {
+    return _hedgedRequestMap.get(requestId);
+  }
+
+  /**
+   * Returns the map from the hedged request id to the hedged request.
+   */
+  Map<Long, HedgedRequest> getHedgedRequestMap() {
+    return _hedgedRequestMap;
+  }
+
   void markRequestSubmitted(Server server) {
     _responseMap.get(server).markRequestSubmitted();
   }
 
   void receiveDataTable(Server server, DataTable dataTable, long responseSize, long deserializationTimeMs) {
-    _responseMap.get(server).receiveDataTable(dataTable, responseSize, deserializationTimeMs);
-    _countDownLatch.countDown();
+    if (_responseMap.get(server).receiveDataTable(dataTable, responseSize, deserializationTimeMs, false)) {
+      addRespondedServer(server);
+      _countDownLatch.countDown();
+    }
+  }
+
+  /**
+   * Receives the response of the hedged request as the response of the original server, returns {@code true} if it
+   * arrives before the response of the original request.
+   */
+  boolean receiveHedgedDataTable(Server server, DataTable dataTable, long responseSize, long deserializationTimeMs) {
+    if (_responseMap.get(server).receiveDataTable(dataTable, responseSize, deserializationTimeMs, true)) {
+      addRespondedServer(server);
+      _countDownLatch.countDown();
+      return true;
+    }
+    return false;
+  }
+
+  private void addRespondedServer(Server server) {
+    _respondedServersLock.lock();
+    try {
+      _respondedServers.offer(server);
+      _respondedServersCondition.signal();
+    } finally {
+      _respondedServersLock.unlock();
+    }
   }
 
   void markQueryFailed() {
+    _respondedServersLock.lock();
+    try {
+      _queryFailed = true;
+      _respondedServersCondition.signal();
+    } finally {
+      _respondedServersLock.unlock();
+    }
     int count = (int) _countDownLatch.getCount();
     for (int i = 0; i < count; i++) {
       _countDownLatch.countDown();
@@ -104,4 +276,33 @@ public class AsyncQueryResponse {
       markQueryFailed();
     }
   }
+
+  /**
+   * The {@code HedgedRequest} class tracks a request sent to the hedge server on behalf of the original server. The
+   * response of the hedge server is tracked separately from the response of the original server so that the latency
+   * of the hedge server can be recorded.
+   */
+  static class HedgedRequest {
+    private final Server _originalServer;
+    private final Server _hedgeServer;
+    private final ServerResponse _hedgeResponse;
+
+    HedgedRequest(Server originalServer, Server hedgeServer, long startTimeMs) {
+      _originalServer = originalServer;
+      _hedgeServer = hedgeServer;
+      _hedgeResponse = new ServerResponse(startTimeMs);
+    }
+
+    Server getOriginalServer() {
+      return _originalServer;
+    }
+
+    Server getHedgeServer() {
+      return _hedgeServer;
+    }
+
+    ServerResponse getHedgeResponse() {
+      return _hedgeResponse;
+    }
+  }
 }
@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import io.netty.buffer.ByteBuf;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.InstanceRequest;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TList;
+import org.apache.thrift.protocol.TStruct;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.transport.TTransport;
+
+
+/**
+ * The {@code InstanceRequestEncoder} class encodes the {@link InstanceRequest}s of a query sent to multiple servers.
+ * <p>The instance requests of a query only differ in the segments to query, so the {@link BrokerRequest} is serialized
+ * only once, and its bytes are copied into the request of each server. The encoded bytes are identical to the
+ * {@link InstanceRequest} serialized with {@link TCompactProtocol}, so the servers can deserialize it as usual.
+ */
+@ThreadSafe
+public class InstanceRequestEncoder {
+  private static final TStruct STRUCT_DESC = new TStruct("InstanceRequest");
+  private static final TField REQUEST_ID_FIELD_DESC =
+      new TField("requestId", TType.I64, InstanceRequest._Fields.REQUEST_ID.getThriftFieldId());
+  private static final TField QUERY_FIELD_DESC =
+      new TField("query", TType.STRUCT, InstanceRequest._Fields.QUERY.getThriftFieldId());
+  private static final TField SEARCH_SEGMENTS_FIELD_DESC =
+      new TField("searchSegments", TType.LIST, InstanceRequest._Fields.SEARCH_SEGMENTS.getThriftFieldId());
+  private static final TField ENABLE_TRACE_FIELD_DESC =
+      new TField("enableTrace", TType.BOOL, InstanceRequest._Fields.ENABLE_TRACE.getThriftFieldId());
+  private static final TField BROKER_ID_FIELD_DESC =
+      new TField("brokerId", TType.STRING, InstanceRequest._Fields.BROKER_ID.getThriftFieldId());
+
+  // Estimated bytes of the fields other than the query and the segments
+  private static final int ESTIMATED_OVERHEAD_BYTES = 32;
+
+  private final BrokerRequest _brokerRequest;
+  private final String _brokerId;
+  private final byte[] _serializedBrokerRequest;
+
+  public InstanceRequestEncoder(BrokerRequest brokerRequest, @Nullable String brokerId)
+      throws TException {
+    _brokerRequest = brokerRequest;
+    _brokerId = brokerId;
+    _serializedBrokerRequest = new TSerializer(new TCompactProtocol.Factory()).serialize(brokerRequest);
+  }
+
+  public BrokerRequest getBrokerRequest() {
+    return _brokerRequest;
+  }
+
+  /**
+   * Returns the estimated size of the encoded request, which can be used as the initial capacity of the buffer.
+   */
+  public int getEstimatedSize(List<String> segments) {
+    int estimatedSize = _serializedBrokerRequest.length + ESTIMATED_OVERHEAD_BYTES;
+    if (_brokerId != null) {
+      estimatedSize += _brokerId.length();
+    }
+    for (String segment : segments) {
+      // 1 byte for the length of the segment name in most cases
+      estimatedSize += segment.length() + 1;
+    }
+    return estimatedSize;
+  }
+
+  /**
+   * Encodes the instance request with the given request id and segments into the buffer.
+   * <p>The fields are written in the same order as {@link InstanceRequest#write(org.apache.thrift.protocol.TProtocol)}.
+   */
+  public void encode(long requestId, List<String> segments, ByteBuf buffer)
+      throws TException {
+    ByteBufTransport transport = new ByteBufTransport(buffer);
+    TCompactProtocol protocol = new TCompactProtocol(transport);
+    protocol.writeStructBegin(STRUCT_DESC);
+    protocol.writeFieldBegin(REQUEST_ID_FIELD_DESC);
+    protocol.writeI64(requestId);
+    protocol.writeFieldEnd();
+    // NOTE: the serialized broker request is a complete nested struct (ending with the field stop), so writing it
+    // directly into the transport does not change the state of the protocol
+    protocol.writeFieldBegin(QUERY_FIELD_DESC);
+    transport.write(_serializedBrokerRequest, 0, _serializedBrokerRequest.length);
+    protocol.writeFieldEnd();
+    protocol.writeFieldBegin(SEARCH_SEGMENTS_FIELD_DESC);
+    protocol.writeListBegin(new TList(TType.STRING, segments.size()));
+    for (String segment : segments) {
+      protocol.writeString(segment);
+    }
+    protocol.writeListEnd();
+    protocol.writeFieldEnd();
+    protocol.writeFieldBegin(ENABLE_TRACE_FIELD_DESC);
+    protocol.writeBool(_brokerRequest.isEnableTrace());
+    protocol.writeFieldEnd();
+    if (_brokerId != null) {
+      protocol.writeFieldBegin(BROKER_ID_FIELD_DESC);
+      protocol.writeString(_brokerId);
+      protocol.writeFieldEnd();
+    }
+    protocol.writeFieldStop();
+    protocol.writeStructEnd();
+  }
+
+  /**
+   * Write-only transport which writes the bytes into a {@link ByteBuf}.
+   */
+  private static class ByteBufTransport extends TTransport {
+    private final ByteBuf _buffer;
+
+    ByteBufTransport(ByteBuf buffer) {
+      _buffer = buffer;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void open() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+      _buffer.writeBytes(buf, off, len);
+    }
+  }
+}
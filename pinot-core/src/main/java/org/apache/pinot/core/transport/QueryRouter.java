@@ -18,16 +18,22 @@
  */
 package org.apache.pinot.core.transport;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
-import org.apache.pinot.common.request.InstanceRequest;
 import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
 import org.apache.pinot.common.utils.DataTable;
 import org.slf4j.Logger;
@@ -38,6 +44,11 @@ import org.slf4j.LoggerFactory;
  * The {@code QueryRouter} class provides methods to route the query based on the routing table, and returns a
  * {@link AsyncQueryResponse} so that caller can handle the query response asynchronously.
  * <p>It works on {@link ServerChannels} which maintains only a single connection between the broker and each server.
+ * <p>When a {@link RequestHedger} is configured, a request not responded within the hedge delay of the server is sent
+ * again to another replica with a separate (negative) request id, and the response that arrives first is taken as the
+ * response of the original server.
+ * <p>The hedged requests are scheduled on a single thread, and sent on a separate executor so that connecting to the
+ * hedge server does not delay the other hedged requests.
  */
 @ThreadSafe
 public class QueryRouter {
@@ -46,12 +57,47 @@ public class QueryRouter {
   private final String _brokerId;
   private final BrokerMetrics _brokerMetrics;
   private final ServerChannels _serverChannels;
+  private final AdaptiveServerSelector _adaptiveServerSelector;
+  private final RequestHedger _requestHedger;
+  private final ScheduledExecutorService _hedgeScheduler;
+  private final ExecutorService _hedgeSender;
+  // Hedged requests use negative request ids to not collide with the query request ids
+  private final AtomicLong _hedgedRequestIdGenerator = new AtomicLong();
   private final ConcurrentHashMap<Long, AsyncQueryResponse> _asyncQueryResponseMap = new ConcurrentHashMap<>();
 
   public QueryRouter(String brokerId, BrokerMetrics brokerMetrics) {
+    this(brokerId, brokerMetrics, null);
+  }
+
+  /**
+   * Constructs the query router which records the latency and the number of in-flight requests of the servers into the
+   * given adaptive server selector (if not {@code null}).
+   */
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics,
+      @Nullable AdaptiveServerSelector adaptiveServerSelector) {
+    this(brokerId, brokerMetrics, adaptiveServerSelector, null);
+  }
+
+  /**
+   * Constructs the query router with the optional adaptive server selector and request hedger.
+   */
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics,
+      @Nullable AdaptiveServerSelector adaptiveServerSelector, @Nullable RequestHedger requestHedger) {
     _brokerId = brokerId;
     _brokerMetrics = brokerMetrics;
     _serverChannels = new ServerChannels(this, brokerMetrics);
+    _adaptiveServerSelector = adaptiveServerSelector;
+    _requestHedger = requestHedger;
+    if (requestHedger != null) {
+      _hedgeScheduler = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("request-hedger").build());
+      // The number of the hedged requests is capped by the hedge budget, so no need to bound the threads here
+      _hedgeSender = Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("request-hedge-sender-%d").build());
+    } else {
+      _hedgeScheduler = null;
+      _hedgeSender = null;
+    }
   }
 
   public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
@@ -60,47 +106,146 @@ public class QueryRouter {
       long timeoutMs) {
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
 
-    // Build map from server to request based on the routing table
-    Map<Server, InstanceRequest> requestMap = new HashMap<>();
+    // Build map from server to segments based on the routing table
+    Map<Server, List<String>> segmentsMap = new HashMap<>();
     if (offlineBrokerRequest != null) {
       assert offlineRoutingTable != null;
       for (Map.Entry<String, List<String>> entry : offlineRoutingTable.entrySet()) {
-        Server server = new Server(entry.getKey(), TableType.OFFLINE);
-        InstanceRequest instanceRequest = getInstanceRequest(requestId, offlineBrokerRequest, entry.getValue());
-        requestMap.put(server, instanceRequest);
+        segmentsMap.put(new Server(entry.getKey(), TableType.OFFLINE), entry.getValue());
       }
     }
     if (realtimeBrokerRequest != null) {
       assert realtimeRoutingTable != null;
       for (Map.Entry<String, List<String>> entry : realtimeRoutingTable.entrySet()) {
-        Server server = new Server(entry.getKey(), TableType.REALTIME);
-        InstanceRequest instanceRequest = getInstanceRequest(requestId, realtimeBrokerRequest, entry.getValue());
-        requestMap.put(server, instanceRequest);
+        segmentsMap.put(new Server(entry.getKey(), TableType.REALTIME), entry.getValue());
       }
     }
 
-    // Create the asynchronous query response with the request map
+    // Create the asynchronous query response with the servers to query
     AsyncQueryResponse asyncQueryResponse =
-        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs);
+        new AsyncQueryResponse(this, requestId, rawTableName, segmentsMap.keySet(), System.currentTimeMillis(),
+            timeoutMs);
     _asyncQueryResponseMap.put(requestId, asyncQueryResponse);
-    for (Map.Entry<Server, InstanceRequest> entry : requestMap.entrySet()) {
+    if (_adaptiveServerSelector != null) {
+      // Count all the requests as in-flight before sending them, each of them is finished exactly once when the server
+      // responds or the query is done
+      for (Server server : segmentsMap.keySet()) {
+        _adaptiveServerSelector.recordRequestSubmitted(server.getInstanceName());
+      }
+    }
+
+    // Serialize the broker request only once for all the servers of the same table type
+    InstanceRequestEncoder offlineRequestEncoder;
+    InstanceRequestEncoder realtimeRequestEncoder;
+    try {
+      offlineRequestEncoder =
+          offlineBrokerRequest != null ? new InstanceRequestEncoder(offlineBrokerRequest, _brokerId) : null;
+      realtimeRequestEncoder =
+          realtimeBrokerRequest != null ? new InstanceRequestEncoder(realtimeBrokerRequest, _brokerId) : null;
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while serializing request {}, marking query failed", requestId, e);
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.REQUEST_SEND_EXCEPTIONS, 1);
+      asyncQueryResponse.markQueryFailed();
+      return asyncQueryResponse;
+    }
+    for (Map.Entry<Server, List<String>> entry : segmentsMap.entrySet()) {
       Server server = entry.getKey();
+      InstanceRequestEncoder requestEncoder =
+          server.getTableType() == TableType.OFFLINE ? offlineRequestEncoder : realtimeRequestEncoder;
       try {
-        _serverChannels.sendRequest(server, entry.getValue());
+        _serverChannels.sendRequest(server, requestEncoder, requestId, entry.getValue());
         asyncQueryResponse.markRequestSubmitted(server);
       } catch (Exception e) {
         LOGGER.error("Caught exception while sending request {} to server: {}, marking query failed", requestId, server,
             e);
         _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.REQUEST_SEND_EXCEPTIONS, 1);
         asyncQueryResponse.markQueryFailed();
-        break;
+        return asyncQueryResponse;
       }
     }
 
+    if (_requestHedger != null) {
+      scheduleHedgedRequests(asyncQueryResponse, rawTableName, segmentsMap, offlineRequestEncoder,
+          realtimeRequestEncoder, timeoutMs);
+    }
     return asyncQueryResponse;
   }
 
+  private void scheduleHedgedRequests(AsyncQueryResponse asyncQueryResponse, String rawTableName,
+      Map<Server, List<String>> segmentsMap, @Nullable InstanceRequestEncoder offlineRequestEncoder,
+      @Nullable InstanceRequestEncoder realtimeRequestEncoder, long timeoutMs) {
+    _requestHedger.recordRequestsSent(segmentsMap.size());
+    for (Map.Entry<Server, List<String>> entry : segmentsMap.entrySet()) {
+      Server server = entry.getKey();
+      List<String> segments = entry.getValue();
+      InstanceRequestEncoder requestEncoder =
+          server.getTableType() == TableType.OFFLINE ? offlineRequestEncoder : realtimeRequestEncoder;
+      long hedgeDelayMs = _requestHedger.getHedgeDelayMs(server.getInstanceName());
+      if (hedgeDelayMs >= 0 && hedgeDelayMs < timeoutMs) {
+        _hedgeScheduler
+            .schedule(() -> sendHedgedRequest(asyncQueryResponse, rawTableName, server, requestEncoder, segments),
+                hedgeDelayMs, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  private void sendHedgedRequest(AsyncQueryResponse asyncQueryResponse, String rawTableName, Server server,
+      InstanceRequestEncoder requestEncoder, List<String> segments) {
+    if (!asyncQueryResponse.isWaitingForResponse(server)) {
+      return;
+    }
+    String hedgeServerName = _requestHedger
+        .selectHedgeServer(requestEncoder.getBrokerRequest().getQuerySource().getTableName(),
+            server.getInstanceName(), segments);
+    if (hedgeServerName == null) {
+      return;
+    }
+    if (!_requestHedger.tryAcquireHedge()) {
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS_THROTTLED, 1);
+      return;
+    }
+
+    long hedgedRequestId = _hedgedRequestIdGenerator.decrementAndGet();
+    Server hedgeServer = new Server(hedgeServerName, server.getTableType());
+    AsyncQueryResponse.HedgedRequest hedgedRequest =
+        new AsyncQueryResponse.HedgedRequest(server, hedgeServer, System.currentTimeMillis());
+    if (!asyncQueryResponse.addHedgedRequest(hedgedRequestId, hedgedRequest)) {
+      return;
+    }
+    // NOTE: the hedged request is counted as in-flight for the hedge server once registered, and is finished exactly
+    // once when the hedge server responds, the query is done or the hedged request is cancelled
+    if (_adaptiveServerSelector != null) {
+      _adaptiveServerSelector.recordRequestSubmitted(hedgeServerName);
+    }
+    _asyncQueryResponseMap.put(hedgedRequestId, asyncQueryResponse);
+    if (asyncQueryResponse.isDone()) {
+      // The query might be done before the hedged request is registered
+      _asyncQueryResponseMap.remove(hedgedRequestId);
+      cancelHedgedRequest(hedgedRequest);
+      return;
+    }
+    // Sending the request might need to connect to the hedge server, so do not block the hedge scheduler
+    _hedgeSender.execute(() -> {
+      try {
+        _serverChannels.sendRequest(hedgeServer, requestEncoder, hedgedRequestId, segments);
+        hedgedRequest.getHedgeResponse().markRequestSubmitted();
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS, 1);
+        LOGGER.debug("Sent hedged request {} of server: {} to server: {}", hedgedRequestId, server, hedgeServer);
+      } catch (Exception e) {
+        // The original request is still in flight, so do not fail the query, but penalize the hedge server with the
+        // time elapsed
+        LOGGER.warn("Caught exception while sending hedged request {} of server: {} to server: {}", hedgedRequestId,
+            server, hedgeServer, e);
+        recordRequestFinished(hedgeServer, hedgedRequest.getHedgeResponse());
+      }
+    });
+  }
+
   public void shutDown() {
+    if (_hedgeScheduler != null) {
+      _hedgeScheduler.shutdownNow();
+      _hedgeSender.shutdownNow();
+    }
     _serverChannels.shutDown();
   }
 
@@ -110,7 +255,26 @@ public class QueryRouter {
 
     // Query future might be null if the query is already done (maybe due to failure)
     if (asyncQueryResponse != null) {
-      asyncQueryResponse.receiveDataTable(server, dataTable, responseSize, deserializationTimeMs);
+      AsyncQueryResponse.HedgedRequest hedgedRequest = asyncQueryResponse.getHedgedRequest(requestId);
+      if (hedgedRequest != null) {
+        // Response of a hedged request, take it as the response of the original server if it arrives first
+        if (asyncQueryResponse.receiveHedgedDataTable(hedgedRequest.getOriginalServer(), dataTable, responseSize,
+            deserializationTimeMs)) {
+          String rawTableName = asyncQueryResponse.getRawTableName();
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS_WON, 1);
+        }
+        // Record the latency of the hedge server no matter whether the hedged request wins
+        ServerResponse hedgeResponse = hedgedRequest.getHedgeResponse();
+        hedgeResponse.receiveDataTable(dataTable, responseSize, deserializationTimeMs, false);
+        if (_adaptiveServerSelector != null || _requestHedger != null) {
+          recordRequestFinished(hedgedRequest.getHedgeServer(), hedgeResponse);
+        }
+      } else {
+        asyncQueryResponse.receiveDataTable(server, dataTable, responseSize, deserializationTimeMs);
+        if (_adaptiveServerSelector != null || _requestHedger != null) {
+          recordRequestFinished(server, asyncQueryResponse.getServerResponse(server));
+        }
+      }
     }
   }
 
@@ -121,16 +285,51 @@ public class QueryRouter {
   }
 
   void markQueryDone(long requestId) {
-    _asyncQueryResponseMap.remove(requestId);
+    AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.remove(requestId);
+    if (asyncQueryResponse != null) {
+      Map<Long, AsyncQueryResponse.HedgedRequest> hedgedRequestMap = asyncQueryResponse.getHedgedRequestMap();
+      for (long hedgedRequestId : hedgedRequestMap.keySet()) {
+        _asyncQueryResponseMap.remove(hedgedRequestId);
+      }
+      if (_adaptiveServerSelector != null || _requestHedger != null) {
+        // Penalize the servers (including the hedge servers) not responded with the time elapsed
+        for (Map.Entry<Server, ServerResponse> entry : asyncQueryResponse.getResponseMap().entrySet()) {
+          recordRequestFinished(entry.getKey(), entry.getValue());
+        }
+        for (AsyncQueryResponse.HedgedRequest hedgedRequest : hedgedRequestMap.values()) {
+          recordRequestFinished(hedgedRequest.getHedgeServer(), hedgedRequest.getHedgeResponse());
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of the request ids (including the hedged ones) of the queries not done yet.
+   */
+  @VisibleForTesting
+  int getNumPendingRequests() {
+    return _asyncQueryResponseMap.size();
+  }
+
+  /**
+   * Cancels the hedged request not sent to the hedge server, which is no longer in-flight but has no latency.
+   */
+  private void cancelHedgedRequest(AsyncQueryResponse.HedgedRequest hedgedRequest) {
+    if (hedgedRequest.getHedgeResponse().markFinished() && _adaptiveServerSelector != null) {
+      _adaptiveServerSelector.recordRequestCancelled(hedgedRequest.getHedgeServer().getInstanceName());
+    }
   }
 
-  private InstanceRequest getInstanceRequest(long requestId, BrokerRequest brokerRequest, List<String> segments) {
-    InstanceRequest instanceRequest = new InstanceRequest();
-    instanceRequest.setRequestId(requestId);
-    instanceRequest.setQuery(brokerRequest);
-    instanceRequest.setEnableTrace(brokerRequest.isEnableTrace());
-    instanceRequest.setSearchSegments(segments);
-    instanceRequest.setBrokerId(_brokerId);
-    return instanceRequest;
+  private void recordRequestFinished(Server server, ServerResponse serverResponse) {
+    if (serverResponse.markFinished()) {
+      String instanceName = server.getInstanceName();
+      long latencyMs = serverResponse.getLatencyMs();
+      if (_adaptiveServerSelector != null) {
+        _adaptiveServerSelector.recordRequestFinished(instanceName, latencyMs);
+      }
+      if (_requestHedger != null) {
+        _requestHedger.recordLatency(instanceName, latencyMs);
+      }
+    }
   }
 }
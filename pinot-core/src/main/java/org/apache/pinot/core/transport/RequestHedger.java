@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code RequestHedger} class decides when and where to send a hedged request for a server that has not responded.
+ * <ul>
+ *   <li>
+ *     The hedge delay of a server is the configured percentile of its recent request latencies (at least the
+ *     configured minimum delay). Servers without enough latency samples are not hedged.
+ *   </li>
+ *   <li>
+ *     The hedged request is sent to another replica that serves all the segments of the original request.
+ *   </li>
+ *   <li>
+ *     The hedged traffic is capped by a budget: each request sent adds {@code maxRatio} to the budget (up to a limit
+ *     to bound the bursts), and each hedged request consumes one from it.
+ *   </li>
+ * </ul>
+ */
+@ThreadSafe
+public class RequestHedger {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RequestHedger.class);
+
+  static final int LATENCY_WINDOW_SIZE = 128;
+  static final int MIN_NUM_LATENCY_SAMPLES = 10;
+  static final double MAX_HEDGE_BUDGET = 100.0;
+
+  private final double _latencyPercentile;
+  private final long _minDelayMs;
+  private final double _maxRatio;
+  private final Function<String, Map<String, List<String>>> _segmentToServersMapProvider;
+  private final ConcurrentHashMap<String, LatencyWindow> _latencyWindowMap = new ConcurrentHashMap<>();
+
+  private double _hedgeBudget;
+
+  /**
+   * @param latencyPercentile Percentile of the recent latencies to wait before hedging
+   * @param minDelayMs Minimum delay before hedging
+   * @param maxRatio Max ratio of the hedged requests to all the requests sent
+   * @param segmentToServersMapProvider Provides the map from segment to the servers serving it for a table (with type
+   *                                    suffix), returns {@code null} if the map is not available
+   */
+  public RequestHedger(double latencyPercentile, long minDelayMs, double maxRatio,
+      Function<String, Map<String, List<String>>> segmentToServersMapProvider) {
+    Preconditions.checkArgument(latencyPercentile > 0 && latencyPercentile <= 100, "Illegal latency percentile: %s",
+        latencyPercentile);
+    _latencyPercentile = latencyPercentile;
+    _minDelayMs = minDelayMs;
+    _maxRatio = maxRatio;
+    _segmentToServersMapProvider = segmentToServersMapProvider;
+  }
+
+  /**
+   * Creates the request hedger based on the broker config, or returns {@code null} if it is not enabled.
+   */
+  @Nullable
+  public static RequestHedger create(Configuration config,
+      Function<String, Map<String, List<String>>> segmentToServersMapProvider) {
+    if (!config.getBoolean(Broker.CONFIG_OF_REQUEST_HEDGING_ENABLED, Broker.DEFAULT_REQUEST_HEDGING_ENABLED)) {
+      return null;
+    }
+    double latencyPercentile = config.getDouble(Broker.CONFIG_OF_REQUEST_HEDGING_LATENCY_PERCENTILE,
+        Broker.DEFAULT_REQUEST_HEDGING_LATENCY_PERCENTILE);
+    long minDelayMs =
+        config.getLong(Broker.CONFIG_OF_REQUEST_HEDGING_MIN_DELAY_MS, Broker.DEFAULT_REQUEST_HEDGING_MIN_DELAY_MS);
+    double maxRatio =
+        config.getDouble(Broker.CONFIG_OF_REQUEST_HEDGING_MAX_RATIO, Broker.DEFAULT_REQUEST_HEDGING_MAX_RATIO);
+    LOGGER.info("Initializing request hedger with latency percentile: {}, min delay: {}ms, max ratio: {}",
+        latencyPercentile, minDelayMs, maxRatio);
+    return new RequestHedger(latencyPercentile, minDelayMs, maxRatio, segmentToServersMapProvider);
+  }
+
+  /**
+   * Records the latency of a request to the server.
+   */
+  public void recordLatency(String instanceName, long latencyMs) {
+    _latencyWindowMap.computeIfAbsent(instanceName, k -> new LatencyWindow()).add(latencyMs);
+  }
+
+  /**
+   * Returns the delay after which a request to the server should be hedged, or {@code -1} if the server does not have
+   * enough latency samples.
+   */
+  public long getHedgeDelayMs(String instanceName) {
+    LatencyWindow latencyWindow = _latencyWindowMap.get(instanceName);
+    if (latencyWindow == null) {
+      return -1L;
+    }
+    long latencyMs = latencyWindow.getPercentile(_latencyPercentile);
+    return latencyMs >= 0 ? Math.max(latencyMs, _minDelayMs) : -1L;
+  }
+
+  /**
+   * Adds the budget for the given number of requests sent.
+   */
+  public synchronized void recordRequestsSent(int numRequests) {
+    _hedgeBudget = Math.min(_hedgeBudget + numRequests * _maxRatio, MAX_HEDGE_BUDGET);
+  }
+
+  /**
+   * Consumes the budget for one hedged request, returns {@code false} if there is not enough budget.
+   */
+  public synchronized boolean tryAcquireHedge() {
+    if (_hedgeBudget >= 1.0) {
+      _hedgeBudget -= 1.0;
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   * Selects a random replica other than the given server that serves all the given segments, or returns {@code null}
+   * if there is no such replica.
+   */
+  @Nullable
+  public String selectHedgeServer(String tableNameWithType, String instanceName, List<String> segments) {
+    Map<String, List<String>> segmentToServersMap = _segmentToServersMapProvider.apply(tableNameWithType);
+    if (segmentToServersMap == null || segments.isEmpty()) {
+      return null;
+    }
+    List<String> candidates = null;
+    for (String segment : segments) {
+      List<String> servers = segmentToServersMap.get(segment);
+      if (servers == null) {
+        return null;
+      }
+      if (candidates == null) {
+        candidates = new ArrayList<>(servers);
+        candidates.remove(instanceName);
+      } else {
+        candidates.retainAll(servers);
+      }
+      if (candidates.isEmpty()) {
+        return null;
+      }
+    }
+    return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+  }
+
+  /**
+   * Ring buffer of the recent latencies of a server.
+   */
+  private static class LatencyWindow {
+    final long[] _latencies = new long[LATENCY_WINDOW_SIZE];
+    int _numSamples;
+    int _nextIndex;
+
+    synchronized void add(long latencyMs) {
+      _latencies[_nextIndex] = latencyMs;
+      _nextIndex = (_nextIndex + 1) % LATENCY_WINDOW_SIZE;
+      if (_numSamples < LATENCY_WINDOW_SIZE) {
+        _numSamples++;
+      }
+    }
+
+    synchronized long getPercentile(double percentile) {
+      if (_numSamples < MIN_NUM_LATENCY_SAMPLES) {
+        return -1L;
+      }
+      long[] sortedLatencies = Arrays.copyOf(_latencies, _numSamples);
+      Arrays.sort(sortedLatencies);
+      int index = (int) Math.ceil(percentile / 100 * _numSamples) - 1;
+      return sortedLatencies[Math.max(index, 0)];
+    }
+  }
+}
@@ -65,6 +65,13 @@ public class Server {
     return _tableType;
   }
 
+  /**
+   * Returns the server instance name of format: {@code Server_<hostName>_<port>}.
+   */
+  public String getInstanceName() {
+    return PREFIX_OF_SERVER_INSTANCE + _hostName + NAME_PORT_DELIMITER + _port;
+  }
+
   public synchronized String getShortName() {
     if (_shortName == null) {
       String shortHostName;
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.transport;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
@@ -28,15 +29,13 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.BrokerGauge;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
-import org.apache.pinot.common.request.InstanceRequest;
-import org.apache.thrift.TSerializer;
-import org.apache.thrift.protocol.TCompactProtocol;
 
 
 /**
@@ -56,9 +55,12 @@ public class ServerChannels {
     _brokerMetrics = brokerMetrics;
   }
 
-  public void sendRequest(Server server, InstanceRequest instanceRequest)
+  /**
+   * Sends the instance request encoded by the given encoder with the given request id and segments to the server.
+   */
+  public void sendRequest(Server server, InstanceRequestEncoder requestEncoder, long requestId, List<String> segments)
       throws Exception {
-    _serverToChannelMap.computeIfAbsent(server, ServerChannel::new).sendRequest(instanceRequest);
+    _serverToChannelMap.computeIfAbsent(server, ServerChannel::new).sendRequest(requestEncoder, requestId, segments);
   }
 
   public void shutDown() {
@@ -68,7 +70,6 @@ public class ServerChannels {
 
   @ThreadSafe
   private class ServerChannel {
-    final TSerializer _serializer = new TSerializer(new TCompactProtocol.Factory());
     final Server _server;
     final Bootstrap _bootstrap;
     Channel _channel;
@@ -90,7 +91,7 @@ public class ServerChannels {
           });
     }
 
-    synchronized void sendRequest(InstanceRequest instanceRequest)
+    synchronized void sendRequest(InstanceRequestEncoder requestEncoder, long requestId, List<String> segments)
         throws Exception {
       if (_channel == null || !_channel.isActive()) {
         long startTime = System.currentTimeMillis();
@@ -98,11 +99,17 @@ public class ServerChannels {
         _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.NETTY_CONNECTION_CONNECT_TIME_MS,
             System.currentTimeMillis() - startTime);
       }
-      byte[] requestBytes = _serializer.serialize(instanceRequest);
-      _channel
-          .writeAndFlush(_channel.alloc().buffer(requestBytes.length).writeBytes(requestBytes), _channel.voidPromise());
+      ByteBuf requestBuffer = _channel.alloc().buffer(requestEncoder.getEstimatedSize(segments));
+      try {
+        requestEncoder.encode(requestId, segments, requestBuffer);
+      } catch (Exception e) {
+        requestBuffer.release();
+        throw e;
+      }
+      int requestSize = requestBuffer.readableBytes();
+      _channel.writeAndFlush(requestBuffer, _channel.voidPromise());
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_REQUESTS_SENT, 1L);
-      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_SENT, requestBytes.length);
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_SENT, requestSize);
     }
   }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.transport;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.utils.DataTable;
 
@@ -33,6 +34,8 @@ public class ServerResponse {
   private volatile DataTable _dataTable;
   private volatile long _responseSize;
   private volatile long _deserializationTimeMs;
+  private volatile boolean _fromHedgedRequest;
+  private final AtomicBoolean _finished = new AtomicBoolean();
 
   public ServerResponse(long startTimeMs) {
     _startTimeMs = startTimeMs;
@@ -66,20 +69,57 @@ public class ServerResponse {
     return _deserializationTimeMs;
   }
 
+  /**
+   * Returns whether the response is from the hedged request sent to another replica.
+   */
+  public boolean isFromHedgedRequest() {
+    return _fromHedgedRequest;
+  }
+
   @Override
   public String toString() {
     return String
         .format("%d,%d,%d,%d", getSubmitDelayMs(), getResponseDelayMs(), getResponseSize(), getDeserializationTimeMs());
   }
 
+  /**
+   * Returns the time from the start of the query to the response, or to now if the server has not responded (the
+   * response from the hedged request does not count).
+   */
+  long getLatencyMs() {
+    long receiveDataTableTimeMs = _receiveDataTabTimeMs;
+    if (receiveDataTableTimeMs != 0 && !_fromHedgedRequest) {
+      return receiveDataTableTimeMs - _startTimeMs;
+    } else {
+      return System.currentTimeMillis() - _startTimeMs;
+    }
+  }
+
+  /**
+   * Marks the request finished (responded or abandoned), returns {@code false} if it was already marked finished.
+   */
+  boolean markFinished() {
+    return _finished.compareAndSet(false, true);
+  }
+
   void markRequestSubmitted() {
     _submitRequestTimeMs = System.currentTimeMillis();
   }
 
-  void receiveDataTable(DataTable dataTable, long responseSize, long deserializationTimeMs) {
+  /**
+   * Receives the data table, returns {@code false} if a data table is already received (from the original or the
+   * hedged request).
+   */
+  synchronized boolean receiveDataTable(DataTable dataTable, long responseSize, long deserializationTimeMs,
+      boolean fromHedgedRequest) {
+    if (_dataTable != null) {
+      return false;
+    }
     _receiveDataTabTimeMs = System.currentTimeMillis();
-    _dataTable = dataTable;
+    _fromHedgedRequest = fromHedgedRequest;
     _responseSize = responseSize;
     _deserializationTimeMs = deserializationTimeMs;
+    _dataTable = dataTable;
+    return true;
   }
 }
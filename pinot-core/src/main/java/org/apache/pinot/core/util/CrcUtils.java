@@ -28,6 +28,7 @@ import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.zip.Adler32;
 import java.util.zip.Checksum;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
@@ -36,6 +37,8 @@ import org.apache.pinot.core.segment.creator.impl.V1Constants;
 @SuppressWarnings("Duplicates")
 public class CrcUtils {
   private static final int BUFFER_SIZE = 65536;
+  // Largest prime smaller than 65536, the modulo of the Adler32 checksum
+  private static final int ADLER32_BASE = 65521;
 
   private final List<File> _files;
 
@@ -85,6 +88,53 @@ public class CrcUtils {
     return checksum.getValue();
   }
 
+  /**
+   * Computes the same CRC as {@link #forAllFilesInFolder(File)} and {@link #computeCrc()} from the pre-computed Adler32
+   * checksums of the files (e.g. computed while untarring the segment), without reading the files again.
+   * <p>The map must contain all the normal files under the folder; the segment creation meta file is ignored.
+   */
+  public static long combineCrc(Map<File, Long> fileChecksums) {
+    List<File> files = new ArrayList<>(fileChecksums.size());
+    for (File file : fileChecksums.keySet()) {
+      if (!file.getName().equals(V1Constants.SEGMENT_CREATION_META)) {
+        files.add(file);
+      }
+    }
+    Collections.sort(files);
+
+    // Adler32 of empty content
+    long crc = 1L;
+    for (File file : files) {
+      crc = combineAdler32(crc, fileChecksums.get(file), file.length());
+    }
+    return crc;
+  }
+
+  /**
+   * Combines the Adler32 checksums of two consecutive blocks into the checksum of the concatenated block, same as
+   * {@code adler32_combine()} in zlib.
+   */
+  private static long combineAdler32(long adler1, long adler2, long length2) {
+    long remainder = length2 % ADLER32_BASE;
+    long sum1 = adler1 & 0xFFFF;
+    long sum2 = (remainder * sum1) % ADLER32_BASE;
+    sum1 += (adler2 & 0xFFFF) + ADLER32_BASE - 1;
+    sum2 += ((adler1 >> 16) & 0xFFFF) + ((adler2 >> 16) & 0xFFFF) + ADLER32_BASE - remainder;
+    if (sum1 >= ADLER32_BASE) {
+      sum1 -= ADLER32_BASE;
+    }
+    if (sum1 >= ADLER32_BASE) {
+      sum1 -= ADLER32_BASE;
+    }
+    if (sum2 >= (ADLER32_BASE << 1)) {
+      sum2 -= (ADLER32_BASE << 1);
+    }
+    if (sum2 >= ADLER32_BASE) {
+      sum2 -= ADLER32_BASE;
+    }
+    return sum1 | (sum2 << 16);
+  }
+
   public String computeMD5()
       throws NoSuchAlgorithmException, IOException {
     byte[] buffer = new byte[BUFFER_SIZE];
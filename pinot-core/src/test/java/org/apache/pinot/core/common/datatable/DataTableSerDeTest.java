@@ -19,8 +19,13 @@
 package org.apache.pinot.core.common.datatable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.common.exception.QueryException;
@@ -60,15 +65,93 @@ public class DataTableSerDeTest {
     Assert.assertEquals(actual, expected);
   }
 
+  @Test
+  public void testExceptionV3()
+      throws IOException {
+    Exception exception = new UnsupportedOperationException("Caught exception.");
+    ProcessingException processingException =
+        QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, exception);
+    String expected = processingException.getMessage();
+
+    DataTable dataTable = DataTableBuilder.getEmptyDataTable(DataTableBuilder.VERSION_3);
+    Assert.assertTrue(dataTable instanceof DataTableImplV3);
+    dataTable.addException(processingException);
+    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+    Assert.assertTrue(newDataTable instanceof DataTableImplV3);
+    Assert.assertNull(newDataTable.getDataSchema());
+    Assert.assertEquals(newDataTable.getNumberOfRows(), 0);
+
+    String actual = newDataTable.getMetadata()
+        .get(DataTable.EXCEPTION_METADATA_KEY + QueryException.QUERY_EXECUTION_ERROR.getErrorCode());
+    Assert.assertEquals(actual, expected);
+  }
+
   @Test
   public void testEmptyStrings()
       throws IOException {
+    testEmptyStrings(DataTableBuilder.VERSION_2);
+  }
+
+  @Test
+  public void testEmptyStringsV3()
+      throws IOException {
+    testEmptyStrings(DataTableBuilder.VERSION_3);
+  }
+
+  @Test
+  public void testAllDataTypes()
+      throws IOException {
+    testAllDataTypes(DataTableBuilder.VERSION_2);
+  }
+
+  @Test
+  public void testAllDataTypesV3()
+      throws IOException {
+    testAllDataTypes(DataTableBuilder.VERSION_3);
+  }
+
+  @Test
+  public void testConcurrentStringAccessV3()
+      throws Exception {
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"SV"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING});
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, DataTableBuilder.VERSION_3);
+    String[] strings = new String[NUM_ROWS];
+    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+      dataTableBuilder.startRow();
+      strings[rowId] = RandomStringUtils.random(RANDOM.nextInt(20));
+      dataTableBuilder.setColumn(0, strings[rowId]);
+      dataTableBuilder.finishRow();
+    }
+    DataTable newDataTable = DataTableFactory.getDataTable(dataTableBuilder.build().toBytes());
+
+    int numThreads = 8;
+    ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<?>> futures = new ArrayList<>(numThreads);
+      for (int i = 0; i < numThreads; i++) {
+        futures.add(executorService.submit(() -> {
+          for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+            Assert.assertEquals(newDataTable.getString(rowId, 0), strings[rowId], ERROR_MESSAGE);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private void testEmptyStrings(int version)
+      throws IOException {
     String emptyString = StringUtils.EMPTY;
     String[] emptyStringArray = {StringUtils.EMPTY};
 
     DataSchema dataSchema = new DataSchema(new String[]{"SV", "MV"},
         new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.STRING_ARRAY});
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, version);
     for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
       dataTableBuilder.startRow();
       dataTableBuilder.setColumn(0, emptyString);
@@ -87,8 +170,7 @@ public class DataTableSerDeTest {
     }
   }
 
-  @Test
-  public void testAllDataTypes()
+  private void testAllDataTypes(int version)
       throws IOException {
     DataSchema.ColumnDataType[] columnDataTypes = DataSchema.ColumnDataType.values();
     int numColumns = columnDataTypes.length;
@@ -98,7 +180,7 @@ public class DataTableSerDeTest {
     }
     DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
 
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, version);
 
     int[] ints = new int[NUM_ROWS];
     long[] longs = new long[NUM_ROWS];
@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
+import org.apache.pinot.core.realtime.stream.MessageBatch;
+import org.apache.pinot.core.realtime.stream.StreamMessageDecoder;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class MessageBatchDecoderTest {
+  private static final int NUM_THREADS = 4;
+  private static final String COLUMN = "value";
+
+  private MessageBatchDecoder _messageBatchDecoder;
+
+  @BeforeClass
+  public void setUp() {
+    StreamMessageDecoder[] decoders = new StreamMessageDecoder[NUM_THREADS];
+    RecordTransformer[] recordTransformers = new RecordTransformer[NUM_THREADS];
+    for (int i = 0; i < NUM_THREADS; i++) {
+      decoders[i] = new IntMessageDecoder();
+      // Fail the transform for every 7th value
+      recordTransformers[i] = record -> {
+        int value = (int) record.getValue(COLUMN);
+        if (value % 7 == 0) {
+          throw new IllegalStateException();
+        }
+        record.putField(COLUMN, value * 2);
+        return record;
+      };
+    }
+    _messageBatchDecoder = new MessageBatchDecoder(decoders, recordTransformers, "MessageBatchDecoderTest");
+  }
+
+  @Test
+  public void testSubmit()
+      throws Exception {
+    // Small batch should be decoded as a single chunk
+    List<Future<MessageBatchDecoder.DecodedChunk>> futures = _messageBatchDecoder.submit(new IntMessageBatch(50));
+    Assert.assertEquals(futures.size(), 1);
+    checkDecodedChunks(futures, 50);
+
+    futures = _messageBatchDecoder.submit(new IntMessageBatch(1000));
+    Assert.assertEquals(futures.size(), NUM_THREADS);
+    checkDecodedChunks(futures, 1000);
+
+    // Empty batch
+    Assert.assertTrue(_messageBatchDecoder.submit(new IntMessageBatch(0)).isEmpty());
+  }
+
+  private void checkDecodedChunks(List<Future<MessageBatchDecoder.DecodedChunk>> futures, int numMessages)
+      throws Exception {
+    int expectedIndex = 0;
+    for (Future<MessageBatchDecoder.DecodedChunk> future : futures) {
+      MessageBatchDecoder.DecodedChunk decodedChunk = future.get();
+      Assert.assertEquals(decodedChunk.getStartIndex(), expectedIndex);
+      for (int i = 0; i < decodedChunk.getNumMessages(); i++) {
+        int value = expectedIndex++;
+        GenericRow row = decodedChunk.getRow(i);
+        if (value % 10 == 0) {
+          // Dropped by the decoder
+          Assert.assertNull(row);
+          Assert.assertNull(decodedChunk.getTransformException(i));
+        } else if (value % 7 == 0) {
+          Assert.assertNotNull(row);
+          Assert.assertTrue(decodedChunk.getTransformException(i) instanceof IllegalStateException);
+        } else {
+          Assert.assertNotNull(row);
+          Assert.assertEquals(row.getValue(COLUMN), value * 2);
+          Assert.assertNull(decodedChunk.getTransformException(i));
+        }
+      }
+    }
+    Assert.assertEquals(expectedIndex, numMessages);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _messageBatchDecoder.shutDown();
+  }
+
+  /**
+   * Message batch where the message at each index is the index itself.
+   */
+  private static class IntMessageBatch implements MessageBatch<Integer> {
+    private final int _numMessages;
+
+    IntMessageBatch(int numMessages) {
+      _numMessages = numMessages;
+    }
+
+    @Override
+    public int getMessageCount() {
+      return _numMessages;
+    }
+
+    @Override
+    public Integer getMessageAtIndex(int index) {
+      return index;
+    }
+
+    @Override
+    public int getMessageOffsetAtIndex(int index) {
+      return 0;
+    }
+
+    @Override
+    public int getMessageLengthAtIndex(int index) {
+      return 1;
+    }
+
+    @Override
+    public long getNextStreamMessageOffsetAtIndex(int index) {
+      return index + 1;
+    }
+  }
+
+  /**
+   * Decoder that drops every 10th value.
+   */
+  private static class IntMessageDecoder implements StreamMessageDecoder<Integer> {
+    @Override
+    public void init(Map<String, String> props, Schema indexingSchema, String topicName) {
+    }
+
+    @Override
+    public GenericRow decode(Integer payload, GenericRow destination) {
+      if (payload % 10 == 0) {
+        return null;
+      }
+      destination.putField(COLUMN, payload);
+      return destination;
+    }
+
+    @Override
+    public GenericRow decode(Integer payload, int offset, int length, GenericRow destination) {
+      return decode(payload, destination);
+    }
+  }
+}
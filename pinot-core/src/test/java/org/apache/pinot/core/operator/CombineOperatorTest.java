@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.data.DimensionFieldSpec;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.data.readers.RecordReader;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.SelectionOperator;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.plan.maker.PlanMaker;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for the execution statistics of the {@link CombineOperator} when segments are skipped for selection order-by
+ * queries.
+ */
+public class CombineOperatorTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "CombineOperatorTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String INT_COLUMN = "intColumn";
+  private static final int NUM_ROWS = 1000;
+  // Enough operators so that each thread processes at least one segment with the low values before the segments with
+  // the high values
+  private static final int NUM_OPERATORS_PER_SEGMENT = Math.max(Runtime.getRuntime().availableProcessors(), 10);
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final PlanMaker PLAN_MAKER = new InstancePlanMakerImplV2();
+
+  private ImmutableSegment _lowValueSegment;
+  private ImmutableSegment _highValueSegment;
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+    _lowValueSegment = buildSegment("lowValueSegment", 0);
+    _highValueSegment = buildSegment("highValueSegment", NUM_ROWS);
+    _executorService = Executors.newFixedThreadPool(4);
+  }
+
+  private ImmutableSegment buildSegment(String segmentName, int baseValue)
+      throws Exception {
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      // The column is not sorted so that the whole segment is scanned
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(INT_COLUMN, baseValue + (int) ((i * 7919L) % NUM_ROWS));
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(valueMap);
+      rows.add(genericRow);
+    }
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_COLUMN, FieldSpec.DataType.INT, true));
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setTableName(TABLE_NAME);
+    config.setSegmentName(segmentName);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows, schema)) {
+      driver.init(config, recordReader);
+      driver.build();
+    }
+    return ImmutableSegmentLoader.load(new File(INDEX_DIR, segmentName), ReadMode.mmap);
+  }
+
+  @Test
+  public void testExecutionStatisticsWithSkippedSegments()
+      throws Exception {
+    BrokerRequest brokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT " + INT_COLUMN + " FROM " + TABLE_NAME + " ORDER BY " + INT_COLUMN);
+    List<Operator> operators = new ArrayList<>(2 * NUM_OPERATORS_PER_SEGMENT);
+    for (int i = 0; i < NUM_OPERATORS_PER_SEGMENT; i++) {
+      operators.add(PLAN_MAKER.makeInnerSegmentPlan(_highValueSegment, brokerRequest).run());
+      operators.add(PLAN_MAKER.makeInnerSegmentPlan(_lowValueSegment, brokerRequest).run());
+    }
+    for (Operator operator : operators) {
+      Assert.assertTrue(operator instanceof SelectionOperator);
+    }
+
+    CombineOperator combineOperator = new CombineOperator(operators, _executorService, 10_000L, brokerRequest);
+    IntermediateResultsBlock resultsBlock = combineOperator.nextBlock();
+
+    // The top 10 rows should all come from the segments with the low values
+    Collection<Serializable[]> selectionResult = resultsBlock.getSelectionResult();
+    Assert.assertEquals(selectionResult.size(), 10);
+    for (Serializable[] row : selectionResult) {
+      Assert.assertTrue((Integer) row[0] < NUM_ROWS);
+    }
+
+    // The segments with the high values should be skipped, but still counted as processed with their total docs
+    Map<String, String> metadata = resultsBlock.getDataTable().getMetadata();
+    Assert.assertEquals(Long.parseLong(metadata.get(DataTable.NUM_DOCS_SCANNED_METADATA_KEY)),
+        (long) NUM_OPERATORS_PER_SEGMENT * NUM_ROWS);
+    Assert.assertEquals(Long.parseLong(metadata.get(DataTable.TOTAL_DOCS_METADATA_KEY)),
+        2L * NUM_OPERATORS_PER_SEGMENT * NUM_ROWS);
+    Assert.assertEquals(Long.parseLong(metadata.get(DataTable.NUM_SEGMENTS_PROCESSED)), 2L * NUM_OPERATORS_PER_SEGMENT);
+    Assert.assertEquals(Long.parseLong(metadata.get(DataTable.NUM_SEGMENTS_MATCHED)), NUM_OPERATORS_PER_SEGMENT);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+    _lowValueSegment.destroy();
+    _highValueSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
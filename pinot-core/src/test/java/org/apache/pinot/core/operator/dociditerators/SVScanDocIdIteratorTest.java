@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.common.predicate.RangePredicate;
+import org.apache.pinot.core.io.reader.BaseSingleColumnSingleValueReader;
+import org.apache.pinot.core.io.reader.ReaderContext;
+import org.apache.pinot.core.operator.blocks.BlockMetadataImpl;
+import org.apache.pinot.core.operator.docvalsets.SingleValueSet;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import org.apache.pinot.core.realtime.impl.zonemap.RealtimeZoneMap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests the batch scan of {@link SVScanDocIdIterator} against value-by-value evaluation.
+ */
+public class SVScanDocIdIteratorTest {
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+  // More than 2 batches
+  private static final int NUM_DOCS = 25_000;
+  private static final int MAX_VALUE = 100;
+
+  @Test
+  public void testScan() {
+    int[] values = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      values[i] = RANDOM.nextInt(MAX_VALUE);
+    }
+    PredicateEvaluator predicateEvaluator = RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(
+        new RangePredicate("column", Collections.singletonList("[20\t\t30)")), FieldSpec.DataType.INT);
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (predicateEvaluator.applySV(values[i])) {
+        expectedDocIds.add(i);
+      }
+    }
+
+    // Sequential iteration
+    SVScanDocIdIterator iterator = getIterator(values, predicateEvaluator);
+    List<Integer> actualDocIds = new ArrayList<>();
+    int docId;
+    while ((docId = iterator.next()) != Constants.EOF) {
+      actualDocIds.add(docId);
+    }
+    assertEquals(actualDocIds, expectedDocIds, ERROR_MESSAGE);
+    assertEquals(iterator.getNumEntriesScanned(), NUM_DOCS, ERROR_MESSAGE);
+
+    // Advance both inside and outside of the scanned batch
+    iterator = getIterator(values, predicateEvaluator);
+    for (int targetDocId = 0; targetDocId < NUM_DOCS; targetDocId += 1 + RANDOM.nextInt(5000)) {
+      int expectedDocId = Constants.EOF;
+      for (int expected : expectedDocIds) {
+        if (expected >= targetDocId) {
+          expectedDocId = expected;
+          break;
+        }
+      }
+      docId = iterator.advance(targetDocId);
+      assertEquals(docId, expectedDocId, ERROR_MESSAGE);
+      if (docId == Constants.EOF) {
+        break;
+      }
+      targetDocId = docId;
+    }
+
+    // AND with a bitmap
+    iterator = getIterator(values, predicateEvaluator);
+    MutableRoaringBitmap answer = new MutableRoaringBitmap();
+    MutableRoaringBitmap expectedResult = new MutableRoaringBitmap();
+    for (int i = 0; i < NUM_DOCS; i += 1 + RANDOM.nextInt(3)) {
+      answer.add(i);
+      if (predicateEvaluator.applySV(values[i])) {
+        expectedResult.add(i);
+      }
+    }
+    assertEquals(iterator.applyAnd(answer), expectedResult, ERROR_MESSAGE);
+    assertEquals(iterator.getNumEntriesScanned(), answer.getCardinality(), ERROR_MESSAGE);
+  }
+
+  @Test
+  public void testScanWithMatchingChunks() {
+    // Time-like values which are mostly increasing
+    RealtimeZoneMap zoneMap = new RealtimeZoneMap(FieldSpec.DataType.INT);
+    int[] values = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      values[i] = i + RANDOM.nextInt(MAX_VALUE);
+      zoneMap.add(i, values[i]);
+    }
+    RangePredicate rangePredicate = new RangePredicate("column", Collections.singletonList("[12000\t\t18000)"));
+    PredicateEvaluator predicateEvaluator =
+        RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(rangePredicate, FieldSpec.DataType.INT);
+    boolean[] matchingChunks = zoneMap.getMatchingChunks(rangePredicate, NUM_DOCS);
+    int chunkSizeBits = zoneMap.getChunkSizeBits();
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (predicateEvaluator.applySV(values[i])) {
+        expectedDocIds.add(i);
+      }
+    }
+
+    // Sequential iteration
+    SVScanDocIdIterator iterator = getIterator(values, predicateEvaluator);
+    iterator.setMatchingChunks(matchingChunks, chunkSizeBits);
+    List<Integer> actualDocIds = new ArrayList<>();
+    int docId;
+    while ((docId = iterator.next()) != Constants.EOF) {
+      actualDocIds.add(docId);
+    }
+    assertEquals(actualDocIds, expectedDocIds, ERROR_MESSAGE);
+    // Only the matching chunks should be scanned
+    int numMatchingChunks = 0;
+    for (boolean matchingChunk : matchingChunks) {
+      if (matchingChunk) {
+        numMatchingChunks++;
+      }
+    }
+    assertTrue(numMatchingChunks < matchingChunks.length, ERROR_MESSAGE);
+    assertEquals(iterator.getNumEntriesScanned(), numMatchingChunks << chunkSizeBits, ERROR_MESSAGE);
+
+    // Advance into a chunk that cannot match
+    iterator = getIterator(values, predicateEvaluator);
+    iterator.setMatchingChunks(matchingChunks, chunkSizeBits);
+    assertEquals(iterator.advance(0), (int) expectedDocIds.get(0), ERROR_MESSAGE);
+    assertEquals(iterator.advance(NUM_DOCS - 1), Constants.EOF, ERROR_MESSAGE);
+
+    // AND with a bitmap
+    iterator = getIterator(values, predicateEvaluator);
+    iterator.setMatchingChunks(matchingChunks, chunkSizeBits);
+    MutableRoaringBitmap answer = new MutableRoaringBitmap();
+    MutableRoaringBitmap expectedResult = new MutableRoaringBitmap();
+    for (int i = 0; i < NUM_DOCS; i += 1 + RANDOM.nextInt(3)) {
+      answer.add(i);
+      if (predicateEvaluator.applySV(values[i])) {
+        expectedResult.add(i);
+      }
+    }
+    assertEquals(iterator.applyAnd(answer), expectedResult, ERROR_MESSAGE);
+    assertTrue(iterator.getNumEntriesScanned() < answer.getCardinality(), ERROR_MESSAGE);
+  }
+
+  private static SVScanDocIdIterator getIterator(int[] values, PredicateEvaluator predicateEvaluator) {
+    SingleValueSet singleValueSet = new SingleValueSet(new IntArrayReader(values), NUM_DOCS, FieldSpec.DataType.INT);
+    return new SVScanDocIdIterator("column", singleValueSet,
+        new BlockMetadataImpl(NUM_DOCS, true, 0, FieldSpec.DataType.INT, null), predicateEvaluator);
+  }
+
+  private static class IntArrayReader extends BaseSingleColumnSingleValueReader {
+    private final int[] _values;
+
+    IntArrayReader(int[] values) {
+      _values = values;
+    }
+
+    @Override
+    public int getInt(int row) {
+      return _values[row];
+    }
+
+    @Override
+    public int getInt(int row, ReaderContext context) {
+      return _values[row];
+    }
+
+    @Override
+    public ReaderContext createContext() {
+      return null;
+    }
+  }
+}
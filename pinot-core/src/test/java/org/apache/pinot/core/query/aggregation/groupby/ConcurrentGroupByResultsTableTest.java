@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+import org.apache.pinot.core.operator.blocks.TransformBlock;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.SumAggregationFunction;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+
+public class ConcurrentGroupByResultsTableTest {
+  private static final int NUM_SEGMENTS = 20;
+  private static final int NUM_GROUPS_PER_SEGMENT = 10_000;
+  private static final AggregationFunction[] AGGREGATION_FUNCTIONS = {new SumAggregationFunction()};
+
+  @Test
+  public void testConcurrentMerge()
+      throws Exception {
+    ConcurrentGroupByResultsTable resultsTable =
+        new ConcurrentGroupByResultsTable(AGGREGATION_FUNCTIONS, Integer.MAX_VALUE);
+    Map<String, Double> expected = new HashMap<>();
+
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      List<Future> futures = new ArrayList<>(NUM_SEGMENTS);
+      for (int i = 0; i < NUM_SEGMENTS; i++) {
+        // Each segment covers an overlapping range of group keys
+        int start = i * NUM_GROUPS_PER_SEGMENT / 2;
+        for (int j = 0; j < NUM_GROUPS_PER_SEGMENT; j++) {
+          expected.merge(getStringKey(start + j), (double) j, Double::sum);
+        }
+        AggregationGroupByResult aggregationGroupByResult = getAggregationGroupByResult(start);
+        futures.add(executorService.submit(() -> resultsTable.merge(aggregationGroupByResult)));
+      }
+      for (Future future : futures) {
+        future.get();
+      }
+    } finally {
+      executorService.shutdown();
+    }
+
+    assertEquals(resultsTable.size(), expected.size());
+    int numEntries = 0;
+    for (Map.Entry<String, Object[]> entry : resultsTable.entrySet()) {
+      assertEquals(entry.getValue()[0], expected.get(entry.getKey()));
+      numEntries++;
+    }
+    assertEquals(numEntries, expected.size());
+    assertNull(resultsTable.get("nonExistingKey"));
+  }
+
+  @Test
+  public void testNumGroupsLimit() {
+    int numGroupsLimit = 100;
+    ConcurrentGroupByResultsTable resultsTable =
+        new ConcurrentGroupByResultsTable(AGGREGATION_FUNCTIONS, numGroupsLimit, 4);
+    resultsTable.merge(getAggregationGroupByResult(0));
+    resultsTable.merge(getAggregationGroupByResult(0));
+
+    assertEquals(resultsTable.size(), numGroupsLimit);
+    int numEntries = 0;
+    for (Map.Entry<String, Object[]> entry : resultsTable.entrySet()) {
+      int groupId = Integer.parseInt(entry.getKey().substring(entry.getKey().indexOf('\t') + 1));
+      assertEquals(entry.getValue()[0], 2.0 * groupId);
+      numEntries++;
+    }
+    assertEquals(numEntries, numGroupsLimit);
+  }
+
+  private static String getStringKey(int groupId) {
+    return "group" + AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER + groupId;
+  }
+
+  /**
+   * Returns a group-by result with {@link #NUM_GROUPS_PER_SEGMENT} groups starting from the given group id, where the
+   * value for each group is the offset of the group inside the segment.
+   */
+  private static AggregationGroupByResult getAggregationGroupByResult(int start) {
+    DoubleGroupByResultHolder resultHolder =
+        new DoubleGroupByResultHolder(NUM_GROUPS_PER_SEGMENT, NUM_GROUPS_PER_SEGMENT, 0.0);
+    for (int i = 0; i < NUM_GROUPS_PER_SEGMENT; i++) {
+      resultHolder.setValueForKey(i, (double) i);
+    }
+    return new AggregationGroupByResult(new GroupKeyGenerator() {
+      @Override
+      public int getGlobalGroupKeyUpperBound() {
+        return NUM_GROUPS_PER_SEGMENT;
+      }
+
+      @Override
+      public void generateKeysForBlock(@Nonnull TransformBlock transformBlock, @Nonnull int[] groupKeys) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void generateKeysForBlock(@Nonnull TransformBlock transformBlock, @Nonnull int[][] groupKeys) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public int getCurrentGroupKeyUpperBound() {
+        return NUM_GROUPS_PER_SEGMENT;
+      }
+
+      @Override
+      public Iterator<GroupKey> getUniqueGroupKeys() {
+        return new Iterator<GroupKey>() {
+          // Reuse the group key as the real group key generators do
+          private final GroupKey _groupKey = new GroupKey();
+          private int _groupId = 0;
+
+          @Override
+          public boolean hasNext() {
+            return _groupId < NUM_GROUPS_PER_SEGMENT;
+          }
+
+          @Override
+          public GroupKey next() {
+            _groupKey._groupId = _groupId;
+            _groupKey._stringKey = getStringKey(start + _groupId);
+            _groupId++;
+            return _groupKey;
+          }
+        };
+      }
+    }, AGGREGATION_FUNCTIONS, new GroupByResultHolder[]{resultHolder});
+  }
+}
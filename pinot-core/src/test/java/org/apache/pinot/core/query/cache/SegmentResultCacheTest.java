@@ -0,0 +1,332 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.request.AggregationInfo;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.GroupBy;
+import org.apache.pinot.common.request.QuerySource;
+import org.apache.pinot.common.segment.SegmentMetadata;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegment;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.SegmentResultCacheOperator;
+import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
+import org.apache.pinot.core.query.aggregation.function.SumAggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.customobject.AvgPair;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class SegmentResultCacheTest {
+  private static final String TABLE_NAME = "testTable";
+  private static final ServerMetrics SERVER_METRICS = new ServerMetrics(new MetricsRegistry());
+
+  @Test
+  public void testGetKey() {
+    BrokerRequest brokerRequest = getAggregationBrokerRequest();
+    ImmutableSegment segment = mockImmutableSegment("segment", "123");
+    SegmentResultCache.Key key = SegmentResultCache.getKey(segment, brokerRequest);
+    Assert.assertNotNull(key);
+
+    // Fields not affecting the per-segment result should not affect the key
+    BrokerRequest brokerRequestWithOptions = getAggregationBrokerRequest();
+    brokerRequestWithOptions.setQueryOptions(Collections.singletonMap("timeoutMs", "1000"));
+    Assert.assertEquals(SegmentResultCache.getKey(segment, brokerRequestWithOptions), key);
+
+    // Different CRC or segment name should have different key
+    Assert.assertNotEquals(SegmentResultCache.getKey(mockImmutableSegment("segment", "456"), brokerRequest), key);
+    Assert.assertNotEquals(SegmentResultCache.getKey(mockImmutableSegment("segment2", "123"), brokerRequest), key);
+
+    // Different aggregation should have different key
+    BrokerRequest anotherBrokerRequest = getAggregationBrokerRequest();
+    anotherBrokerRequest.getAggregationsInfo().get(0).setAggregationType("max");
+    Assert.assertNotEquals(SegmentResultCache.getKey(segment, anotherBrokerRequest), key);
+
+    // Mutable segment, selection query and query with trace are not cacheable
+    MutableSegment mutableSegment = mock(MutableSegment.class);
+    Assert.assertNull(SegmentResultCache.getKey(mutableSegment, brokerRequest));
+    Assert.assertNull(SegmentResultCache.getKey(segment, new BrokerRequest()));
+    BrokerRequest brokerRequestWithTrace = getAggregationBrokerRequest();
+    brokerRequestWithTrace.setEnableTrace(true);
+    Assert.assertNull(SegmentResultCache.getKey(segment, brokerRequestWithTrace));
+  }
+
+  @Test
+  public void testAggregation() {
+    SegmentResultCache cache = new SegmentResultCache(1024 * 1024, SERVER_METRICS);
+    SegmentResultCache.Key key =
+        SegmentResultCache.getKey(mockImmutableSegment("segment", "123"), getAggregationBrokerRequest());
+    Assert.assertNull(cache.get(key));
+
+    List<Object> aggregationResult = Arrays.asList(10L, new AvgPair(5.0, 2L));
+    cache.put(key, new IntermediateResultsBlock(null, aggregationResult, false), 0L);
+    Assert.assertEquals(cache.getNumEntries(), 1);
+
+    CachedSegmentResult cachedResult = cache.get(key);
+    Assert.assertNotNull(cachedResult);
+    List<Object> firstResult = cachedResult.toResultsBlock(null).getAggregationResult();
+    Assert.assertEquals(firstResult.get(0), 10L);
+    AvgPair avgPair = (AvgPair) firstResult.get(1);
+    Assert.assertEquals(avgPair.getSum(), 5.0);
+    Assert.assertEquals(avgPair.getCount(), 2L);
+
+    // Modifying the returned result should not affect the cached result
+    avgPair.apply(1.0, 1L);
+    AvgPair cachedAvgPair = (AvgPair) cachedResult.toResultsBlock(null).getAggregationResult().get(1);
+    Assert.assertEquals(cachedAvgPair.getSum(), 5.0);
+    Assert.assertEquals(cachedAvgPair.getCount(), 2L);
+  }
+
+  @Test
+  public void testAggregationGroupBy() {
+    SegmentResultCache cache = new SegmentResultCache(1024 * 1024, SERVER_METRICS);
+    SegmentResultCache.Key key =
+        SegmentResultCache.getKey(mockImmutableSegment("segment", "123"), getAggregationBrokerRequest());
+    String[] groupKeys = {"a", "b", "c"};
+    Object[] results = {1L, 2L, 3L};
+    AggregationFunctionContext[] functionContexts =
+        new AggregationFunctionContext[]{new AggregationFunctionContext(new SumAggregationFunction(), "metric")};
+    cache.put(key,
+        new IntermediateResultsBlock(functionContexts, new TestAggregationGroupByResult(groupKeys, results)), 0L);
+
+    CachedSegmentResult cachedResult = cache.get(key);
+    Assert.assertNotNull(cachedResult);
+    AggregationGroupByResult aggregationGroupByResult =
+        cachedResult.toResultsBlock(functionContexts).getAggregationGroupByResult();
+    Assert.assertNotNull(aggregationGroupByResult);
+    List<String> actualGroupKeys = new ArrayList<>();
+    List<Object> actualResults = new ArrayList<>();
+    Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+    while (groupKeyIterator.hasNext()) {
+      GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+      actualGroupKeys.add(groupKey._stringKey);
+      actualResults.add(aggregationGroupByResult.getResultForKey(groupKey, 0));
+    }
+    Assert.assertEquals(actualGroupKeys, Arrays.asList(groupKeys));
+    Assert.assertEquals(actualResults, Arrays.asList(results));
+  }
+
+  @Test
+  public void testEvictionAndInvalidation() {
+    SegmentResultCache.Key key1 =
+        SegmentResultCache.getKey(mockImmutableSegment("segment1", "123"), getAggregationBrokerRequest());
+    SegmentResultCache.Key key2 =
+        SegmentResultCache.getKey(mockImmutableSegment("segment2", "123"), getAggregationBrokerRequest());
+    SegmentResultCache.Key key3 =
+        SegmentResultCache.getKey(mockImmutableSegment("segment3", "123"), getAggregationBrokerRequest());
+    IntermediateResultsBlock resultsBlock =
+        new IntermediateResultsBlock(null, Collections.singletonList((Object) 10L), false);
+
+    // Measure the size of a single entry
+    SegmentResultCache cache = new SegmentResultCache(Long.MAX_VALUE, SERVER_METRICS);
+    cache.put(key1, resultsBlock, 0L);
+    long entrySizeInBytes = cache.getSizeInBytes();
+    Assert.assertTrue(entrySizeInBytes > 0);
+
+    // Use a single cache segment to get a deterministic LRU order
+    // Cache can hold 4 entries, and each entry takes exactly 1/4 of the cache
+    cache = new SegmentResultCache(4 * entrySizeInBytes, SERVER_METRICS, 1);
+    cache.put(key1, resultsBlock, 0L);
+    cache.put(key2, resultsBlock, 0L);
+    cache.put(key3, resultsBlock, 0L);
+    Assert.assertEquals(cache.getNumEntries(), 3);
+
+    // Access key1 so that key2 becomes the least recently used entry
+    Assert.assertNotNull(cache.get(key1));
+    SegmentResultCache.Key key4 =
+        SegmentResultCache.getKey(mockImmutableSegment("segment4", "123"), getAggregationBrokerRequest());
+    SegmentResultCache.Key key5 =
+        SegmentResultCache.getKey(mockImmutableSegment("segment5", "123"), getAggregationBrokerRequest());
+    cache.put(key4, resultsBlock, 0L);
+    cache.put(key5, resultsBlock, 0L);
+    Assert.assertEquals(cache.getNumEntries(), 4);
+    Assert.assertTrue(cache.getSizeInBytes() <= 4 * entrySizeInBytes);
+    Assert.assertNull(cache.get(key2));
+    Assert.assertNotNull(cache.get(key1));
+
+    // Invalidate segment1
+    cache.invalidateSegment(TABLE_NAME, "segment1");
+    Assert.assertNull(cache.get(key1));
+    Assert.assertEquals(cache.getNumEntries(), 3);
+    Assert.assertEquals(cache.getSizeInBytes(), 3 * entrySizeInBytes);
+
+    // Results with processing exceptions should not be cached
+    cache.put(key1, new IntermediateResultsBlock(new RuntimeException()), 0L);
+    Assert.assertNull(cache.get(key1));
+  }
+
+  @Test
+  public void testInvalidateSegmentWithMultipleEntries() {
+    SegmentResultCache cache = new SegmentResultCache(1024 * 1024, SERVER_METRICS);
+    SegmentResultCache.Key key1 =
+        SegmentResultCache.getKey(mockImmutableSegment("segment1", "123"), getAggregationBrokerRequest());
+    SegmentResultCache.Key key2 =
+        SegmentResultCache.getKey(mockImmutableSegment("segment1", "123"), getGroupByBrokerRequest());
+    SegmentResultCache.Key key3 =
+        SegmentResultCache.getKey(mockImmutableSegment("segment2", "123"), getAggregationBrokerRequest());
+    IntermediateResultsBlock resultsBlock =
+        new IntermediateResultsBlock(null, Collections.singletonList((Object) 10L), false);
+    cache.put(key1, resultsBlock, 0L);
+    cache.put(key2, resultsBlock, 0L);
+    cache.put(key3, resultsBlock, 0L);
+    long sizeInBytes = cache.getSizeInBytes();
+
+    // Replacing an entry should not change the size of the cache
+    cache.put(key3, resultsBlock, 0L);
+    Assert.assertEquals(cache.getNumEntries(), 3);
+    Assert.assertEquals(cache.getSizeInBytes(), sizeInBytes);
+
+    // Invalidating a segment should only remove the entries of that segment
+    cache.invalidateSegment(TABLE_NAME, "segment1");
+    Assert.assertNull(cache.get(key1));
+    Assert.assertNull(cache.get(key2));
+    Assert.assertNotNull(cache.get(key3));
+    Assert.assertEquals(cache.getNumEntries(), 1);
+
+    // The replaced entry should still be invalidated with its segment
+    cache.invalidateSegment(TABLE_NAME, "segment2");
+    Assert.assertNull(cache.get(key3));
+    Assert.assertEquals(cache.getNumEntries(), 0);
+    Assert.assertEquals(cache.getSizeInBytes(), 0);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testCacheHitExecutionStatistics() {
+    SegmentResultCache cache = new SegmentResultCache(1024 * 1024, SERVER_METRICS);
+    SegmentResultCache.Key key =
+        SegmentResultCache.getKey(mockImmutableSegment("segment", "123"), getAggregationBrokerRequest());
+    ExecutionStatistics executionStatistics = new ExecutionStatistics(100L, 200L, 300L, 1000L);
+    Operator<IntermediateResultsBlock> operator = mock(Operator.class);
+    when(operator.nextBlock()).thenReturn(
+        new IntermediateResultsBlock(null, new ArrayList<>(Collections.singletonList((Object) 10L)), false));
+    when(operator.getExecutionStatistics()).thenReturn(executionStatistics);
+    PlanNode planNode = mock(PlanNode.class);
+    when(planNode.run()).thenReturn(operator);
+
+    // Cache miss, the actual plan is executed
+    SegmentResultCacheOperator cacheOperator = new SegmentResultCacheOperator(cache, key, null, () -> planNode, 1000L);
+    Assert.assertEquals(cacheOperator.nextBlock().getAggregationResult().get(0), 10L);
+    Assert.assertSame(cacheOperator.getExecutionStatistics(), executionStatistics);
+
+    // Cache hit, the number of documents scanned (and the segment matched) is replayed, but no entry is scanned
+    cacheOperator = new SegmentResultCacheOperator(cache, key, null, () -> {
+      throw new IllegalStateException("Plan should not be created on cache hit");
+    }, 1000L);
+    Assert.assertEquals(cacheOperator.nextBlock().getAggregationResult().get(0), 10L);
+    ExecutionStatistics cacheHitExecutionStatistics = cacheOperator.getExecutionStatistics();
+    Assert.assertEquals(cacheHitExecutionStatistics.getNumDocsScanned(), 100L);
+    Assert.assertEquals(cacheHitExecutionStatistics.getNumEntriesScannedInFilter(), 0L);
+    Assert.assertEquals(cacheHitExecutionStatistics.getNumEntriesScannedPostFilter(), 0L);
+    Assert.assertEquals(cacheHitExecutionStatistics.getNumTotalRawDocs(), 1000L);
+    Assert.assertEquals(cacheHitExecutionStatistics.getNumSegmentsProcessed(), 1L);
+    Assert.assertEquals(cacheHitExecutionStatistics.getNumSegmentsMatched(), 1L);
+
+    // Segment not matched on cache miss should not be matched on cache hit either
+    SegmentResultCache.Key unmatchedKey =
+        SegmentResultCache.getKey(mockImmutableSegment("unmatchedSegment", "123"), getAggregationBrokerRequest());
+    when(operator.getExecutionStatistics()).thenReturn(new ExecutionStatistics(0L, 200L, 0L, 1000L));
+    cacheOperator = new SegmentResultCacheOperator(cache, unmatchedKey, null, () -> planNode, 1000L);
+    cacheOperator.nextBlock();
+    Assert.assertEquals(cacheOperator.getExecutionStatistics().getNumSegmentsMatched(), 0L);
+    cacheOperator = new SegmentResultCacheOperator(cache, unmatchedKey, null, () -> {
+      throw new IllegalStateException("Plan should not be created on cache hit");
+    }, 1000L);
+    cacheOperator.nextBlock();
+    cacheHitExecutionStatistics = cacheOperator.getExecutionStatistics();
+    Assert.assertEquals(cacheHitExecutionStatistics.getNumDocsScanned(), 0L);
+    Assert.assertEquals(cacheHitExecutionStatistics.getNumSegmentsProcessed(), 1L);
+    Assert.assertEquals(cacheHitExecutionStatistics.getNumSegmentsMatched(), 0L);
+  }
+
+  private static BrokerRequest getAggregationBrokerRequest() {
+    QuerySource querySource = new QuerySource();
+    querySource.setTableName(TABLE_NAME);
+    AggregationInfo aggregationInfo = new AggregationInfo();
+    aggregationInfo.setAggregationType("sum");
+    aggregationInfo.setAggregationParams(Collections.singletonMap("column", "metric"));
+    BrokerRequest brokerRequest = new BrokerRequest();
+    brokerRequest.setQuerySource(querySource);
+    brokerRequest.setAggregationsInfo(new ArrayList<>(Collections.singletonList(aggregationInfo)));
+    return brokerRequest;
+  }
+
+  private static BrokerRequest getGroupByBrokerRequest() {
+    BrokerRequest brokerRequest = getAggregationBrokerRequest();
+    GroupBy groupBy = new GroupBy();
+    groupBy.setColumns(Collections.singletonList("dimension"));
+    groupBy.setTopN(10);
+    brokerRequest.setGroupBy(groupBy);
+    return brokerRequest;
+  }
+
+  private static ImmutableSegment mockImmutableSegment(String segmentName, String crc) {
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getTableName()).thenReturn(TABLE_NAME);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    ImmutableSegment segment = mock(ImmutableSegment.class);
+    when(segment.getSegmentName()).thenReturn(segmentName);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return segment;
+  }
+
+  private static class TestAggregationGroupByResult extends AggregationGroupByResult {
+    private final String[] _groupKeys;
+    private final Object[] _results;
+
+    TestAggregationGroupByResult(String[] groupKeys, Object[] results) {
+      super(null, null, null);
+      _groupKeys = groupKeys;
+      _results = results;
+    }
+
+    @Override
+    public Iterator<GroupKeyGenerator.GroupKey> getGroupKeyIterator() {
+      List<GroupKeyGenerator.GroupKey> groupKeys = new ArrayList<>();
+      for (int i = 0; i < _groupKeys.length; i++) {
+        GroupKeyGenerator.GroupKey groupKey = new GroupKeyGenerator.GroupKey();
+        groupKey._groupId = i;
+        groupKey._stringKey = _groupKeys[i];
+        groupKeys.add(groupKey);
+      }
+      return groupKeys.iterator();
+    }
+
+    @Override
+    public Object getResultForKey(GroupKeyGenerator.GroupKey groupKey, int index) {
+      return _results[groupKey._groupId];
+    }
+  }
+}
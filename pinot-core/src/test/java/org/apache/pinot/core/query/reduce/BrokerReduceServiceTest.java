@@ -0,0 +1,189 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.ServerInstance;
+import org.apache.pinot.common.response.broker.AggregationResult;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.GroupByResult;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class BrokerReduceServiceTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final int NUM_SERVERS = 10;
+  private static final int NUM_GROUPS = 100;
+  private static final int NUM_ROWS_PER_SERVER = 50;
+  private static final Random RANDOM = new Random();
+
+  private final BrokerReduceService _sequentialReduceService = new BrokerReduceService();
+  private final BrokerReduceService _parallelReduceService = new BrokerReduceService(2, 4);
+  private final BrokerReduceService[] _reduceServices =
+      new BrokerReduceService[]{_sequentialReduceService, _parallelReduceService};
+
+  @Test
+  public void testGroupBy()
+      throws Exception {
+    BrokerRequest brokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT SUM(m), MAX(m) FROM myTable GROUP BY d TOP " + NUM_GROUPS);
+    DataSchema dataSchema = new DataSchema(new String[]{"functionName", "GroupByResultMap"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.OBJECT});
+    Map<String, Double> expectedSums = new HashMap<>();
+    Map<String, Double> expectedMaxs = new HashMap<>();
+    List<Map<String, Double>> sumMaps = new ArrayList<>(NUM_SERVERS);
+    List<Map<String, Double>> maxMaps = new ArrayList<>(NUM_SERVERS);
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      Map<String, Double> sumMap = new HashMap<>();
+      Map<String, Double> maxMap = new HashMap<>();
+      for (int j = 0; j < NUM_ROWS_PER_SERVER; j++) {
+        String groupKey = Integer.toString(RANDOM.nextInt(NUM_GROUPS));
+        double value = RANDOM.nextInt(1000);
+        sumMap.merge(groupKey, value, Double::sum);
+        maxMap.merge(groupKey, value, Math::max);
+        expectedSums.merge(groupKey, value, Double::sum);
+        expectedMaxs.merge(groupKey, value, Math::max);
+      }
+      sumMaps.add(sumMap);
+      maxMaps.add(maxMap);
+    }
+
+    for (BrokerReduceService reduceService : _reduceServices) {
+      // Data tables are not thread-safe, create new data tables for each reduce
+      Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
+      for (int i = 0; i < NUM_SERVERS; i++) {
+        DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, "sum_m");
+        dataTableBuilder.setColumn(1, new HashMap<>(sumMaps.get(i)));
+        dataTableBuilder.finishRow();
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, "max_m");
+        dataTableBuilder.setColumn(1, new HashMap<>(maxMaps.get(i)));
+        dataTableBuilder.finishRow();
+        DataTable dataTable = dataTableBuilder.build();
+        dataTable.getMetadata().put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, Integer.toString(NUM_ROWS_PER_SERVER));
+        dataTableMap.put(new ServerInstance("localhost", i, 0), dataTable);
+      }
+
+      BrokerResponseNative brokerResponse = reduceService.reduceOnDataTable(brokerRequest, dataTableMap, null);
+      Assert.assertEquals(brokerResponse.getNumDocsScanned(), NUM_SERVERS * NUM_ROWS_PER_SERVER);
+      List<AggregationResult> aggregationResults = brokerResponse.getAggregationResults();
+      Assert.assertEquals(aggregationResults.size(), 2);
+      checkGroupByResults(aggregationResults.get(0), expectedSums);
+      checkGroupByResults(aggregationResults.get(1), expectedMaxs);
+    }
+  }
+
+  private void checkGroupByResults(AggregationResult aggregationResult, Map<String, Double> expectedResults) {
+    List<GroupByResult> groupByResults = aggregationResult.getGroupByResult();
+    Assert.assertEquals(groupByResults.size(), expectedResults.size());
+    for (GroupByResult groupByResult : groupByResults) {
+      double expectedValue = expectedResults.get(groupByResult.getGroup().get(0));
+      Assert.assertEquals(Double.parseDouble((String) groupByResult.getValue()), expectedValue);
+    }
+  }
+
+  @Test
+  public void testSelectionOrderBy()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT d, m FROM myTable ORDER BY m LIMIT 20");
+    DataSchema dataSchema = new DataSchema(new String[]{"m", "d"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING});
+    List<List<Serializable[]>> rowsList = new ArrayList<>(NUM_SERVERS);
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      List<Serializable[]> rows = new ArrayList<>(NUM_ROWS_PER_SERVER);
+      for (int j = 0; j < NUM_ROWS_PER_SERVER; j++) {
+        // Unique values so that the order is deterministic
+        int value = i * NUM_ROWS_PER_SERVER + j;
+        rows.add(new Serializable[]{value, "d" + value});
+      }
+      rowsList.add(rows);
+    }
+
+    List<Serializable[]> expectedRows = null;
+    for (BrokerReduceService reduceService : _reduceServices) {
+      Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
+      for (int i = 0; i < NUM_SERVERS; i++) {
+        dataTableMap.put(new ServerInstance("localhost", i, 0),
+            SelectionOperatorUtils.getDataTableFromRows(rowsList.get(i), dataSchema));
+      }
+
+      BrokerResponseNative brokerResponse = reduceService.reduceOnDataTable(brokerRequest, dataTableMap, null);
+      List<Serializable[]> rows = brokerResponse.getSelectionResults().getRows();
+      Assert.assertEquals(rows.size(), 20);
+      if (expectedRows == null) {
+        expectedRows = rows;
+        for (int i = 0; i < 20; i++) {
+          Assert.assertEquals(rows.get(i)[0], "d" + i);
+        }
+      } else {
+        for (int i = 0; i < 20; i++) {
+          Assert.assertEquals(rows.get(i), expectedRows.get(i));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testStreamingReducer()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"count_star"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.LONG});
+
+    // No data table
+    BrokerReduceService.StreamingReducer streamingReducer = _parallelReduceService.startReduce(brokerRequest, null);
+    Assert.assertEquals(streamingReducer.finish().getNumServersQueried(), 0);
+
+    streamingReducer = _parallelReduceService.startReduce(brokerRequest, null);
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, (long) i);
+      dataTableBuilder.finishRow();
+      streamingReducer.addDataTable(new ServerInstance("localhost", i, 0), dataTableBuilder.build());
+    }
+    // Data table without data rows should be skipped
+    streamingReducer.addDataTable(new ServerInstance("localhost", NUM_SERVERS, 0),
+        DataTableBuilder.getEmptyDataTable(DataTableBuilder.VERSION_2));
+    BrokerResponseNative brokerResponse = streamingReducer.finish();
+    Assert.assertEquals(brokerResponse.getAggregationResults().get(0).getValue(),
+        Long.toString(NUM_SERVERS * (NUM_SERVERS - 1) / 2));
+    Assert.assertTrue(streamingReducer.getReduceTimeNs() > 0);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _parallelReduceService.shutDown();
+  }
+}
@@ -18,9 +18,14 @@
  */
 package org.apache.pinot.core.realtime.impl.invertedindex;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
@@ -103,4 +108,73 @@ public class RealtimeInvertedIndexReaderTest {
     assertFalse(docIds.contains(1));
     assertTrue(docIds.contains(2));
   }
+
+  @Test
+  public void testDuplicateDocIdsAndLargeDictIds() {
+    RealtimeInvertedIndexReader realtimeInvertedIndexReader = new RealtimeInvertedIndexReader();
+
+    // Multi-valued column with duplicate values in the same document
+    realtimeInvertedIndexReader.add(0, 0);
+    realtimeInvertedIndexReader.add(0, 0);
+    realtimeInvertedIndexReader.add(0, 1);
+    assertEquals(realtimeInvertedIndexReader.getDocIds(0).getCardinality(), 2);
+
+    // Dictionary id beyond the initial capacity
+    realtimeInvertedIndexReader.add(100, 1);
+    MutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(100);
+    assertEquals(docIds.getCardinality(), 1);
+    assertTrue(docIds.contains(1));
+    assertTrue(realtimeInvertedIndexReader.getDocIds(99).isEmpty());
+    assertTrue(realtimeInvertedIndexReader.getDocIds(1000).isEmpty());
+
+    // Cached bitmap should be returned when no document id is added, and a new bitmap should be returned otherwise
+    docIds = realtimeInvertedIndexReader.getDocIds(0);
+    assertTrue(realtimeInvertedIndexReader.getDocIds(0) == docIds);
+    realtimeInvertedIndexReader.add(0, 2);
+    MutableRoaringBitmap newDocIds = realtimeInvertedIndexReader.getDocIds(0);
+    assertFalse(newDocIds == docIds);
+    assertEquals(docIds.getCardinality(), 2);
+    assertEquals(newDocIds.getCardinality(), 3);
+  }
+
+  @Test
+  public void testConcurrentReadWrite()
+      throws Exception {
+    RealtimeInvertedIndexReader realtimeInvertedIndexReader = new RealtimeInvertedIndexReader();
+    int numDocs = 1_000_000;
+    int numDictIds = 10;
+    ExecutorService executorService = Executors.newFixedThreadPool(3);
+    try {
+      Future<?> writerFuture = executorService.submit(() -> {
+        for (int docId = 0; docId < numDocs; docId++) {
+          realtimeInvertedIndexReader.add(docId % numDictIds, docId);
+        }
+      });
+      Future<?>[] readerFutures = new Future[2];
+      for (int i = 0; i < 2; i++) {
+        readerFutures[i] = executorService.submit(() -> {
+          while (!writerFuture.isDone()) {
+            for (int dictId = 0; dictId < numDictIds; dictId++) {
+              // The readers should always see a prefix of the document ids for the dictionary id
+              MutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(dictId);
+              int cardinality = docIds.getCardinality();
+              if (cardinality > 0) {
+                assertEquals(docIds.first(), dictId);
+                assertEquals(docIds.last(), dictId + (cardinality - 1) * numDictIds);
+              }
+            }
+          }
+        });
+      }
+      writerFuture.get(1, TimeUnit.MINUTES);
+      for (Future<?> readerFuture : readerFutures) {
+        readerFuture.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    for (int dictId = 0; dictId < numDictIds; dictId++) {
+      assertEquals(realtimeInvertedIndexReader.getDocIds(dictId).getCardinality(), numDocs / numDictIds);
+    }
+  }
 }
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.zonemap;
+
+import java.util.Collections;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.core.common.predicate.RangePredicate;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class RealtimeZoneMapTest {
+  private static final int CHUNK_SIZE_BITS = 2;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SIZE_BITS;
+  // More than the initial number of chunks to test expansion
+  private static final int NUM_CHUNKS = 50;
+
+  @Test
+  public void testLongValues() {
+    // Chunk i contains values [10 * i, 10 * i + 3]
+    RealtimeZoneMap zoneMap = new RealtimeZoneMap(FieldSpec.DataType.LONG, CHUNK_SIZE_BITS);
+    for (int i = 0; i < NUM_CHUNKS * CHUNK_SIZE; i++) {
+      int chunkId = i / CHUNK_SIZE;
+      // Add values in descending order inside the chunk
+      zoneMap.add(i, (long) (10 * chunkId + CHUNK_SIZE - 1 - i % CHUNK_SIZE));
+    }
+    Assert.assertEquals(zoneMap.getChunkSizeBits(), CHUNK_SIZE_BITS);
+
+    checkMatchingChunks(zoneMap, "[13\t\t23]", NUM_CHUNKS * CHUNK_SIZE, 1, 2);
+    checkMatchingChunks(zoneMap, "(13\t\t23]", NUM_CHUNKS * CHUNK_SIZE, 2, 2);
+    checkMatchingChunks(zoneMap, "[13\t\t20)", NUM_CHUNKS * CHUNK_SIZE, 1, 1);
+    checkMatchingChunks(zoneMap, "(14\t\t19]", NUM_CHUNKS * CHUNK_SIZE, -1, -1);
+    checkMatchingChunks(zoneMap, "(*\t\t5)", NUM_CHUNKS * CHUNK_SIZE, 0, 0);
+    checkMatchingChunks(zoneMap, "[480\t\t*)", NUM_CHUNKS * CHUNK_SIZE, 48, 49);
+    // Only the chunks for the first numDocs documents should be returned
+    checkMatchingChunks(zoneMap, "[*\t\t*]", 5, 0, 1);
+
+    // Cannot prune with decimal boundary
+    Assert.assertNull(zoneMap.getMatchingChunks(
+        new RangePredicate("column", Collections.singletonList("[1.5\t\t2.5]")), NUM_CHUNKS * CHUNK_SIZE));
+  }
+
+  @Test
+  public void testDoubleValues() {
+    RealtimeZoneMap zoneMap = new RealtimeZoneMap(FieldSpec.DataType.DOUBLE, CHUNK_SIZE_BITS);
+    for (int i = 0; i < NUM_CHUNKS * CHUNK_SIZE; i++) {
+      int chunkId = i / CHUNK_SIZE;
+      // NaN should not be tracked
+      zoneMap.add(i, i % CHUNK_SIZE == 0 ? Double.NaN : 10 * chunkId + i % CHUNK_SIZE + 0.5);
+    }
+
+    checkMatchingChunks(zoneMap, "[11.5\t\t23.5]", NUM_CHUNKS * CHUNK_SIZE, 1, 2);
+    checkMatchingChunks(zoneMap, "(13.5\t\t21.5)", NUM_CHUNKS * CHUNK_SIZE, -1, -1);
+    checkMatchingChunks(zoneMap, "[15\t\t25]", NUM_CHUNKS * CHUNK_SIZE, 2, 2);
+  }
+
+  /**
+   * Checks that only the chunks within [firstMatchingChunk, lastMatchingChunk] are matching.
+   */
+  private void checkMatchingChunks(RealtimeZoneMap zoneMap, String range, int numDocs, int firstMatchingChunk,
+      int lastMatchingChunk) {
+    boolean[] matchingChunks =
+        zoneMap.getMatchingChunks(new RangePredicate("column", Collections.singletonList(range)), numDocs);
+    Assert.assertNotNull(matchingChunks);
+    Assert.assertEquals(matchingChunks.length, (numDocs + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    for (int i = 0; i < matchingChunks.length; i++) {
+      Assert.assertEquals(matchingChunks[i], i >= firstMatchingChunk && i <= lastMatchingChunk, range);
+    }
+  }
+}
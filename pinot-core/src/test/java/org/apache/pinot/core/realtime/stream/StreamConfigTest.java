@@ -183,6 +183,7 @@ public class StreamConfigTest {
     Assert.assertEquals(streamConfig.getFlushThresholdTimeMillis(), StreamConfig.getDefaultFlushThresholdTimeMillis());
     Assert.assertEquals(streamConfig.getFlushSegmentDesiredSizeBytes(),
         StreamConfig.getDefaultDesiredSegmentSizeBytes());
+    Assert.assertEquals(streamConfig.getDecoderNumThreads(), StreamConfig.getDefaultDecoderNumThreads());
 
     consumerType = "lowLevel,highLevel";
     String offsetCriteria = "smallest";
@@ -193,6 +194,7 @@ public class StreamConfigTest {
     String flushThresholdTime = "2h";
     String flushThresholdRows = "500";
     String flushSegmentSize = "20M";
+    String decoderNumThreads = "4";
     streamConfigMap.put(
         StreamConfigProperties.constructStreamProperty(streamType, StreamConfigProperties.STREAM_CONSUMER_TYPES),
         consumerType);
@@ -209,6 +211,7 @@ public class StreamConfigTest {
     streamConfigMap.put(StreamConfigProperties.SEGMENT_FLUSH_THRESHOLD_ROWS, flushThresholdRows);
     streamConfigMap.put(StreamConfigProperties.SEGMENT_FLUSH_THRESHOLD_TIME, flushThresholdTime);
     streamConfigMap.put(StreamConfigProperties.SEGMENT_FLUSH_DESIRED_SIZE, flushSegmentSize);
+    streamConfigMap.put(StreamConfigProperties.DECODER_NUM_THREADS, decoderNumThreads);
 
     streamConfig = new StreamConfig(streamConfigMap);
     Assert.assertEquals(streamConfig.getType(), streamType);
@@ -226,6 +229,7 @@ public class StreamConfigTest {
     Assert.assertEquals(streamConfig.getFlushThresholdTimeMillis(),
         (long) TimeUtils.convertPeriodToMillis(flushThresholdTime));
     Assert.assertEquals(streamConfig.getFlushSegmentDesiredSizeBytes(), DataSize.toBytes(flushSegmentSize));
+    Assert.assertEquals(streamConfig.getDecoderNumThreads(), Integer.parseInt(decoderNumThreads));
 
     // Backward compatibility check for flushThresholdTime
     flushThresholdTime = "18000000";
@@ -316,6 +320,12 @@ public class StreamConfigTest {
     streamConfig = new StreamConfig(streamConfigMap);
     Assert.assertEquals(streamConfig.getFlushSegmentDesiredSizeBytes(),
         StreamConfig.getDefaultDesiredSegmentSizeBytes());
+
+    // Invalid decoder number of threads
+    streamConfigMap.remove(StreamConfigProperties.SEGMENT_FLUSH_DESIRED_SIZE);
+    streamConfigMap.put(StreamConfigProperties.DECODER_NUM_THREADS, "threads");
+    streamConfig = new StreamConfig(streamConfigMap);
+    Assert.assertEquals(streamConfig.getDecoderNumThreads(), StreamConfig.getDefaultDecoderNumThreads());
   }
 
   /**
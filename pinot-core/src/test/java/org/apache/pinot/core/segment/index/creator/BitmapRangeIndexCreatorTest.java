@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import java.io.File;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.inv.BitmapRangeIndexCreator;
+import org.apache.pinot.core.segment.index.readers.BitmapRangeIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class BitmapRangeIndexCreatorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "BitmapRangeIndexCreatorTest");
+  private static final String COLUMN_NAME = "testColumn";
+  private static final int NUM_DOCS = 10000;
+  private static final Random RANDOM = new Random();
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @Test
+  public void testRangeIndex()
+      throws Exception {
+    testRangeIndex(1000, BitmapRangeIndexCreator.DEFAULT_NUM_RANGES);
+    testRangeIndex(5, BitmapRangeIndexCreator.DEFAULT_NUM_RANGES);
+    testRangeIndex(1, BitmapRangeIndexCreator.DEFAULT_NUM_RANGES);
+    testRangeIndex(100, 1);
+  }
+
+  private void testRangeIndex(int cardinality, int numRanges)
+      throws Exception {
+    FileUtils.cleanDirectory(TEMP_DIR);
+    int[] dictIds = new int[NUM_DOCS];
+    try (BitmapRangeIndexCreator creator = new BitmapRangeIndexCreator(TEMP_DIR, COLUMN_NAME, cardinality, NUM_DOCS,
+        numRanges)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        dictIds[i] = RANDOM.nextInt(cardinality);
+        creator.add(dictIds[i]);
+      }
+      creator.seal();
+    }
+
+    File rangeIndexFile = new File(TEMP_DIR, COLUMN_NAME + V1Constants.Indexes.BITMAP_RANGE_INDEX_FILE_EXTENSION);
+    try (BitmapRangeIndexReader reader = new BitmapRangeIndexReader(
+        PinotDataBuffer.mapReadOnlyBigEndianFile(rangeIndexFile))) {
+      int actualNumRanges = reader.getNumRanges();
+      Assert.assertTrue(actualNumRanges >= 1 && actualNumRanges <= Math.min(numRanges, cardinality));
+
+      // Ranges should be contiguous and cover all the dictionary ids
+      Assert.assertEquals(reader.getRangeStartDictId(0), 0);
+      Assert.assertEquals(reader.getRangeEndDictId(actualNumRanges - 1), cardinality);
+      for (int rangeId = 0; rangeId < actualNumRanges; rangeId++) {
+        int rangeStartDictId = reader.getRangeStartDictId(rangeId);
+        int rangeEndDictId = reader.getRangeEndDictId(rangeId);
+        Assert.assertTrue(rangeStartDictId < rangeEndDictId);
+        for (int dictId = rangeStartDictId; dictId < rangeEndDictId; dictId++) {
+          Assert.assertEquals(reader.findRangeId(dictId), rangeId);
+        }
+      }
+
+      // Each document should be in the range of its dictionary id
+      int numDocsInRanges = 0;
+      for (int rangeId = 0; rangeId < actualNumRanges; rangeId++) {
+        numDocsInRanges += reader.getDocIds(rangeId).getCardinality();
+      }
+      Assert.assertEquals(numDocsInRanges, NUM_DOCS);
+      for (int docId = 0; docId < NUM_DOCS; docId++) {
+        ImmutableRoaringBitmap docIds = reader.getDocIds(reader.findRangeId(dictIds[docId]));
+        Assert.assertTrue(docIds.contains(docId));
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
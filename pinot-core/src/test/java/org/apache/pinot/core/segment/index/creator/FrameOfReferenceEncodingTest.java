@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.data.DimensionFieldSpec;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.core.segment.index.ColumnMetadata;
+import org.apache.pinot.core.segment.index.SegmentMetadataImpl;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for segments with frame-of-reference/delta encoded raw INT/LONG columns, read through
+ * {@link ImmutableSegment#getRecord(int, GenericRow)}.
+ */
+public class FrameOfReferenceEncodingTest {
+  private static final int NUM_ROWS = 10009;
+
+  private static final String SEGMENT_DIR_NAME =
+      System.getProperty("java.io.tmpdir") + File.separator + "frameOfReferenceEncodingTest";
+  private static final String SEGMENT_NAME = "testSegment";
+
+  private static final String INT_COLUMN = "intColumn";
+  private static final String LONG_COLUMN = "longColumn";
+  private static final String RAW_LONG_COLUMN = "rawLongColumn";
+
+  private List<GenericRow> _rows;
+  private ImmutableSegment _segment;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(new File(SEGMENT_DIR_NAME));
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(LONG_COLUMN, FieldSpec.DataType.LONG, true));
+    schema.addField(new DimensionFieldSpec(RAW_LONG_COLUMN, FieldSpec.DataType.LONG, true));
+
+    Random random = new Random();
+    _rows = new ArrayList<>(NUM_ROWS);
+    long timestamp = System.currentTimeMillis();
+    for (int i = 0; i < NUM_ROWS; i++) {
+      timestamp += random.nextInt(10);
+      Map<String, Object> map = new HashMap<>();
+      map.put(INT_COLUMN, 1000 + random.nextInt(100));
+      map.put(LONG_COLUMN, timestamp);
+      map.put(RAW_LONG_COLUMN, random.nextLong());
+      GenericRow row = new GenericRow();
+      row.init(map);
+      _rows.add(row);
+    }
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setRawIndexCreationColumns(schema.getDimensionNames());
+    config.setFrameOfReferenceEncodingColumns(Arrays.asList(INT_COLUMN, LONG_COLUMN));
+    config.setOutDir(SEGMENT_DIR_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(_rows, schema));
+    driver.build();
+    _segment = ImmutableSegmentLoader.load(driver.getOutputDirectory(), ReadMode.mmap);
+  }
+
+  @Test
+  public void testMetadata() {
+    SegmentMetadataImpl segmentMetadata = (SegmentMetadataImpl) _segment.getSegmentMetadata();
+    for (String column : new String[]{INT_COLUMN, LONG_COLUMN}) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      Assert.assertTrue(columnMetadata.hasFrameOfReferenceEncoding());
+      Assert.assertNull(columnMetadata.getCompressionType());
+    }
+    ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(RAW_LONG_COLUMN);
+    Assert.assertFalse(columnMetadata.hasFrameOfReferenceEncoding());
+    Assert.assertNotNull(columnMetadata.getCompressionType());
+  }
+
+  @Test
+  public void testGetRecord() {
+    GenericRow reuse = new GenericRow();
+    for (int docId = 0; docId < NUM_ROWS; docId++) {
+      GenericRow expected = _rows.get(docId);
+      GenericRow actual = _segment.getRecord(docId, reuse);
+      Assert.assertEquals(actual.getValue(INT_COLUMN), expected.getValue(INT_COLUMN));
+      Assert.assertEquals(actual.getValue(LONG_COLUMN), expected.getValue(LONG_COLUMN));
+      Assert.assertEquals(actual.getValue(RAW_LONG_COLUMN), expected.getValue(RAW_LONG_COLUMN));
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _segment.destroy();
+    FileUtils.deleteQuietly(new File(SEGMENT_DIR_NAME));
+  }
+}
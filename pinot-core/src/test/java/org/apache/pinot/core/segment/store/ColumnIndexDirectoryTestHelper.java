@@ -143,6 +143,13 @@ public class ColumnIndexDirectoryTestHelper {
         return invocationOnMock.getArguments()[0] + ".bloom";
       }
     });
+    when(meta.getBitmapRangeIndexFileName(anyString())).thenAnswer(new Answer<String>() {
+      @Override
+      public String answer(InvocationOnMock invocationOnMock)
+          throws Throwable {
+        return invocationOnMock.getArguments()[0] + ".range";
+      }
+    });
     return meta;
   }
 }
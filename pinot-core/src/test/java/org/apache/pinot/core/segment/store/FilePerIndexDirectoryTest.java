@@ -20,6 +20,7 @@ package org.apache.pinot.core.segment.store;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.segment.ReadMode;
@@ -175,4 +176,38 @@ public class FilePerIndexDirectoryTest {
       Assert.assertFalse(fpi.getFileFor("col1", ColumnIndexType.FORWARD_INDEX).exists());
     }
   }
+
+  @Test
+  public void testPrefetchColumns()
+      throws Exception {
+    int size = (int) ONE_MB;
+    try (FilePerIndexDirectory fpi = new FilePerIndexDirectory(segmentDir, segmentMetadata, ReadMode.mmap)) {
+      try (PinotDataBuffer buffer = fpi.newForwardIndexBuffer("foo", size)) {
+      }
+      try (PinotDataBuffer buffer = fpi.newForwardIndexBuffer("bar", size)) {
+      }
+    }
+
+    // Only the configured column should be prefetched, without being counted against the server wide prefetch limit
+    IndexLoadPolicy loadPolicy = new IndexLoadPolicy(Collections.emptySet(), Collections.singleton("foo"));
+    long totalPrefetchedBytes = SegmentDirectory.getPrefetchedBytes();
+    long numPrefetchedPagesInLimit = SegmentLocalFSDirectory.getNumPrefetchedPagesInLimit();
+    SegmentLocalFSDirectory segmentDirectory =
+        new SegmentLocalFSDirectory(segmentDir, segmentMetadata, ReadMode.mmap, loadPolicy);
+    try (SegmentDirectory.Reader reader = segmentDirectory.createReader()) {
+      reader.getIndexFor("foo", ColumnIndexType.FORWARD_INDEX);
+      Assert.assertEquals(segmentDirectory.getSegmentPrefetchedBytes(), size);
+      reader.getIndexFor("bar", ColumnIndexType.FORWARD_INDEX);
+      Assert.assertEquals(segmentDirectory.getSegmentPrefetchedBytes(), size);
+      // Already prefetched
+      reader.getIndexFor("foo", ColumnIndexType.FORWARD_INDEX);
+      Assert.assertEquals(segmentDirectory.getSegmentPrefetchedBytes(), size);
+    }
+    Assert.assertEquals(SegmentDirectory.getPrefetchedBytes() - totalPrefetchedBytes, size);
+    Assert.assertEquals(SegmentLocalFSDirectory.getNumPrefetchedPagesInLimit(), numPrefetchedPagesInLimit);
+
+    // The prefetched bytes should be released when the segment is unloaded
+    segmentDirectory.close();
+    Assert.assertEquals(SegmentDirectory.getPrefetchedBytes(), totalPrefetchedBytes);
+  }
 }
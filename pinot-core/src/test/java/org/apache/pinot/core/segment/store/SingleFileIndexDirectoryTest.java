@@ -157,6 +157,29 @@ public class SingleFileIndexDirectoryTest {
     }
   }
 
+  @Test
+  public void testPreloadIndexTypes()
+      throws Exception {
+    int numIter = 4;
+    long size = 4L * ONE_MB;
+    try (SingleFileIndexDirectory columnDirectory = new SingleFileIndexDirectory(segmentDir, segmentMetadata,
+        ReadMode.mmap)) {
+      ColumnIndexDirectoryTestHelper.performMultipleWrites(columnDirectory, "foo", size, numIter);
+    }
+
+    // Dictionary and inverted index should be loaded into direct memory, forward index and bloom filter should still
+    // be memory mapped
+    IndexLoadPolicy loadPolicy = new IndexLoadPolicy(
+        new HashSet<>(Arrays.asList(ColumnIndexType.DICTIONARY, ColumnIndexType.INVERTED_INDEX)), null);
+    long directBufferUsage = PinotDataBuffer.getDirectBufferUsage();
+    try (ColumnIndexDirectory columnDirectory = new SingleFileIndexDirectory(segmentDir, segmentMetadata,
+        ReadMode.mmap, loadPolicy)) {
+      Assert.assertEquals(PinotDataBuffer.getDirectBufferUsage() - directBufferUsage, 2 * (size / numIter));
+      ColumnIndexDirectoryTestHelper.verifyMultipleReads(columnDirectory, "foo", numIter);
+    }
+    Assert.assertEquals(PinotDataBuffer.getDirectBufferUsage(), directBufferUsage);
+  }
+
   @Test(expectedExceptions = RuntimeException.class)
   public void testWriteExisting()
       throws Exception {
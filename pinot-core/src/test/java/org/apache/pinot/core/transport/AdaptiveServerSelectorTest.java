@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class AdaptiveServerSelectorTest {
+  private static final String FAST_SERVER = "Server_fast_8098";
+  private static final String SLOW_SERVER = "Server_slow_8098";
+  private static final String NEW_SERVER = "Server_new_8098";
+  private static final int NUM_SEGMENTS = 100;
+  private static final long DECAY_HALF_LIFE_MS = 10_000L;
+
+  private final AtomicLong _clock = new AtomicLong();
+
+  @Test
+  public void testScore() {
+    AdaptiveServerSelector adaptiveServerSelector =
+        new AdaptiveServerSelector(0.5, DECAY_HALF_LIFE_MS, null, _clock::get);
+
+    // Unknown server
+    Assert.assertEquals(adaptiveServerSelector.getScore(NEW_SERVER), 1.0);
+
+    adaptiveServerSelector.recordRequestSubmitted(FAST_SERVER);
+    Assert.assertEquals(adaptiveServerSelector.getScore(FAST_SERVER), 2.0);
+    adaptiveServerSelector.recordRequestFinished(FAST_SERVER, 9);
+    Assert.assertEquals(adaptiveServerSelector.getScore(FAST_SERVER), 10.0);
+
+    // EWMA latency: 0.5 * 29 + 0.5 * 9 = 19
+    adaptiveServerSelector.recordRequestSubmitted(FAST_SERVER);
+    adaptiveServerSelector.recordRequestFinished(FAST_SERVER, 29);
+    Assert.assertEquals(adaptiveServerSelector.getScore(FAST_SERVER), 20.0);
+
+    // In-flight requests
+    adaptiveServerSelector.recordRequestSubmitted(FAST_SERVER);
+    adaptiveServerSelector.recordRequestSubmitted(FAST_SERVER);
+    Assert.assertEquals(adaptiveServerSelector.getScore(FAST_SERVER), 60.0);
+  }
+
+  @Test
+  public void testComputeRoutingTable() {
+    AdaptiveServerSelector adaptiveServerSelector =
+        new AdaptiveServerSelector(0.5, DECAY_HALF_LIFE_MS, null, _clock::get);
+    Map<String, List<String>> segmentToServersMap = new HashMap<>();
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      segmentToServersMap.put("segment" + i, Arrays.asList(FAST_SERVER, SLOW_SERVER));
+    }
+    Set<String> segmentsToQuery = segmentToServersMap.keySet();
+
+    // Without stats, segments should be evenly distributed
+    Map<String, List<String>> routingTable =
+        adaptiveServerSelector.computeRoutingTable(segmentToServersMap, segmentsToQuery);
+    Assert.assertEquals(routingTable.get(FAST_SERVER).size(), NUM_SEGMENTS / 2);
+    Assert.assertEquals(routingTable.get(SLOW_SERVER).size(), NUM_SEGMENTS / 2);
+
+    // Segments should be distributed in inverse proportion to the scores (10 vs 40)
+    adaptiveServerSelector.recordRequestSubmitted(FAST_SERVER);
+    adaptiveServerSelector.recordRequestFinished(FAST_SERVER, 9);
+    adaptiveServerSelector.recordRequestSubmitted(SLOW_SERVER);
+    adaptiveServerSelector.recordRequestFinished(SLOW_SERVER, 39);
+    routingTable = adaptiveServerSelector.computeRoutingTable(segmentToServersMap, segmentsToQuery);
+    Assert.assertEquals(routingTable.get(FAST_SERVER).size(), NUM_SEGMENTS * 4 / 5);
+    Assert.assertEquals(routingTable.get(SLOW_SERVER).size(), NUM_SEGMENTS / 5);
+
+    // Segment with single replica should always be routed to the replica
+    segmentToServersMap.put("singleReplicaSegment", Collections.singletonList(SLOW_SERVER));
+    routingTable = adaptiveServerSelector
+        .computeRoutingTable(segmentToServersMap, Collections.singleton("singleReplicaSegment"));
+    Assert.assertEquals(routingTable.size(), 1);
+    Assert.assertEquals(routingTable.get(SLOW_SERVER), Collections.singletonList("singleReplicaSegment"));
+  }
+
+  @Test
+  public void testPenalizedServerRecovers() {
+    AdaptiveServerSelector adaptiveServerSelector =
+        new AdaptiveServerSelector(0.5, DECAY_HALF_LIFE_MS, null, _clock::get);
+    Map<String, List<String>> segmentToServersMap = new HashMap<>();
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      segmentToServersMap.put("segment" + i, Arrays.asList(FAST_SERVER, SLOW_SERVER));
+    }
+    Set<String> segmentsToQuery = segmentToServersMap.keySet();
+
+    // Slow server (e.g. in a GC pause) is penalized and receives no segment
+    adaptiveServerSelector.recordRequestSubmitted(FAST_SERVER);
+    adaptiveServerSelector.recordRequestFinished(FAST_SERVER, 0);
+    adaptiveServerSelector.recordRequestSubmitted(SLOW_SERVER);
+    adaptiveServerSelector.recordRequestFinished(SLOW_SERVER, 10_000);
+    Map<String, List<String>> routingTable =
+        adaptiveServerSelector.computeRoutingTable(segmentToServersMap, segmentsToQuery);
+    Assert.assertEquals(routingTable.get(FAST_SERVER).size(), NUM_SEGMENTS);
+    Assert.assertNull(routingTable.get(SLOW_SERVER));
+
+    // Latency decays by half after each half-life without requests finishing
+    _clock.addAndGet(DECAY_HALF_LIFE_MS);
+    Assert.assertEquals(adaptiveServerSelector.getScore(SLOW_SERVER), 5001.0);
+    _clock.addAndGet(DECAY_HALF_LIFE_MS);
+    Assert.assertEquals(adaptiveServerSelector.getScore(SLOW_SERVER), 2501.0);
+
+    // New latency is averaged with the decayed latency: 0.5 * 0 + 0.5 * 2500 = 1250
+    adaptiveServerSelector.recordRequestSubmitted(SLOW_SERVER);
+    adaptiveServerSelector.recordRequestFinished(SLOW_SERVER, 0);
+    Assert.assertEquals(adaptiveServerSelector.getScore(SLOW_SERVER), 1251.0);
+
+    // Without more requests, the score of the slow server decays back to the baseline and it gets segments again
+    _clock.addAndGet(20 * DECAY_HALF_LIFE_MS);
+    Assert.assertEquals(adaptiveServerSelector.getScore(SLOW_SERVER), 1.0, 0.01);
+    routingTable = adaptiveServerSelector.computeRoutingTable(segmentToServersMap, segmentsToQuery);
+    Assert.assertEquals(routingTable.get(FAST_SERVER).size(), NUM_SEGMENTS / 2);
+    Assert.assertEquals(routingTable.get(SLOW_SERVER).size(), NUM_SEGMENTS / 2);
+  }
+}
@@ -31,16 +31,26 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.request.InstanceRequest;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableImplV2;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.protocol.TCompactProtocol;
 
 
 /**
  * The {@code DummyServer} class is a Netty server that always responds with the given bytes and the given delay.
+ * <p>When no response bytes are given, it responds with an empty data table carrying the request id of the request.
  */
 public class DummyServer implements Runnable {
   private final int _port;
   private final long _responseDelayMs;
   private final byte[] _responseBytes;
+  private final List<Long> _receivedRequestIds = new CopyOnWriteArrayList<>();
 
   private volatile Channel _channel;
 
@@ -50,6 +60,13 @@ public class DummyServer implements Runnable {
     _responseBytes = responseBytes;
   }
 
+  /**
+   * Constructs the server that responds with the request id of the request.
+   */
+  public DummyServer(int port, long responseDelayMs) {
+    this(port, responseDelayMs, null);
+  }
+
   @Override
   public void run() {
     EventLoopGroup bossGroup = new NioEventLoopGroup();
@@ -67,8 +84,20 @@ public class DummyServer implements Runnable {
                         @Override
                         protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg)
                             throws Exception {
+                          byte[] requestBytes = new byte[msg.readableBytes()];
+                          msg.readBytes(requestBytes);
+                          InstanceRequest instanceRequest = new InstanceRequest();
+                          new TDeserializer(new TCompactProtocol.Factory()).deserialize(instanceRequest, requestBytes);
+                          long requestId = instanceRequest.getRequestId();
+                          _receivedRequestIds.add(requestId);
+                          byte[] responseBytes = _responseBytes;
+                          if (responseBytes == null) {
+                            DataTable dataTable = new DataTableImplV2();
+                            dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+                            responseBytes = dataTable.toBytes();
+                          }
                           Thread.sleep(_responseDelayMs);
-                          ctx.writeAndFlush(ctx.alloc().buffer(_responseBytes.length).writeBytes(_responseBytes),
+                          ctx.writeAndFlush(ctx.alloc().buffer(responseBytes.length).writeBytes(responseBytes),
                               ctx.voidPromise());
                         }
                       });
@@ -84,6 +113,13 @@ public class DummyServer implements Runnable {
     }
   }
 
+  /**
+   * Returns the request ids of the requests received so far.
+   */
+  public List<Long> getReceivedRequestIds() {
+    return new ArrayList<>(_receivedRequestIds);
+  }
+
   public boolean isReady() {
     return _channel != null;
   }
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.InstanceRequest;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class InstanceRequestEncoderTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String BROKER_ID = "testBroker";
+
+  @Test
+  public void testEncode()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(
+        "SELECT COUNT(*) FROM myTable WHERE a IN ('v1', 'v2', 'v3') AND b > 10 GROUP BY c TOP 10");
+    List<String> segments = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      segments.add("myTable_segment_" + i);
+    }
+
+    checkEncode(brokerRequest, BROKER_ID, 123L, segments);
+    checkEncode(brokerRequest, BROKER_ID, -1L, Collections.emptyList());
+    checkEncode(brokerRequest, null, 123L, segments);
+    brokerRequest.setEnableTrace(true);
+    checkEncode(brokerRequest, BROKER_ID, 123L, segments);
+  }
+
+  private void checkEncode(BrokerRequest brokerRequest, String brokerId, long requestId, List<String> segments)
+      throws Exception {
+    InstanceRequest instanceRequest = new InstanceRequest();
+    instanceRequest.setRequestId(requestId);
+    instanceRequest.setQuery(brokerRequest);
+    instanceRequest.setEnableTrace(brokerRequest.isEnableTrace());
+    instanceRequest.setSearchSegments(segments);
+    instanceRequest.setBrokerId(brokerId);
+    byte[] expectedBytes = new TSerializer(new TCompactProtocol.Factory()).serialize(instanceRequest);
+
+    InstanceRequestEncoder requestEncoder = new InstanceRequestEncoder(brokerRequest, brokerId);
+    ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer(requestEncoder.getEstimatedSize(segments));
+    try {
+      requestEncoder.encode(requestId, segments, buffer);
+      byte[] bytes = new byte[buffer.readableBytes()];
+      buffer.readBytes(bytes);
+
+      // Should be identical to the serialized instance request
+      Assert.assertEquals(bytes, expectedBytes);
+      InstanceRequest deserializedInstanceRequest = new InstanceRequest();
+      new TDeserializer(new TCompactProtocol.Factory()).deserialize(deserializedInstanceRequest, bytes);
+      Assert.assertEquals(deserializedInstanceRequest, instanceRequest);
+    } finally {
+      buffer.release();
+    }
+  }
+}
@@ -18,11 +18,15 @@
  */
 package org.apache.pinot.core.transport;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.QuerySource;
 import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.core.common.datatable.DataTableImplV2;
@@ -42,6 +46,17 @@ public class QueryRouterTest {
   private static final Map<String, List<String>> ROUTING_TABLE =
       Collections.singletonMap(SERVER_INSTANCE_NAME, Collections.emptyList());
 
+  // For request hedging
+  private static final int HEDGE_TEST_PORT = 12346;
+  private static final String HEDGE_SERVER_INSTANCE_NAME = "Server_localhost_" + HEDGE_TEST_PORT;
+  private static final Server OFFLINE_HEDGE_SERVER = new Server(HEDGE_SERVER_INSTANCE_NAME, TableType.OFFLINE);
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final Map<String, List<String>> HEDGE_ROUTING_TABLE =
+      Collections.singletonMap(SERVER_INSTANCE_NAME, Collections.singletonList(SEGMENT_NAME));
+  private static final Map<String, List<String>> SEGMENT_TO_SERVERS_MAP =
+      Collections.singletonMap(SEGMENT_NAME, Arrays.asList(SERVER_INSTANCE_NAME, HEDGE_SERVER_INSTANCE_NAME));
+  private static final long HEDGE_DELAY_MS = 100L;
+
   private QueryRouter _queryRouter;
 
   @BeforeClass
@@ -171,6 +186,47 @@ public class QueryRouterTest {
     thread.join();
   }
 
+  @Test
+  public void testPartialResponse()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start the server
+    DummyServer dummyServer = new DummyServer(TEST_PORT, 0L, responseBytes);
+    Thread thread = new Thread(dummyServer);
+    thread.start();
+    while (!dummyServer.isReady()) {
+      Thread.sleep(100L);
+    }
+
+    // Server should not respond because of the non-matching request id
+    long startTimeMs = System.currentTimeMillis();
+    AsyncQueryResponse asyncQueryResponse =
+        _queryRouter.submitQuery(requestId + 1, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L);
+    Assert.assertNull(asyncQueryResponse.waitForNextResponse(startTimeMs + 100L));
+    Map<Server, ServerResponse> response = asyncQueryResponse.getPartialResponse();
+    Assert.assertEquals(response.size(), 1);
+    Assert.assertTrue(response.containsKey(OFFLINE_SERVER));
+    Assert.assertNull(response.get(OFFLINE_SERVER).getDataTable());
+    // Query should return before the query timeout
+    Assert.assertTrue(System.currentTimeMillis() - startTimeMs < 1000);
+
+    // Server should respond before the partial response end time
+    asyncQueryResponse =
+        _queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L);
+    Assert.assertEquals(asyncQueryResponse.waitForNextResponse(System.currentTimeMillis() + 500L), OFFLINE_SERVER);
+    Assert.assertNull(asyncQueryResponse.waitForNextResponse(System.currentTimeMillis() + 500L));
+    response = asyncQueryResponse.getPartialResponse();
+    Assert.assertNotNull(response.get(OFFLINE_SERVER).getDataTable());
+
+    // Shut down the server
+    dummyServer.shutDown();
+    thread.join();
+  }
+
   @Test
   public void testServerDown()
       throws Exception {
@@ -221,6 +277,291 @@ public class QueryRouterTest {
     Assert.assertEquals(serverResponse.getDeserializationTimeMs(), 0);
     // Query should early terminate
     Assert.assertTrue(System.currentTimeMillis() - startTimeMs < 1000);
+
+    // Waiting for the next response should return immediately when the query failed
+    startTimeMs = System.currentTimeMillis();
+    asyncQueryResponse =
+        _queryRouter.submitQuery(requestId + 1, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L);
+    Assert.assertNull(asyncQueryResponse.waitForNextResponse());
+    Assert.assertTrue(asyncQueryResponse.isQueryFailed());
+    Assert.assertNull(asyncQueryResponse.waitForNextResponse());
+    Assert.assertNull(asyncQueryResponse.getResponse().get(OFFLINE_SERVER).getDataTable());
+    Assert.assertTrue(System.currentTimeMillis() - startTimeMs < 1000);
+  }
+
+  @Test
+  public void testHedgedRequestWins()
+      throws Exception {
+    long requestId = 123;
+
+    // Start the slow server and the hedge server, both respond with the request id of the request
+    DummyServer dummyServer = new DummyServer(TEST_PORT, 1_000L);
+    Thread thread = new Thread(dummyServer);
+    thread.start();
+    DummyServer hedgeServer = new DummyServer(HEDGE_TEST_PORT, 0L);
+    Thread hedgeThread = new Thread(hedgeServer);
+    hedgeThread.start();
+    while (!dummyServer.isReady() || !hedgeServer.isReady()) {
+      Thread.sleep(100L);
+    }
+
+    BrokerMetrics brokerMetrics = Mockito.mock(BrokerMetrics.class);
+    QueryRouter queryRouter = createHedgingQueryRouter(brokerMetrics);
+    try {
+      long startTimeMs = System.currentTimeMillis();
+      AsyncQueryResponse asyncQueryResponse =
+          queryRouter.submitQuery(requestId, "testTable", getHedgingBrokerRequest(), HEDGE_ROUTING_TABLE, null, null,
+              5_000L);
+      Map<Server, ServerResponse> response = asyncQueryResponse.getResponse();
+      // Response of the hedged request should be taken as the response of the slow server
+      Assert.assertTrue(System.currentTimeMillis() - startTimeMs < 1000);
+      Assert.assertEquals(response.size(), 1);
+      DataTable dataTable = response.get(OFFLINE_SERVER).getDataTable();
+      Assert.assertNotNull(dataTable);
+
+      // Hedged request should use a negative request id
+      List<Long> hedgedRequestIds = hedgeServer.getReceivedRequestIds();
+      Assert.assertEquals(hedgedRequestIds.size(), 1);
+      long hedgedRequestId = hedgedRequestIds.get(0);
+      Assert.assertTrue(hedgedRequestId < 0);
+      Assert.assertEquals(dataTable.getMetadata().get(DataTable.REQUEST_ID_METADATA_KEY),
+          Long.toString(hedgedRequestId));
+      Assert.assertEquals(dummyServer.getReceivedRequestIds(), Collections.singletonList(requestId));
+      Mockito.verify(brokerMetrics, Mockito.timeout(1_000L))
+          .addMeteredTableValue("testTable", BrokerMeter.HEDGED_REQUESTS, 1);
+      Mockito.verify(brokerMetrics).addMeteredTableValue("testTable", BrokerMeter.HEDGED_REQUESTS_WON, 1);
+
+      // Both the original and the hedged request ids should be cleaned up when the query is done
+      Assert.assertEquals(queryRouter.getNumPendingRequests(), 0);
+    } finally {
+      queryRouter.shutDown();
+    }
+
+    // Shut down the servers
+    dummyServer.shutDown();
+    thread.join();
+    hedgeServer.shutDown();
+    hedgeThread.join();
+  }
+
+  @Test
+  public void testDuplicateResponseDropped()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId + 1));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start the servers, both respond with a non-matching request id so that the responses can be fed manually
+    DummyServer dummyServer = new DummyServer(TEST_PORT, 0L, responseBytes);
+    Thread thread = new Thread(dummyServer);
+    thread.start();
+    DummyServer hedgeServer = new DummyServer(HEDGE_TEST_PORT, 0L, responseBytes);
+    Thread hedgeThread = new Thread(hedgeServer);
+    hedgeThread.start();
+    while (!dummyServer.isReady() || !hedgeServer.isReady()) {
+      Thread.sleep(100L);
+    }
+
+    BrokerMetrics brokerMetrics = Mockito.mock(BrokerMetrics.class);
+    QueryRouter queryRouter = createHedgingQueryRouter(brokerMetrics);
+    try {
+      AsyncQueryResponse asyncQueryResponse =
+          queryRouter.submitQuery(requestId, "testTable", getHedgingBrokerRequest(), HEDGE_ROUTING_TABLE, null, null,
+              5_000L);
+      long endTimeMs = System.currentTimeMillis() + 1_000L;
+      while (hedgeServer.getReceivedRequestIds().isEmpty()) {
+        Assert.assertTrue(System.currentTimeMillis() < endTimeMs, "Hedged request is not sent");
+        Thread.sleep(10L);
+      }
+      long hedgedRequestId = hedgeServer.getReceivedRequestIds().get(0);
+      Assert.assertEquals(queryRouter.getNumPendingRequests(), 2);
+
+      // The first response wins, and the later response for the same server is dropped
+      DataTable originalDataTable = new DataTableImplV2();
+      originalDataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+      queryRouter.receiveDataTable(OFFLINE_SERVER, originalDataTable, 10L, 0L);
+      DataTable hedgedDataTable = new DataTableImplV2();
+      hedgedDataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(hedgedRequestId));
+      queryRouter.receiveDataTable(OFFLINE_HEDGE_SERVER, hedgedDataTable, 20L, 0L);
+      Assert.assertEquals(asyncQueryResponse.waitForNextResponse(), OFFLINE_SERVER);
+      Assert.assertNull(asyncQueryResponse.waitForNextResponse());
+      Map<Server, ServerResponse> response = asyncQueryResponse.getResponse();
+      ServerResponse serverResponse = response.get(OFFLINE_SERVER);
+      Assert.assertSame(serverResponse.getDataTable(), originalDataTable);
+      Assert.assertEquals(serverResponse.getResponseSize(), 10L);
+      Mockito.verify(brokerMetrics, Mockito.never())
+          .addMeteredTableValue("testTable", BrokerMeter.HEDGED_REQUESTS_WON, 1);
+
+      // Both the original and the hedged request ids should be cleaned up when the query is done, and the responses
+      // arriving after that should be ignored
+      Assert.assertEquals(queryRouter.getNumPendingRequests(), 0);
+      queryRouter.receiveDataTable(OFFLINE_HEDGE_SERVER, hedgedDataTable, 20L, 0L);
+      Assert.assertSame(asyncQueryResponse.getServerResponse(OFFLINE_SERVER).getDataTable(), originalDataTable);
+    } finally {
+      queryRouter.shutDown();
+    }
+
+    // Shut down the servers
+    dummyServer.shutDown();
+    thread.join();
+    hedgeServer.shutDown();
+    hedgeThread.join();
+  }
+
+  @Test
+  public void testNoHedgeForFastResponse()
+      throws Exception {
+    long requestId = 123;
+
+    // Start the servers, both respond with the request id of the request
+    DummyServer dummyServer = new DummyServer(TEST_PORT, 0L);
+    Thread thread = new Thread(dummyServer);
+    thread.start();
+    DummyServer hedgeServer = new DummyServer(HEDGE_TEST_PORT, 0L);
+    Thread hedgeThread = new Thread(hedgeServer);
+    hedgeThread.start();
+    while (!dummyServer.isReady() || !hedgeServer.isReady()) {
+      Thread.sleep(100L);
+    }
+
+    QueryRouter queryRouter = createHedgingQueryRouter(Mockito.mock(BrokerMetrics.class));
+    try {
+      AsyncQueryResponse asyncQueryResponse =
+          queryRouter.submitQuery(requestId, "testTable", getHedgingBrokerRequest(), HEDGE_ROUTING_TABLE, null, null,
+              5_000L);
+      Map<Server, ServerResponse> response = asyncQueryResponse.getResponse();
+      Assert.assertEquals(response.get(OFFLINE_SERVER).getDataTable().getMetadata()
+          .get(DataTable.REQUEST_ID_METADATA_KEY), Long.toString(requestId));
+      Assert.assertEquals(queryRouter.getNumPendingRequests(), 0);
+
+      // No hedged request should be sent after the query is done
+      Thread.sleep(2 * HEDGE_DELAY_MS);
+      Assert.assertTrue(hedgeServer.getReceivedRequestIds().isEmpty());
+      Assert.assertEquals(queryRouter.getNumPendingRequests(), 0);
+    } finally {
+      queryRouter.shutDown();
+    }
+
+    // Shut down the servers
+    dummyServer.shutDown();
+    thread.join();
+    hedgeServer.shutDown();
+    hedgeThread.join();
+  }
+
+  @Test
+  public void testHedgedRequestRecordedForHedgeServer()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId + 1));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start the servers, both respond with a non-matching request id so that the responses can be fed manually
+    DummyServer dummyServer = new DummyServer(TEST_PORT, 0L, responseBytes);
+    Thread thread = new Thread(dummyServer);
+    thread.start();
+    DummyServer hedgeServer = new DummyServer(HEDGE_TEST_PORT, 0L, responseBytes);
+    Thread hedgeThread = new Thread(hedgeServer);
+    hedgeThread.start();
+    while (!dummyServer.isReady() || !hedgeServer.isReady()) {
+      Thread.sleep(100L);
+    }
+
+    // The hedge server responds, and the response is recorded for the hedge server even if the hedged request loses
+    AdaptiveServerSelector adaptiveServerSelector = Mockito.mock(AdaptiveServerSelector.class);
+    QueryRouter queryRouter = createHedgingQueryRouter(Mockito.mock(BrokerMetrics.class), adaptiveServerSelector);
+    try {
+      AsyncQueryResponse asyncQueryResponse =
+          queryRouter.submitQuery(requestId, "testTable", getHedgingBrokerRequest(), HEDGE_ROUTING_TABLE, null, null,
+              5_000L);
+      long hedgedRequestId = waitForHedgedRequest(hedgeServer, 1);
+      Mockito.verify(adaptiveServerSelector).recordRequestSubmitted(SERVER_INSTANCE_NAME);
+      Mockito.verify(adaptiveServerSelector).recordRequestSubmitted(HEDGE_SERVER_INSTANCE_NAME);
+
+      DataTable originalDataTable = new DataTableImplV2();
+      originalDataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+      queryRouter.receiveDataTable(OFFLINE_SERVER, originalDataTable, 10L, 0L);
+      DataTable hedgedDataTable = new DataTableImplV2();
+      hedgedDataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(hedgedRequestId));
+      queryRouter.receiveDataTable(OFFLINE_HEDGE_SERVER, hedgedDataTable, 20L, 0L);
+      Mockito.verify(adaptiveServerSelector)
+          .recordRequestFinished(Mockito.eq(HEDGE_SERVER_INSTANCE_NAME), Mockito.longThat(latencyMs -> latencyMs >= 0));
+      asyncQueryResponse.getResponse();
+      Mockito.verify(adaptiveServerSelector).recordRequestFinished(Mockito.eq(SERVER_INSTANCE_NAME), Mockito.anyLong());
+      Mockito.verify(adaptiveServerSelector).recordRequestFinished(Mockito.eq(HEDGE_SERVER_INSTANCE_NAME),
+          Mockito.anyLong());
+    } finally {
+      queryRouter.shutDown();
+    }
+
+    // The hedge server never responds, and the hedged request is finished when the query is done
+    adaptiveServerSelector = Mockito.mock(AdaptiveServerSelector.class);
+    queryRouter = createHedgingQueryRouter(Mockito.mock(BrokerMetrics.class), adaptiveServerSelector);
+    try {
+      AsyncQueryResponse asyncQueryResponse =
+          queryRouter.submitQuery(requestId, "testTable", getHedgingBrokerRequest(), HEDGE_ROUTING_TABLE, null, null,
+              5_000L);
+      waitForHedgedRequest(hedgeServer, 2);
+      Mockito.verify(adaptiveServerSelector).recordRequestSubmitted(HEDGE_SERVER_INSTANCE_NAME);
+      Mockito.verify(adaptiveServerSelector, Mockito.never())
+          .recordRequestFinished(Mockito.eq(HEDGE_SERVER_INSTANCE_NAME), Mockito.anyLong());
+
+      DataTable originalDataTable = new DataTableImplV2();
+      originalDataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+      queryRouter.receiveDataTable(OFFLINE_SERVER, originalDataTable, 10L, 0L);
+      asyncQueryResponse.getResponse();
+      // Penalized with the time elapsed since the hedged request is sent
+      Mockito.verify(adaptiveServerSelector).recordRequestFinished(Mockito.eq(HEDGE_SERVER_INSTANCE_NAME),
+          Mockito.longThat(latencyMs -> latencyMs >= 0));
+      Mockito.verify(adaptiveServerSelector, Mockito.never()).recordRequestCancelled(Mockito.anyString());
+    } finally {
+      queryRouter.shutDown();
+    }
+
+    // Shut down the servers
+    dummyServer.shutDown();
+    thread.join();
+    hedgeServer.shutDown();
+    hedgeThread.join();
+  }
+
+  /**
+   * Waits until the hedge server receives the given number of the hedged requests, and returns the id of the last one.
+   */
+  private static long waitForHedgedRequest(DummyServer hedgeServer, int numHedgedRequests)
+      throws InterruptedException {
+    long endTimeMs = System.currentTimeMillis() + 1_000L;
+    while (hedgeServer.getReceivedRequestIds().size() < numHedgedRequests) {
+      Assert.assertTrue(System.currentTimeMillis() < endTimeMs, "Hedged request is not sent");
+      Thread.sleep(10L);
+    }
+    return hedgeServer.getReceivedRequestIds().get(numHedgedRequests - 1);
+  }
+
+  private static QueryRouter createHedgingQueryRouter(BrokerMetrics brokerMetrics) {
+    return createHedgingQueryRouter(brokerMetrics, null);
+  }
+
+  /**
+   * Creates a query router which hedges the requests to the test server after {@link #HEDGE_DELAY_MS}.
+   */
+  private static QueryRouter createHedgingQueryRouter(BrokerMetrics brokerMetrics,
+      @Nullable AdaptiveServerSelector adaptiveServerSelector) {
+    RequestHedger requestHedger = new RequestHedger(50, 0L, 1.0, tableNameWithType -> SEGMENT_TO_SERVERS_MAP);
+    for (int i = 0; i < RequestHedger.MIN_NUM_LATENCY_SAMPLES; i++) {
+      requestHedger.recordLatency(SERVER_INSTANCE_NAME, HEDGE_DELAY_MS);
+    }
+    return new QueryRouter("testBroker", brokerMetrics, adaptiveServerSelector, requestHedger);
+  }
+
+  private static BrokerRequest getHedgingBrokerRequest() {
+    QuerySource querySource = new QuerySource();
+    querySource.setTableName("testTable_OFFLINE");
+    BrokerRequest brokerRequest = new BrokerRequest();
+    brokerRequest.setQuerySource(querySource);
+    return brokerRequest;
   }
 
   @AfterClass
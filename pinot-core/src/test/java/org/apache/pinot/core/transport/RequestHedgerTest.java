@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class RequestHedgerTest {
+  private static final String TABLE_NAME = "testTable_OFFLINE";
+  private static final String SERVER_1 = "Server_host1_8098";
+  private static final String SERVER_2 = "Server_host2_8098";
+  private static final String SERVER_3 = "Server_host3_8098";
+
+  @Test
+  public void testHedgeDelay() {
+    RequestHedger requestHedger = new RequestHedger(90, 5, 0.1, tableName -> null);
+
+    // Not enough samples
+    Assert.assertEquals(requestHedger.getHedgeDelayMs(SERVER_1), -1L);
+    for (int i = 1; i < RequestHedger.MIN_NUM_LATENCY_SAMPLES; i++) {
+      requestHedger.recordLatency(SERVER_1, i);
+    }
+    Assert.assertEquals(requestHedger.getHedgeDelayMs(SERVER_1), -1L);
+
+    // Latencies 1 to 100, p90 is 90
+    for (int i = RequestHedger.MIN_NUM_LATENCY_SAMPLES; i <= 100; i++) {
+      requestHedger.recordLatency(SERVER_1, i);
+    }
+    Assert.assertEquals(requestHedger.getHedgeDelayMs(SERVER_1), 90L);
+
+    // Only the recent latencies should be kept
+    for (int i = 0; i < RequestHedger.LATENCY_WINDOW_SIZE; i++) {
+      requestHedger.recordLatency(SERVER_1, 1);
+    }
+    // At least the min delay
+    Assert.assertEquals(requestHedger.getHedgeDelayMs(SERVER_1), 5L);
+  }
+
+  @Test
+  public void testHedgeBudget() {
+    RequestHedger requestHedger = new RequestHedger(90, 5, 0.1, tableName -> null);
+    Assert.assertFalse(requestHedger.tryAcquireHedge());
+
+    // 10% of 25 requests allows 2 hedged requests
+    requestHedger.recordRequestsSent(25);
+    Assert.assertTrue(requestHedger.tryAcquireHedge());
+    Assert.assertTrue(requestHedger.tryAcquireHedge());
+    Assert.assertFalse(requestHedger.tryAcquireHedge());
+
+    // Budget should be capped
+    requestHedger.recordRequestsSent(1_000_000);
+    for (int i = 0; i < RequestHedger.MAX_HEDGE_BUDGET; i++) {
+      Assert.assertTrue(requestHedger.tryAcquireHedge());
+    }
+    Assert.assertFalse(requestHedger.tryAcquireHedge());
+  }
+
+  @Test
+  public void testSelectHedgeServer() {
+    Map<String, List<String>> segmentToServersMap = new HashMap<>();
+    segmentToServersMap.put("segment0", Arrays.asList(SERVER_1, SERVER_2, SERVER_3));
+    segmentToServersMap.put("segment1", Arrays.asList(SERVER_1, SERVER_2));
+    segmentToServersMap.put("segment2", Arrays.asList(SERVER_1, SERVER_3));
+    RequestHedger requestHedger = new RequestHedger(90, 5, 0.1,
+        tableName -> tableName.equals(TABLE_NAME) ? segmentToServersMap : null);
+
+    Assert.assertEquals(requestHedger.selectHedgeServer(TABLE_NAME, SERVER_1, Arrays.asList("segment0", "segment1")),
+        SERVER_2);
+    Assert.assertEquals(requestHedger.selectHedgeServer(TABLE_NAME, SERVER_1, Arrays.asList("segment0", "segment2")),
+        SERVER_3);
+    Assert.assertEquals(requestHedger.selectHedgeServer(TABLE_NAME, SERVER_2, Collections.singletonList("segment1")),
+        SERVER_1);
+
+    // No replica serving all the segments
+    Assert.assertNull(
+        requestHedger.selectHedgeServer(TABLE_NAME, SERVER_1, Arrays.asList("segment0", "segment1", "segment2")));
+    // Unknown segment
+    Assert.assertNull(requestHedger.selectHedgeServer(TABLE_NAME, SERVER_2, Collections.singletonList("segment3")));
+    // Unknown table
+    Assert.assertNull(
+        requestHedger.selectHedgeServer("unknown_OFFLINE", SERVER_1, Collections.singletonList("segment0")));
+  }
+}
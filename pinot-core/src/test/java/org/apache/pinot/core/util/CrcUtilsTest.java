@@ -19,8 +19,13 @@
 package org.apache.pinot.core.util;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.TarGzCompressionUtils;
 import org.apache.pinot.common.segment.ReadMode;
 import org.apache.pinot.common.segment.SegmentMetadata;
 import org.apache.pinot.core.indexsegment.IndexSegment;
@@ -74,6 +79,31 @@ public class CrcUtilsTest {
     FileUtils.deleteQuietly(INDEX_DIR);
   }
 
+  @Test
+  public void testCombineCrc()
+      throws Exception {
+    if (INDEX_DIR.exists()) {
+      FileUtils.deleteQuietly(INDEX_DIR);
+    }
+
+    File segmentDir = new File(makeSegmentAndReturnPath());
+    long expectedCrc = CrcUtils.forAllFilesInFolder(segmentDir).computeCrc();
+
+    // Untar the segment from a stream and combine the checksums computed on the fly
+    File tarGzFile = new File(TarGzCompressionUtils.createTarGzOfDirectory(segmentDir.getAbsolutePath()));
+    File untarDir = new File(INDEX_DIR, "untarred");
+    Map<File, Long> fileChecksums = new HashMap<>();
+    List<File> untarredFiles = TarGzCompressionUtils.unTar(new FileInputStream(tarGzFile), untarDir, fileChecksums);
+    Assert.assertFalse(fileChecksums.isEmpty());
+    Assert.assertEquals(CrcUtils.combineCrc(fileChecksums), expectedCrc);
+    Assert.assertEquals(CrcUtils.forAllFilesInFolder(untarredFiles.get(0)).computeCrc(), expectedCrc);
+
+    // No file
+    Assert.assertEquals(CrcUtils.combineCrc(new HashMap<>()), 1L);
+
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
   private String makeSegmentAndReturnPath()
       throws Exception {
     final String filePath = TestUtils.getFileFromResourceUrl(CrcUtils.class.getClassLoader().getResource(AVRO_DATA));
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.index.readerwriter;
+
+import java.io.File;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.io.reader.impl.FixedBitChunkReaderContext;
+import org.apache.pinot.core.io.reader.impl.v1.FixedBitChunkSingleValueReader;
+import org.apache.pinot.core.io.writer.impl.v1.FixedBitChunkSingleValueWriter;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for {@link FixedBitChunkSingleValueReader} and {@link FixedBitChunkSingleValueWriter} classes.
+ *
+ * Number of docs and docs per chunk are chosen to generate complete as well partial chunks.
+ */
+public class FixedBitChunkSingleValueReaderWriterTest {
+  private static final int NUM_VALUES = 10009;
+  private static final int NUM_DOCS_PER_CHUNK = 1000;
+  private static final String TEST_FILE = System.getProperty("java.io.tmpdir") + File.separator + "FixedBitSVRTest";
+  private static final Random RANDOM = new Random();
+
+  @Test
+  public void testInt()
+      throws Exception {
+    // Small values (frame of reference)
+    long[] expected = new long[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      expected[i] = 1000 + RANDOM.nextInt(100);
+    }
+    testValues(expected, Integer.BYTES);
+
+    // Full range values
+    for (int i = 0; i < NUM_VALUES; i++) {
+      expected[i] = RANDOM.nextInt();
+    }
+    testValues(expected, Integer.BYTES);
+  }
+
+  @Test
+  public void testLong()
+      throws Exception {
+    // Increasing timestamps (delta)
+    long[] expected = new long[NUM_VALUES];
+    long timestamp = System.currentTimeMillis();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      timestamp += RANDOM.nextInt(10);
+      expected[i] = timestamp;
+    }
+    long fileSize = testValues(expected, Long.BYTES);
+    // Should take at most 4 bits per value
+    Assert.assertTrue(fileSize < NUM_VALUES);
+
+    // Counters with negative values (frame of reference)
+    for (int i = 0; i < NUM_VALUES; i++) {
+      expected[i] = -RANDOM.nextInt(1 << 20);
+    }
+    testValues(expected, Long.BYTES);
+
+    // Full range values (raw)
+    for (int i = 0; i < NUM_VALUES; i++) {
+      expected[i] = RANDOM.nextLong();
+    }
+    expected[0] = Long.MIN_VALUE;
+    expected[1] = Long.MAX_VALUE;
+    testValues(expected, Long.BYTES);
+  }
+
+  /**
+   * Writes the values, reads them back and asserts that what was written is the same as what was read in. Returns the
+   * size of the file.
+   */
+  private long testValues(long[] expected, int sizeOfEntry)
+      throws Exception {
+    File outFile = new File(TEST_FILE);
+    FileUtils.deleteQuietly(outFile);
+
+    try (FixedBitChunkSingleValueWriter writer = new FixedBitChunkSingleValueWriter(outFile, NUM_VALUES,
+        NUM_DOCS_PER_CHUNK, sizeOfEntry)) {
+      for (int i = 0; i < NUM_VALUES; i++) {
+        if (sizeOfEntry == Integer.BYTES) {
+          writer.setInt(i, (int) expected[i]);
+        } else {
+          writer.setLong(i, expected[i]);
+        }
+      }
+    }
+    long fileSize = outFile.length();
+
+    try (FixedBitChunkSingleValueReader reader = new FixedBitChunkSingleValueReader(
+        PinotDataBuffer.mapReadOnlyBigEndianFile(outFile))) {
+      FixedBitChunkReaderContext context = reader.createContext();
+      for (int i = 0; i < NUM_VALUES; i++) {
+        if (sizeOfEntry == Integer.BYTES) {
+          Assert.assertEquals(reader.getInt(i, context), expected[i]);
+        } else {
+          Assert.assertEquals(reader.getLong(i, context), expected[i]);
+        }
+      }
+
+      // Random access across chunks
+      context = reader.createContext();
+      for (int i = 0; i < 1000; i++) {
+        int docId = RANDOM.nextInt(NUM_VALUES);
+        Assert.assertEquals(reader.getLong(docId, context), expected[docId]);
+      }
+
+      // Reads without context
+      for (int i = 0; i < 1000; i++) {
+        int docId = RANDOM.nextInt(NUM_VALUES);
+        if (sizeOfEntry == Integer.BYTES) {
+          Assert.assertEquals(reader.getInt(docId), expected[docId]);
+        } else {
+          Assert.assertEquals(reader.getLong(docId), expected[docId]);
+        }
+      }
+    }
+
+    FileUtils.deleteQuietly(outFile);
+    return fileSize;
+  }
+}
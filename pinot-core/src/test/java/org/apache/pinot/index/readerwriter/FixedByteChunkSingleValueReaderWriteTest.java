@@ -56,12 +56,16 @@ public class FixedByteChunkSingleValueReaderWriteTest {
   @Test
   public void testWithCompression()
       throws Exception {
-    ChunkCompressorFactory.CompressionType compressionType = ChunkCompressorFactory.CompressionType.SNAPPY;
-    testInt(compressionType);
-    testLong(compressionType);
-    testFloat(compressionType);
-    testDouble(compressionType);
-    testBytes(compressionType);
+    ChunkCompressorFactory.CompressionType[] compressionTypes =
+        new ChunkCompressorFactory.CompressionType[]{ChunkCompressorFactory.CompressionType.SNAPPY,
+            ChunkCompressorFactory.CompressionType.ZSTANDARD, ChunkCompressorFactory.CompressionType.LZ4};
+    for (ChunkCompressorFactory.CompressionType compressionType : compressionTypes) {
+      testInt(compressionType);
+      testLong(compressionType);
+      testFloat(compressionType);
+      testDouble(compressionType);
+      testBytes(compressionType);
+    }
   }
 
   @Test
@@ -155,6 +155,36 @@ public class FixedByteSingleColumnMultiValueReaderWriterTest {
     readerWriter.close();
   }
 
+  @Test
+  public void testIntArrayWithReusedBuffer()
+      throws IOException {
+    final long seed = generateSeed();
+    Random r = new Random(seed);
+    int rows = 1000;
+    int maxNumberOfMultiValuesPerRow = 100;
+    FixedByteSingleColumnMultiValueReaderWriter readerWriter =
+        createReaderWriter(FieldSpec.DataType.INT, r, rows, maxNumberOfMultiValuesPerRow);
+
+    // Fill the whole buffer for each row so that only the first numValues values should be stored
+    int[] buffer = new int[maxNumberOfMultiValuesPerRow];
+    int[][] data = new int[rows][];
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < maxNumberOfMultiValuesPerRow; j++) {
+        buffer[j] = r.nextInt();
+      }
+      int numValues = r.nextInt(maxNumberOfMultiValuesPerRow);
+      data[i] = Arrays.copyOf(buffer, numValues);
+      readerWriter.setIntArray(i, buffer, numValues);
+    }
+    int[] ret = new int[maxNumberOfMultiValuesPerRow];
+    for (int i = 0; i < rows; i++) {
+      int length = readerWriter.getIntArray(i, ret);
+      Assert.assertEquals(length, data[i].length, "Failed with seed=" + seed);
+      Assert.assertTrue(Arrays.equals(data[i], Arrays.copyOf(ret, length)), "Failed with seed=" + seed);
+    }
+    readerWriter.close();
+  }
+
   private FixedByteSingleColumnMultiValueReaderWriter createReaderWriter(FieldSpec.DataType dataType, Random r,
       int rows, int maxNumberOfMultiValuesPerRow) {
     final int avgMultiValueCount = r.nextInt(maxNumberOfMultiValuesPerRow) + 1;
@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.pinot.common.data.DimensionFieldSpec;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.common.data.MetricFieldSpec;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.data.manager.SegmentDataManager;
+import org.apache.pinot.core.data.manager.realtime.RealtimeSegmentDataManager;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegment;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImplTestUtils;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.AggregationOperator;
+import org.apache.pinot.core.realtime.impl.zonemap.RealtimeZoneMap;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for RANGE predicates on a consuming segment with per-chunk min/max zone maps.
+ *
+ * <ul>
+ *   <li>Indexes rows with increasing values into a consuming segment, so that each chunk has a narrow value range</li>
+ *   <li>Runs queries on a dictionary-encoded column and a no-dictionary column, and compares the results with the
+ *   expected values</li>
+ *   <li>Verifies that only the documents inside the matching chunks are scanned, including the rows indexed after the
+ *   previous queries</li>
+ * </ul>
+ */
+public class ConsumingSegmentZoneMapQueriesTest extends BaseQueriesTest {
+  private static final String TABLE_NAME = "testTable";
+  private static final String INT_COLUMN = "intColumn";
+  private static final String LONG_COLUMN = "longColumn";
+  private static final int CHUNK_SIZE = 1 << RealtimeZoneMap.DEFAULT_CHUNK_SIZE_BITS;
+  private static final int NUM_ROWS = 10 * CHUNK_SIZE;
+
+  private MutableSegmentImpl _mutableSegment;
+  private List<SegmentDataManager> _segmentDataManagers;
+  private int _numRowsIndexed;
+
+  @Override
+  protected String getFilter() {
+    return ""; // Filters are set in each query.
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _mutableSegment;
+  }
+
+  @Override
+  protected List<SegmentDataManager> getSegmentDataManagers() {
+    return _segmentDataManagers;
+  }
+
+  @BeforeClass
+  public void setUp() {
+    Schema schema = new Schema();
+    schema.setSchemaName(TABLE_NAME);
+    schema.addField(new DimensionFieldSpec(INT_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new MetricFieldSpec(LONG_COLUMN, FieldSpec.DataType.LONG));
+    _mutableSegment = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, Collections.singleton(LONG_COLUMN), Collections.emptySet(),
+            Collections.emptySet(), false);
+    Assert.assertNotNull(_mutableSegment.getDataSource(INT_COLUMN).getZoneMap());
+    Assert.assertNotNull(_mutableSegment.getDataSource(LONG_COLUMN).getZoneMap());
+    indexRows(NUM_ROWS);
+
+    RealtimeSegmentDataManager segmentDataManager = new RealtimeSegmentDataManager() {
+      @Override
+      public MutableSegment getSegment() {
+        return _mutableSegment;
+      }
+
+      @Override
+      public String getSegmentName() {
+        return _mutableSegment.getSegmentName();
+      }
+
+      @Override
+      public void destroy() {
+      }
+    };
+    _segmentDataManagers = Arrays.asList(segmentDataManager, segmentDataManager);
+  }
+
+  /**
+   * Indexes the given number of rows, where intColumn is the row number and longColumn is 10 times the row number.
+   */
+  private void indexRows(int numRows) {
+    for (int i = 0; i < numRows; i++) {
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(INT_COLUMN, _numRowsIndexed);
+      valueMap.put(LONG_COLUMN, 10L * _numRowsIndexed);
+      GenericRow row = new GenericRow();
+      row.init(valueMap);
+      _mutableSegment.index(row, null);
+      _numRowsIndexed++;
+    }
+  }
+
+  @Test
+  public void testDictionaryEncodedColumn() {
+    // [2000, 2999] is inside the second and third chunks
+    ExecutionStatistics executionStatistics = testCountQuery(INT_COLUMN + " BETWEEN 2000 AND 2999", 1000);
+    Assert.assertTrue(executionStatistics.getNumEntriesScannedInFilter() <= 2 * CHUNK_SIZE);
+
+    // [8192, 8999] is inside the ninth chunk
+    executionStatistics = testCountQuery(INT_COLUMN + " BETWEEN 8192 AND 8999", 808);
+    Assert.assertTrue(executionStatistics.getNumEntriesScannedInFilter() <= CHUNK_SIZE);
+  }
+
+  @Test
+  public void testNoDictionaryColumn() {
+    ExecutionStatistics executionStatistics = testCountQuery(LONG_COLUMN + " < 5000", 500);
+    Assert.assertTrue(executionStatistics.getNumEntriesScannedInFilter() <= CHUNK_SIZE);
+
+    // No chunk can match, the filter should be resolved without scanning
+    executionStatistics = testCountQuery(LONG_COLUMN + " > " + 10L * NUM_ROWS * 10, 0);
+    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 0L);
+
+    // AND with predicates on both columns
+    testCountQuery(INT_COLUMN + " < 1500 AND " + LONG_COLUMN + " >= 5000", 1000);
+  }
+
+  @Test(dependsOnMethods = {"testDictionaryEncodedColumn", "testNoDictionaryColumn"})
+  public void testRowsIndexedAfterQuery() {
+    // The zone map should cover the rows indexed after the previous queries
+    String filter = INT_COLUMN + " >= " + (NUM_ROWS + CHUNK_SIZE / 2);
+    testCountQuery(filter, 0);
+    indexRows(CHUNK_SIZE);
+    ExecutionStatistics executionStatistics = testCountQuery(filter, CHUNK_SIZE / 2);
+    Assert.assertTrue(executionStatistics.getNumEntriesScannedInFilter() <= CHUNK_SIZE);
+  }
+
+  @Test
+  public void testInterSegment() {
+    String query = String
+        .format("SELECT COUNT(*), AVG(%s) FROM %s WHERE %s BETWEEN 2000 AND 2999", LONG_COLUMN, TABLE_NAME,
+            INT_COLUMN);
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query);
+    // 2 segments on each of the 2 servers
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), 4 * 1000L);
+    Assert.assertEquals(Double.parseDouble((String) brokerResponse.getAggregationResults().get(0).getValue()), 4000.0);
+    Assert.assertEquals(Double.parseDouble((String) brokerResponse.getAggregationResults().get(1).getValue()),
+        24995.0);
+    Assert.assertTrue(brokerResponse.getNumEntriesScannedInFilter() <= 4 * 2 * CHUNK_SIZE);
+  }
+
+  private ExecutionStatistics testCountQuery(String filter, long expectedCount) {
+    AggregationOperator aggregationOperator =
+        getOperatorForQuery(String.format("SELECT COUNT(*) FROM %s WHERE %s", TABLE_NAME, filter));
+    IntermediateResultsBlock resultsBlock = aggregationOperator.nextBlock();
+    Assert.assertEquals(((Number) resultsBlock.getAggregationResult().get(0)).longValue(), expectedCount, filter);
+    ExecutionStatistics executionStatistics = aggregationOperator.getExecutionStatistics();
+    Assert.assertEquals(executionStatistics.getNumDocsScanned(), expectedCount, filter);
+    Assert.assertEquals(executionStatistics.getNumTotalRawDocs(), _numRowsIndexed, filter);
+    return executionStatistics;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _mutableSegment.destroy();
+  }
+}
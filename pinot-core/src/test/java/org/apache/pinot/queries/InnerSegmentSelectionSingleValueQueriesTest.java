@@ -282,6 +282,65 @@ public class InnerSegmentSelectionSingleValueQueriesTest extends BaseSingleValue
     Assert.assertEquals(((Integer) lastRow[columnIndexMap.get("column1")]).intValue(), 462769197);
   }
 
+  @Test
+  public void testSelectionOrderByLateMaterialization() {
+    String query = "SELECT column1, column5, column6 FROM testTable ORDER BY column6 DESC, column1 LIMIT 100";
+    BaseOperator<IntermediateResultsBlock> selectionOrderByOperator = getOperatorForQuery(query);
+    IntermediateResultsBlock resultsBlock = selectionOrderByOperator.nextBlock();
+    Map<String, Integer> columnIndexMap = computeColumnNameToIndexMap(resultsBlock.getSelectionDataSchema());
+    int column1Index = columnIndexMap.get("column1");
+    int column5Index = columnIndexMap.get("column5");
+    int column6Index = columnIndexMap.get("column6");
+    Queue<Serializable[]> selectionResult = (Queue<Serializable[]>) resultsBlock.getSelectionResult();
+    Assert.assertEquals(selectionResult.size(), 100);
+
+    // Rows are polled from the last row to the first row
+    Serializable[] previousRow = selectionResult.poll();
+    while (!selectionResult.isEmpty()) {
+      Serializable[] row = selectionResult.poll();
+      int previousColumn6 = (Integer) previousRow[column6Index];
+      int column6 = (Integer) row[column6Index];
+      Assert.assertTrue(column6 >= previousColumn6);
+      if (column6 == previousColumn6) {
+        Assert.assertTrue((Integer) row[column1Index] <= (Integer) previousRow[column1Index]);
+      }
+      previousRow = row;
+    }
+
+    // All the columns of the first row should be read from the same document
+    String selectionOnlyQuery = String
+        .format("SELECT column5 FROM testTable WHERE column1 = %d AND column6 = %d LIMIT 1000",
+            previousRow[column1Index], previousRow[column6Index]);
+    BaseOperator<IntermediateResultsBlock> selectionOnlyOperator = getOperatorForQuery(selectionOnlyQuery);
+    List<Serializable[]> rows = (List<Serializable[]>) selectionOnlyOperator.nextBlock().getSelectionResult();
+    boolean found = false;
+    for (Serializable[] row : rows) {
+      if (row[0].equals(previousRow[column5Index])) {
+        found = true;
+        break;
+      }
+    }
+    Assert.assertTrue(found);
+  }
+
+  @Test
+  public void testSelectionOrderBySortedColumn() {
+    // daysSinceEpoch is the sorted column, the scan should stop once the top rows are collected
+    String query = "SELECT column1, daysSinceEpoch FROM testTable ORDER BY daysSinceEpoch LIMIT 10";
+    BaseOperator<IntermediateResultsBlock> selectionOrderByOperator = getOperatorForQuery(query);
+    IntermediateResultsBlock resultsBlock = selectionOrderByOperator.nextBlock();
+    ExecutionStatistics executionStatistics = selectionOrderByOperator.getExecutionStatistics();
+    Assert.assertTrue(executionStatistics.getNumDocsScanned() < 30000L);
+    Assert.assertEquals(executionStatistics.getNumTotalRawDocs(), 30000L);
+    Map<String, Integer> columnIndexMap = computeColumnNameToIndexMap(resultsBlock.getSelectionDataSchema());
+    int daysSinceEpochIndex = columnIndexMap.get("daysSinceEpoch");
+    Queue<Serializable[]> selectionResult = (Queue<Serializable[]>) resultsBlock.getSelectionResult();
+    Assert.assertEquals(selectionResult.size(), 10);
+    for (Serializable[] row : selectionResult) {
+      Assert.assertEquals(((Integer) row[daysSinceEpochIndex]).intValue(), 126164076);
+    }
+  }
+
   private int getVirtualColumns(DataSchema selectionDataSchema) {
     int virtualCols = 0;
     for (int i = 0; i < selectionDataSchema.size(); ++i) {
@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.data.DimensionFieldSpec;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.data.manager.SegmentDataManager;
+import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.data.readers.RecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.AggregationOperator;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for RANGE predicates on a column with range index.
+ *
+ * <ul>
+ *   <li>Generates a segment with an unsorted dictionary-encoded int column with range index</li>
+ *   <li>Runs COUNT queries with inclusive and exclusive bounds, and compares the results with the expected counts</li>
+ *   <li>Verifies that only the documents within the partially covered ranges are scanned</li>
+ * </ul>
+ */
+public class RangeIndexQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "RangeIndexQueriesTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+
+  private static final int NUM_ROWS = 10000;
+  private static final int CARDINALITY = 1000;
+  private static final String INT_COLUMN = "intColumn";
+
+  private final int[] _values = new int[NUM_ROWS];
+  private ImmutableSegment _indexSegment;
+  private List<SegmentDataManager> _segmentDataManagers;
+
+  @Override
+  protected String getFilter() {
+    return ""; // Filters are set in each query.
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<SegmentDataManager> getSegmentDataManagers() {
+    return _segmentDataManagers;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    buildSegment();
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setRangeIndexColumns(Collections.singleton(INT_COLUMN));
+    _indexSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), indexLoadingConfig);
+    Assert.assertNotNull(_indexSegment.getDataSource(INT_COLUMN).getRangeIndex());
+    _segmentDataManagers =
+        Arrays.asList(new ImmutableSegmentDataManager(_indexSegment), new ImmutableSegmentDataManager(_indexSegment));
+  }
+
+  private void buildSegment()
+      throws Exception {
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      // Each value shows up NUM_ROWS / CARDINALITY times, and the column is not sorted
+      _values[i] = (int) ((i * 7919L) % CARDINALITY);
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(INT_COLUMN, _values[i]);
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(valueMap);
+      rows.add(genericRow);
+    }
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_COLUMN, FieldSpec.DataType.INT, true));
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setTableName(TABLE_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+    config.setRangeIndexCreationColumns(Collections.singletonList(INT_COLUMN));
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows, schema)) {
+      driver.init(config, recordReader);
+      driver.build();
+    }
+  }
+
+  @Test
+  public void testInclusiveAndExclusiveBounds() {
+    long totalNumEntriesScannedInFilter = 0L;
+    for (int bound : new int[]{0, 1, 49, 50, 525, 998, 999}) {
+      totalNumEntriesScannedInFilter += testRangeQuery(INT_COLUMN + " > " + bound, bound + 1, CARDINALITY);
+      totalNumEntriesScannedInFilter += testRangeQuery(INT_COLUMN + " >= " + bound, bound, CARDINALITY);
+      totalNumEntriesScannedInFilter += testRangeQuery(INT_COLUMN + " < " + bound, 0, bound);
+      totalNumEntriesScannedInFilter += testRangeQuery(INT_COLUMN + " <= " + bound, 0, bound + 1);
+    }
+    totalNumEntriesScannedInFilter += testRangeQuery(INT_COLUMN + " BETWEEN 123 AND 876", 123, 877);
+    totalNumEntriesScannedInFilter += testRangeQuery(INT_COLUMN + " > 123 AND " + INT_COLUMN + " < 876", 124, 876);
+    totalNumEntriesScannedInFilter += testRangeQuery(INT_COLUMN + " BETWEEN 525 AND 525", 525, 526);
+
+    // Bounds inside the ranges require scanning the edge ranges
+    Assert.assertTrue(totalNumEntriesScannedInFilter > 0);
+  }
+
+  @Test
+  public void testInterSegmentNumEntriesScannedInFilter() {
+    String filter = INT_COLUMN + " > 525";
+    BrokerResponseNative brokerResponse =
+        getBrokerResponseForQuery(String.format("SELECT COUNT(*) FROM %s WHERE %s", TABLE_NAME, filter));
+    AggregationOperator aggregationOperator =
+        getOperatorForQuery(String.format("SELECT COUNT(*) FROM %s WHERE %s", TABLE_NAME, filter));
+    aggregationOperator.nextBlock();
+    ExecutionStatistics executionStatistics = aggregationOperator.getExecutionStatistics();
+    Assert.assertTrue(executionStatistics.getNumEntriesScannedInFilter() > 0);
+
+    // 4 identical segments are queried
+    Assert.assertEquals(brokerResponse.getNumEntriesScannedInFilter(),
+        4 * executionStatistics.getNumEntriesScannedInFilter());
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), 4 * getExpectedCount(526, CARDINALITY));
+  }
+
+  /**
+   * Runs a COUNT query with the given filter, and checks the result against the values in [lowerBound, upperBound).
+   *
+   * @return Number of entries scanned in filter
+   */
+  private long testRangeQuery(String filter, int lowerBound, int upperBound) {
+    AggregationOperator aggregationOperator =
+        getOperatorForQuery(String.format("SELECT COUNT(*) FROM %s WHERE %s", TABLE_NAME, filter));
+    IntermediateResultsBlock resultsBlock = aggregationOperator.nextBlock();
+    long expectedCount = getExpectedCount(lowerBound, upperBound);
+    Assert.assertEquals(((Number) resultsBlock.getAggregationResult().get(0)).longValue(), expectedCount, filter);
+
+    ExecutionStatistics executionStatistics = aggregationOperator.getExecutionStatistics();
+    Assert.assertEquals(executionStatistics.getNumDocsScanned(), expectedCount, filter);
+    long numEntriesScannedInFilter = executionStatistics.getNumEntriesScannedInFilter();
+    Assert.assertTrue(numEntriesScannedInFilter < NUM_ROWS, filter);
+    return numEntriesScannedInFilter;
+  }
+
+  private long getExpectedCount(int lowerBound, int upperBound) {
+    long count = 0L;
+    for (int value : _values) {
+      if (value >= lowerBound && value < upperBound) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
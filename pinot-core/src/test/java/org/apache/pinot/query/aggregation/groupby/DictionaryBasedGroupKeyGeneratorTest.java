@@ -206,7 +206,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
   }
 
   @Test
-  public void testArrayMapBasedSingleValue() {
+  public void testArenaMapBasedSingleValue() {
     // Cardinality product larger than Long.MAX_VALUE
     String[] groupByColumns = {"s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8", "s9", "s10"};
 
@@ -215,6 +215,30 @@ public class DictionaryBasedGroupKeyGeneratorTest {
         new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(groupByColumns),
             InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
             InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getRawKeyHolderType(),
+        DictionaryBasedGroupKeyGenerator.RawKeyHolderType.ARENA_MAP_BASED, _errorMessage);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getGlobalGroupKeyUpperBound(),
+        InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT, _errorMessage);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 0, _errorMessage);
+
+    // Test group key generation
+    dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_transformBlock, SV_GROUP_KEY_BUFFER);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 2, _errorMessage);
+    compareSingleValueBuffer();
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), 2);
+  }
+
+  @Test
+  public void testArrayMapBasedSingleValue() {
+    // Cardinality product larger than Long.MAX_VALUE, explicitly use ARRAY_MAP_BASED raw key holder
+    String[] groupByColumns = {"s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8", "s9", "s10"};
+
+    // Test initial status
+    DictionaryBasedGroupKeyGenerator dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(groupByColumns),
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+            InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY,
+            DictionaryBasedGroupKeyGenerator.RawKeyHolderType.ARRAY_MAP_BASED);
     assertEquals(dictionaryBasedGroupKeyGenerator.getGlobalGroupKeyUpperBound(),
         InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT, _errorMessage);
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 0, _errorMessage);
@@ -306,7 +330,7 @@ public class DictionaryBasedGroupKeyGeneratorTest {
   }
 
   @Test
-  public void testArrayMapBasedMultiValue() {
+  public void testArenaMapBasedMultiValue() {
     // Cardinality product larger than Long.MAX_VALUE
     String[] groupByColumns = {"m1", "m2", "s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8", "s9", "s10"};
 
@@ -315,6 +339,72 @@ public class DictionaryBasedGroupKeyGeneratorTest {
         new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(groupByColumns),
             InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
             InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getRawKeyHolderType(),
+        DictionaryBasedGroupKeyGenerator.RawKeyHolderType.ARENA_MAP_BASED, _errorMessage);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getGlobalGroupKeyUpperBound(),
+        InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT, _errorMessage);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 0, _errorMessage);
+
+    // Test group key generation
+    dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_transformBlock, MV_GROUP_KEY_BUFFER);
+    int numUniqueKeys = MV_GROUP_KEY_BUFFER[0].length + MV_GROUP_KEY_BUFFER[1].length;
+    assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), numUniqueKeys, _errorMessage);
+    compareMultiValueBuffer();
+    testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), numUniqueKeys);
+  }
+
+  @Test
+  public void testArenaMapBasedConsistency() {
+    // Raw key holders assign group ids in the order of first appearance, so the ARENA_MAP_BASED raw key holder should
+    // generate the same group ids and group keys as the other raw key holders
+    String[] groupByColumns = {"m1", "m2", "s1"};
+    DictionaryBasedGroupKeyGenerator intMapBasedGenerator =
+        new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(groupByColumns),
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+            InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
+    assertEquals(intMapBasedGenerator.getRawKeyHolderType(),
+        DictionaryBasedGroupKeyGenerator.RawKeyHolderType.INT_MAP_BASED, _errorMessage);
+    intMapBasedGenerator.generateKeysForBlock(_transformBlock, MV_GROUP_KEY_BUFFER);
+    int[][] expectedGroupIds = new int[NUM_GROUPS][];
+    for (int i = 0; i < NUM_GROUPS; i++) {
+      expectedGroupIds[i] = MV_GROUP_KEY_BUFFER[i].clone();
+    }
+    Map<Integer, String> expectedGroupKeys = new HashMap<>();
+    Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = intMapBasedGenerator.getUniqueGroupKeys();
+    while (groupKeyIterator.hasNext()) {
+      GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+      expectedGroupKeys.put(groupKey._groupId, groupKey._stringKey);
+    }
+
+    DictionaryBasedGroupKeyGenerator arenaMapBasedGenerator =
+        new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(groupByColumns),
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+            InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY,
+            DictionaryBasedGroupKeyGenerator.RawKeyHolderType.ARENA_MAP_BASED);
+    arenaMapBasedGenerator.generateKeysForBlock(_transformBlock, MV_GROUP_KEY_BUFFER);
+    for (int i = 0; i < NUM_GROUPS; i++) {
+      assertEquals(MV_GROUP_KEY_BUFFER[i], expectedGroupIds[i], _errorMessage);
+    }
+    Map<Integer, String> actualGroupKeys = new HashMap<>();
+    groupKeyIterator = arenaMapBasedGenerator.getUniqueGroupKeys();
+    while (groupKeyIterator.hasNext()) {
+      GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+      actualGroupKeys.put(groupKey._groupId, groupKey._stringKey);
+    }
+    assertEquals(actualGroupKeys, expectedGroupKeys, _errorMessage);
+  }
+
+  @Test
+  public void testArrayMapBasedMultiValue() {
+    // Cardinality product larger than Long.MAX_VALUE, explicitly use ARRAY_MAP_BASED raw key holder
+    String[] groupByColumns = {"m1", "m2", "s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8", "s9", "s10"};
+
+    // Test initial status
+    DictionaryBasedGroupKeyGenerator dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(groupByColumns),
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+            InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY,
+            DictionaryBasedGroupKeyGenerator.RawKeyHolderType.ARRAY_MAP_BASED);
     assertEquals(dictionaryBasedGroupKeyGenerator.getGlobalGroupKeyUpperBound(),
         InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT, _errorMessage);
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 0, _errorMessage);
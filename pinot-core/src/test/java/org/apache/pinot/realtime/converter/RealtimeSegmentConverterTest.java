@@ -18,18 +18,38 @@
  */
 package org.apache.pinot.realtime.converter;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.data.DimensionFieldSpec;
 import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.common.data.MetricFieldSpec;
 import org.apache.pinot.common.data.Schema;
 import org.apache.pinot.common.data.TimeFieldSpec;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImplTestUtils;
 import org.apache.pinot.core.realtime.converter.RealtimeSegmentConverter;
 import org.apache.pinot.core.segment.virtualcolumn.VirtualColumnProviderFactory;
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 
 public class RealtimeSegmentConverterTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "RealtimeSegmentConverterTest");
+  private static final String[] COLUMNS = new String[]{"dim", "mvDim", "metric", "time"};
+  private static final int NUM_ROWS = 5000;
+  private static final Random RANDOM = new Random();
 
   @Test
   public void testNoVirtualColumnsInSchema() {
@@ -51,4 +71,85 @@ public class RealtimeSegmentConverterTest {
     Assert.assertEquals(newSchema.getColumnNames().size(), 2);
     Assert.assertEquals(newSchema.getTimeFieldSpec().getIncomingGranularitySpec().getTimeType(), TimeUnit.DAYS);
   }
+
+  @Test
+  public void testColumnarConversion()
+      throws Exception {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec("dim", FieldSpec.DataType.STRING, true));
+    schema.addField(new DimensionFieldSpec("mvDim", FieldSpec.DataType.INT, false));
+    schema.addField(new MetricFieldSpec("metric", FieldSpec.DataType.LONG));
+    schema.addField(new TimeFieldSpec("time", FieldSpec.DataType.LONG, TimeUnit.MILLISECONDS));
+    MutableSegmentImpl mutableSegment = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, Collections.singleton("metric"), Collections.emptySet(),
+            Collections.singleton("mvDim"), false);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putField("dim", "d" + RANDOM.nextInt(100));
+      int numValues = RANDOM.nextInt(3) + 1;
+      Object[] mvValues = new Object[numValues];
+      for (int j = 0; j < numValues; j++) {
+        mvValues[j] = RANDOM.nextInt(50);
+      }
+      row.putField("mvDim", mvValues);
+      row.putField("metric", RANDOM.nextLong());
+      row.putField("time", 1_500_000_000_000L + i);
+      mutableSegment.index(row, null);
+    }
+    List<String> expectedRows = getRows(mutableSegment);
+
+    // Without sorted column, the document order should be preserved
+    ImmutableSegment immutableSegment = convert(mutableSegment, schema, "unsorted", null);
+    Assert.assertEquals(getRows(immutableSegment), expectedRows);
+    immutableSegment.destroy();
+
+    // With sorted column, the documents should be re-ordered on the sorted column
+    immutableSegment = convert(mutableSegment, schema, "sorted", "dim");
+    Assert.assertTrue(immutableSegment.getDataSource("dim").getDataSourceMetadata().isSorted());
+    List<String> actualRows = getRows(immutableSegment);
+    String previousValue = "";
+    for (int i = 0; i < NUM_ROWS; i++) {
+      String value = (String) immutableSegment.getRecord(i, new GenericRow()).getValue("dim");
+      Assert.assertTrue(value.compareTo(previousValue) >= 0);
+      previousValue = value;
+    }
+    immutableSegment.destroy();
+    Collections.sort(expectedRows);
+    Collections.sort(actualRows);
+    Assert.assertEquals(actualRows, expectedRows);
+
+    mutableSegment.destroy();
+  }
+
+  private ImmutableSegment convert(MutableSegmentImpl mutableSegment, Schema schema, String segmentName,
+      String sortedColumn)
+      throws Exception {
+    File outputDir = new File(TEMP_DIR, segmentName);
+    RealtimeSegmentConverter converter =
+        new RealtimeSegmentConverter(mutableSegment, outputDir.getAbsolutePath(), schema, "testTable", "time",
+            segmentName, sortedColumn, Collections.singletonList("mvDim"), Collections.singletonList("metric"),
+            new ArrayList<>(), null);
+    converter.build(null, null);
+    return ImmutableSegmentLoader.load(new File(outputDir, segmentName), ReadMode.heap);
+  }
+
+  private List<String> getRows(IndexSegment indexSegment) {
+    int numDocs = indexSegment.getSegmentMetadata().getTotalDocs();
+    List<String> rows = new ArrayList<>(numDocs);
+    GenericRow reuse = new GenericRow();
+    for (int i = 0; i < numDocs; i++) {
+      GenericRow row = indexSegment.getRecord(i, reuse);
+      Object[] values = new Object[COLUMNS.length];
+      for (int j = 0; j < COLUMNS.length; j++) {
+        values[j] = row.getValue(COLUMNS[j]);
+      }
+      rows.add(Arrays.deepToString(values));
+    }
+    return rows;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
 }
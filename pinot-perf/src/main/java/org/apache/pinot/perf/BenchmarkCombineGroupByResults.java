@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.apache.pinot.core.operator.blocks.TransformBlock;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.SumAggregationFunction;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
+import org.apache.pinot.core.query.aggregation.groupby.ConcurrentGroupByResultsTable;
+import org.apache.pinot.core.query.aggregation.groupby.DoubleGroupByResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Compares merging the inter-segment group-by results with {@link ConcurrentGroupByResultsTable} against the previous
+ * {@link ConcurrentHashMap#compute} based merge in CombineGroupByOperator. Each segment covers an overlapping range of
+ * the group keys (half of the groups of a segment are shared with the next segment), and the segments are merged
+ * concurrently by the given number of threads.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkCombineGroupByResults {
+  private static final int NUM_SEGMENTS = 64;
+  private static final String GROUP_KEY_DELIMITER = AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER;
+  private static final AggregationFunction[] AGGREGATION_FUNCTIONS =
+      {new SumAggregationFunction(), new SumAggregationFunction()};
+
+  @Param({"1000", "10000", "100000"})
+  public int numGroupsPerSegment;
+
+  @Param({"1", "8"})
+  public int numThreads;
+
+  private List<AggregationGroupByResult> _aggregationGroupByResults;
+  private ExecutorService _executorService;
+
+  @Setup
+  public void setUp() {
+    _aggregationGroupByResults = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      _aggregationGroupByResults.add(getAggregationGroupByResult(i * numGroupsPerSegment / 2));
+    }
+    _executorService = Executors.newFixedThreadPool(numThreads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int concurrentHashMap()
+      throws Exception {
+    int numAggregationFunctions = AGGREGATION_FUNCTIONS.length;
+    ConcurrentHashMap<String, Object[]> resultsMap = new ConcurrentHashMap<>();
+    AtomicInteger numGroups = new AtomicInteger();
+    List<Future> futures = new ArrayList<>(NUM_SEGMENTS);
+    for (AggregationGroupByResult aggregationGroupByResult : _aggregationGroupByResults) {
+      futures.add(_executorService.submit(() -> {
+        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+        while (groupKeyIterator.hasNext()) {
+          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+          resultsMap.compute(groupKey._stringKey, (key, value) -> {
+            if (value == null) {
+              if (numGroups.getAndIncrement() < Integer.MAX_VALUE) {
+                value = new Object[numAggregationFunctions];
+                for (int i = 0; i < numAggregationFunctions; i++) {
+                  value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+                }
+              }
+            } else {
+              for (int i = 0; i < numAggregationFunctions; i++) {
+                value[i] =
+                    AGGREGATION_FUNCTIONS[i].merge(value[i], aggregationGroupByResult.getResultForKey(groupKey, i));
+              }
+            }
+            return value;
+          });
+        }
+      }));
+    }
+    for (Future future : futures) {
+      future.get();
+    }
+    return resultsMap.size();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int concurrentGroupByResultsTable()
+      throws Exception {
+    ConcurrentGroupByResultsTable resultsTable =
+        new ConcurrentGroupByResultsTable(AGGREGATION_FUNCTIONS, Integer.MAX_VALUE);
+    List<Future> futures = new ArrayList<>(NUM_SEGMENTS);
+    for (AggregationGroupByResult aggregationGroupByResult : _aggregationGroupByResults) {
+      futures.add(_executorService.submit(() -> resultsTable.merge(aggregationGroupByResult)));
+    }
+    for (Future future : futures) {
+      future.get();
+    }
+    return resultsTable.size();
+  }
+
+  /**
+   * Returns a group-by result with {@link #numGroupsPerSegment} groups starting from the given group id. Like the real
+   * group key generators, the string keys are built while iterating the group keys, and the group key is reused.
+   */
+  private AggregationGroupByResult getAggregationGroupByResult(int start) {
+    int numGroups = numGroupsPerSegment;
+    GroupByResultHolder[] resultHolders = new GroupByResultHolder[AGGREGATION_FUNCTIONS.length];
+    for (int i = 0; i < resultHolders.length; i++) {
+      DoubleGroupByResultHolder resultHolder = new DoubleGroupByResultHolder(numGroups, numGroups, 0.0);
+      for (int j = 0; j < numGroups; j++) {
+        resultHolder.setValueForKey(j, (double) j);
+      }
+      resultHolders[i] = resultHolder;
+    }
+    return new AggregationGroupByResult(new GroupKeyGenerator() {
+      @Override
+      public int getGlobalGroupKeyUpperBound() {
+        return numGroups;
+      }
+
+      @Override
+      public void generateKeysForBlock(@Nonnull TransformBlock transformBlock, @Nonnull int[] groupKeys) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void generateKeysForBlock(@Nonnull TransformBlock transformBlock, @Nonnull int[][] groupKeys) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public int getCurrentGroupKeyUpperBound() {
+        return numGroups;
+      }
+
+      @Override
+      public Iterator<GroupKey> getUniqueGroupKeys() {
+        return new Iterator<GroupKey>() {
+          private final GroupKey _groupKey = new GroupKey();
+          private int _groupId = 0;
+
+          @Override
+          public boolean hasNext() {
+            return _groupId < numGroups;
+          }
+
+          @Override
+          public GroupKey next() {
+            _groupKey._groupId = _groupId;
+            _groupKey._stringKey =
+                "country" + GROUP_KEY_DELIMITER + (start + _groupId) + GROUP_KEY_DELIMITER + "device";
+            _groupId++;
+            return _groupKey;
+          }
+        };
+      }
+    }, AGGREGATION_FUNCTIONS, resultHolders);
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    Options opt = new OptionsBuilder().include(BenchmarkCombineGroupByResults.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5)).warmupIterations(2).measurementTime(TimeValue.seconds(5))
+        .measurementIterations(3).forks(1).build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.pinot.common.data.DimensionFieldSpec;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.transform.TransformExpressionTree;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.operator.blocks.TransformBlock;
+import org.apache.pinot.core.operator.transform.TransformOperator;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
+import org.apache.pinot.core.plan.TransformPlanNode;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.query.aggregation.groupby.DictionaryBasedGroupKeyGenerator;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the raw key holders of {@link DictionaryBasedGroupKeyGenerator} with different number of group-by
+ * columns. The DEFAULT raw key holder type picks the raw key holder based on the cardinality product of the group-by
+ * columns (INT_MAP_BASED for 2 columns, LONG_MAP_BASED for 3-4 columns, ARENA_MAP_BASED for 5-6 columns).
+ */
+@SuppressWarnings("unused")
+@State(Scope.Benchmark)
+public class BenchmarkDictionaryBasedGroupKeyGenerator {
+  private static final File INDEX_DIR =
+      new File(FileUtils.getTempDirectory(), "BenchmarkDictionaryBasedGroupKeyGenerator");
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 500_000;
+  private static final int MAX_NUM_COLUMNS = 6;
+  private static final int CARDINALITY = 10_000;
+  private static final String DEFAULT_RAW_KEY_HOLDER_TYPE = "DEFAULT";
+
+  @Param({"2", "3", "4", "5", "6"})
+  private int _numColumns;
+
+  @Param({"DEFAULT", "ARRAY_MAP_BASED", "ARENA_MAP_BASED"})
+  private String _rawKeyHolderType;
+
+  private IndexSegment _indexSegment;
+  private BrokerRequest _brokerRequest;
+  private TransformExpressionTree[] _groupByExpressions;
+  private final int[] _groupKeys = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    String[] columns = new String[MAX_NUM_COLUMNS];
+    Schema schema = new Schema();
+    for (int i = 0; i < MAX_NUM_COLUMNS; i++) {
+      columns[i] = "column" + i;
+      schema.addField(new DimensionFieldSpec(columns[i], FieldSpec.DataType.INT, true));
+    }
+
+    Random random = new Random();
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> map = new HashMap<>();
+      for (String column : columns) {
+        map.put(column, random.nextInt(CARDINALITY));
+      }
+      GenericRow row = new GenericRow();
+      row.init(map);
+      rows.add(row);
+    }
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getAbsolutePath());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows, schema));
+    driver.build();
+    _indexSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.heap);
+
+    String[] groupByColumns = Arrays.copyOf(columns, _numColumns);
+    _brokerRequest = new Pql2Compiler().compileToBrokerRequest(
+        "SELECT COUNT(*) FROM table GROUP BY " + StringUtils.join(groupByColumns, ", "));
+    _groupByExpressions = new TransformExpressionTree[_numColumns];
+    for (int i = 0; i < _numColumns; i++) {
+      _groupByExpressions[i] = TransformExpressionTree.compileToExpressionTree(groupByColumns[i]);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int generateGroupKeys() {
+    TransformOperator transformOperator = new TransformPlanNode(_indexSegment, _brokerRequest).run();
+    DictionaryBasedGroupKeyGenerator.RawKeyHolderType rawKeyHolderType =
+        _rawKeyHolderType.equals(DEFAULT_RAW_KEY_HOLDER_TYPE) ? null
+            : DictionaryBasedGroupKeyGenerator.RawKeyHolderType.valueOf(_rawKeyHolderType);
+    DictionaryBasedGroupKeyGenerator groupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(transformOperator, _groupByExpressions,
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+            InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY, rawKeyHolderType);
+    TransformBlock transformBlock;
+    while ((transformBlock = transformOperator.nextBlock()) != null) {
+      groupKeyGenerator.generateKeysForBlock(transformBlock, _groupKeys);
+    }
+    return groupKeyGenerator.getCurrentGroupKeyUpperBound();
+  }
+
+  @TearDown
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    Options opt = new OptionsBuilder().include(BenchmarkDictionaryBasedGroupKeyGenerator.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5)).warmupIterations(2).measurementTime(TimeValue.seconds(5))
+        .measurementIterations(3).forks(1).build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.InstanceRequest;
+import org.apache.pinot.core.transport.InstanceRequestEncoder;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Compares serializing the instance request per server against serializing the broker request once per query with
+ * {@link InstanceRequestEncoder}, for a query with a large IN clause fanned out to the given number of servers.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkInstanceRequestEncoding {
+  private static final String BROKER_ID = "Broker_localhost_8099";
+  private static final int NUM_IN_VALUES = 1000;
+  private static final int NUM_SEGMENTS_PER_SERVER = 20;
+
+  @Param({"10", "50", "100", "500"})
+  public int numServers;
+
+  private BrokerRequest _brokerRequest;
+  private List<List<String>> _segmentsPerServer;
+
+  @Setup
+  public void setUp() {
+    StringBuilder queryBuilder = new StringBuilder("SELECT COUNT(*) FROM myTable WHERE memberId IN (");
+    for (int i = 0; i < NUM_IN_VALUES; i++) {
+      if (i > 0) {
+        queryBuilder.append(", ");
+      }
+      queryBuilder.append(i * 7919);
+    }
+    queryBuilder.append(") GROUP BY country TOP 10");
+    _brokerRequest = new Pql2Compiler().compileToBrokerRequest(queryBuilder.toString());
+    _segmentsPerServer = new ArrayList<>(numServers);
+    for (int i = 0; i < numServers; i++) {
+      List<String> segments = new ArrayList<>(NUM_SEGMENTS_PER_SERVER);
+      for (int j = 0; j < NUM_SEGMENTS_PER_SERVER; j++) {
+        segments.add("myTable_OFFLINE_2019-01-01_2019-01-02_" + (i * NUM_SEGMENTS_PER_SERVER + j));
+      }
+      _segmentsPerServer.add(segments);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long serializePerServer()
+      throws Exception {
+    TSerializer serializer = new TSerializer(new TCompactProtocol.Factory());
+    long totalBytes = 0;
+    for (List<String> segments : _segmentsPerServer) {
+      InstanceRequest instanceRequest = new InstanceRequest();
+      instanceRequest.setRequestId(123L);
+      instanceRequest.setQuery(_brokerRequest);
+      instanceRequest.setEnableTrace(_brokerRequest.isEnableTrace());
+      instanceRequest.setSearchSegments(segments);
+      instanceRequest.setBrokerId(BROKER_ID);
+      byte[] requestBytes = serializer.serialize(instanceRequest);
+      ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer(requestBytes.length).writeBytes(requestBytes);
+      totalBytes += buffer.readableBytes();
+      buffer.release();
+    }
+    return totalBytes;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long serializeOnce()
+      throws Exception {
+    InstanceRequestEncoder requestEncoder = new InstanceRequestEncoder(_brokerRequest, BROKER_ID);
+    long totalBytes = 0;
+    for (List<String> segments : _segmentsPerServer) {
+      ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer(requestEncoder.getEstimatedSize(segments));
+      requestEncoder.encode(123L, segments, buffer);
+      totalBytes += buffer.readableBytes();
+      buffer.release();
+    }
+    return totalBytes;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    Options opt = new OptionsBuilder().include(BenchmarkInstanceRequestEncoding.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5)).warmupIterations(2).measurementTime(TimeValue.seconds(5))
+        .measurementIterations(3).forks(1).build();
+
+    new Runner(opt).run();
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.pinot.perf;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -37,7 +38,11 @@ import org.apache.pinot.core.data.GenericRow;
 import org.apache.pinot.core.data.readers.GenericRowRecordReader;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.reader.impl.ChunkReaderContext;
+import org.apache.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
 import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.operator.ProjectionOperator;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
@@ -47,6 +52,7 @@ import org.apache.pinot.core.operator.filter.TestFilterOperator;
 import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
 
@@ -55,6 +61,8 @@ import org.kohsuke.args4j.Option;
  * Class to perform benchmark on lookups for dictionary encoded fwd index v.s. raw index without dictionary.
  * It can take an existing segment with two columns to compare. It can also create a segment on the fly with a
  * given input file containing strings (one string per line).
+ * When creating the segment on the fly, it can also compare the size and full scan time of the raw index with
+ * different chunk compression types.
  */
 @SuppressWarnings({"FieldCanBeLocal", "unused"})
 public class RawIndexBenchmark {
@@ -88,10 +96,15 @@ public class RawIndexBenchmark {
   @Option(name = "-numConsecutiveLookups", required = false, usage = "Number of consecutive docIds to lookup")
   private int _numConsecutiveLookups = DEFAULT_NUM_CONSECUTIVE_LOOKUP;
 
+  @Option(name = "-compressionTypes", required = false, forbids = {"-segmentDir"},
+      usage = "Comma separated chunk compression types to compare for raw index (e.g. SNAPPY,LZ4,ZSTANDARD)")
+  private String _compressionTypes = null;
+
   @Option(name = "-help", required = false, help = true, aliases = {"-h"}, usage = "print this message")
   private boolean _help = false;
 
   private int _numRows = 0;
+  private List<ChunkCompressorFactory.CompressionType> _compressionTypeList = new ArrayList<>();
 
   public void run()
       throws Exception {
@@ -100,10 +113,17 @@ public class RawIndexBenchmark {
       return;
     }
 
+    if (_compressionTypes != null) {
+      for (String compressionType : _compressionTypes.split(",")) {
+        _compressionTypeList.add(ChunkCompressorFactory.CompressionType.valueOf(compressionType.trim().toUpperCase()));
+      }
+    }
+
     File segmentFile = (_segmentDir == null) ? buildSegment() : new File(_segmentDir);
     IndexSegment segment = ImmutableSegmentLoader.load(segmentFile, ReadMode.valueOf(_loadMode));
     compareIndexSizes(segment, segmentFile, _fwdIndexColumn, _rawIndexColumn);
     compareLookups(segment);
+    compareCompressionTypes(segment, segmentFile);
 
     // Cleanup the temporary directory
     if (_segmentDir != null) {
@@ -115,6 +135,7 @@ public class RawIndexBenchmark {
   /**
    * Helper method that builds a segment containing two columns both with data from input file.
    * The first column has raw indices (no dictionary), where as the second column is dictionary encoded.
+   * One additional raw index column is added for each compression type to compare.
    *
    * @throws Exception
    */
@@ -128,8 +149,21 @@ public class RawIndexBenchmark {
       schema.addField(dimensionFieldSpec);
     }
 
+    List<String> rawIndexColumns = new ArrayList<>();
+    rawIndexColumns.add(_rawIndexColumn);
+    Map<String, ChunkCompressorFactory.CompressionType> compressionTypeMap = new HashMap<>();
+    for (ChunkCompressorFactory.CompressionType compressionType : _compressionTypeList) {
+      String column = getCompressionTypeColumn(compressionType);
+      schema.addField(new DimensionFieldSpec(column, FieldSpec.DataType.STRING, true));
+      rawIndexColumns.add(column);
+      compressionTypeMap.put(column, compressionType);
+    }
+
     SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
-    config.setRawIndexCreationColumns(Collections.singletonList(_rawIndexColumn));
+    config.setRawIndexCreationColumns(rawIndexColumns);
+    config.setRawIndexCompressionType(compressionTypeMap);
+    // Keep one file per index so that the index sizes can be compared
+    config.setSegmentVersion(SegmentVersion.v1);
 
     config.setOutDir(SEGMENT_DIR_NAME);
     config.setSegmentName(SEGMENT_NAME);
@@ -205,6 +239,39 @@ public class RawIndexBenchmark {
     System.out.println("Percentage change: " + ((fwdIndexTime - rawIndexTime) * 100.0 / rawIndexTime) + " %");
   }
 
+  /**
+   * Compares the raw index sizes and the full scan times (dominated by the chunk decompression) for the compression
+   * types specified.
+   *
+   * @param segment Segment to compare the columns for
+   * @param segmentDir Segment directory
+   */
+  private void compareCompressionTypes(IndexSegment segment, File segmentDir)
+      throws IOException {
+    int numDocs = segment.getSegmentMetadata().getTotalDocs();
+    for (ChunkCompressorFactory.CompressionType compressionType : _compressionTypeList) {
+      File rawIndexFile = new File(segmentDir,
+          getCompressionTypeColumn(compressionType) + V1Constants.Indexes.RAW_SV_FORWARD_INDEX_FILE_EXTENSION);
+      try (VarByteChunkSingleValueReader reader = new VarByteChunkSingleValueReader(
+          PinotDataBuffer.mapReadOnlyBigEndianFile(rawIndexFile))) {
+        ChunkReaderContext context = reader.createContext();
+        long start = System.currentTimeMillis();
+        for (int docId = 0; docId < numDocs; docId++) {
+          reader.getString(docId, context);
+        }
+        long scanTime = System.currentTimeMillis() - start;
+
+        System.out.println(
+            compressionType + " raw index size: " + rawIndexFile.length() + " bytes, full scan time: " + scanTime
+                + " ms");
+      }
+    }
+  }
+
+  private static String getCompressionTypeColumn(ChunkCompressorFactory.CompressionType compressionType) {
+    return "raw_" + compressionType.name().toLowerCase();
+  }
+
   /**
    * Profiles the lookup time for a given column, for the given docIds.
    *
@@ -48,6 +48,7 @@ import org.apache.pinot.core.data.manager.config.TableDataManagerConfig;
 import org.apache.pinot.core.data.manager.offline.TableDataManagerProvider;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.core.segment.index.loader.LoaderUtils;
 import org.slf4j.Logger;
@@ -69,6 +70,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
   private String _instanceId;
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private ServerMetrics _serverMetrics;
+  private volatile SegmentResultCache _segmentResultCache;
 
   @Override
   public synchronized void init(@Nonnull Configuration config, @Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore,
@@ -107,6 +109,14 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     LOGGER.info("Helix instance data manager shut down");
   }
 
+  @Override
+  public synchronized void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
+    for (TableDataManager tableDataManager : _tableDataManagerMap.values()) {
+      tableDataManager.setSegmentResultCache(segmentResultCache);
+    }
+  }
+
   @Override
   public void addOfflineSegment(@Nonnull String offlineTableName, @Nonnull String segmentName, @Nonnull File indexDir)
       throws Exception {
@@ -136,6 +146,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     tableDataManagerConfig.overrideConfigs(tableConfig);
     TableDataManager tableDataManager = TableDataManagerProvider
         .getTableDataManager(tableDataManagerConfig, _instanceId, _propertyStore, _serverMetrics);
+    tableDataManager.setSegmentResultCache(_segmentResultCache);
     tableDataManager.start();
     LOGGER.info("Created table data manager for table: {}", tableNameWithType);
     return tableDataManager;
@@ -56,6 +56,7 @@ import org.apache.pinot.common.utils.NetUtil;
 import org.apache.pinot.common.utils.ServiceStatus;
 import org.apache.pinot.common.utils.ServiceStatus.Status;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.core.segment.store.SegmentDirectory;
 import org.apache.pinot.filesystem.PinotFSFactory;
 import org.apache.pinot.server.conf.ServerConf;
 import org.apache.pinot.server.realtime.ControllerLeaderLocator;
@@ -171,6 +172,11 @@ public class HelixServerStarter {
     // Register state model factory
     SegmentFetcherAndLoader fetcherAndLoader =
         new SegmentFetcherAndLoader(_serverConf, _serverInstance.getInstanceDataManager(), propertyStore);
+    int numSegmentLoadThreads =
+        _serverConf.getInt(CONFIG_OF_STARTUP_NUM_SEGMENT_LOAD_THREADS, DEFAULT_STARTUP_NUM_SEGMENT_LOAD_THREADS);
+    if (numSegmentLoadThreads > 0) {
+      loadSegmentsOnStartup(fetcherAndLoader, numSegmentLoadThreads);
+    }
     StateModelFactory<?> stateModelFactory =
         new SegmentOnlineOfflineStateModelFactory(_instanceId, _serverInstance.getInstanceDataManager(),
             fetcherAndLoader, propertyStore);
@@ -212,9 +218,44 @@ public class HelixServerStarter {
     serverMetrics.addCallbackGauge("memory.directBufferUsage", PinotDataBuffer::getDirectBufferUsage);
     serverMetrics.addCallbackGauge("memory.mmapBufferCount", PinotDataBuffer::getMmapBufferCount);
     serverMetrics.addCallbackGauge("memory.mmapBufferUsage", PinotDataBuffer::getMmapBufferUsage);
+    // Memory mapped bytes touched on loading the currently loaded segments, which are likely to be resident unlike the
+    // rest of the mapped bytes
+    serverMetrics.addCallbackGauge("memory.mmapPrefetchedBytes", SegmentDirectory::getPrefetchedBytes);
     serverMetrics.addCallbackGauge("memory.allocationFailureCount", PinotDataBuffer::getAllocationFailureCount);
   }
 
+  /**
+   * Loads the OFFLINE segments assigned to this instance in the ideal states in parallel, so that the state transitions
+   * received after registering the state model can complete immediately.
+   */
+  private void loadSegmentsOnStartup(SegmentFetcherAndLoader fetcherAndLoader, int numSegmentLoadThreads)
+      throws InterruptedException {
+    Map<String, List<String>> segmentsToLoad = new HashMap<>();
+    for (String resourceName : _helixAdmin.getResourcesInCluster(_helixClusterName)) {
+      if (!TableNameBuilder.isOfflineTableResource(resourceName)) {
+        continue;
+      }
+      IdealState idealState = _helixAdmin.getResourceIdealState(_helixClusterName, resourceName);
+      if (idealState == null || !idealState.isEnabled()) {
+        continue;
+      }
+      List<String> segments = new ArrayList<>();
+      for (String partitionName : idealState.getPartitionSet()) {
+        if (StateModel.SegmentOnlineOfflineStateModel.ONLINE
+            .equals(idealState.getInstanceStateMap(partitionName).get(_instanceId))) {
+          segments.add(partitionName);
+        }
+      }
+      if (!segments.isEmpty()) {
+        segmentsToLoad.put(resourceName, segments);
+      }
+    }
+    int numSegmentFetchThreads =
+        _serverConf.getInt(CONFIG_OF_STARTUP_NUM_SEGMENT_FETCH_THREADS, DEFAULT_STARTUP_NUM_SEGMENT_FETCH_THREADS);
+    new StartupSegmentLoader(fetcherAndLoader, _serverInstance.getInstanceDataManager(),
+        _serverInstance.getServerMetrics(), numSegmentFetchThreads, numSegmentLoadThreads).loadSegments(segmentsToLoad);
+  }
+
   /**
    * Fetches the resources to monitor and registers the {@link org.apache.pinot.common.utils.ServiceStatus.ServiceStatusCallback}s
    */
@@ -20,6 +20,9 @@ package org.apache.pinot.server.starter.helix;
 
 import com.google.common.base.Preconditions;
 import java.io.File;
+import java.io.FileInputStream;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -41,6 +44,7 @@ import org.apache.pinot.core.data.manager.InstanceDataManager;
 import org.apache.pinot.core.segment.index.SegmentMetadataImpl;
 import org.apache.pinot.core.segment.index.loader.LoaderUtils;
 import org.apache.pinot.core.segment.index.loader.V3RemoveIndexException;
+import org.apache.pinot.core.util.CrcUtils;
 import org.apache.pinot.filesystem.PinotFSFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,6 +59,7 @@ public class SegmentFetcherAndLoader {
   private final InstanceDataManager _instanceDataManager;
   private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private final Configuration _crypterConfig;
+  private final boolean _verifyCrc;
 
   public SegmentFetcherAndLoader(@Nonnull Configuration config, @Nonnull InstanceDataManager instanceDataManager,
       @Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore)
@@ -72,6 +77,8 @@ public class SegmentFetcherAndLoader {
     PinotCrypterFactory.init(pinotCrypterConfig);
 
     _crypterConfig = config.subset(CommonConstants.Server.PREFIX_OF_CONFIG_OF_PINOT_CRYPTER);
+    _verifyCrc = config.getBoolean(CommonConstants.Server.CONFIG_OF_SEGMENT_DOWNLOAD_VERIFY_CRC,
+        CommonConstants.Server.DEFAULT_SEGMENT_DOWNLOAD_VERIFY_CRC);
   }
 
   public void addOrReplaceOfflineSegment(String tableNameWithType, String segmentName) {
@@ -172,6 +179,53 @@ public class SegmentFetcherAndLoader {
     }
   }
 
+  /**
+   * Fetches the OFFLINE segment into the local segment directory without loading it. The local copy is used if it has
+   * the same crc as the segment ZK metadata, otherwise the segment is downloaded from the controller.
+   * <p>This is the I/O part of {@link #addOrReplaceOfflineSegment(String, String)}, so that the segments can be fetched
+   * and loaded on separate thread pools on server startup.
+   *
+   * @return Index directory of the segment to load, or {@code null} if the segment is already loaded with the same crc
+   */
+  @Nullable
+  public File fetchOfflineSegment(String tableNameWithType, String segmentName)
+      throws Exception {
+    OfflineSegmentZKMetadata segmentZKMetadata =
+        ZKMetadataProvider.getOfflineSegmentZKMetadata(_propertyStore, tableNameWithType, segmentName);
+    Preconditions.checkNotNull(segmentZKMetadata);
+
+    Lock segmentLock = SegmentLocks.getSegmentLock(tableNameWithType, segmentName);
+    try {
+      segmentLock.lock();
+
+      if (!isNewSegmentMetadata(tableNameWithType, segmentZKMetadata,
+          _instanceDataManager.getSegmentMetadata(tableNameWithType, segmentName))) {
+        return null;
+      }
+
+      File indexDir = new File(getSegmentLocalDirectory(tableNameWithType, segmentName));
+      LoaderUtils.reloadFailureRecovery(indexDir);
+      if (indexDir.exists()) {
+        try {
+          if (!isNewSegmentMetadata(tableNameWithType, segmentZKMetadata, new SegmentMetadataImpl(indexDir))) {
+            return indexDir;
+          }
+        } catch (Exception e) {
+          LOGGER.error("Failed to load segment metadata from {}. Deleting it.", indexDir, e);
+          FileUtils.deleteQuietly(indexDir);
+        }
+      }
+
+      LOGGER.info("Downloading segment {} of table {} from controller", segmentName, tableNameWithType);
+      String crypterName = segmentZKMetadata.getCrypterName();
+      PinotCrypter crypter = (crypterName != null) ? PinotCrypterFactory.create(crypterName) : null;
+      return new File(downloadSegmentToLocal(segmentZKMetadata.getDownloadUrl(), crypter, tableNameWithType,
+          segmentName));
+    } finally {
+      segmentLock.unlock();
+    }
+  }
+
   private boolean isNewSegmentMetadata(@Nonnull String tableNameWithType,
       @Nonnull OfflineSegmentZKMetadata newSegmentZKMetadata, @Nullable SegmentMetadata existedSegmentMetadata) {
     String segmentName = newSegmentZKMetadata.getSegmentName();
@@ -198,26 +252,49 @@ public class SegmentFetcherAndLoader {
     File tempDownloadFile = new File(tempDir, segmentName + ENCODED_SUFFIX);
     File tempTarFile = new File(tempDir, segmentName + TAR_GZ_SUFFIX);
     File tempSegmentDir = new File(tempDir, segmentName);
+    // Checksums of the untarred files computed on the fly, used to verify the segment without reading it again
+    Map<File, Long> fileChecksums = _verifyCrc ? new HashMap<>() : null;
     try {
-      SegmentFetcherFactory.getInstance().getSegmentFetcherBasedOnURI(uri).fetchSegmentToLocal(uri, tempDownloadFile);
       if (crypter != null) {
+        SegmentFetcherFactory.getInstance().getSegmentFetcherBasedOnURI(uri)
+            .fetchSegmentToLocal(uri, tempDownloadFile);
         crypter.decrypt(tempDownloadFile, tempTarFile);
+        LOGGER.info("Downloaded tarred segment: {} for table: {} from: {} to: {}, file length: {}", segmentName,
+            tableName, uri, tempTarFile, tempTarFile.length());
+
+        // If an exception is thrown when untarring, it means the tar file is broken OR not found after the retry.
+        // Thus, there's no need to retry again.
+        TarGzCompressionUtils.unTar(new FileInputStream(tempTarFile), tempSegmentDir, fileChecksums);
       } else {
-        tempTarFile = tempDownloadFile;
+        // Untar the segment while downloading it, so that the tarred segment is never written to the local disk
+        SegmentFetcherFactory.getInstance().getSegmentFetcherBasedOnURI(uri)
+            .fetchSegmentAsStream(uri, tempDownloadFile, inputStream -> {
+              // Clean up the partial result if the download is retried
+              FileUtils.deleteQuietly(tempSegmentDir);
+              if (fileChecksums != null) {
+                fileChecksums.clear();
+              }
+              TarGzCompressionUtils.unTar(inputStream, tempSegmentDir, fileChecksums);
+            });
+        LOGGER.info("Downloaded and untarred segment: {} for table: {} from: {} to: {}", segmentName, tableName, uri,
+            tempSegmentDir);
       }
 
-      LOGGER
-          .info("Downloaded tarred segment: {} for table: {} from: {} to: {}, file length: {}", segmentName, tableName,
-              uri, tempTarFile, tempTarFile.length());
-
-      // If an exception is thrown when untarring, it means the tar file is broken OR not found after the retry.
-      // Thus, there's no need to retry again.
-      TarGzCompressionUtils.unTar(tempTarFile, tempSegmentDir);
-
       File[] files = tempSegmentDir.listFiles();
       Preconditions.checkState(files != null && files.length == 1);
       File tempIndexDir = files[0];
 
+      // Verify the untarred segment against the CRC recorded at segment creation
+      if (fileChecksums != null) {
+        long expectedCrc = Long.parseLong(new SegmentMetadataImpl(tempIndexDir).getCrc());
+        if (expectedCrc != Long.MIN_VALUE) {
+          long actualCrc = CrcUtils.combineCrc(fileChecksums);
+          Preconditions.checkState(actualCrc == expectedCrc,
+              "CRC mismatch for downloaded segment: %s of table: %s from: %s, expected: %s, actual: %s", segmentName,
+              tableName, uri, expectedCrc, actualCrc);
+        }
+      }
+
       File indexDir = new File(new File(_instanceDataManager.getSegmentDataDirectory(), tableName), segmentName);
       if (indexDir.exists()) {
         LOGGER.info("Deleting existing index directory for segment: {} for table: {}", segmentName, tableName);
@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.server.starter.helix;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.data.manager.InstanceDataManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code StartupSegmentLoader} loads the OFFLINE segments assigned to the server in parallel on server startup,
+ * before the state model is registered.
+ * <p>Each segment goes through two phases on separate thread pools, so that the downloads do not hold the threads
+ * doing the CPU bound work:
+ * <ul>
+ *   <li>Fetch (I/O bound): checks the crc of the local copy, and downloads the segment from the controller if
+ *   needed</li>
+ *   <li>Load (CPU bound): pre-processes the segment (e.g. generates the inverted indexes and bloom filters) and loads
+ *   it into the instance data manager</li>
+ * </ul>
+ * <p>The state transitions received afterwards find the segments already loaded with the same crc and complete
+ * immediately. The segments failed to be fetched or loaded are skipped, and handled by the state transitions as usual.
+ */
+public class StartupSegmentLoader {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StartupSegmentLoader.class);
+  private static final long PROGRESS_LOG_INTERVAL_MS = 30_000L;
+
+  private final SegmentFetcherAndLoader _fetcherAndLoader;
+  private final InstanceDataManager _instanceDataManager;
+  private final ServerMetrics _serverMetrics;
+  private final int _numFetchThreads;
+  private final int _numLoadThreads;
+
+  public StartupSegmentLoader(SegmentFetcherAndLoader fetcherAndLoader, InstanceDataManager instanceDataManager,
+      ServerMetrics serverMetrics, int numFetchThreads, int numLoadThreads) {
+    Preconditions.checkArgument(numFetchThreads > 0 && numLoadThreads > 0);
+    _fetcherAndLoader = fetcherAndLoader;
+    _instanceDataManager = instanceDataManager;
+    _serverMetrics = serverMetrics;
+    _numFetchThreads = numFetchThreads;
+    _numLoadThreads = numLoadThreads;
+  }
+
+  /**
+   * Loads the given segments, and blocks until all of them are either loaded or failed.
+   *
+   * @param segmentsToLoad Map from OFFLINE table name to the names of the segments to load
+   * @return Number of segments loaded
+   */
+  public int loadSegments(Map<String, List<String>> segmentsToLoad)
+      throws InterruptedException {
+    int numSegmentsToLoad = 0;
+    for (List<String> segments : segmentsToLoad.values()) {
+      numSegmentsToLoad += segments.size();
+    }
+    LOGGER.info("Loading {} segments of {} tables with {} fetch threads and {} load threads", numSegmentsToLoad,
+        segmentsToLoad.size(), _numFetchThreads, _numLoadThreads);
+    long startTimeMs = System.currentTimeMillis();
+    _serverMetrics.setValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_TO_LOAD, numSegmentsToLoad);
+    _serverMetrics.setValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_LOADED, 0L);
+    _serverMetrics.setValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_FAILED, 0L);
+
+    AtomicInteger numSegmentsLoaded = new AtomicInteger();
+    AtomicInteger numSegmentsFailed = new AtomicInteger();
+    CountDownLatch countDownLatch = new CountDownLatch(numSegmentsToLoad);
+    ExecutorService fetchExecutor = Executors.newFixedThreadPool(_numFetchThreads,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("startup-segment-fetcher-%d").build());
+    ExecutorService loadExecutor = Executors.newFixedThreadPool(_numLoadThreads,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("startup-segment-loader-%d").build());
+    try {
+      for (Map.Entry<String, List<String>> entry : segmentsToLoad.entrySet()) {
+        String tableNameWithType = entry.getKey();
+        for (String segmentName : entry.getValue()) {
+          fetchExecutor.submit(() -> {
+            File indexDir;
+            try {
+              indexDir = _fetcherAndLoader.fetchOfflineSegment(tableNameWithType, segmentName);
+            } catch (Exception e) {
+              LOGGER.error("Caught exception while fetching segment: {} of table: {}, skipping it", segmentName,
+                  tableNameWithType, e);
+              _serverMetrics.setValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_FAILED,
+                  numSegmentsFailed.incrementAndGet());
+              countDownLatch.countDown();
+              return;
+            }
+            if (indexDir == null) {
+              // Already loaded
+              _serverMetrics.setValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_LOADED,
+                  numSegmentsLoaded.incrementAndGet());
+              countDownLatch.countDown();
+              return;
+            }
+            loadExecutor.submit(() -> {
+              Lock segmentLock = SegmentLocks.getSegmentLock(tableNameWithType, segmentName);
+              try {
+                segmentLock.lock();
+                _instanceDataManager.addOfflineSegment(tableNameWithType, segmentName, indexDir);
+                _serverMetrics.setValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_LOADED,
+                    numSegmentsLoaded.incrementAndGet());
+              } catch (Exception e) {
+                LOGGER.error("Caught exception while loading segment: {} of table: {}, skipping it", segmentName,
+                    tableNameWithType, e);
+                _serverMetrics.setValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_FAILED,
+                    numSegmentsFailed.incrementAndGet());
+              } finally {
+                segmentLock.unlock();
+                countDownLatch.countDown();
+              }
+            });
+          });
+        }
+      }
+
+      while (!countDownLatch.await(PROGRESS_LOG_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        LOGGER.info("Loaded {}/{} segments ({} failed) in {}ms", numSegmentsLoaded.get(), numSegmentsToLoad,
+            numSegmentsFailed.get(), System.currentTimeMillis() - startTimeMs);
+      }
+    } finally {
+      fetchExecutor.shutdownNow();
+      loadExecutor.shutdownNow();
+    }
+
+    LOGGER.info("Finished loading {}/{} segments ({} failed) in {}ms", numSegmentsLoaded.get(), numSegmentsToLoad,
+        numSegmentsFailed.get(), System.currentTimeMillis() - startTimeMs);
+    return numSegmentsLoaded.get();
+  }
+}
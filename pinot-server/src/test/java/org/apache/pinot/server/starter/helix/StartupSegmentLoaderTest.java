@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.server.starter.helix;
+
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.data.manager.InstanceDataManager;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class StartupSegmentLoaderTest {
+  private static final String TABLE_1 = "table1_OFFLINE";
+  private static final String TABLE_2 = "table2_OFFLINE";
+  private static final int NUM_SEGMENTS_PER_TABLE = 50;
+
+  @Test
+  public void testLoadSegments()
+      throws Exception {
+    Map<String, List<String>> segmentsToLoad = new HashMap<>();
+    for (String table : Arrays.asList(TABLE_1, TABLE_2)) {
+      List<String> segments = new ArrayList<>(NUM_SEGMENTS_PER_TABLE);
+      for (int i = 0; i < NUM_SEGMENTS_PER_TABLE; i++) {
+        segments.add(table + "_" + i);
+      }
+      segmentsToLoad.put(table, segments);
+    }
+
+    // Segment 0 is already loaded, segment 1 fails to be fetched, segment 2 fails to be loaded
+    SegmentFetcherAndLoader fetcherAndLoader = mock(SegmentFetcherAndLoader.class);
+    when(fetcherAndLoader.fetchOfflineSegment(anyString(), anyString())).thenAnswer(invocation -> {
+      String segmentName = invocation.getArgument(1);
+      if (segmentName.endsWith("_0")) {
+        return null;
+      }
+      if (segmentName.endsWith("_1")) {
+        throw new IllegalStateException();
+      }
+      return new File(segmentName);
+    });
+    InstanceDataManager instanceDataManager = mock(InstanceDataManager.class);
+    Set<String> loadedSegments = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    doAnswer(invocation -> {
+      String segmentName = invocation.getArgument(1);
+      if (segmentName.endsWith("_2")) {
+        throw new IllegalStateException();
+      }
+      Assert.assertEquals(((File) invocation.getArgument(2)).getName(), segmentName);
+      Assert.assertTrue(loadedSegments.add(segmentName));
+      return null;
+    }).when(instanceDataManager).addOfflineSegment(anyString(), anyString(), any(File.class));
+
+    ServerMetrics serverMetrics = new ServerMetrics(new MetricsRegistry());
+    StartupSegmentLoader startupSegmentLoader =
+        new StartupSegmentLoader(fetcherAndLoader, instanceDataManager, serverMetrics, 4, 2);
+    int numSegmentsLoaded = startupSegmentLoader.loadSegments(segmentsToLoad);
+
+    int expectedNumSegmentsLoaded = 2 * (NUM_SEGMENTS_PER_TABLE - 2);
+    Assert.assertEquals(numSegmentsLoaded, expectedNumSegmentsLoaded);
+    // Already loaded segments are not loaded again
+    Assert.assertEquals(loadedSegments.size(), expectedNumSegmentsLoaded - 2);
+    Assert.assertFalse(loadedSegments.contains(TABLE_1 + "_0"));
+    Assert.assertEquals(serverMetrics.getValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_TO_LOAD),
+        2 * NUM_SEGMENTS_PER_TABLE);
+    Assert.assertEquals(serverMetrics.getValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_LOADED),
+        expectedNumSegmentsLoaded);
+    Assert.assertEquals(serverMetrics.getValueOfGlobalGauge(ServerGauge.STARTUP_SEGMENTS_FAILED), 4);
+  }
+}